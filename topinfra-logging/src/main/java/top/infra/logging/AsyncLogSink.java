@@ -0,0 +1,351 @@
+package top.infra.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous log sink.
+ * <p/>
+ * Records are put into a bounded lock-free ring buffer by the logging threads and written to their {@link Appender}
+ * by a background (daemon) thread, keeping logging I/O off the caller thread.
+ * At most one sink is installed (process wide), loggers consult {@link #current()} on each write.
+ * Records are written synchronously when no sink is installed or the sink is closed.
+ */
+public final class AsyncLogSink implements AutoCloseable {
+
+    private static final AtomicReference<AsyncLogSink> INSTALLED = new AtomicReference<>();
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10L);
+    private static final long WAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100L);
+
+    private final OverflowPolicy overflowPolicy;
+    private final int mask;
+    /**
+     * Sequence of each slot, see Dmitry Vyukov's bounded MPMC queue.
+     */
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<Record> records;
+    private final AtomicLong enqueuePosition;
+    private final AtomicLong dequeuePosition;
+
+    private final AtomicLong submitted;
+    private final AtomicLong completed;
+    private final AtomicLong dropped;
+
+    private final Thread worker;
+    private volatile boolean idle;
+    private volatile boolean closed;
+
+    private AsyncLogSink(final int capacity, final OverflowPolicy overflowPolicy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException(String.format("capacity must greater than 1, got [%s]", capacity));
+        }
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.overflowPolicy = overflowPolicy != null ? overflowPolicy : OverflowPolicy.BLOCK;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int idx = 0; idx < size; idx++) {
+            this.sequences.set(idx, idx);
+        }
+        this.records = new AtomicReferenceArray<>(size);
+        this.enqueuePosition = new AtomicLong();
+        this.dequeuePosition = new AtomicLong();
+
+        this.submitted = new AtomicLong();
+        this.completed = new AtomicLong();
+        this.dropped = new AtomicLong();
+
+        this.worker = new Thread(this::drain, "topinfra-async-log");
+        this.worker.setDaemon(true);
+        this.idle = false;
+        this.closed = false;
+    }
+
+    /**
+     * Installed sink.
+     *
+     * @return sink, null if not installed
+     */
+    public static AsyncLogSink current() {
+        return INSTALLED.get();
+    }
+
+    /**
+     * Install a sink, the sink already installed (if any) is closed (flushed) first.
+     *
+     * @param capacity       capacity of ring buffer (rounded up to a power of 2)
+     * @param overflowPolicy what to do if ring buffer is full
+     * @return sink installed
+     */
+    public static AsyncLogSink install(final int capacity, final OverflowPolicy overflowPolicy) {
+        final AsyncLogSink sink = new AsyncLogSink(capacity, overflowPolicy);
+        sink.worker.start();
+        final AsyncLogSink previous = INSTALLED.getAndSet(sink);
+        if (previous != null) {
+            previous.close();
+        }
+        return sink;
+    }
+
+    /**
+     * Uninstall and close (flush) the installed sink, records logged after this are written synchronously.
+     *
+     * @return sink uninstalled, null if not installed
+     */
+    public static AsyncLogSink uninstall() {
+        final AsyncLogSink sink = INSTALLED.getAndSet(null);
+        if (sink != null) {
+            sink.close();
+        }
+        return sink;
+    }
+
+    /**
+     * Submit a record.
+     *
+     * @param appender  appender that writes the record
+     * @param level     level
+     * @param message   message
+     * @param throwable throwable, nullable
+     * @return false if sink is closed (caller should write the record by itself)
+     */
+    public boolean submit(
+        final Appender appender,
+        final Logger.Level level,
+        final String message,
+        final Throwable throwable
+    ) {
+        if (this.closed || Thread.currentThread() == this.worker) {
+            return false;
+        }
+
+        final Record record = new Record(appender, level, message, throwable);
+        while (!this.offer(record)) {
+            if (this.closed) {
+                return false;
+            }
+            if (this.overflowPolicy == OverflowPolicy.DROP_OLDEST && isDroppable(this.peekLevel())) {
+                final Record oldest = this.poll();
+                if (oldest != null && isDroppable(oldest.level)) {
+                    this.dropped.incrementAndGet();
+                    this.completed.incrementAndGet();
+                } else if (oldest != null) {
+                    this.write(oldest); // head changed after peek, never drop warn or error
+                }
+            } else if (this.overflowPolicy == OverflowPolicy.DROP_DEBUG && level == Logger.Level.DEBUG) {
+                this.dropped.incrementAndGet();
+                return true;
+            } else {
+                LockSupport.unpark(this.worker);
+                LockSupport.parkNanos(this, WAIT_PARK_NANOS);
+            }
+        }
+        if (this.closed) {
+            // closed after the check above, worker may have exited before the record is offered
+            this.drainRemaining();
+        } else if (this.idle) {
+            LockSupport.unpark(this.worker);
+        }
+        return true;
+    }
+
+    /**
+     * Wait until all records submitted (before this call) are written.
+     *
+     * @param timeoutMillis timeout
+     * @return true if flushed, false if timeout
+     */
+    public boolean flush(final long timeoutMillis) {
+        final long target = this.submitted.get();
+        if (!this.worker.isAlive() || Thread.currentThread() == this.worker) {
+            this.drainRemaining();
+        }
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (this.completed.get() < target) {
+            if (System.nanoTime() - deadline > 0L) {
+                return false;
+            }
+            LockSupport.unpark(this.worker);
+            LockSupport.parkNanos(this, WAIT_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Close the sink, all records submitted are written before return.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        LockSupport.unpark(this.worker);
+        try {
+            this.worker.join(TimeUnit.SECONDS.toMillis(5L));
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        this.drainRemaining();
+    }
+
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return this.overflowPolicy;
+    }
+
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+
+    private void drain() {
+        while (true) {
+            final Record record = this.poll();
+            if (record != null) {
+                this.write(record);
+            } else if (this.closed) {
+                break;
+            } else {
+                this.idle = true;
+                if (this.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                this.idle = false;
+            }
+        }
+    }
+
+    private synchronized void drainRemaining() {
+        Record record;
+        while ((record = this.poll()) != null) {
+            this.write(record);
+        }
+    }
+
+    private void write(final Record record) {
+        try {
+            record.appender.append(record.level, record.message, record.throwable);
+        } catch (final RuntimeException ex) {
+            // keep draining, nothing else we can do.
+        } finally {
+            this.completed.incrementAndGet();
+        }
+    }
+
+    private boolean isEmpty() {
+        return this.dequeuePosition.get() >= this.enqueuePosition.get();
+    }
+
+    private boolean offer(final Record record) {
+        long position = this.enqueuePosition.get();
+        while (true) {
+            final int index = (int) (position & this.mask);
+            final long difference = this.sequences.get(index) - position;
+            if (difference == 0L) {
+                if (this.enqueuePosition.compareAndSet(position, position + 1L)) {
+                    this.submitted.incrementAndGet();
+                    this.records.set(index, record);
+                    this.sequences.set(index, position + 1L);
+                    return true;
+                }
+            } else if (difference < 0L) {
+                return false;
+            }
+            position = this.enqueuePosition.get();
+        }
+    }
+
+    /**
+     * Level of the oldest record, without removing it.
+     *
+     * @return level, null if empty or the oldest record is being taken
+     */
+    private Logger.Level peekLevel() {
+        final long position = this.dequeuePosition.get();
+        final int index = (int) (position & this.mask);
+        if (this.sequences.get(index) != position + 1L) {
+            return null;
+        }
+        final Record record = this.records.get(index);
+        return record != null ? record.level : null;
+    }
+
+    private static boolean isDroppable(final Logger.Level level) {
+        return level == Logger.Level.DEBUG || level == Logger.Level.INFO;
+    }
+
+    private Record poll() {
+        long position = this.dequeuePosition.get();
+        while (true) {
+            final int index = (int) (position & this.mask);
+            final long difference = this.sequences.get(index) - (position + 1L);
+            if (difference == 0L) {
+                if (this.dequeuePosition.compareAndSet(position, position + 1L)) {
+                    final Record record = this.records.getAndSet(index, null);
+                    this.sequences.set(index, position + this.mask + 1L);
+                    return record;
+                }
+            } else if (difference < 0L) {
+                return null;
+            }
+            position = this.dequeuePosition.get();
+        }
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * Wait for free space.
+         */
+        BLOCK,
+        /**
+         * Drop debug records, wait for free space for others.
+         */
+        DROP_DEBUG,
+        /**
+         * Drop oldest debug and info records, wait for free space if the oldest record is a warn or error.
+         */
+        DROP_OLDEST;
+
+        /**
+         * Parse policy name, e.g. 'block', 'drop-debug', 'drop_oldest'.
+         *
+         * @param name name
+         * @return policy
+         * @throws IllegalArgumentException on unknown name
+         */
+        public static OverflowPolicy of(final String name) {
+            return OverflowPolicy.valueOf(name.trim().replace('-', '_').toUpperCase());
+        }
+    }
+
+    /**
+     * Writes records synchronously.
+     */
+    @FunctionalInterface
+    public interface Appender {
+
+        void append(Logger.Level level, String message, Throwable throwable);
+    }
+
+    private static final class Record {
+
+        private final Appender appender;
+        private final Logger.Level level;
+        private final String message;
+        private final Throwable throwable;
+
+        private Record(final Appender appender, final Logger.Level level, final String message, final Throwable throwable) {
+            this.appender = appender;
+            this.level = level;
+            this.message = message;
+            this.throwable = throwable;
+        }
+    }
+}
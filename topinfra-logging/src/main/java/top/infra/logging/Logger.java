@@ -1,28 +1,164 @@
 package top.infra.logging;
 
+import java.util.function.Supplier;
+
+/**
+ * Logger.
+ * <p/>
+ * Besides plain messages, messages can be supplied lazily ({@link Supplier}), as a {@link String#format(String, Object...)}
+ * template with args, or as a structured event with key/value pairs ({@link #event(Level, String, Object...)}).
+ * Lazy forms build nothing if the level is disabled.
+ */
 public interface Logger {
 
+    enum Level {
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR
+    }
+
     void debug(String message);
 
     void debug(String message, Throwable throwable);
 
+    default void debug(final Supplier<String> message) {
+        if (this.isDebugEnabled()) {
+            this.debug(message.get());
+        }
+    }
+
+    default void debug(final String template, final Object arg) {
+        if (this.isDebugEnabled()) {
+            this.debug(String.format(template, arg));
+        }
+    }
+
+    default void debug(final String template, final Object arg1, final Object arg2) {
+        if (this.isDebugEnabled()) {
+            this.debug(String.format(template, arg1, arg2));
+        }
+    }
+
+    default void debug(final String template, final Object... args) {
+        if (this.isDebugEnabled()) {
+            this.debug(String.format(template, args));
+        }
+    }
+
     boolean isDebugEnabled();
 
     void info(String message);
 
     void info(String message, Throwable throwable);
 
+    default void info(final Supplier<String> message) {
+        if (this.isInfoEnabled()) {
+            this.info(message.get());
+        }
+    }
+
+    default void info(final String template, final Object arg) {
+        if (this.isInfoEnabled()) {
+            this.info(String.format(template, arg));
+        }
+    }
+
+    default void info(final String template, final Object arg1, final Object arg2) {
+        if (this.isInfoEnabled()) {
+            this.info(String.format(template, arg1, arg2));
+        }
+    }
+
+    default void info(final String template, final Object... args) {
+        if (this.isInfoEnabled()) {
+            this.info(String.format(template, args));
+        }
+    }
+
     boolean isInfoEnabled();
 
     void warn(String message);
 
     void warn(String message, Throwable throwable);
 
+    default void warn(final Supplier<String> message) {
+        if (this.isWarnEnabled()) {
+            this.warn(message.get());
+        }
+    }
+
+    default void warn(final String template, final Object... args) {
+        if (this.isWarnEnabled()) {
+            this.warn(String.format(template, args));
+        }
+    }
+
     boolean isWarnEnabled();
 
     void error(String message);
 
     void error(String message, Throwable throwable);
 
+    default void error(final Supplier<String> message) {
+        if (this.isErrorEnabled()) {
+            this.error(message.get());
+        }
+    }
+
+    default void error(final String template, final Object... args) {
+        if (this.isErrorEnabled()) {
+            this.error(String.format(template, args));
+        }
+    }
+
     boolean isErrorEnabled();
+
+    default boolean isEnabled(final Level level) {
+        switch (level) {
+            case DEBUG:
+                return this.isDebugEnabled();
+            case INFO:
+                return this.isInfoEnabled();
+            case WARN:
+                return this.isWarnEnabled();
+            default:
+                return this.isErrorEnabled();
+        }
+    }
+
+    default void log(final Level level, final String message) {
+        switch (level) {
+            case DEBUG:
+                this.debug(message);
+                break;
+            case INFO:
+                this.info(message);
+                break;
+            case WARN:
+                this.warn(message);
+                break;
+            default:
+                this.error(message);
+                break;
+        }
+    }
+
+    /**
+     * Log a structured event, rendered as "{indent}{event} key1: [value1], key2: [value2]".
+     *
+     * @param level     level
+     * @param event     event name (leading spaces kept as indent)
+     * @param keyValues key1, value1, key2, value2...
+     */
+    default void event(final Level level, final String event, final Object... keyValues) {
+        if (this.isEnabled(level)) {
+            final StringBuilder sb = new StringBuilder(event.length() + keyValues.length * 16).append(event);
+            for (int idx = 0; idx < keyValues.length; idx += 2) {
+                sb.append(idx == 0 ? " " : ", ").append(keyValues[idx]).append(": [");
+                sb.append(idx + 1 < keyValues.length ? keyValues[idx + 1] : null).append(']');
+            }
+            this.log(level, sb.toString());
+        }
+    }
 }
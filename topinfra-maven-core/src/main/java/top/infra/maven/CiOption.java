@@ -18,20 +18,16 @@ public interface CiOption {
     }
 
     default String envVariableName(final String propertyName) {
-        final String envVarPrefix = this.getEnvVariablePrefix();
-        final String name = name(propertyName);
-        final String result;
-        if (envVarPrefix == null || envVarPrefix.isEmpty()) {
-            result = name;
-        } else {
-            // result = name.startsWith("CI_OPT_") ? name : "CI_OPT_" + name;
-            result = name.startsWith(envVarPrefix) ? name : envVarPrefix + name;
-        }
-        return result;
+        return CiOptionNames.envVariableName(this.getEnvVariablePrefix(), propertyName);
     }
 
     default Optional<String> findInProperties(final CiOptionContext context) {
-        return this.findInProperties(this.getPropertyName(), context);
+        final String propertyName = this.getPropertyName();
+        final String systemPropertyName = this.getSystemPropertyName();
+        final Optional<String> systemProperty = Optional.ofNullable(context.getSystemProperties().getProperty(systemPropertyName));
+        return systemProperty.isPresent()
+            ? systemProperty
+            : Optional.ofNullable(context.getUserProperties().getProperty(propertyName));
     }
 
     default Optional<String> findInProperties(
@@ -64,7 +60,8 @@ public interface CiOption {
     Optional<String> getDefaultValue();
 
     default String getEnvVariableName() {
-        return this.envVariableName(this.getPropertyName());
+        final CiOptionNames.Names names = CiOptionNames.names(this);
+        return names != null ? names.getEnvVariableName() : this.envVariableName(this.getPropertyName());
     }
 
     default String getEnvVariablePrefix() {
@@ -74,7 +71,8 @@ public interface CiOption {
     String getPropertyName();
 
     default String getSystemPropertyName() {
-        return this.systemPropertyName(this.getPropertyName());
+        final CiOptionNames.Names names = CiOptionNames.names(this);
+        return names != null ? names.getSystemPropertyName() : this.systemPropertyName(this.getPropertyName());
     }
 
     /**
@@ -84,21 +82,19 @@ public interface CiOption {
      * @return Optional value
      */
     default Optional<String> getValue(final CiOptionContext context) {
-        final Optional<String> foundInProperties = this.findInProperties(context);
-        final Optional<String> value = foundInProperties.isPresent()
-            ? foundInProperties
-            : this.calculateValue(context);
-        return value.isPresent() ? value : this.getDefaultValue();
+        return context.resolveValue(this, ctx -> {
+            final Optional<String> foundInProperties = this.findInProperties(ctx);
+            final Optional<String> value = foundInProperties.isPresent()
+                ? foundInProperties
+                : this.calculateValue(ctx);
+            return value.isPresent() ? value : this.getDefaultValue();
+        });
     }
 
     String name();
 
     default String name(final String propertyName) {
-        final boolean propertyNameEmpty = propertyName == null || propertyName.isEmpty();
-        if (propertyNameEmpty) {
-            throw new IllegalArgumentException("propertyName must not empty");
-        }
-        return propertyName.replaceAll("-", "").replaceAll("\\.", "_").toUpperCase();
+        return CiOptionNames.name(propertyName);
     }
 
     /**
@@ -123,8 +119,10 @@ public interface CiOption {
 
             result = foundInProperties;
         } else { // not found in properties
-            final Optional<String> calculated = this.calculateValue(context);
-            final String propertyValue = calculated.orElseGet(() -> this.getDefaultValue().orElse(null));
+            // getValue (evaluated once per context) equals calculated or default value unless overridden.
+            final String propertyValue = CiOptionOverrides.overridesGetValue(this)
+                ? this.calculateValue(context).orElseGet(() -> this.getDefaultValue().orElse(null))
+                : this.getValue(context).orElse(null);
             if (propertyValue != null) {
                 properties.setProperty(this.getPropertyName(), propertyValue);
             }
@@ -136,6 +134,6 @@ public interface CiOption {
     }
 
     default String systemPropertyName(final String propertyName) {
-        return String.format("env.%s", this.envVariableName(propertyName));
+        return CiOptionNames.systemPropertyName(this.envVariableName(propertyName));
     }
 }
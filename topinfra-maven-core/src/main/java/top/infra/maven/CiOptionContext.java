@@ -2,7 +2,9 @@ package top.infra.maven;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.function.Function;
 
 public interface CiOptionContext {
 
@@ -10,6 +12,21 @@ public interface CiOptionContext {
 
     Properties getUserProperties();
 
+    /**
+     * Resolve value of option, called by {@link CiOption#getValue(CiOptionContext)}.
+     * Implementations may memoize the result.
+     *
+     * @param option   option
+     * @param resolver resolves value by reading this context
+     * @return Optional value
+     */
+    default Optional<String> resolveValue(
+        final CiOption option,
+        final Function<CiOptionContext, Optional<String>> resolver
+    ) {
+        return resolver.apply(this);
+    }
+
     Properties setCiOptPropertiesInto(
         Collection<List<CiOption>> optionGroups,
         Properties... targetProperties
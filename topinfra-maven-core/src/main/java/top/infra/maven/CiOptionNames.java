@@ -0,0 +1,203 @@
+package top.infra.maven;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of option names.
+ * <p/>
+ * Options are registered once (at startup) with their property name, env variable name and system property name
+ * precomputed, and can be looked up by any of these names.
+ * Name mangling of (not registered) property names is cached, {@link CiOption} defaults are served from here.
+ */
+public final class CiOptionNames {
+
+    private static final String SYSTEM_PROPERTY_PREFIX = "env.";
+
+    /**
+     * propertyName to name (upper case).
+     */
+    private static final Map<String, String> NAMES = new ConcurrentHashMap<>();
+    /**
+     * envVariablePrefix to (propertyName to envVariableName).
+     */
+    private static final Map<String, Map<String, String>> ENV_VARIABLE_NAMES = new ConcurrentHashMap<>();
+    /**
+     * envVariableName to systemPropertyName.
+     */
+    private static final Map<String, String> SYSTEM_PROPERTY_NAMES = new ConcurrentHashMap<>();
+
+    private static final Map<CiOption, Names> OPTIONS = new ConcurrentHashMap<>();
+    private static final Map<String, CiOption> BY_PROPERTY_NAME = new ConcurrentHashMap<>();
+    private static final Map<String, CiOption> BY_ENV_VARIABLE_NAME = new ConcurrentHashMap<>();
+    private static final Map<String, CiOption> BY_SYSTEM_PROPERTY_NAME = new ConcurrentHashMap<>();
+
+    private CiOptionNames() {
+    }
+
+    /**
+     * Register options, options already registered are ignored.
+     * Nothing is registered if any option is invalid.
+     *
+     * @param options options
+     * @throws IllegalArgumentException if name of an option does not match its property name, or property name
+     *                                  / env variable name of an option is already used by another option
+     */
+    public static synchronized void register(final Collection<? extends CiOption> options) {
+        final Map<CiOption, Names> candidates = new LinkedHashMap<>();
+        final Map<String, CiOption> byPropertyName = new LinkedHashMap<>();
+        final Map<String, CiOption> byEnvVariableName = new LinkedHashMap<>();
+        for (final CiOption option : options) {
+            if (OPTIONS.containsKey(option) || candidates.containsKey(option)) {
+                continue;
+            }
+
+            final String propertyName = option.getPropertyName();
+            if (!option.name().equals(option.name(propertyName))) {
+                throw new IllegalArgumentException(String.format(
+                    "invalid property name [%s] for enum name [%s]", option.name(), propertyName));
+            }
+
+            final Names names = new Names(
+                propertyName,
+                option.envVariableName(propertyName),
+                option.systemPropertyName(propertyName)
+            );
+            checkCollision("property name", names.getPropertyName(), option, BY_PROPERTY_NAME, byPropertyName);
+            checkCollision("env variable name", names.getEnvVariableName(), option, BY_ENV_VARIABLE_NAME, byEnvVariableName);
+            byPropertyName.put(names.getPropertyName(), option);
+            byEnvVariableName.put(names.getEnvVariableName(), option);
+            candidates.put(option, names);
+        }
+
+        candidates.forEach((option, names) -> {
+            BY_PROPERTY_NAME.put(names.getPropertyName(), option);
+            BY_ENV_VARIABLE_NAME.put(names.getEnvVariableName(), option);
+            BY_SYSTEM_PROPERTY_NAME.put(names.getSystemPropertyName(), option);
+            OPTIONS.put(option, names);
+        });
+    }
+
+    private static void checkCollision(
+        final String kind,
+        final String name,
+        final CiOption option,
+        final Map<String, CiOption> registered,
+        final Map<String, CiOption> candidates
+    ) {
+        final CiOption found = Optional.ofNullable(registered.get(name)).orElseGet(() -> candidates.get(name));
+        if (found != null && !found.equals(option)) {
+            throw new IllegalArgumentException(String.format(
+                "%s [%s] of option [%s] collides with option [%s]", kind, name, displayName(option), displayName(found)));
+        }
+    }
+
+    private static String displayName(final CiOption option) {
+        final Class<?> type = option instanceof Enum ? ((Enum<?>) option).getDeclaringClass() : option.getClass();
+        return type.getName() + "." + option.name();
+    }
+
+    public static Optional<CiOption> findByEnvVariableName(final String envVariableName) {
+        return Optional.ofNullable(BY_ENV_VARIABLE_NAME.get(envVariableName));
+    }
+
+    public static Optional<CiOption> findByPropertyName(final String propertyName) {
+        return Optional.ofNullable(BY_PROPERTY_NAME.get(propertyName));
+    }
+
+    public static Optional<CiOption> findBySystemPropertyName(final String systemPropertyName) {
+        return Optional.ofNullable(BY_SYSTEM_PROPERTY_NAME.get(systemPropertyName));
+    }
+
+    /**
+     * Precomputed names of a registered option.
+     *
+     * @param option option
+     * @return names, null if option not registered
+     */
+    static Names names(final CiOption option) {
+        return OPTIONS.get(option);
+    }
+
+    /**
+     * Same as propertyName.replaceAll("-", "").replaceAll("\\.", "_").toUpperCase(), cached.
+     *
+     * @param propertyName property name, not empty
+     * @return name
+     * @throws IllegalArgumentException if propertyName is empty
+     */
+    static String name(final String propertyName) {
+        if (propertyName == null || propertyName.isEmpty()) {
+            throw new IllegalArgumentException("propertyName must not empty");
+        }
+        final String found = NAMES.get(propertyName);
+        return found != null ? found : NAMES.computeIfAbsent(propertyName, CiOptionNames::mangle);
+    }
+
+    private static String mangle(final String propertyName) {
+        final StringBuilder sb = new StringBuilder(propertyName.length());
+        for (int idx = 0; idx < propertyName.length(); idx++) {
+            final char c = propertyName.charAt(idx);
+            if (c == '.') {
+                sb.append('_');
+            } else if (c != '-') {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toUpperCase();
+    }
+
+    static String envVariableName(final String envVariablePrefix, final String propertyName) {
+        final String prefix = envVariablePrefix != null ? envVariablePrefix : "";
+        final Map<String, String> names = ENV_VARIABLE_NAMES.computeIfAbsent(prefix, key -> new ConcurrentHashMap<>());
+        final String found = names.get(propertyName);
+        return found != null ? found : names.computeIfAbsent(propertyName, key -> {
+            final String name = name(key);
+            return prefix.isEmpty() || name.startsWith(prefix) ? name : prefix + name;
+        });
+    }
+
+    /**
+     * System property name of propertyName with the default {@link CiOption#systemPropertyName(String)}, cached.
+     *
+     * @param envVariablePrefix env variable prefix
+     * @param propertyName      property name
+     * @return system property name
+     */
+    public static String systemPropertyName(final String envVariablePrefix, final String propertyName) {
+        return systemPropertyName(envVariableName(envVariablePrefix, propertyName));
+    }
+
+    static String systemPropertyName(final String envVariableName) {
+        final String found = SYSTEM_PROPERTY_NAMES.get(envVariableName);
+        return found != null ? found : SYSTEM_PROPERTY_NAMES.computeIfAbsent(envVariableName, key -> SYSTEM_PROPERTY_PREFIX + key);
+    }
+
+    static final class Names {
+
+        private final String propertyName;
+        private final String envVariableName;
+        private final String systemPropertyName;
+
+        Names(final String propertyName, final String envVariableName, final String systemPropertyName) {
+            this.propertyName = propertyName;
+            this.envVariableName = envVariableName;
+            this.systemPropertyName = systemPropertyName;
+        }
+
+        String getEnvVariableName() {
+            return this.envVariableName;
+        }
+
+        String getPropertyName() {
+            return this.propertyName;
+        }
+
+        String getSystemPropertyName() {
+            return this.systemPropertyName;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package top.infra.maven;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whether an option overrides default methods of {@link CiOption}, cached per class.
+ */
+final class CiOptionOverrides {
+
+    private static final Map<Class<?>, Boolean> GET_VALUE = new ConcurrentHashMap<>();
+
+    private CiOptionOverrides() {
+    }
+
+    /**
+     * Whether {@link CiOption#getValue(CiOptionContext)} is overridden.
+     * If not, its value is the value found in properties, else calculated value, else default value.
+     *
+     * @param option option
+     * @return overridden
+     */
+    static boolean overridesGetValue(final CiOption option) {
+        return GET_VALUE.computeIfAbsent(option.getClass(), type -> {
+            try {
+                return type.getMethod("getValue", CiOptionContext.class).getDeclaringClass() != CiOption.class;
+            } catch (final NoSuchMethodException ex) {
+                return true;
+            }
+        });
+    }
+}
@@ -1,5 +1,8 @@
 package top.infra.maven.extension;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.apache.maven.cli.CliRequest;
 import org.apache.maven.eventspy.EventSpy.Context;
 import org.apache.maven.execution.MavenExecutionRequest;
@@ -33,6 +36,28 @@ public interface MavenEventAware extends Ordered {
         // no-op
     }
 
+    /**
+     * Names of properties/resources this handler consumes on {@link #afterInit(CliRequest, CiOptionContext)}.
+     * <p/>
+     * Handlers declaring neither consumes nor produces run strictly in {@link #getOrder()} sequence.
+     *
+     * @return names consumed
+     */
+    default Collection<String> consumes() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Names of properties/resources this handler produces on {@link #afterInit(CliRequest, CiOptionContext)}.
+     * <p/>
+     * Handlers with no conflicting names may run concurrently.
+     *
+     * @return names produced
+     */
+    default Collection<String> produces() {
+        return Collections.emptySet();
+    }
+
     default boolean onSettingsBuildingRequest() {
         return false;
     }
@@ -134,4 +159,17 @@ public interface MavenEventAware extends Ordered {
     ) {
         // no-op
     }
+
+    default boolean onSessionEnd() {
+        return false;
+    }
+
+    /**
+     * On session end (event spy closed), e.g. to report statistics or release resources.
+     *
+     * @param ciOptContext ciOptContext, nullable if session failed before options were initialized
+     */
+    default void onSessionEnd(final CiOptionContext ciOptContext) {
+        // no-op
+    }
 }
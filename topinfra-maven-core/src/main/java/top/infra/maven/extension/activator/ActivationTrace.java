@@ -0,0 +1,80 @@
+package top.infra.maven.extension.activator;
+
+import java.io.File;
+
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.profile.ProfileActivationContext;
+
+/**
+ * Records why profiles are (not) activated for each module and what custom activation costs.
+ * <p/>
+ * Counters are always kept, decisions are recorded only if {@link #isEnabled()}.
+ */
+public interface ActivationTrace {
+
+    enum ModelSource {
+        /**
+         * Resolved before in this session.
+         */
+        MEMORY,
+        /**
+         * Restored from persistent cache.
+         */
+        PERSISTENT_CACHE,
+        /**
+         * Built by ModelBuilder.
+         */
+        MODEL_BUILDER,
+        /**
+         * Model building failed.
+         */
+        FAILED
+    }
+
+    boolean isEnabled();
+
+    /**
+     * Model of a pom.xml resolved for custom activators.
+     *
+     * @param pomFile pom.xml
+     * @param source  where the model comes from
+     * @param nanos   time spent
+     */
+    void onModelResolved(File pomFile, ModelSource source, long nanos);
+
+    /**
+     * A custom activator evaluated a profile.
+     *
+     * @param context    context
+     * @param profile    profile
+     * @param activator  activator name
+     * @param result     result
+     * @param mementoHit result was cached by activator
+     * @param nanos      time spent (including model resolution)
+     */
+    void onActivator(
+        ProfileActivationContext context,
+        Profile profile,
+        String activator,
+        boolean result,
+        boolean mementoHit,
+        long nanos
+    );
+
+    /**
+     * Final decision on a profile.
+     *
+     * @param context       context
+     * @param profile       profile
+     * @param defaultActive activated by default (maven) activators
+     * @param custom        custom activators applied to it
+     * @param active        activated
+     */
+    void onProfile(
+        ProfileActivationContext context,
+        Profile profile,
+        boolean defaultActive,
+        boolean custom,
+        boolean active
+    );
+}
@@ -5,5 +5,22 @@ import org.apache.maven.model.profile.activation.ProfileActivator;
 
 public interface CustomActivator extends ProfileActivator {
 
+    /**
+     * Relative cost of {@link #isActive}, activators applicable to the same profile run cheapest first.
+     */
+    int COST_DEFAULT = 100;
+
+    /**
+     * Whether this activator applies to the profile.
+     * <p/>
+     * Result must depend on profile id only, it is indexed by profile id and reused across modules.
+     *
+     * @param profile profile
+     * @return supported
+     */
     boolean supported(Profile profile);
+
+    default int getCost() {
+        return COST_DEFAULT;
+    }
 }
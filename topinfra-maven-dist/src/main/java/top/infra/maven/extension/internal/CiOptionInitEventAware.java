@@ -1,12 +1,18 @@
 package top.infra.maven.extension.internal;
 
 import static java.util.stream.Collectors.toMap;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_CI_OPTIONS;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_CI_OPTS_PROPERTIES;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_GIT_PROPERTIES;
 import static top.infra.maven.shared.utils.PropertiesUtils.PATTERN_VARS_ENV_DOT_CI;
 import static top.infra.maven.shared.utils.PropertiesUtils.logProperties;
 import static top.infra.maven.shared.utils.SupportFunction.logEnd;
 import static top.infra.maven.shared.utils.SupportFunction.logStart;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,9 +27,11 @@ import org.apache.maven.cli.CliRequest;
 
 import top.infra.logging.Logger;
 import top.infra.maven.CiOption;
+import top.infra.maven.CiOptionNames;
 import top.infra.maven.CiOptionContext;
 import top.infra.maven.extension.CiOptionFactory;
 import top.infra.maven.extension.MavenEventAware;
+import top.infra.maven.shared.CachingCiOptionContext;
 import top.infra.maven.shared.extension.Orders;
 import top.infra.maven.shared.logging.LoggerPlexusImpl;
 import top.infra.maven.shared.utils.PropertiesUtils;
@@ -51,6 +59,8 @@ public class CiOptionInitEventAware implements MavenEventAware {
                 (e1, e2) -> e1,
                 LinkedHashMap::new
             ));
+        // precompute names and detect collisions at startup
+        this.optionCollections.values().forEach(CiOptionNames::register);
     }
 
     @Override
@@ -66,13 +76,23 @@ public class CiOptionInitEventAware implements MavenEventAware {
         this.initCiOptions(ciOptContext);
     }
 
+    @Override
+    public Collection<String> consumes() {
+        return Arrays.asList(RESOURCE_CI_OPTS_PROPERTIES, RESOURCE_GIT_PROPERTIES);
+    }
+
+    @Override
+    public Collection<String> produces() {
+        return Collections.singletonList(RESOURCE_CI_OPTIONS);
+    }
+
     @Override
     public int getOrder() {
         return Orders.ORDER_CI_OPTION_INIT;
     }
 
     private void initCiOptions(final CiOptionContext ciOptContext) {
-        logger.info(logStart(this, "initCiOptions"));
+        logger.info(() -> logStart(this, "initCiOptions"));
 
         final Properties userProperties = ciOptContext.getUserProperties();
         // write all ciOpt properties into userProperties
@@ -105,6 +125,12 @@ public class CiOptionInitEventAware implements MavenEventAware {
             logProperties(logger, "    ciOptionContext.userProperties", userProperties, null);
         }
 
-        logger.info(logEnd(this, "initCiOptions", Void.TYPE));
+        if (ciOptContext instanceof CachingCiOptionContext) {
+            final CachingCiOptionContext cachingCiOptContext = (CachingCiOptionContext) ciOptContext;
+            logger.debug("    ciOptionContext evaluation order:%n%s", cachingCiOptContext.evaluationReport());
+            logger.info(() -> String.format("    ciOptionContext cache %s", cachingCiOptContext.statistics()));
+        }
+
+        logger.info(() -> logEnd(this, "initCiOptions", Void.TYPE));
     }
 }
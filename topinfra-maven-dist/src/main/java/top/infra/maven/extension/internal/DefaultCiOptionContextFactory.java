@@ -10,7 +10,7 @@ import top.infra.logging.Logger;
 import top.infra.maven.CiOptionContext;
 import top.infra.maven.extension.CiOptionContextFactory;
 import top.infra.maven.extension.MavenEventAware;
-import top.infra.maven.shared.DefaultCiOptionContext;
+import top.infra.maven.shared.CachingCiOptionContext;
 import top.infra.maven.shared.extension.Orders;
 import top.infra.maven.shared.logging.LoggerPlexusImpl;
 import top.infra.maven.shared.utils.MavenUtils;
@@ -42,7 +42,7 @@ public class DefaultCiOptionContextFactory implements CiOptionContextFactory, Ma
 
     @Override
     public void onInit(final Context context) {
-        this.ciOptContext = new DefaultCiOptionContext(
+        this.ciOptContext = new CachingCiOptionContext(
             MavenUtils.systemProperties(context),
             MavenUtils.userProperties(context)
         );
@@ -0,0 +1,77 @@
+package top.infra.maven.extension.internal;
+
+import static java.lang.Boolean.FALSE;
+import static top.infra.maven.shared.extension.GlobalOption.ACTIVATOR_MODEL_PRERESOLVE;
+
+import java.io.File;
+import java.util.Properties;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+import top.infra.logging.Logger;
+import top.infra.maven.extension.internal.activator.model.ProjectBuilderActivatorModelResolver;
+import top.infra.maven.shared.extension.activator.model.ReactorPreResolver;
+import top.infra.maven.shared.logging.LoggerPlexusImpl;
+
+/**
+ * Pre-resolve models of all reactor modules at session start (before project discovery), see {@link ReactorPreResolver}.
+ * <p/>
+ * Repository session is not available on ProjectBuildingRequest event, so this is done here instead of
+ * {@link ModelResolverEventAware}.
+ */
+@Named
+@Singleton
+public class ModelPreResolutionParticipant extends AbstractMavenLifecycleParticipant {
+
+    private final Logger logger;
+
+    private final ProjectBuilderActivatorModelResolver resolver;
+
+    @Inject
+    public ModelPreResolutionParticipant(
+        final org.codehaus.plexus.logging.Logger logger,
+        final ProjectBuilderActivatorModelResolver resolver
+    ) {
+        this.logger = new LoggerPlexusImpl(logger);
+        this.resolver = resolver;
+    }
+
+    @Override
+    public void afterSessionStart(final MavenSession session) {
+        final Properties systemProperties = session.getSystemProperties();
+        final Properties userProperties = session.getUserProperties();
+        final boolean preResolve = ACTIVATOR_MODEL_PRERESOLVE
+            .findInProperties(ACTIVATOR_MODEL_PRERESOLVE.getPropertyName(), systemProperties, userProperties)
+            .map(Boolean::parseBoolean)
+            .orElseGet(() -> ACTIVATOR_MODEL_PRERESOLVE.getDefaultValue().map(Boolean::parseBoolean).orElse(FALSE));
+        final MavenExecutionRequest request = session.getRequest();
+        if (!preResolve || request == null || !request.isProjectPresent()) {
+            return;
+        }
+
+        final File rootPom = request.getPom() != null
+            ? request.getPom()
+            : new File(request.getBaseDirectory(), "pom.xml");
+        if (!rootPom.isFile()) {
+            return;
+        }
+
+        // sets repository session into projectBuildingRequest
+        this.resolver.setProjectBuildingRequest(session.getProjectBuildingRequest());
+
+        final int parallelism = request.getDegreeOfConcurrency() > 1
+            ? request.getDegreeOfConcurrency()
+            : Runtime.getRuntime().availableProcessors();
+        final long start = System.nanoTime();
+        final int resolved = new ReactorPreResolver(this.logger, this.resolver, parallelism)
+            .preResolve(rootPom, systemProperties, userProperties);
+        logger.info("    pre-resolved [%s] module models in [%s] ms, parallelism [%s]",
+            resolved, (System.nanoTime() - start) / 1000000L, parallelism);
+    }
+}
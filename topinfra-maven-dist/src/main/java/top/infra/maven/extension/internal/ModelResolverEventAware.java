@@ -1,5 +1,17 @@
 package top.infra.maven.extension.internal;
 
+import static java.lang.Boolean.FALSE;
+import static top.infra.maven.shared.extension.GlobalOption.ACTIVATOR_MODEL_CACHE;
+import static top.infra.maven.shared.extension.GlobalOption.ACTIVATOR_MODEL_CACHE_SIZE;
+import static top.infra.maven.shared.extension.GlobalOption.ACTIVATOR_MODEL_SLIM;
+import static top.infra.maven.shared.extension.GlobalOption.REACTOR_MODEL_CACHE_SIZE;
+import static top.infra.maven.shared.extension.MavenOption.MAVEN_USER_HOME;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Properties;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -11,9 +23,13 @@ import org.apache.maven.project.ProjectBuildingRequest;
 import top.infra.logging.Logger;
 import top.infra.maven.CiOptionContext;
 import top.infra.maven.extension.MavenEventAware;
+import top.infra.maven.extension.activator.ActivationTrace;
+import top.infra.maven.extension.activator.CustomActivator;
 import top.infra.maven.extension.internal.activator.model.ProjectBuilderActivatorModelResolver;
 import top.infra.maven.shared.extension.Orders;
+import top.infra.maven.shared.extension.activator.model.PersistentModelCache;
 import top.infra.maven.shared.logging.LoggerPlexusImpl;
+import top.infra.maven.shared.utils.MavenUtils;
 
 @Named
 @Singleton
@@ -23,13 +39,21 @@ public class ModelResolverEventAware implements MavenEventAware {
 
     protected final ProjectBuilderActivatorModelResolver resolver;
 
+    protected final ActivationTrace activationTrace;
+
+    protected final List<CustomActivator> customActivators;
+
     @Inject
     public ModelResolverEventAware(
         final org.codehaus.plexus.logging.Logger logger,
-        final ProjectBuilderActivatorModelResolver resolver
+        final ProjectBuilderActivatorModelResolver resolver,
+        final ActivationTrace activationTrace,
+        final List<CustomActivator> customActivators
     ) {
         this.logger = new LoggerPlexusImpl(logger);
         this.resolver = resolver;
+        this.activationTrace = activationTrace;
+        this.customActivators = customActivators;
     }
 
     @Override
@@ -50,5 +74,44 @@ public class ModelResolverEventAware implements MavenEventAware {
         final CiOptionContext ciOptContext
     ) {
         this.resolver.setProjectBuildingRequest(projectBuilding);
+        this.resolver.setActivationTrace(this.activationTrace);
+
+        final Properties systemProperties = projectBuilding.getSystemProperties();
+        final Properties userProperties = projectBuilding.getUserProperties();
+        this.resolver.setSlimModel(ACTIVATOR_MODEL_SLIM
+            .findInProperties(ACTIVATOR_MODEL_SLIM.getPropertyName(), systemProperties, userProperties)
+            .map(Boolean::parseBoolean)
+            .orElseGet(() -> ACTIVATOR_MODEL_SLIM.getDefaultValue().map(Boolean::parseBoolean).orElse(FALSE)));
+        this.resolver.setModelCacheSize(Integer.parseInt(REACTOR_MODEL_CACHE_SIZE
+            .findInProperties(REACTOR_MODEL_CACHE_SIZE.getPropertyName(), systemProperties, userProperties)
+            .orElseGet(() -> REACTOR_MODEL_CACHE_SIZE.getDefaultValue().orElse("512"))));
+
+        final boolean persistentCache = ACTIVATOR_MODEL_CACHE
+            .findInProperties(ACTIVATOR_MODEL_CACHE.getPropertyName(), systemProperties, userProperties)
+            .map(Boolean::parseBoolean)
+            .orElseGet(() -> ACTIVATOR_MODEL_CACHE.getDefaultValue().map(Boolean::parseBoolean).orElse(FALSE));
+        if (persistentCache && !this.resolver.getPersistentModelCache().isPresent()) {
+            final int maxEntries = Integer.parseInt(ACTIVATOR_MODEL_CACHE_SIZE
+                .findInProperties(ACTIVATOR_MODEL_CACHE_SIZE.getPropertyName(), systemProperties, userProperties)
+                .orElseGet(() -> ACTIVATOR_MODEL_CACHE_SIZE.getDefaultValue().orElse("2048")));
+            final String home = MAVEN_USER_HOME
+                .findInProperties(MAVEN_USER_HOME.getPropertyName(), systemProperties, userProperties)
+                .orElseGet(() -> MavenUtils.userHomeDotM2().toString());
+            // Next to (not in) the per session directories (see cache.session.path), so it survives sessions.
+            final Path file = Paths.get(home, ".ci-and-cd", "sessions", "activator-model-cache.bin");
+            this.resolver.setPersistentModelCache(new PersistentModelCache(this.logger, file, maxEntries,
+                profile -> this.customActivators.stream().anyMatch(activator -> activator.supported(profile))));
+            logger.info("    activator model cache [%s], max entries [%s]", file, maxEntries);
+        }
+    }
+
+    @Override
+    public boolean onSessionEnd() {
+        return true;
+    }
+
+    @Override
+    public void onSessionEnd(final CiOptionContext ciOptContext) {
+        logger.info("    reactor model cache %s", this.resolver.getModelCacheStatistics());
     }
 }
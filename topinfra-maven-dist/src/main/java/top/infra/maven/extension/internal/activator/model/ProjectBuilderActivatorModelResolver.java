@@ -8,11 +8,11 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.apache.maven.RepositoryUtils;
+import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.artifact.repository.LegacyLocalRepositoryManager;
 import org.apache.maven.model.building.DefaultModelBuildingRequest;
 import org.apache.maven.model.building.ModelBuilder;
 import org.apache.maven.model.building.ModelBuildingRequest;
-import org.apache.maven.model.building.ModelCache;
 import org.apache.maven.model.profile.ProfileActivationContext;
 import org.apache.maven.model.resolution.ModelResolver;
 import org.apache.maven.project.ProjectBuildingRequest;
@@ -28,13 +28,15 @@ import top.infra.maven.shared.extension.activator.model.AbstractActivatorModelRe
 @Singleton
 public class ProjectBuilderActivatorModelResolver extends AbstractActivatorModelResolver {
 
-    private final ModelCache modelCache;
+    private final ReactorModelCache modelCache;
 
     private final RemoteRepositoryManager repositoryManager;
 
     private final org.eclipse.aether.RepositorySystem repositorySystem;
 
-    private ProjectBuildingRequest projectBuildingRequest;
+    private volatile ProjectBuildingRequest projectBuildingRequest;
+
+    private volatile RequestScope requestScope;
 
     @Inject
     public ProjectBuilderActivatorModelResolver(
@@ -53,29 +55,22 @@ public class ProjectBuilderActivatorModelResolver extends AbstractActivatorModel
 
     @Override
     protected ModelBuildingRequest modelBuildingRequest(final ProfileActivationContext context, final File pomFile) {
-        final RepositorySystemSession session = LegacyLocalRepositoryManager.overlay(
-            this.projectBuildingRequest.getLocalRepository(), this.projectBuildingRequest.getRepositorySession(), this.repositorySystem);
+        final RequestScope scope = this.requestScope();
 
         final ModelBuildingRequest modelBuildingRequest = new DefaultModelBuildingRequest();
 
-        final RequestTrace trace = RequestTrace.newChild(null, this.projectBuildingRequest).newChild(modelBuildingRequest);
-        final List<RemoteRepository> repositories = RepositoryUtils.toRepos(this.projectBuildingRequest.getRemoteRepositories());
-        final ModelResolver modelResolver = new ProjectModelResolver(session, trace, this.repositorySystem,
-            this.repositoryManager, repositories,
-            this.projectBuildingRequest.getRepositoryMerging(),
-            null);
-
         // modelBuildingRequest.setActiveProfileIds(this.projectBuildingRequest.getActiveProfileIds());
-        modelBuildingRequest.setBuildStartTime(this.projectBuildingRequest.getBuildStartTime());
+        modelBuildingRequest.setBuildStartTime(scope.projectBuildingRequest.getBuildStartTime());
         // modelBuildingRequest.setInactiveProfileIds(this.projectBuildingRequest.getInactiveProfileIds());
         modelBuildingRequest.setLocationTracking(false);
-        modelBuildingRequest.setModelResolver(modelResolver);
+        // ProjectModelResolver collects repositories declared in poms, so each build gets its own copy.
+        modelBuildingRequest.setModelResolver(scope.modelResolver.newCopy());
         modelBuildingRequest.setPomFile(pomFile);
         // modelBuildingRequest.setProcessPlugins(this.projectBuildingRequest.isProcessPlugins());
         // modelBuildingRequest.setProfiles(this.projectBuildingRequest.getProfiles());
-        modelBuildingRequest.setSystemProperties(this.projectBuildingRequest.getSystemProperties());
-        modelBuildingRequest.setUserProperties(this.projectBuildingRequest.getUserProperties());
-        modelBuildingRequest.setValidationLevel(this.projectBuildingRequest.getValidationLevel());
+        modelBuildingRequest.setSystemProperties(scope.projectBuildingRequest.getSystemProperties());
+        modelBuildingRequest.setUserProperties(scope.projectBuildingRequest.getUserProperties());
+        modelBuildingRequest.setValidationLevel(scope.projectBuildingRequest.getValidationLevel());
 
         // java.lang.IllegalAccessError: tried to access class org.apache.maven.project.ReactorModelCache from class
         modelBuildingRequest.setModelCache(this.modelCache);
@@ -83,7 +78,87 @@ public class ProjectBuilderActivatorModelResolver extends AbstractActivatorModel
         return modelBuildingRequest;
     }
 
+    /**
+     * Session, trace, repositories and model resolver of current projectBuildingRequest, built once per request.
+     * <p/>
+     * Repository session is set into projectBuildingRequest after it is handed to us, so rebuilt if it
+     * (or local/remote repositories) changes.
+     *
+     * @return request scope
+     */
+    private RequestScope requestScope() {
+        final ProjectBuildingRequest request = this.projectBuildingRequest;
+        final RequestScope scope = this.requestScope;
+        if (scope != null && scope.isScopeOf(request)) {
+            return scope;
+        }
+
+        synchronized (this) {
+            final RequestScope current = this.requestScope;
+            if (current != null && current.isScopeOf(request)) {
+                return current;
+            }
+            final RequestScope created = new RequestScope(request, this.repositorySystem, this.repositoryManager);
+            this.requestScope = created;
+            return created;
+        }
+    }
+
+    /**
+     * Statistics of the in memory model cache.
+     *
+     * @return hits, misses, evictions etc.
+     */
+    public String getModelCacheStatistics() {
+        return this.modelCache.statistics();
+    }
+
+    /**
+     * Max strongly referenced entries of the in memory model cache.
+     *
+     * @param maxEntries max entries
+     */
+    public void setModelCacheSize(final int maxEntries) {
+        this.modelCache.setMaxEntries(maxEntries);
+    }
+
     public void setProjectBuildingRequest(final ProjectBuildingRequest projectBuildingRequest) {
         this.projectBuildingRequest = projectBuildingRequest;
     }
+
+    private static final class RequestScope {
+
+        private final ProjectBuildingRequest projectBuildingRequest;
+        private final RepositorySystemSession repositorySession;
+        private final ArtifactRepository localRepository;
+        private final List<ArtifactRepository> remoteRepositories;
+        private final ModelResolver modelResolver;
+
+        RequestScope(
+            final ProjectBuildingRequest projectBuildingRequest,
+            final org.eclipse.aether.RepositorySystem repositorySystem,
+            final RemoteRepositoryManager repositoryManager
+        ) {
+            this.projectBuildingRequest = projectBuildingRequest;
+            this.repositorySession = projectBuildingRequest.getRepositorySession();
+            this.localRepository = projectBuildingRequest.getLocalRepository();
+            this.remoteRepositories = projectBuildingRequest.getRemoteRepositories();
+
+            final RepositorySystemSession session = LegacyLocalRepositoryManager.overlay(
+                this.localRepository, this.repositorySession, repositorySystem);
+            final RequestTrace trace = RequestTrace.newChild(null, projectBuildingRequest);
+            final List<RemoteRepository> repositories = RepositoryUtils.toRepos(this.remoteRepositories);
+            this.modelResolver = new ProjectModelResolver(session, trace, repositorySystem,
+                repositoryManager, repositories,
+                projectBuildingRequest.getRepositoryMerging(),
+                null);
+        }
+
+        boolean isScopeOf(final ProjectBuildingRequest request) {
+            return this.projectBuildingRequest == request
+                && this.repositorySession == request.getRepositorySession()
+                && this.localRepository == request.getLocalRepository()
+                && this.remoteRepositories == request.getRemoteRepositories();
+        }
+    }
 }
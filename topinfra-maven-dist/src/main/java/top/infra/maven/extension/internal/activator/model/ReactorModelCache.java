@@ -1,25 +1,169 @@
 package top.infra.maven.extension.internal.activator.model;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.maven.model.building.ModelCache;
 
 /**
  * A simple model cache used to accelerate model building during a reactor build.
+ * <p/>
+ * The resolver (and this cache) lives as long as the JVM (e.g. maven daemon, IDE import), so it is bounded:
+ * at most {@link #getMaxEntries()} entries are strongly referenced, least recently used entries beyond that are
+ * kept softly referenced and are collected under memory pressure.
  *
  * @author Benjamin Bentmann
  */
 class ReactorModelCache implements ModelCache {
 
-    private final Map<CacheKey, Object> models = new ConcurrentHashMap<>(256);
+    static final int DEFAULT_MAX_ENTRIES = 512;
+
+    private final Map<CacheKey, Object> models = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final Map<CacheKey, SoftValue> evicted = new HashMap<>(256);
+
+    private final ReferenceQueue<Object> collectedValues = new ReferenceQueue<>();
+
+    private int maxEntries;
+
+    private long hits;
+
+    private long softHits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long collected;
+
+    ReactorModelCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    ReactorModelCache(final int maxEntries) {
+        this.setMaxEntries(maxEntries);
+    }
 
     public void put(String groupId, String artifactId, String version, String tag, Object data) {
-        models.put(new CacheKey(groupId, artifactId, version, tag), data);
+        final CacheKey key = new CacheKey(groupId, artifactId, version, tag);
+        synchronized (this) {
+            this.expunge();
+            this.evicted.remove(key);
+            this.models.put(key, data);
+            this.evict();
+        }
     }
 
     public Object get(String groupId, String artifactId, String version, String tag) {
-        return models.get(new CacheKey(groupId, artifactId, version, tag));
+        final CacheKey key = new CacheKey(groupId, artifactId, version, tag);
+        synchronized (this) {
+            this.expunge();
+            final Object data = this.models.get(key);
+            if (data != null) {
+                this.hits++;
+                return data;
+            }
+
+            final SoftValue softValue = this.evicted.remove(key);
+            final Object softData = softValue != null ? softValue.get() : null;
+            if (softData != null) {
+                this.softHits++;
+                this.models.put(key, softData);
+                this.evict();
+            } else {
+                this.misses++;
+            }
+            return softData;
+        }
+    }
+
+    public synchronized int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    /**
+     * Max strongly referenced entries.
+     *
+     * @param maxEntries max entries, least recently used entries beyond it are softly referenced
+     */
+    public synchronized void setMaxEntries(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException(String.format("maxEntries must greater than 0, got [%s]", maxEntries));
+        }
+        this.maxEntries = maxEntries;
+        this.evict();
+    }
+
+    public synchronized int size() {
+        return this.models.size();
+    }
+
+    public synchronized int softSize() {
+        this.expunge();
+        return this.evicted.size();
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getSoftHits() {
+        return this.softHits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    public synchronized long getCollected() {
+        this.expunge();
+        return this.collected;
+    }
+
+    public synchronized String statistics() {
+        this.expunge();
+        return String.format(
+            "entries [%s/%s], soft entries [%s], hits [%s], soft hits [%s], misses [%s], evictions [%s], collected [%s]",
+            this.models.size(), this.maxEntries, this.evicted.size(),
+            this.hits, this.softHits, this.misses, this.evictions, this.collected);
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<CacheKey, Object>> iterator = this.models.entrySet().iterator();
+        while (this.models.size() > this.maxEntries && iterator.hasNext()) {
+            final Map.Entry<CacheKey, Object> eldest = iterator.next();
+            iterator.remove();
+            this.evicted.put(eldest.getKey(), new SoftValue(eldest.getKey(), eldest.getValue(), this.collectedValues));
+            this.evictions++;
+        }
+    }
+
+    private void expunge() {
+        SoftValue softValue;
+        while ((softValue = (SoftValue) this.collectedValues.poll()) != null) {
+            if (this.evicted.get(softValue.key) == softValue) {
+                this.evicted.remove(softValue.key);
+                this.collected++;
+            }
+        }
+    }
+
+    private static final class SoftValue extends SoftReference<Object> {
+
+        private final CacheKey key;
+
+        SoftValue(final CacheKey key, final Object value, final ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.key = key;
+        }
     }
 
     private static final class CacheKey {
@@ -191,7 +191,7 @@ public class RepositoryModelResolver implements ModelResolver {
             final String sourceUrl = repoUrl + filePath;
 
             final Path path = localRepoFile.toPath().normalize();
-            final Entry<Optional<Integer>, Optional<Exception>> result = DownloadUtils.download(
+            final Entry<Optional<Integer>, Optional<Exception>> result = DownloadUtils.downloadVerified(
                 logger, sourceUrl, path, emptyMap(), 3);
             final Optional<Integer> status = result.getKey();
             final Optional<Exception> error = result.getValue();
@@ -0,0 +1,176 @@
+package top.infra.maven.extension.internal.activator.model;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.maven.RepositoryUtils;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.ArtifactRepositoryPolicy;
+import org.apache.maven.artifact.repository.LegacyLocalRepositoryManager;
+import org.apache.maven.artifact.repository.MavenArtifactRepository;
+import org.apache.maven.artifact.repository.layout.DefaultRepositoryLayout;
+import org.apache.maven.model.building.DefaultModelBuilderFactory;
+import org.apache.maven.model.building.DefaultModelBuildingRequest;
+import org.apache.maven.model.building.ModelBuilder;
+import org.apache.maven.model.building.ModelBuildingRequest;
+import org.apache.maven.model.resolution.ModelResolver;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.ProjectModelResolver;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.impl.DefaultServiceLocator;
+import org.eclipse.aether.impl.RemoteRepositoryManager;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rough measurement (no JMH here) of the per activation cost of {@link ProjectBuilderActivatorModelResolver},
+ * numbers are logged, nothing is asserted.
+ * <p/>
+ * Not run by default (surefire includes *Test.java), run by:
+ * mvn test -pl topinfra-maven-dist -am -Dtest=ProjectBuilderActivatorModelResolverBenchmark -DfailIfNoTests=false
+ */
+public class ProjectBuilderActivatorModelResolverBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectBuilderActivatorModelResolverBenchmark.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ModelBuilder modelBuilder;
+    private RepositorySystem repositorySystem;
+    private RemoteRepositoryManager repositoryManager;
+    private DefaultProjectBuildingRequest projectBuildingRequest;
+    private ProjectBuilderActivatorModelResolver resolver;
+
+    @Before
+    public void setUp() throws Exception {
+        final DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
+        this.repositorySystem = locator.getService(RepositorySystem.class);
+        this.repositoryManager = locator.getService(RemoteRepositoryManager.class);
+        this.modelBuilder = new DefaultModelBuilderFactory().newInstance();
+
+        this.projectBuildingRequest = new DefaultProjectBuildingRequest();
+        this.projectBuildingRequest.setRepositorySession(this.newSession());
+        final List<ArtifactRepository> remoteRepositories = new ArrayList<>();
+        for (final String id : new String[]{"central", "ossrh-nexus2-snapshots", "private-nexus3-releases"}) {
+            final ArtifactRepositoryPolicy policy = new ArtifactRepositoryPolicy();
+            remoteRepositories.add(new MavenArtifactRepository(
+                id, "https://" + id + ".example.com/maven2", new DefaultRepositoryLayout(), policy, policy));
+        }
+        this.projectBuildingRequest.setRemoteRepositories(remoteRepositories);
+        this.projectBuildingRequest.setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL);
+
+        this.resolver = new ProjectBuilderActivatorModelResolver(
+            new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "test"),
+            this.modelBuilder, this.repositoryManager, this.repositorySystem);
+        this.resolver.setProjectBuildingRequest(this.projectBuildingRequest);
+    }
+
+    private RepositorySystemSession newSession() throws Exception {
+        final DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
+        session.setLocalRepositoryManager(this.repositorySystem.newLocalRepositoryManager(
+            session, new LocalRepository(this.temporaryFolder.newFolder())));
+        return session;
+    }
+
+    /**
+     * Time and bytes allocated per activation (model building request) of building session, trace, repositories and
+     * model resolver per request against once per projectBuildingRequest.
+     */
+    @Test
+    public void benchmarkPerActivationCost() throws Exception {
+        final List<File> poms = this.reactor(200);
+        final int profiles = 4;
+        final Function<File, ModelBuildingRequest> perActivation = this::legacyModelBuildingRequest;
+        final Function<File, ModelBuildingRequest> perRequest = pomFile -> this.resolver.modelBuildingRequest(null, pomFile);
+
+        // warm up
+        measure(poms, profiles, perActivation);
+        measure(poms, profiles, perRequest);
+
+        final long[] legacy = measure(poms, profiles, perActivation);
+        final long[] reused = measure(poms, profiles, perRequest);
+        final int activations = poms.size() * profiles;
+        logger.info("{} activations, per activation: {} ns, {} bytes. once per request: {} ns, {} bytes.",
+            activations, legacy[0] / activations, legacy[1] / activations, reused[0] / activations, reused[1] / activations);
+    }
+
+    private static long[] measure(final List<File> poms, final int profiles, final Function<File, ModelBuildingRequest> factory) {
+        final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        final boolean allocationSupported = threadMXBean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported();
+        final long threadId = Thread.currentThread().getId();
+
+        final long allocatedStart = allocationSupported
+            ? ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(threadId) : 0L;
+        final long start = System.nanoTime();
+        for (int profile = 0; profile < profiles; profile++) {
+            for (final File pomFile : poms) {
+                factory.apply(pomFile);
+            }
+        }
+        final long nanos = System.nanoTime() - start;
+        final long allocated = allocationSupported
+            ? ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(threadId) - allocatedStart : -1L;
+        return new long[]{nanos, allocated};
+    }
+
+    /**
+     * What ProjectBuilderActivatorModelResolver did per activation before.
+     */
+    private ModelBuildingRequest legacyModelBuildingRequest(final File pomFile) {
+        final RepositorySystemSession session = LegacyLocalRepositoryManager.overlay(
+            this.projectBuildingRequest.getLocalRepository(), this.projectBuildingRequest.getRepositorySession(), this.repositorySystem);
+
+        final ModelBuildingRequest modelBuildingRequest = new DefaultModelBuildingRequest();
+
+        final RequestTrace trace = RequestTrace.newChild(null, this.projectBuildingRequest).newChild(modelBuildingRequest);
+        final List<RemoteRepository> repositories = RepositoryUtils.toRepos(this.projectBuildingRequest.getRemoteRepositories());
+        final ModelResolver modelResolver = new ProjectModelResolver(session, trace, this.repositorySystem,
+            this.repositoryManager, repositories,
+            this.projectBuildingRequest.getRepositoryMerging(),
+            null);
+
+        modelBuildingRequest.setBuildStartTime(this.projectBuildingRequest.getBuildStartTime());
+        modelBuildingRequest.setLocationTracking(false);
+        modelBuildingRequest.setModelResolver(modelResolver);
+        modelBuildingRequest.setPomFile(pomFile);
+        modelBuildingRequest.setSystemProperties(this.projectBuildingRequest.getSystemProperties());
+        modelBuildingRequest.setUserProperties(this.projectBuildingRequest.getUserProperties());
+        modelBuildingRequest.setValidationLevel(this.projectBuildingRequest.getValidationLevel());
+        return modelBuildingRequest;
+    }
+
+    private List<File> reactor(final int modules) throws Exception {
+        final List<File> poms = new ArrayList<>();
+        for (int idx = 0; idx < modules; idx++) {
+            final File pomFile = new File(this.temporaryFolder.newFolder(), "pom.xml");
+            final String pom = "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "    <modelVersion>4.0.0</modelVersion>\n"
+                + "    <groupId>top.infra.test</groupId>\n"
+                + "    <artifactId>module-" + idx + "</artifactId>\n"
+                + "    <version>1.0.0</version>\n"
+                + "    <packaging>pom</packaging>\n"
+                + "</project>\n";
+            Files.write(pomFile.toPath(), pom.getBytes(StandardCharsets.UTF_8));
+            poms.add(pomFile);
+        }
+        return poms;
+    }
+}
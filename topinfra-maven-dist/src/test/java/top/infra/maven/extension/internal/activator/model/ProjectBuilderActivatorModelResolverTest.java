@@ -0,0 +1,110 @@
+package top.infra.maven.extension.internal.activator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.ArtifactRepositoryPolicy;
+import org.apache.maven.artifact.repository.MavenArtifactRepository;
+import org.apache.maven.artifact.repository.layout.DefaultRepositoryLayout;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.building.DefaultModelBuilderFactory;
+import org.apache.maven.model.building.ModelBuilder;
+import org.apache.maven.model.building.ModelBuildingRequest;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.impl.DefaultServiceLocator;
+import org.eclipse.aether.impl.RemoteRepositoryManager;
+import org.eclipse.aether.repository.LocalRepository;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProjectBuilderActivatorModelResolverTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ModelBuilder modelBuilder;
+    private RepositorySystem repositorySystem;
+    private RemoteRepositoryManager repositoryManager;
+    private DefaultProjectBuildingRequest projectBuildingRequest;
+    private ProjectBuilderActivatorModelResolver resolver;
+
+    @Before
+    public void setUp() throws Exception {
+        final DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
+        this.repositorySystem = locator.getService(RepositorySystem.class);
+        this.repositoryManager = locator.getService(RemoteRepositoryManager.class);
+        this.modelBuilder = new DefaultModelBuilderFactory().newInstance();
+
+        this.projectBuildingRequest = new DefaultProjectBuildingRequest();
+        this.projectBuildingRequest.setRepositorySession(this.newSession());
+        final List<ArtifactRepository> remoteRepositories = new ArrayList<>();
+        for (final String id : new String[]{"central", "ossrh-nexus2-snapshots", "private-nexus3-releases"}) {
+            final ArtifactRepositoryPolicy policy = new ArtifactRepositoryPolicy();
+            remoteRepositories.add(new MavenArtifactRepository(
+                id, "https://" + id + ".example.com/maven2", new DefaultRepositoryLayout(), policy, policy));
+        }
+        this.projectBuildingRequest.setRemoteRepositories(remoteRepositories);
+        this.projectBuildingRequest.setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL);
+
+        this.resolver = new ProjectBuilderActivatorModelResolver(
+            new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "test"),
+            this.modelBuilder, this.repositoryManager, this.repositorySystem);
+        this.resolver.setProjectBuildingRequest(this.projectBuildingRequest);
+    }
+
+    private RepositorySystemSession newSession() throws Exception {
+        final DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
+        session.setLocalRepositoryManager(this.repositorySystem.newLocalRepositoryManager(
+            session, new LocalRepository(this.temporaryFolder.newFolder())));
+        return session;
+    }
+
+    @Test
+    public void testModelResolverCopiedPerBuild() throws Exception {
+        final List<File> poms = this.reactor(3);
+        final ModelBuildingRequest first = this.resolver.modelBuildingRequest(null, poms.get(0));
+        final ModelBuildingRequest second = this.resolver.modelBuildingRequest(null, poms.get(1));
+        assertNotSame(first.getModelResolver(), second.getModelResolver());
+
+        for (final File pomFile : poms) {
+            final Model model = this.modelBuilder.build(this.resolver.modelBuildingRequest(null, pomFile)).getEffectiveModel();
+            assertEquals("top.infra.test", model.getGroupId());
+        }
+
+        // repository session is set into request later by maven, scope should follow it
+        this.projectBuildingRequest.setRepositorySession(this.newSession());
+        final Model model = this.modelBuilder.build(this.resolver.modelBuildingRequest(null, poms.get(2))).getEffectiveModel();
+        assertEquals("module-2", model.getArtifactId());
+    }
+
+    private List<File> reactor(final int modules) throws Exception {
+        final List<File> poms = new ArrayList<>();
+        for (int idx = 0; idx < modules; idx++) {
+            final File pomFile = new File(this.temporaryFolder.newFolder(), "pom.xml");
+            final String pom = "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "    <modelVersion>4.0.0</modelVersion>\n"
+                + "    <groupId>top.infra.test</groupId>\n"
+                + "    <artifactId>module-" + idx + "</artifactId>\n"
+                + "    <version>1.0.0</version>\n"
+                + "    <packaging>pom</packaging>\n"
+                + "</project>\n";
+            Files.write(pomFile.toPath(), pom.getBytes(StandardCharsets.UTF_8));
+            poms.add(pomFile);
+        }
+        return poms;
+    }
+}
@@ -0,0 +1,65 @@
+package top.infra.maven.extension.internal.activator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ReactorModelCacheTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactorModelCacheTest.class);
+
+    @Test
+    public void testLeastRecentlyUsedSoftlyReferenced() {
+        final ReactorModelCache cache = new ReactorModelCache(2);
+        final Object a = new Object();
+        final Object b = new Object();
+        final Object c = new Object();
+
+        cache.put("top.infra", "a", "1.0.0", "raw", a);
+        cache.put("top.infra", "b", "1.0.0", "raw", b);
+        assertSame(a, cache.get("top.infra", "a", "1.0.0", "raw"));
+        cache.put("top.infra", "c", "1.0.0", "raw", c);
+        // b is least recently used
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.softSize());
+        assertEquals(1L, cache.getEvictions());
+
+        // strongly held by this test, so not collected, promoted back on access
+        assertSame(b, cache.get("top.infra", "b", "1.0.0", "raw"));
+        assertEquals(1L, cache.getSoftHits());
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.softSize());
+        assertEquals(2L, cache.getEvictions());
+
+        assertNull(cache.get("top.infra", "d", "1.0.0", "raw"));
+        assertNull(cache.get("top.infra", "a", "1.0.0", "effective"));
+        assertEquals(2L, cache.getMisses());
+        assertEquals(1L, cache.getHits());
+
+        cache.setMaxEntries(1);
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.softSize());
+        logger.info("reactor model cache {}", cache.statistics());
+    }
+
+    @Test
+    public void testBounded() {
+        final int maxEntries = 64;
+        final ReactorModelCache cache = new ReactorModelCache(maxEntries);
+        for (int idx = 0; idx < 10000; idx++) {
+            cache.put("top.infra", "module-" + idx, "1.0.0", "raw", new byte[1024]);
+        }
+        assertEquals(maxEntries, cache.size());
+        assertEquals(10000L - maxEntries, cache.getEvictions());
+        logger.info("reactor model cache {}", cache.statistics());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxEntries() {
+        new ReactorModelCache(0);
+    }
+}
@@ -9,6 +9,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import top.infra.maven.CiOption;
+import top.infra.maven.CiOptionNames;
 
 public class OptionCollectionsTest {
 
@@ -21,5 +22,7 @@ public class OptionCollectionsTest {
         optionCollections.forEach(it -> log.info("optionCollections: {}", it));
 
         assertEquals(2, optionCollections.size());
+        // no name collisions
+        optionCollections.forEach(CiOptionNames::register);
     }
 }
@@ -0,0 +1,374 @@
+package top.infra.maven.extension.main;
+
+import static java.lang.Boolean.FALSE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static top.infra.maven.extension.main.EventAwareProfiler.jsonEscape;
+import static top.infra.maven.extension.main.MavenBuildExtensionOption.ACTIVATION_TRACE;
+import static top.infra.maven.extension.main.MavenBuildExtensionOption.CACHE_SESSION_PATH;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.cli.CliRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.profile.ProfileActivationContext;
+import org.apache.maven.project.ProjectBuildingRequest;
+
+import top.infra.logging.Logger;
+import top.infra.maven.CiOptionContext;
+import top.infra.maven.extension.MavenEventAware;
+import top.infra.maven.extension.activator.ActivationTrace;
+import top.infra.maven.shared.extension.Orders;
+import top.infra.maven.shared.logging.LoggerPlexusImpl;
+import top.infra.maven.shared.utils.FileUtils;
+
+/**
+ * Keeps activation counters of a session and (if {@link MavenBuildExtensionOption#ACTIVATION_TRACE}) decisions of
+ * each module and profile: default activators result, each custom activator result (and whether its memento was hit),
+ * model resolution source and time.
+ * <p/>
+ * Counters are logged and trace is written as {@link #FILE_TRACE} into session cache dir on session end.
+ */
+@Named
+@Singleton
+public class DefaultActivationTrace implements ActivationTrace, MavenEventAware {
+
+    public static final String FILE_TRACE = "activation-trace.json";
+
+    private static final String MISSING = "<missing>";
+
+    private final Logger logger;
+
+    private volatile boolean enabled;
+
+    private final LongAdder profiles;
+    private final LongAdder customProfiles;
+    private final LongAdder activated;
+    private final LongAdder activatorEvaluations;
+    private final LongAdder mementoHits;
+    private final LongAdder activatorNanos;
+    private final Map<ModelSource, LongAdder> modelResolutions;
+    private final LongAdder modelNanos;
+
+    /**
+     * Module directory to its trace.
+     */
+    private final ConcurrentMap<String, ModuleTrace> modules;
+
+    @Inject
+    public DefaultActivationTrace(final org.codehaus.plexus.logging.Logger logger) {
+        this.logger = new LoggerPlexusImpl(logger);
+
+        this.enabled = false;
+        this.profiles = new LongAdder();
+        this.customProfiles = new LongAdder();
+        this.activated = new LongAdder();
+        this.activatorEvaluations = new LongAdder();
+        this.mementoHits = new LongAdder();
+        this.activatorNanos = new LongAdder();
+        this.modelResolutions = new EnumMap<>(ModelSource.class);
+        for (final ModelSource source : ModelSource.values()) {
+            this.modelResolutions.put(source, new LongAdder());
+        }
+        this.modelNanos = new LongAdder();
+        this.modules = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void onModelResolved(final File pomFile, final ModelSource source, final long nanos) {
+        this.modelResolutions.get(source).increment();
+        this.modelNanos.add(nanos);
+
+        if (this.enabled && pomFile != null) {
+            final ModuleTrace module = this.module(pomFile.getParentFile());
+            synchronized (module) {
+                module.models.add(new ModelRecord(source, nanos));
+            }
+        }
+    }
+
+    @Override
+    public void onActivator(
+        final ProfileActivationContext context,
+        final Profile profile,
+        final String activator,
+        final boolean result,
+        final boolean mementoHit,
+        final long nanos
+    ) {
+        this.activatorEvaluations.increment();
+        this.activatorNanos.add(nanos);
+        if (mementoHit) {
+            this.mementoHits.increment();
+        }
+
+        if (this.enabled) {
+            final ModuleTrace module = this.module(context.getProjectDirectory());
+            synchronized (module) {
+                module.profile(profile.getId()).activators.add(new ActivatorRecord(activator, result, mementoHit, nanos));
+            }
+        }
+    }
+
+    @Override
+    public void onProfile(
+        final ProfileActivationContext context,
+        final Profile profile,
+        final boolean defaultActive,
+        final boolean custom,
+        final boolean active
+    ) {
+        this.profiles.increment();
+        if (custom) {
+            this.customProfiles.increment();
+        }
+        if (active) {
+            this.activated.increment();
+        }
+
+        if (this.enabled) {
+            final ModuleTrace module = this.module(context.getProjectDirectory());
+            synchronized (module) {
+                final ProfileTrace trace = module.profile(profile.getId());
+                trace.defaultActive = defaultActive;
+                trace.custom = custom;
+                trace.active = active;
+            }
+        }
+    }
+
+    private ModuleTrace module(final File directory) {
+        final String key = directory != null ? directory.getAbsolutePath() : MISSING;
+        return this.modules.computeIfAbsent(key, ModuleTrace::new);
+    }
+
+    public long getModelResolutions(final ModelSource source) {
+        return this.modelResolutions.get(source).sum();
+    }
+
+    public long getMementoHits() {
+        return this.mementoHits.sum();
+    }
+
+    public long getProfiles() {
+        return this.profiles.sum();
+    }
+
+    public String summary() {
+        return String.format("profiles evaluated [%s], custom activated [%s], activated [%s], "
+                + "activator evaluations [%s], memento hits [%s], activator time [%s ms], "
+                + "models resolved [%s] (memory [%s], persistent cache [%s], ModelBuilder invocations [%s], failed [%s]), "
+                + "model resolution time [%s ms]",
+            this.profiles.sum(), this.customProfiles.sum(), this.activated.sum(),
+            this.activatorEvaluations.sum(), this.mementoHits.sum(), this.activatorNanos.sum() / 1000000L,
+            this.modelResolutions.values().stream().mapToLong(LongAdder::sum).sum(),
+            this.getModelResolutions(ModelSource.MEMORY),
+            this.getModelResolutions(ModelSource.PERSISTENT_CACHE),
+            this.getModelResolutions(ModelSource.MODEL_BUILDER),
+            this.getModelResolutions(ModelSource.FAILED),
+            this.modelNanos.sum() / 1000000L);
+    }
+
+    public String toJson() {
+        final List<ModuleTrace> snapshot = new ArrayList<>(this.modules.values());
+        snapshot.sort((a, b) -> a.directory.compareTo(b.directory));
+
+        final StringBuilder sb = new StringBuilder(512 + snapshot.size() * 1024);
+        sb.append("{\"summary\":{")
+            .append("\"profilesEvaluated\":").append(this.profiles.sum())
+            .append(",\"customProfiles\":").append(this.customProfiles.sum())
+            .append(",\"profilesActivated\":").append(this.activated.sum())
+            .append(",\"activatorEvaluations\":").append(this.activatorEvaluations.sum())
+            .append(",\"mementoHits\":").append(this.mementoHits.sum())
+            .append(",\"activatorMicros\":").append(this.activatorNanos.sum() / 1000L)
+            .append(",\"modelResolutions\":{");
+        final ModelSource[] sources = ModelSource.values();
+        for (int idx = 0; idx < sources.length; idx++) {
+            sb.append(idx > 0 ? "," : "").append('"').append(sources[idx]).append("\":").append(this.getModelResolutions(sources[idx]));
+        }
+        sb.append("},\"modelMicros\":").append(this.modelNanos.sum() / 1000L)
+            .append("},\n\"modules\":[");
+
+        for (int idx = 0; idx < snapshot.size(); idx++) {
+            final ModuleTrace module = snapshot.get(idx);
+            synchronized (module) {
+                sb.append(idx > 0 ? "," : "").append("\n{\"module\":\"").append(jsonEscape(module.directory)).append("\",\"models\":[");
+                for (int model = 0; model < module.models.size(); model++) {
+                    final ModelRecord it = module.models.get(model);
+                    sb.append(model > 0 ? "," : "")
+                        .append("{\"source\":\"").append(it.source).append("\",\"micros\":").append(it.nanos / 1000L).append('}');
+                }
+                sb.append("],\"profiles\":[");
+                int profile = 0;
+                for (final ProfileTrace it : module.profiles.values()) {
+                    sb.append(profile++ > 0 ? "," : "").append("\n  {\"id\":\"").append(jsonEscape(it.id)).append('"')
+                        .append(",\"defaultActive\":").append(it.defaultActive)
+                        .append(",\"custom\":").append(it.custom)
+                        .append(",\"active\":").append(it.active)
+                        .append(",\"activators\":[");
+                    for (int activator = 0; activator < it.activators.size(); activator++) {
+                        final ActivatorRecord record = it.activators.get(activator);
+                        sb.append(activator > 0 ? "," : "")
+                            .append("{\"name\":\"").append(jsonEscape(record.name)).append('"')
+                            .append(",\"result\":").append(record.result)
+                            .append(",\"mementoHit\":").append(record.mementoHit)
+                            .append(",\"micros\":").append(record.nanos / 1000L).append('}');
+                    }
+                    sb.append("]}");
+                }
+                sb.append("]}");
+            }
+        }
+        sb.append("\n]}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Write {@link #FILE_TRACE} into directory.
+     *
+     * @param directory directory (e.g. session cache dir)
+     * @return file written
+     */
+    public Path writeReport(final Path directory) {
+        FileUtils.createDirectories(directory.toString());
+        final Path file = directory.resolve(FILE_TRACE);
+        FileUtils.writeFile(file, this.toJson().getBytes(UTF_8));
+        return file;
+    }
+
+    public void reset() {
+        this.profiles.reset();
+        this.customProfiles.reset();
+        this.activated.reset();
+        this.activatorEvaluations.reset();
+        this.mementoHits.reset();
+        this.activatorNanos.reset();
+        this.modelResolutions.values().forEach(LongAdder::reset);
+        this.modelNanos.reset();
+        this.modules.clear();
+    }
+
+    @Override
+    public int getOrder() {
+        return Orders.EVENT_AWARE_ORDER_MODEL_RESOLVER;
+    }
+
+    @Override
+    public boolean onProjectBuildingRequest() {
+        return true;
+    }
+
+    @Override
+    public void onProjectBuildingRequest(
+        final CliRequest cliRequest,
+        final MavenExecutionRequest mavenExecution,
+        final ProjectBuildingRequest projectBuilding,
+        final CiOptionContext ciOptContext
+    ) {
+        // singleton may live longer than a session (e.g. maven daemon).
+        this.reset();
+        this.setEnabled(ACTIVATION_TRACE
+            .findInProperties(ACTIVATION_TRACE.getPropertyName(), projectBuilding.getSystemProperties(), projectBuilding.getUserProperties())
+            .map(Boolean::parseBoolean)
+            .orElseGet(() -> ACTIVATION_TRACE.getDefaultValue().map(Boolean::parseBoolean).orElse(FALSE)));
+    }
+
+    @Override
+    public boolean onSessionEnd() {
+        return true;
+    }
+
+    @Override
+    public void onSessionEnd(final CiOptionContext ciOptContext) {
+        if (this.profiles.sum() == 0L) {
+            return;
+        }
+
+        logger.info("    profile activation %s", this.summary());
+        if (this.enabled && ciOptContext != null) {
+            final Optional<String> sessionPath = CACHE_SESSION_PATH.getValue(ciOptContext);
+            sessionPath.ifPresent(path -> logger.info("    activation trace written [%s]", this.writeReport(Paths.get(path))));
+        }
+    }
+
+    private static final class ModuleTrace {
+
+        private final String directory;
+        private final Map<String, ProfileTrace> profiles;
+        private final List<ModelRecord> models;
+
+        ModuleTrace(final String directory) {
+            this.directory = directory;
+            this.profiles = new LinkedHashMap<>();
+            this.models = new ArrayList<>();
+        }
+
+        ProfileTrace profile(final String id) {
+            return this.profiles.computeIfAbsent(id, ProfileTrace::new);
+        }
+    }
+
+    private static final class ProfileTrace {
+
+        private final String id;
+        private final List<ActivatorRecord> activators;
+        private Boolean defaultActive;
+        private Boolean custom;
+        private Boolean active;
+
+        ProfileTrace(final String id) {
+            this.id = id;
+            this.activators = new ArrayList<>();
+        }
+    }
+
+    private static final class ActivatorRecord {
+
+        private final String name;
+        private final boolean result;
+        private final boolean mementoHit;
+        private final long nanos;
+
+        ActivatorRecord(final String name, final boolean result, final boolean mementoHit, final long nanos) {
+            this.name = name;
+            this.result = result;
+            this.mementoHit = mementoHit;
+            this.nanos = nanos;
+        }
+    }
+
+    private static final class ModelRecord {
+
+        private final ModelSource source;
+        private final long nanos;
+
+        ModelRecord(final ModelSource source, final long nanos) {
+            this.source = source;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package top.infra.maven.extension.main;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static top.infra.maven.shared.utils.SupportFunction.componentName;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import top.infra.maven.extension.MavenEventAware;
+import top.infra.maven.shared.utils.FileUtils;
+import top.infra.maven.shared.utils.SupportFunction;
+
+/**
+ * Records wall time, cpu time and allocated bytes of each {@link MavenEventAware} handler invocation
+ * dispatched by {@link MainEventSpy}.
+ * <p/>
+ * A disabled profiler just invokes handlers, nothing is measured or recorded.
+ * Report is written as chrome trace events (open with chrome://tracing) and a plain text summary.
+ */
+public class EventAwareProfiler {
+
+    public static final String FILE_TRACE = "startup-profile.json";
+    public static final String FILE_SUMMARY = "startup-profile.txt";
+
+    private static final EventAwareProfiler DISABLED = new EventAwareProfiler(false);
+
+    private final boolean enabled;
+    private final long startNanos;
+    private final ThreadMXBean threadMXBean;
+    private final boolean cpuTimeSupported;
+    private final boolean allocatedBytesSupported;
+    private final List<Record> records;
+
+    private EventAwareProfiler(final boolean enabled) {
+        this.enabled = enabled;
+        this.startNanos = System.nanoTime();
+        this.threadMXBean = enabled ? ManagementFactory.getThreadMXBean() : null;
+        this.cpuTimeSupported = enabled && this.threadMXBean.isCurrentThreadCpuTimeSupported();
+        this.allocatedBytesSupported = enabled && allocatedBytesSupported(this.threadMXBean);
+        this.records = enabled ? Collections.synchronizedList(new ArrayList<>()) : Collections.emptyList();
+    }
+
+    public static EventAwareProfiler newProfiler(final boolean enabled) {
+        return enabled ? new EventAwareProfiler(true) : DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Invoke action on each handler (in order), measure each invocation if enabled.
+     *
+     * @param event    event name
+     * @param handlers handlers of event
+     * @param action   action
+     */
+    public void dispatch(
+        final String event,
+        final List<MavenEventAware> handlers,
+        final Consumer<MavenEventAware> action
+    ) {
+        if (!this.enabled) {
+            handlers.forEach(action);
+            return;
+        }
+
+        for (final MavenEventAware handler : handlers) {
+            this.invoke(event, handler, action);
+        }
+    }
+
+    /**
+     * Invoke action on handler, measure the invocation if enabled.
+     * May be called concurrently, measurements are per thread.
+     *
+     * @param event   event name
+     * @param handler handler
+     * @param action  action
+     */
+    public void invoke(
+        final String event,
+        final MavenEventAware handler,
+        final Consumer<MavenEventAware> action
+    ) {
+        if (!this.enabled) {
+            action.accept(handler);
+            return;
+        }
+
+        final long tid = Thread.currentThread().getId();
+        final long cpuBefore = this.cpuTimeSupported ? this.threadMXBean.getCurrentThreadCpuTime() : 0L;
+        final long allocBefore = this.allocatedBytes(tid);
+        final long wallBefore = System.nanoTime();
+        try {
+            action.accept(handler);
+        } finally {
+            final long wallAfter = System.nanoTime();
+            final long cpuAfter = this.cpuTimeSupported ? this.threadMXBean.getCurrentThreadCpuTime() : 0L;
+            final long allocAfter = this.allocatedBytes(tid);
+            this.records.add(new Record(
+                event,
+                componentName(handler.getClass()),
+                SupportFunction.module(handler),
+                tid,
+                wallBefore - this.startNanos,
+                wallAfter - wallBefore,
+                cpuAfter - cpuBefore,
+                allocAfter - allocBefore
+            ));
+        }
+    }
+
+    public List<Record> getRecords() {
+        synchronized (this.records) {
+            return new ArrayList<>(this.records);
+        }
+    }
+
+    /**
+     * Write {@link #FILE_TRACE} and {@link #FILE_SUMMARY} into directory.
+     *
+     * @param directory directory (e.g. session cache dir)
+     * @return trace file and summary file written, empty list if disabled
+     */
+    public List<Path> writeReport(final Path directory) {
+        if (!this.enabled) {
+            return Collections.emptyList();
+        }
+
+        FileUtils.createDirectories(directory.toString());
+        final List<Record> snapshot = this.getRecords();
+
+        final Path trace = directory.resolve(FILE_TRACE);
+        FileUtils.writeFile(trace, traceEvents(snapshot).getBytes(UTF_8));
+        final Path summary = directory.resolve(FILE_SUMMARY);
+        FileUtils.writeFile(summary, summary(snapshot).getBytes(UTF_8));
+
+        final List<Path> result = new ArrayList<>();
+        result.add(trace);
+        result.add(summary);
+        return result;
+    }
+
+    static String traceEvents(final List<Record> records) {
+        final StringBuilder sb = new StringBuilder(256 + records.size() * 256);
+        sb.append("{\"traceEvents\":[");
+        for (int idx = 0; idx < records.size(); idx++) {
+            final Record it = records.get(idx);
+            if (idx > 0) {
+                sb.append(',');
+            }
+            sb.append("\n{\"name\":\"").append(jsonEscape(it.getHandler()))
+                .append("\",\"cat\":\"").append(jsonEscape(it.getEvent()))
+                .append("\",\"ph\":\"X\"")
+                .append(",\"ts\":").append(it.getStartNanos() / 1000L)
+                .append(",\"dur\":").append(it.getWallNanos() / 1000L)
+                .append(",\"pid\":1")
+                .append(",\"tid\":").append(it.getThreadId())
+                .append(",\"args\":{\"module\":\"").append(jsonEscape(it.getModule()))
+                .append("\",\"cpuMicros\":").append(it.getCpuNanos() / 1000L)
+                .append(",\"allocatedBytes\":").append(it.getAllocatedBytes())
+                .append("}}");
+        }
+        sb.append("\n],\"displayTimeUnit\":\"ms\"}\n");
+        return sb.toString();
+    }
+
+    static String summary(final List<Record> records) {
+        final List<Record> sorted = new ArrayList<>(records);
+        sorted.sort(Comparator.comparingLong(Record::getWallNanos).reversed());
+
+        final Map<String, long[]> byModule = new LinkedHashMap<>();
+        sorted.forEach(it -> {
+            final long[] total = byModule.computeIfAbsent(it.getModule(), k -> new long[3]);
+            total[0] += it.getWallNanos();
+            total[1] += it.getCpuNanos();
+            total[2] += it.getAllocatedBytes();
+        });
+
+        final StringBuilder sb = new StringBuilder(256 + records.size() * 128);
+        sb.append(String.format("%10s %10s %14s  %-28s %-40s %s%n", "wall(ms)", "cpu(ms)", "alloc(bytes)", "event", "handler", "module"));
+        sorted.forEach(it -> sb.append(String.format("%10.3f %10.3f %14d  %-28s %-40s %s%n",
+            it.getWallNanos() / 1000000d,
+            it.getCpuNanos() / 1000000d,
+            it.getAllocatedBytes(),
+            it.getEvent(),
+            it.getHandler(),
+            it.getModule()
+        )));
+        sb.append(String.format("%n%10s %10s %14s  %s%n", "wall(ms)", "cpu(ms)", "alloc(bytes)", "module"));
+        byModule.forEach((module, total) -> sb.append(String.format("%10.3f %10.3f %14d  %s%n",
+            total[0] / 1000000d, total[1] / 1000000d, total[2], module)));
+        return sb.toString();
+    }
+
+    private long allocatedBytes(final long threadId) {
+        return this.allocatedBytesSupported
+            ? ((com.sun.management.ThreadMXBean) this.threadMXBean).getThreadAllocatedBytes(threadId)
+            : 0L;
+    }
+
+    private static boolean allocatedBytesSupported(final ThreadMXBean threadMXBean) {
+        try {
+            return threadMXBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()
+                && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemoryEnabled();
+        } catch (final LinkageError | UnsupportedOperationException ex) {
+            return false;
+        }
+    }
+
+    static String jsonEscape(final String text) {
+        if (text == null) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder(text.length() + 8);
+        for (final char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    public static class Record {
+
+        private final String event;
+        private final String handler;
+        private final String module;
+        private final long threadId;
+        private final long startNanos;
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+
+        public Record(
+            final String event,
+            final String handler,
+            final String module,
+            final long threadId,
+            final long startNanos,
+            final long wallNanos,
+            final long cpuNanos,
+            final long allocatedBytes
+        ) {
+            this.event = event;
+            this.handler = handler;
+            this.module = module;
+            this.threadId = threadId;
+            this.startNanos = startNanos;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getEvent() {
+            return this.event;
+        }
+
+        public String getHandler() {
+            return this.handler;
+        }
+
+        public String getModule() {
+            return this.module;
+        }
+
+        public long getThreadId() {
+            return this.threadId;
+        }
+
+        public long getStartNanos() {
+            return this.startNanos;
+        }
+
+        public long getWallNanos() {
+            return this.wallNanos;
+        }
+
+        public long getCpuNanos() {
+            return this.cpuNanos;
+        }
+
+        public long getAllocatedBytes() {
+            return this.allocatedBytes;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package top.infra.maven.extension.main;
+
+import static top.infra.maven.shared.utils.SupportFunction.componentName;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import top.infra.logging.Logger;
+import top.infra.maven.extension.MavenEventAware;
+
+/**
+ * Runs handlers of an event as a DAG built from {@link MavenEventAware#consumes()} and {@link MavenEventAware#produces()}.
+ * <p/>
+ * Handler j (earlier in order) is a dependency of handler i if j produces something i consumes or produces,
+ * or j consumes something i produces.
+ * Handlers declaring nothing act as fences: they wait for all earlier handlers and all later handlers wait for them.
+ * So if nobody declares anything, execution is the same as the {@link top.infra.maven.shared.extension.Orders} sequence.
+ */
+public class EventAwareScheduler {
+
+    private final Logger logger;
+    private final EventAwareProfiler profiler;
+    private final int threads;
+
+    public EventAwareScheduler(
+        final Logger logger,
+        final EventAwareProfiler profiler,
+        final int threads
+    ) {
+        this.logger = logger;
+        this.profiler = profiler;
+        this.threads = threads;
+    }
+
+    /**
+     * Compute dependencies (indexes of earlier handlers) of each handler.
+     *
+     * @param handlers handlers sorted by order
+     * @return dependencies of each handler
+     */
+    static List<List<Integer>> dependencies(final List<MavenEventAware> handlers) {
+        final List<List<Integer>> result = new ArrayList<>(handlers.size());
+        int lastFence = -1;
+        for (int idx = 0; idx < handlers.size(); idx++) {
+            final MavenEventAware handler = handlers.get(idx);
+            final List<Integer> deps = new ArrayList<>();
+            if (lastFence >= 0) {
+                deps.add(lastFence);
+            }
+            if (declared(handler)) {
+                for (int prev = lastFence + 1; prev < idx; prev++) {
+                    if (conflict(handlers.get(prev), handler)) {
+                        deps.add(prev);
+                    }
+                }
+            } else {
+                for (int prev = lastFence + 1; prev < idx; prev++) {
+                    deps.add(prev);
+                }
+                lastFence = idx;
+            }
+            result.add(Collections.unmodifiableList(deps));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Whether each handler depends on the previous one, so no two handlers can run concurrently.
+     *
+     * @param dependencies see {@link #dependencies(List)}
+     * @return chain
+     */
+    static boolean isChain(final List<List<Integer>> dependencies) {
+        for (int idx = 1; idx < dependencies.size(); idx++) {
+            if (!dependencies.get(idx).contains(idx - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean declared(final MavenEventAware handler) {
+        return !handler.consumes().isEmpty() || !handler.produces().isEmpty();
+    }
+
+    private static boolean conflict(final MavenEventAware before, final MavenEventAware after) {
+        return intersects(before.produces(), after.consumes())
+            || intersects(before.produces(), after.produces())
+            || intersects(before.consumes(), after.produces());
+    }
+
+    private static boolean intersects(final Collection<String> c1, final Collection<String> c2) {
+        return !c1.isEmpty() && !c2.isEmpty() && !Collections.disjoint(c1, c2);
+    }
+
+    /**
+     * Run action on handlers. Run serially if threads &lt;= 1, no handler declares consumes/produces
+     * or dependencies form a chain.
+     *
+     * @param event    event name
+     * @param handlers handlers sorted by order
+     * @param action   action
+     */
+    public void run(
+        final String event,
+        final List<MavenEventAware> handlers,
+        final Consumer<MavenEventAware> action
+    ) {
+        if (this.threads <= 1 || handlers.size() <= 1 || handlers.stream().noneMatch(EventAwareScheduler::declared)) {
+            this.profiler.dispatch(event, handlers, action);
+            return;
+        }
+
+        final List<List<Integer>> dependencies = dependencies(handlers);
+        if (logger.isDebugEnabled()) {
+            for (int idx = 0; idx < handlers.size(); idx++) {
+                logger.debug(String.format("    event [%s] handler [%s] depends on %s",
+                    event, componentName(handlers.get(idx).getClass()), dependencies.get(idx)));
+            }
+        }
+        if (isChain(dependencies)) {
+            this.profiler.dispatch(event, handlers, action);
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(this.threads, threadFactory(event));
+        try {
+            final List<CompletableFuture<Void>> futures = new ArrayList<>(handlers.size());
+            for (int idx = 0; idx < handlers.size(); idx++) {
+                final MavenEventAware handler = handlers.get(idx);
+                final CompletableFuture<?>[] deps = dependencies.get(idx)
+                    .stream()
+                    .map(futures::get)
+                    .toArray(CompletableFuture[]::new);
+                futures.add(CompletableFuture.allOf(deps)
+                    .thenRunAsync(() -> this.profiler.invoke(event, handler, action), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (final CompletionException ex) {
+            final Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static ThreadFactory threadFactory(final String event) {
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        final AtomicInteger counter = new AtomicInteger(0);
+        return runnable -> {
+            final Thread thread = new Thread(runnable, String.format("%s-%s", event, counter.incrementAndGet()));
+            thread.setContextClassLoader(contextClassLoader);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
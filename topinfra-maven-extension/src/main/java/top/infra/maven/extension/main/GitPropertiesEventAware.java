@@ -6,6 +6,8 @@ import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -27,6 +29,7 @@ import top.infra.maven.shared.logging.LoggerPlexusImpl;
 import top.infra.maven.shared.utils.MavenUtils;
 import top.infra.maven.shared.utils.PropertiesUtils;
 
+import static top.infra.maven.shared.extension.Constants.RESOURCE_GIT_PROPERTIES;
 import static top.infra.maven.shared.extension.VcsProperties.*;
 import static top.infra.maven.shared.utils.PropertiesUtils.logProperties;
 
@@ -84,6 +87,11 @@ public class GitPropertiesEventAware implements MavenEventAware {
         }
     }
 
+    @Override
+    public Collection<String> produces() {
+        return Collections.singletonList(RESOURCE_GIT_PROPERTIES);
+    }
+
     @Override
     public int getOrder() {
         return Orders.ORDER_GIT_PROPERTIES;
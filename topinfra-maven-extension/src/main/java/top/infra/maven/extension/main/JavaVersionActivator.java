@@ -3,10 +3,8 @@ package top.infra.maven.extension.main;
 import static java.lang.Integer.parseInt;
 import static top.infra.maven.shared.utils.MavenUtils.profileId;
 import static top.infra.maven.shared.utils.MavenUtils.projectName;
-import static top.infra.maven.shared.utils.PropertiesUtils.mapFromProperties;
 import static top.infra.maven.shared.utils.SystemUtils.parseJavaVersion;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
@@ -22,8 +20,10 @@ import org.apache.maven.model.building.ModelProblemCollector;
 import org.apache.maven.model.profile.ProfileActivationContext;
 
 import top.infra.maven.extension.MavenProjectInfoFactory;
-import top.infra.maven.shared.extension.activator.AbstractCustomActivator;
+import top.infra.maven.extension.activator.ActivationTrace;
 import top.infra.maven.extension.activator.model.ActivatorModelResolver;
+import top.infra.maven.shared.extension.activator.AbstractCustomActivator;
+import top.infra.maven.shared.utils.LayeredProperties;
 
 // @Component(role = CustomActivator.class, hint = "JavaVersionActivator")
 @Named
@@ -38,9 +38,10 @@ public class JavaVersionActivator extends AbstractCustomActivator {
     public JavaVersionActivator(
         final org.codehaus.plexus.logging.Logger logger,
         final ActivatorModelResolver resolver,
+        final ActivationTrace activationTrace,
         final MavenProjectInfoFactory projectInfoFactory
     ) {
-        super(logger, resolver);
+        super(logger, resolver, activationTrace);
 
         this.projectInfoFactory = projectInfoFactory;
     }
@@ -146,26 +147,19 @@ public class JavaVersionActivator extends AbstractCustomActivator {
 
     /**
      * Provide script execution context variables.
+     * <p/>
+     * Lookup order: user properties, model properties, project properties, system properties. Nothing is copied.
      */
     private static Map<String, Object> projectContext(
         final Model project,
         final ProfileActivationContext context
     ) {
         // Note: keep order.
-        final Map<String, Object> bindings = new LinkedHashMap<>();
-
-        bindings.putAll(context.getSystemProperties());
-
-        bindings.putAll(context.getProjectProperties());
-        bindings.putAll(mapFromProperties(project.getProperties()));
-
-        // Inject user props, override previous.
-        bindings.putAll(context.getUserProperties());
-
-        // Expose default variable context.
-        // bindings.put("value", bindings);
-        // Expose resolved pom.xml model.
-        // bindings.put("project", project);
-        return bindings;
+        return LayeredProperties.of(
+            context.getUserProperties(),
+            project.getProperties(),
+            context.getProjectProperties(),
+            context.getSystemProperties()
+        );
     }
 }
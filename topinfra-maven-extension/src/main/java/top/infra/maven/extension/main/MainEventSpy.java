@@ -1,6 +1,14 @@
 package top.infra.maven.extension.main;
 
+import static java.lang.Boolean.FALSE;
 import static java.util.stream.Collectors.toList;
+import static top.infra.maven.extension.main.MavenBuildExtensionOption.AFTER_INIT_THREADS;
+import static top.infra.maven.extension.main.MavenBuildExtensionOption.CACHE_SESSION_PATH;
+import static top.infra.maven.extension.main.MavenBuildExtensionOption.LOG_ASYNC;
+import static top.infra.maven.extension.main.MavenBuildExtensionOption.LOG_ASYNC_BUFFER_SIZE;
+import static top.infra.maven.extension.main.MavenBuildExtensionOption.LOG_ASYNC_OVERFLOW;
+import static top.infra.maven.extension.main.MavenBuildExtensionOption.LOG_MASK_KEYWORDS;
+import static top.infra.maven.extension.main.MavenBuildExtensionOption.STARTUP_PROFILER;
 import static top.infra.maven.shared.extension.VcsProperties.GIT_REF_NAME;
 import static top.infra.maven.shared.utils.PropertiesUtils.PATTERN_VARS_ENV_DOT_CI;
 import static top.infra.maven.shared.utils.PropertiesUtils.logProperties;
@@ -11,6 +19,7 @@ import static top.infra.maven.shared.utils.SupportFunction.newTuple;
 import static top.infra.util.StringUtils.isEmpty;
 
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -36,6 +45,7 @@ import org.apache.maven.settings.building.SettingsBuildingResult;
 import org.apache.maven.toolchain.building.ToolchainsBuildingRequest;
 import org.apache.maven.toolchain.building.ToolchainsBuildingResult;
 
+import top.infra.logging.AsyncLogSink;
 import top.infra.logging.Logger;
 import top.infra.maven.CiOptionContext;
 import top.infra.maven.Ordered;
@@ -46,6 +56,7 @@ import top.infra.maven.shared.extension.Orders;
 import top.infra.maven.shared.logging.LoggerPlexusImpl;
 import top.infra.maven.shared.utils.MavenUtils;
 import top.infra.maven.shared.utils.PropertiesUtils;
+import top.infra.maven.shared.utils.SecretMasker;
 import top.infra.maven.shared.utils.SupportFunction;
 
 /**
@@ -71,6 +82,10 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
 
     private Map<String, List<MavenEventAware>> handlerMap;
 
+    private EventAwareProfiler profiler;
+
+    private EventAwareScheduler afterInitScheduler;
+
     /**
      * Constructor.
      *
@@ -93,6 +108,8 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
         this.ciOptContext = null;
         this.cliRequest = null;
         this.handlerMap = null;
+        this.profiler = EventAwareProfiler.newProfiler(false);
+        this.afterInitScheduler = null;
 
         logger.info(logEnd(this, "constructor", Void.TYPE));
     }
@@ -121,23 +138,54 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
             newTuple("onToolchainsBuildingRequest", MavenEventAware::onToolchainsBuildingRequest),
             newTuple("onToolchainsBuildingResult", MavenEventAware::onToolchainsBuildingResult),
             newTuple("onMavenExecutionRequest", MavenEventAware::onMavenExecutionRequest),
-            newTuple("onProjectBuildingRequest", MavenEventAware::onProjectBuildingRequest)
+            newTuple("onProjectBuildingRequest", MavenEventAware::onProjectBuildingRequest),
+            newTuple("onSessionEnd", MavenEventAware::onSessionEnd)
         ).collect(toList());
     }
 
     @Override
     public void init(final Context context) throws Exception {
-        logger.info(logStart(this, "init", context));
+        logger.info(() -> logStart(this, "init", context));
         try {
             final Properties systemProperties = MavenUtils.systemProperties(context);
             final Properties userProperties = MavenUtils.userProperties(context);
+            LOG_MASK_KEYWORDS
+                .findInProperties(LOG_MASK_KEYWORDS.getPropertyName(), systemProperties, userProperties)
+                .map(keywords -> Stream.of(keywords.split(",")).map(String::trim).filter(it -> !it.isEmpty()).collect(toList()))
+                .filter(keywords -> !keywords.isEmpty())
+                .ifPresent(keywords -> PropertiesUtils.setSecretMasker(SecretMasker.of(
+                    Stream.concat(SecretMasker.DEFAULT_KEYWORDS.stream(), keywords.stream()).collect(toList()))));
+            if (LOG_ASYNC.findInProperties(LOG_ASYNC.getPropertyName(), systemProperties, userProperties)
+                .map(Boolean::parseBoolean)
+                .orElse(FALSE)) {
+                final int bufferSize = Integer.parseInt(LOG_ASYNC_BUFFER_SIZE
+                    .findInProperties(LOG_ASYNC_BUFFER_SIZE.getPropertyName(), systemProperties, userProperties)
+                    .orElseGet(() -> LOG_ASYNC_BUFFER_SIZE.getDefaultValue().orElse("8192")));
+                final AsyncLogSink.OverflowPolicy overflowPolicy = AsyncLogSink.OverflowPolicy.of(LOG_ASYNC_OVERFLOW
+                    .findInProperties(LOG_ASYNC_OVERFLOW.getPropertyName(), systemProperties, userProperties)
+                    .orElseGet(() -> LOG_ASYNC_OVERFLOW.getDefaultValue().orElse("block")));
+                final AsyncLogSink sink = AsyncLogSink.install(bufferSize, overflowPolicy);
+                logger.info("    async logging enabled, capacity [%s], overflow policy [%s]", sink.getCapacity(), sink.getOverflowPolicy());
+            }
+            this.profiler = EventAwareProfiler.newProfiler(STARTUP_PROFILER
+                .findInProperties(STARTUP_PROFILER.getPropertyName(), systemProperties, userProperties)
+                .map(Boolean::parseBoolean)
+                .orElse(FALSE));
+            if (this.profiler.isEnabled()) {
+                logger.info("    startup profiler enabled");
+            }
+            final int afterInitThreads = AFTER_INIT_THREADS
+                .findInProperties(AFTER_INIT_THREADS.getPropertyName(), systemProperties, userProperties)
+                .map(Integer::parseInt)
+                .orElseGet(() -> Integer.parseInt(AFTER_INIT_THREADS.getDefaultValue().orElse("1")));
+            this.afterInitScheduler = new EventAwareScheduler(this.logger, this.profiler, afterInitThreads);
             final List<MavenEventAware> list = this.eventAwares
                 .stream()
                 .sorted()
                 .filter(it -> {
                     final boolean disabled = SupportFunction.componentDisabled(it.getClass(), systemProperties, userProperties);
                     if (disabled) {
-                        logger.info(String.format("    eventAware [%s] disabled", componentName(it.getClass())));
+                        logger.info("    eventAware [%s] disabled", componentName(it.getClass()));
                     }
                     return !disabled;
                 })
@@ -147,34 +195,40 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
                 .forEach(tuple -> map.put(tuple.getKey(), handlers(list, tuple.getValue())));
             this.handlerMap = map;
 
-            IntStream
-                .range(0, list.size())
-                .forEach(idx -> {
-                    final MavenEventAware it = list.get(idx);
-                    logger.info(String.format(
-                        "    eventAware index: [%s], order: [%s], name: [%s], from module: [%s]",
-                        String.format("%02d ", idx),
-                        String.format("%011d ", it.getOrder()),
-                        componentName(it.getClass()),
-                        SupportFunction.module(it)
-                    ));
-                    logger.info(String.format("        handles: %s", handles(it)));
+            if (logger.isInfoEnabled()) {
+                IntStream
+                    .range(0, list.size())
+                    .forEach(idx -> {
+                        final MavenEventAware it = list.get(idx);
+                        logger.info(String.format(
+                            "    eventAware index: [%s], order: [%s], name: [%s], from module: [%s]",
+                            String.format("%02d ", idx),
+                            String.format("%011d ", it.getOrder()),
+                            componentName(it.getClass()),
+                            SupportFunction.module(it)
+                        ));
+                        logger.info(String.format("        handles: %s", handles(it)));
+                        if (EventAwareScheduler.declared(it)) {
+                            logger.info(String.format("        consumes: %s, produces: %s", it.consumes(), it.produces()));
+                        }
+                    });
+
+                this.handlerMap.forEach((k, v) -> {
+                    logger.info(String.format("    event [%s]", k));
+                    v.forEach(it ->
+                        logger.info(String.format("        order: [%s], name: [%s], from module: [%s]",
+                            it.getOrder(), componentName(it.getClass()), SupportFunction.module(it)))
+                    );
                 });
-
-            this.handlerMap.forEach((k, v) -> {
-                logger.info(String.format("    event [%s]", k));
-                v.forEach(it ->
-                    logger.info(String.format("        order: [%s], name: [%s], from module: [%s]",
-                        it.getOrder(), componentName(it.getClass()), SupportFunction.module(it)))
-                );
-            });
+            }
 
             this.onInit(context);
         } catch (final Exception ex) {
             logger.error("    Exception on init.", ex);
+            AsyncLogSink.uninstall();
             System.exit(1);
         }
-        logger.info(logEnd(this, "init", Void.TYPE, context));
+        logger.info(() -> logEnd(this, "init", Void.TYPE, context));
     }
 
     @Override
@@ -183,36 +237,35 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
         try {
             if (event instanceof SettingsBuildingRequest) {
                 final SettingsBuildingRequest request = (SettingsBuildingRequest) event;
-                logger.info(logStart(this, "onSettingsBuildingRequest", request));
+                logger.info(() -> logStart(this, "onSettingsBuildingRequest", request));
                 this.onSettingsBuildingRequest(this.cliRequest, request, this.ciOptContext);
-                logger.info(logEnd(this, "onSettingsBuildingRequest", Void.TYPE, request));
+                logger.info(() -> logEnd(this, "onSettingsBuildingRequest", Void.TYPE, request));
             } else if (event instanceof SettingsBuildingResult) {
                 final SettingsBuildingResult result = (SettingsBuildingResult) event;
-                logger.info(logStart(this, "onSettingsBuildingResult", result));
+                logger.info(() -> logStart(this, "onSettingsBuildingResult", result));
                 this.onSettingsBuildingResult(this.cliRequest, result, this.ciOptContext);
-                logger.info(logEnd(this, "onSettingsBuildingResult", Void.TYPE, result));
+                logger.info(() -> logEnd(this, "onSettingsBuildingResult", Void.TYPE, result));
             } else if (event instanceof ToolchainsBuildingRequest) {
                 final ToolchainsBuildingRequest request = (ToolchainsBuildingRequest) event;
-                logger.info(logStart(this, "onToolchainsBuildingRequest", request));
+                logger.info(() -> logStart(this, "onToolchainsBuildingRequest", request));
                 this.onToolchainsBuildingRequest(this.cliRequest, request, this.ciOptContext);
-                logger.info(logEnd(this, "onToolchainsBuildingRequest", Void.TYPE, request));
+                logger.info(() -> logEnd(this, "onToolchainsBuildingRequest", Void.TYPE, request));
             } else if (event instanceof ToolchainsBuildingResult) {
                 final ToolchainsBuildingResult result = (ToolchainsBuildingResult) event;
-                logger.info(logStart(this, "onToolchainsBuildingResult", result));
+                logger.info(() -> logStart(this, "onToolchainsBuildingResult", result));
                 this.onToolchainsBuildingResult(this.cliRequest, result, this.ciOptContext);
-                logger.info(logEnd(this, "onToolchainsBuildingResult", Void.TYPE, result));
+                logger.info(() -> logEnd(this, "onToolchainsBuildingResult", Void.TYPE, result));
             } else if (event instanceof MavenExecutionRequest) {
                 final MavenExecutionRequest request = (MavenExecutionRequest) event;
-                logger.info(logStart(this, "onMavenExecutionRequest", request));
+                logger.info(() -> logStart(this, "onMavenExecutionRequest", request));
                 this.onMavenExecutionRequest(this.cliRequest, request, this.ciOptContext);
-                logger.info(logEnd(this, "onMavenExecutionRequest", Void.TYPE, request));
+                logger.info(() -> logEnd(this, "onMavenExecutionRequest", Void.TYPE, request));
             } else {
-                if (logger.isDebugEnabled()) {
-                    logger.debug(String.format("    onEvent %s", event));
-                }
+                logger.debug("    onEvent %s", event);
             }
         } catch (final Exception ex) {
             logger.error(String.format("    Exception on handling event [%s].", event), ex);
+            AsyncLogSink.uninstall();
             System.exit(1);
         }
 
@@ -231,7 +284,7 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
         final CiOptionContext ciOptionContext
     ) {
         final Path rootProjectPath = MavenUtils.executionRootPath(cliRequest).toAbsolutePath();
-        logger.info(String.format("    executionRootPath [%s]", rootProjectPath));
+        logger.info("    executionRootPath [%s]", rootProjectPath);
 
         assert Orders.ORDER_SYSTEM_TO_USER_PROPERTIES < Orders.ORDER_GIT_PROPERTIES;
         assert Orders.ORDER_GIT_PROPERTIES < Orders.ORDER_CI_OPTION_CONFIG_LOADER;
@@ -241,15 +294,13 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
         assert Orders.ORDER_CACHE_SETTINGS_RESOURCES_FACTORY < Orders.ORDER_MAVEN_SETTINGS_LOCALREPOSITORY;
         assert Orders.ORDER_MAVEN_SETTINGS_LOCALREPOSITORY < Orders.EVENT_AWARE_ORDER_MAVEN_SETTINGS_SECURITY_XML;
 
-        this.handlerMap.get("afterInit")
-            .forEach(it -> it.afterInit(cliRequest, ciOptionContext));
+        // Handlers declared consumes/produces may run concurrently, others keep the Orders sequence.
+        this.afterInitScheduler.run("afterInit", this.handlerMap.get("afterInit"),
+            it -> it.afterInit(cliRequest, ciOptionContext));
 
         final Optional<String> gitRefName = GIT_REF_NAME.getValue(ciOptionContext);
-        if ((!gitRefName.isPresent() || isEmpty(gitRefName.get())) && logger.isWarnEnabled()) {
-            logger.warn(String.format(
-                "    Can not find value of %s (%s)",
-                GIT_REF_NAME.getEnvVariableName(), GIT_REF_NAME.getPropertyName()
-            ));
+        if (!gitRefName.isPresent() || isEmpty(gitRefName.get())) {
+            logger.warn("    Can not find value of %s (%s)", GIT_REF_NAME.getEnvVariableName(), GIT_REF_NAME.getPropertyName());
         }
     }
 
@@ -275,8 +326,8 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
         assert Orders.EVENT_AWARE_ORDER_MAVEN_SETTINGS_FILES < Orders.EVENT_AWARE_ORDER_EXTRA_FILES;
         assert Orders.EVENT_AWARE_ORDER_EXTRA_FILES < Orders.EVENT_AWARE_ORDER_MAVEN_SETTINGS_SERVERS;
 
-        this.handlerMap.get("onSettingsBuildingRequest")
-            .forEach(it -> it.onSettingsBuildingRequest(cliRequest, request, ciOptionContext));
+        this.profiler.dispatch("onSettingsBuildingRequest", this.handlerMap.get("onSettingsBuildingRequest"),
+            it -> it.onSettingsBuildingRequest(cliRequest, request, ciOptionContext));
     }
 
     public void onSettingsBuildingResult(
@@ -287,8 +338,8 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
         // set settings.localRepository (if present) into effectiveSettings
         assert Orders.ORDER_CI_OPTION_INIT < Orders.ORDER_MAVEN_SETTINGS_LOCALREPOSITORY;
 
-        this.handlerMap.get("onSettingsBuildingResult")
-            .forEach(it -> it.onSettingsBuildingResult(cliRequest, result, ciOptionContext));
+        this.profiler.dispatch("onSettingsBuildingResult", this.handlerMap.get("onSettingsBuildingResult"),
+            it -> it.onSettingsBuildingResult(cliRequest, result, ciOptionContext));
     }
 
     public void onToolchainsBuildingRequest(
@@ -298,8 +349,8 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
     ) {
         assert Orders.ORDER_CI_OPTION_INIT < Orders.EVENT_AWARE_ORDER_MAVEN_SETTINGS_FILES;
 
-        this.handlerMap.get("onToolchainsBuildingRequest")
-            .forEach(it -> it.onToolchainsBuildingRequest(cliRequest, request, ciOptionContext));
+        this.profiler.dispatch("onToolchainsBuildingRequest", this.handlerMap.get("onToolchainsBuildingRequest"),
+            it -> it.onToolchainsBuildingRequest(cliRequest, request, ciOptionContext));
     }
 
     public void onToolchainsBuildingResult(
@@ -307,8 +358,8 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
         final ToolchainsBuildingResult result,
         final CiOptionContext ciOptionContext
     ) {
-        this.handlerMap.get("onToolchainsBuildingResult")
-            .forEach(it -> it.onToolchainsBuildingResult(cliRequest, result, ciOptionContext));
+        this.profiler.dispatch("onToolchainsBuildingResult", this.handlerMap.get("onToolchainsBuildingResult"),
+            it -> it.onToolchainsBuildingResult(cliRequest, result, ciOptionContext));
     }
 
     public void onMavenExecutionRequest(
@@ -319,8 +370,8 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
         assert Orders.ORDER_CI_OPTION_INIT < Orders.ORDER_MAVEN_SETTINGS_LOCALREPOSITORY;
         assert Orders.ORDER_MAVEN_SETTINGS_LOCALREPOSITORY < Orders.EVENT_AWARE_ORDER_MAVEN_SETTINGS_SERVERS;
 
-        this.handlerMap.get("onMavenExecutionRequest")
-            .forEach(it -> it.onMavenExecutionRequest(cliRequest, request, ciOptionContext));
+        this.profiler.dispatch("onMavenExecutionRequest", this.handlerMap.get("onMavenExecutionRequest"),
+            it -> it.onMavenExecutionRequest(cliRequest, request, ciOptionContext));
 
 
         final ProjectBuildingRequest projectBuildingRequest = request.getProjectBuildingRequest();
@@ -333,13 +384,11 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
                 logProperties(logger, "    projectBuildingRequest.userProperties", projectBuildingRequest.getUserProperties(), null);
             }
 
-            logger.info(logStart(this, "onProjectBuildingRequest", projectBuildingRequest));
+            logger.info(() -> logStart(this, "onProjectBuildingRequest", projectBuildingRequest));
             this.onProjectBuildingRequest(cliRequest, request, projectBuildingRequest, ciOptionContext);
-            logger.info(logEnd(this, "onProjectBuildingRequest", Void.TYPE, projectBuildingRequest));
+            logger.info(() -> logEnd(this, "onProjectBuildingRequest", Void.TYPE, projectBuildingRequest));
         } else {
-            if (logger.isInfoEnabled()) {
-                logger.info(String.format("    onEvent MavenExecutionRequest %s but projectBuildingRequest is null.", request));
-            }
+            logger.info("    onEvent MavenExecutionRequest %s but projectBuildingRequest is null.", request);
         }
     }
 
@@ -359,8 +408,8 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
         assert Orders.EVENT_AWARE_ORDER_GOAL_EDITOR < Orders.ORDER_GIT_FLOW_SEMANTIC_VERSION;
         assert Orders.ORDER_GIT_FLOW_SEMANTIC_VERSION < Orders.EVENT_AWARE_ORDER_DOCKER;
 
-        this.handlerMap.get("onProjectBuildingRequest")
-            .forEach(it -> it.onProjectBuildingRequest(cliRequest, mavenExecution, projectBuilding, ciOptionContext));
+        this.profiler.dispatch("onProjectBuildingRequest", this.handlerMap.get("onProjectBuildingRequest"),
+            it -> it.onProjectBuildingRequest(cliRequest, mavenExecution, projectBuilding, ciOptionContext));
     }
 
     public void onInit(final Context context) {
@@ -369,7 +418,7 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
             contextData.keySet().stream().sorted().forEach(k -> {
                 final Object v = contextData.get(k);
                 if (v instanceof Properties) {
-                    logger.debug(logProperties(logger, String.format("    context.data.%s", k), (Properties) v, null));
+                    logProperties(logger, String.format("    context.data.%s", k), (Properties) v, null);
                 } else {
                     logger.debug(PropertiesUtils.maskSecrets(String.format("    context.data.%s=%s", k, v)));
                 }
@@ -379,19 +428,50 @@ public class MainEventSpy extends AbstractEventSpy implements OrderedConfigurati
         assert Orders.ORDER_INFO_PRINTER < Orders.ORDER_CI_OPTION_CONTEXT_FACTORY;
         assert Orders.ORDER_CI_OPTION_CONTEXT_FACTORY < Orders.ORDER_INFRASTRUCTURE_ACTIVATOR;
 
-        this.handlerMap.get("onInit")
-            .forEach(it -> it.onInit(context));
+        this.profiler.dispatch("onInit", this.handlerMap.get("onInit"),
+            it -> it.onInit(context));
 
         this.ciOptContext = this.ciOptContextFactory.getObject();
     }
 
+    @Override
+    public void close() throws Exception {
+        if (this.handlerMap != null) {
+            try {
+                this.profiler.dispatch("onSessionEnd", this.handlerMap.get("onSessionEnd"),
+                    it -> it.onSessionEnd(this.ciOptContext));
+            } catch (final Exception ex) {
+                logger.warn("    Exception on session end.", ex);
+            }
+        }
+
+        if (this.profiler.isEnabled() && this.ciOptContext != null) {
+            try {
+                CACHE_SESSION_PATH.getValue(this.ciOptContext).ifPresent(sessionPath -> {
+                    final List<Path> files = this.profiler.writeReport(Paths.get(sessionPath));
+                    files.forEach(file -> logger.info(String.format("    startup profile written [%s]", file)));
+                });
+            } catch (final Exception ex) {
+                logger.warn("    Exception on writing startup profile.", ex);
+            }
+        }
+
+        // flush at session end, logs are written synchronously from now on.
+        final AsyncLogSink sink = AsyncLogSink.uninstall();
+        if (sink != null && sink.getDropped() > 0L) {
+            logger.warn("    async logging dropped [%s] records (overflow policy [%s])", sink.getDropped(), sink.getOverflowPolicy());
+        }
+
+        super.close();
+    }
+
     @Override
     public void process(final CliRequest cliRequest) throws Exception {
         this.cliRequest = cliRequest;
 
-        logger.info(logStart(this, "afterInit"));
+        logger.info(() -> logStart(this, "afterInit"));
         this.afterInit(cliRequest, this.ciOptContext);
-        logger.info(logEnd(this, "afterInit", Void.TYPE));
+        logger.info(() -> logEnd(this, "afterInit", Void.TYPE));
     }
 
     /**
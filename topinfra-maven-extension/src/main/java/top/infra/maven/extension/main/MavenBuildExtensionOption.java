@@ -23,6 +23,16 @@ import top.infra.maven.shared.utils.MavenUtils;
 import top.infra.maven.shared.utils.SupportFunction;
 
 public enum MavenBuildExtensionOption implements CiOption {
+    /**
+     * Record profile activation decisions of each module,
+     * write report into {@link #CACHE_SESSION_PATH} on session end (counters are always logged).
+     */
+    ACTIVATION_TRACE("activation.trace", BOOL_STRING_FALSE),
+    /**
+     * Max threads running afterInit handlers which declared consumes/produces concurrently, 1 (default) means serially.
+     * Handlers also run serially if their dependencies form a chain (nothing can overlap).
+     */
+    AFTER_INIT_THREADS("after.init.threads", "1"),
     CACHE_SESSION_PATH("cache.session.path") {
         @Override
         public Optional<String> calculateValue(final CiOptionContext context) {
@@ -43,6 +53,23 @@ public enum MavenBuildExtensionOption implements CiOption {
             return result;
         }
     },
+    /**
+     * Write logs on a background thread, keeps logging I/O off the main thread on startup.
+     */
+    LOG_ASYNC("log.async", BOOL_STRING_FALSE),
+    /**
+     * Capacity of the async log ring buffer.
+     */
+    LOG_ASYNC_BUFFER_SIZE("log.async.buffer.size", "8192"),
+    /**
+     * What to do if the async log ring buffer is full: block, drop-debug or drop-oldest.
+     */
+    LOG_ASYNC_OVERFLOW("log.async.overflow", "block"),
+    /**
+     * Comma separated keywords, values of '{keyword}=' (case-insensitive) are masked in logs.
+     * In addition to the default keywords (key, pass, password, token, user etc.).
+     */
+    LOG_MASK_KEYWORDS("log.mask.keywords"),
     MVN_MULTI_STAGE_BUILD(Constants.PROP_MVN_MULTI_STAGE_BUILD),
     /**
      * Determine current is origin (original) or forked.
@@ -83,7 +110,12 @@ public enum MavenBuildExtensionOption implements CiOption {
             });
         }
     },
-    SETTINGS_LOCALREPOSITORY(Constants.PROP_SETTINGS_LOCALREPOSITORY);
+    SETTINGS_LOCALREPOSITORY(Constants.PROP_SETTINGS_LOCALREPOSITORY),
+    /**
+     * Profile each eventAware handler dispatched by {@link MainEventSpy},
+     * write report into {@link #CACHE_SESSION_PATH} on session end.
+     */
+    STARTUP_PROFILER("startup.profiler", BOOL_STRING_FALSE);
 
     private final String defaultValue;
     private final String propertyName;
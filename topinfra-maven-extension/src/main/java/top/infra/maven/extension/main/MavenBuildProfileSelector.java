@@ -2,20 +2,22 @@ package top.infra.maven.extension.main;
 
 import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
 import static top.infra.maven.shared.utils.SupportFunction.componentName;
-import static top.infra.maven.shared.utils.SupportFunction.newTuple;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.IntStream;
 
 import org.apache.maven.model.Activation;
@@ -27,6 +29,7 @@ import org.apache.maven.model.profile.ProfileSelector;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 
+import top.infra.maven.extension.activator.ActivationTrace;
 import top.infra.maven.extension.activator.CustomActivator;
 import top.infra.maven.shared.utils.PropertiesUtils;
 import top.infra.maven.shared.utils.SupportFunction;
@@ -52,7 +55,15 @@ public class MavenBuildProfileSelector extends DefaultProfileSelector {
     @Requirement(role = CustomActivator.class)
     protected List<CustomActivator> customActivators;
 
-    private List<CustomActivator> availableActivators;
+    @Requirement(optional = true)
+    protected ActivationTrace activationTrace;
+
+    private volatile List<CustomActivator> availableActivators;
+
+    /**
+     * Profile id to applicable activators (see {@link CustomActivator#supported(Profile)}) of {@link #availableActivators}.
+     */
+    private final ConcurrentMap<String, List<CustomActivator>> activatorIndex = new ConcurrentHashMap<>();
 
     // @Inject
     // public MavenBuildProfileSelector(
@@ -77,11 +88,13 @@ public class MavenBuildProfileSelector extends DefaultProfileSelector {
 
         final Collection<Profile> defaultActivated = new LinkedHashSet<>(super.getActiveProfiles(profiles, context, problems));
 
-        final Map<Profile, List<CustomActivator>> profileActivators = profiles
-            .stream()
-            .map(p -> newTuple(p, availableActivators.stream().filter(act -> act.supported(p)).collect(toList())))
-            .filter(t -> !t.getValue().isEmpty())
-            .collect(toMap(Entry::getKey, Entry::getValue));
+        final Map<Profile, List<CustomActivator>> profileActivators = new LinkedHashMap<>();
+        profiles.forEach(profile -> {
+            final List<CustomActivator> activators = this.activators(profile, availableActivators);
+            if (!activators.isEmpty()) {
+                profileActivators.put(profile, activators);
+            }
+        });
 
         final Set<Profile> defaultActiveSupported = defaultActivated
             .stream()
@@ -114,12 +127,7 @@ public class MavenBuildProfileSelector extends DefaultProfileSelector {
 
             final List<Profile> customActivated = profileActivators.keySet()
                 .stream()
-                .filter(profile ->
-                    profileActivators
-                        .get(profile)
-                        .stream()
-                        .allMatch(activator -> activator.isActive(profile, context, problems))
-                )
+                .filter(profile -> allActive(profileActivators.get(profile), profile, context, problems))
                 .collect(toList());
             profilesActivated.addAll(
                 customActivated
@@ -137,38 +145,94 @@ public class MavenBuildProfileSelector extends DefaultProfileSelector {
             logger.debug(String.format("    profiles activated: %s", profilesActivated));
         }
 
+        if (this.activationTrace != null) {
+            profiles.forEach(profile -> this.activationTrace.onProfile(
+                context,
+                profile,
+                defaultActivated.contains(profile),
+                profileActivators.containsKey(profile),
+                profilesActivated.contains(profile)));
+        }
+
         // logger.info(logEnd(this, "getActiveProfiles", profilesActivated));
         return new ArrayList<>(profilesActivated);
     }
 
-    private Collection<CustomActivator> availableActivators(final ProfileActivationContext context) {
-        if (this.availableActivators == null) {
-            final Properties systemProperties = PropertiesUtils.toProperties(context.getSystemProperties());
-            final Properties userProperties = PropertiesUtils.toProperties(context.getUserProperties());
-            this.availableActivators = this.customActivators
-                .stream()
-                .filter(it -> {
-                    final boolean disabled = SupportFunction.componentDisabled(it.getClass(), systemProperties, userProperties);
-                    if (disabled) {
-                        logger.info(String.format("    eventAware [%s] disabled", componentName(it.getClass())));
-                    }
-                    return !disabled;
-                })
-                .collect(toList());
+    /**
+     * Activators applicable to the profile, cheapest first, indexed by profile id
+     * (profile ids repeat across modules inheriting the same parent).
+     */
+    private List<CustomActivator> activators(final Profile profile, final Collection<CustomActivator> availableActivators) {
+        final String id = profile.getId();
+        final List<CustomActivator> found = this.activatorIndex.get(id);
+        if (found != null) {
+            return found;
+        }
+
+        final List<CustomActivator> activators = availableActivators
+            .stream()
+            .filter(act -> act.supported(profile))
+            .sorted(Comparator.comparingInt(CustomActivator::getCost))
+            .collect(toList());
+        final List<CustomActivator> indexed = activators.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(activators);
+        final List<CustomActivator> previous = this.activatorIndex.putIfAbsent(id, indexed);
+        return previous != null ? previous : indexed;
+    }
 
-            IntStream
-                .range(0, this.availableActivators.size())
-                .forEach(idx -> {
-                    final CustomActivator it = this.availableActivators.get(idx);
-                    logger.info(String.format(
-                        "    activator index: [%s], name: [%s]",
-                        String.format("%02d ", idx),
-                        componentName(it.getClass())
-                    ));
-                });
+    /**
+     * Evaluate activators in order, stop at the first one rejects.
+     */
+    private static boolean allActive(
+        final List<CustomActivator> activators,
+        final Profile profile,
+        final ProfileActivationContext context,
+        final ModelProblemCollector problems
+    ) {
+        for (final CustomActivator activator : activators) {
+            if (!activator.isActive(profile, context, problems)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Collection<CustomActivator> availableActivators(final ProfileActivationContext context) {
+        final List<CustomActivator> found = this.availableActivators;
+        if (found != null) {
+            return found;
         }
 
-        return this.availableActivators;
+        synchronized (this) {
+            if (this.availableActivators == null) {
+                final Properties systemProperties = PropertiesUtils.toProperties(context.getSystemProperties());
+                final Properties userProperties = PropertiesUtils.toProperties(context.getUserProperties());
+                final List<CustomActivator> activators = this.customActivators
+                    .stream()
+                    .filter(it -> {
+                        final boolean disabled = SupportFunction.componentDisabled(it.getClass(), systemProperties, userProperties);
+                        if (disabled) {
+                            logger.info(String.format("    eventAware [%s] disabled", componentName(it.getClass())));
+                        }
+                        return !disabled;
+                    })
+                    .collect(toList());
+
+                IntStream
+                    .range(0, activators.size())
+                    .forEach(idx -> {
+                        final CustomActivator it = activators.get(idx);
+                        logger.info(String.format(
+                            "    activator index: [%s], name: [%s], cost: [%s]",
+                            String.format("%02d ", idx),
+                            componentName(it.getClass()),
+                            it.getCost()
+                        ));
+                    });
+
+                this.availableActivators = activators;
+            }
+            return this.availableActivators;
+        }
     }
 
     static boolean noAnyCondition(final Profile profile) {
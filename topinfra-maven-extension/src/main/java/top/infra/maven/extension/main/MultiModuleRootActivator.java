@@ -14,6 +14,7 @@ import org.apache.maven.model.profile.ProfileActivationContext;
 
 import top.infra.maven.extension.MavenProjectInfo;
 import top.infra.maven.extension.MavenProjectInfoFactory;
+import top.infra.maven.extension.activator.ActivationTrace;
 import top.infra.maven.extension.activator.model.ActivatorModelResolver;
 import top.infra.maven.shared.extension.activator.AbstractCustomActivator;
 
@@ -28,9 +29,10 @@ public class MultiModuleRootActivator extends AbstractCustomActivator {
     public MultiModuleRootActivator(
         final org.codehaus.plexus.logging.Logger logger,
         final ActivatorModelResolver resolver,
+        final ActivationTrace activationTrace,
         final MavenProjectInfoFactory projectInfoFactory
     ) {
-        super(logger, resolver);
+        super(logger, resolver, activationTrace);
 
         this.projectInfoFactory = projectInfoFactory;
     }
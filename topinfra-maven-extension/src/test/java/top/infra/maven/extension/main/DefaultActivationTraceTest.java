@@ -0,0 +1,74 @@
+package top.infra.maven.extension.main;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.profile.DefaultProfileActivationContext;
+import org.apache.maven.model.profile.ProfileActivationContext;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import top.infra.maven.extension.activator.ActivationTrace.ModelSource;
+
+public class DefaultActivationTraceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultActivationTraceTest.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testTrace() throws Exception {
+        final DefaultActivationTrace trace = new DefaultActivationTrace(
+            new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "test"));
+        trace.setEnabled(true);
+
+        final File module = this.temporaryFolder.newFolder("module-\"1\"");
+        final ProfileActivationContext context = new DefaultProfileActivationContext().setProjectDirectory(module);
+        final Profile java8 = new Profile();
+        java8.setId("java8");
+        final Profile site = new Profile();
+        site.setId("site");
+
+        trace.onModelResolved(new File(module, "pom.xml"), ModelSource.MODEL_BUILDER, 2000000L);
+        trace.onActivator(context, java8, "JavaVersionActivator", true, false, 3000000L);
+        trace.onModelResolved(new File(module, "pom.xml"), ModelSource.MEMORY, 1000L);
+        trace.onActivator(context, java8, "JavaVersionActivator", true, true, 2000L);
+        trace.onProfile(context, java8, false, true, true);
+        trace.onProfile(context, site, false, false, false);
+
+        assertEquals(2L, trace.getProfiles());
+        assertEquals(1L, trace.getMementoHits());
+        assertEquals(1L, trace.getModelResolutions(ModelSource.MODEL_BUILDER));
+        assertEquals(1L, trace.getModelResolutions(ModelSource.MEMORY));
+        logger.info(trace.summary());
+
+        final Path file = trace.writeReport(this.temporaryFolder.newFolder("session").toPath());
+        final String json = new String(Files.readAllBytes(file), UTF_8);
+        logger.info(json);
+        assertTrue(json.contains("\"profilesEvaluated\":2"));
+        assertTrue(json.contains("\"MODEL_BUILDER\":1"));
+        assertTrue(json.contains("module-\\\"1\\\""));
+        assertTrue(json.contains("{\"id\":\"java8\",\"defaultActive\":false,\"custom\":true,\"active\":true,\"activators\":["
+            + "{\"name\":\"JavaVersionActivator\",\"result\":true,\"mementoHit\":false,\"micros\":3000},"
+            + "{\"name\":\"JavaVersionActivator\",\"result\":true,\"mementoHit\":true,\"micros\":2}]}"));
+        assertTrue(json.contains("{\"id\":\"site\",\"defaultActive\":false,\"custom\":false,\"active\":false,\"activators\":[]}"));
+
+        trace.reset();
+        trace.setEnabled(false);
+        trace.onProfile(context, site, false, false, false);
+        assertEquals(1L, trace.getProfiles());
+        assertFalse(trace.toJson().contains("\"site\""));
+    }
+}
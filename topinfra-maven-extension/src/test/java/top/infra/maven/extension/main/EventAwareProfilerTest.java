@@ -0,0 +1,74 @@
+package top.infra.maven.extension.main;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import top.infra.maven.extension.MavenEventAware;
+
+public class EventAwareProfilerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventAwareProfilerTest.class);
+
+    @Test
+    public void testDisabledProfilerRecordsNothing() {
+        final EventAwareProfiler profiler = EventAwareProfiler.newProfiler(false);
+        final AtomicInteger invocations = new AtomicInteger(0);
+
+        profiler.dispatch("afterInit", handlers(), it -> invocations.incrementAndGet());
+
+        assertFalse(profiler.isEnabled());
+        assertEquals(2, invocations.get());
+        assertTrue(profiler.getRecords().isEmpty());
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        final EventAwareProfiler profiler = EventAwareProfiler.newProfiler(true);
+
+        profiler.dispatch("afterInit", handlers(), it -> {
+            final StringBuilder sb = new StringBuilder();
+            for (int idx = 0; idx < 1000; idx++) {
+                sb.append(idx);
+            }
+            assertFalse(sb.toString().isEmpty());
+        });
+        profiler.dispatch("onInit", handlers().subList(0, 1), it -> {
+        });
+
+        final List<EventAwareProfiler.Record> records = profiler.getRecords();
+        assertEquals(3, records.size());
+        assertEquals("afterInit", records.get(0).getEvent());
+        assertEquals("onInit", records.get(2).getEvent());
+
+        final Path directory = Files.createTempDirectory("startup-profile");
+        final List<Path> files = profiler.writeReport(directory);
+        assertEquals(2, files.size());
+
+        final String trace = new String(Files.readAllBytes(directory.resolve(EventAwareProfiler.FILE_TRACE)), UTF_8);
+        final String summary = new String(Files.readAllBytes(directory.resolve(EventAwareProfiler.FILE_SUMMARY)), UTF_8);
+        logger.info("trace: {}", trace);
+        logger.info("summary: {}", summary);
+        assertTrue(trace.startsWith("{\"traceEvents\":["));
+        assertEquals(3, trace.split("\"ph\":\"X\"", -1).length - 1);
+        assertTrue(summary.contains("afterInit"));
+    }
+
+    private static List<MavenEventAware> handlers() {
+        return Arrays.asList(new MavenEventAware() {
+        }, new MavenEventAware() {
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package top.infra.maven.extension.main;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import top.infra.maven.extension.MavenEventAware;
+import top.infra.test.logging.LoggerSlf4jImpl;
+
+public class EventAwareSchedulerTest {
+
+    private static final org.slf4j.Logger slf4jLogger = LoggerFactory.getLogger(EventAwareSchedulerTest.class);
+
+    @Test
+    public void testDependencies() {
+        final List<MavenEventAware> handlers = asList(
+            new Handler("fence", emptyList(), emptyList()),
+            new Handler("git", emptyList(), singletonList("git")),
+            new Handler("repo", singletonList("git"), singletonList("repo")),
+            new Handler("opts", singletonList("repo"), singletonList("opts")),
+            new Handler("resources", singletonList("repo"), singletonList("resources")),
+            new Handler("security", singletonList("resources"), singletonList("security")),
+            new Handler("fence2", emptyList(), emptyList()),
+            new Handler("after", singletonList("opts"), emptyList())
+        );
+
+        final List<List<Integer>> dependencies = EventAwareScheduler.dependencies(handlers);
+        slf4jLogger.info("dependencies: {}", dependencies);
+
+        assertEquals(emptyList(), dependencies.get(0));
+        assertEquals(singletonList(0), dependencies.get(1));
+        assertEquals(asList(0, 1), dependencies.get(2));
+        assertEquals(asList(0, 2), dependencies.get(3));
+        assertEquals(asList(0, 2), dependencies.get(4));
+        assertEquals(asList(0, 4), dependencies.get(5));
+        assertEquals(asList(0, 1, 2, 3, 4, 5), dependencies.get(6));
+        assertEquals(singletonList(6), dependencies.get(7));
+        assertFalse(EventAwareScheduler.isChain(dependencies));
+
+        // declared afterInit handlers of this project
+        assertTrue(EventAwareScheduler.isChain(EventAwareScheduler.dependencies(asList(
+            new Handler("gitProperties", emptyList(), singletonList("git")),
+            new Handler("gitRepositoryFactory", singletonList("git"), singletonList("repo")),
+            new Handler("ciOptionConfigLoader", singletonList("repo"), singletonList("opts")),
+            new Handler("ciOptionInit", asList("opts", "git"), singletonList("options")),
+            new Handler("cacheSettingsResourcesFactory", asList("repo", "options"), singletonList("resources")),
+            new Handler("settingsSecurityXml", asList("resources", "options"), singletonList("settingsSecurity"))
+        ))));
+    }
+
+    @Test
+    public void testChainRunsOnCallerThread() {
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        final List<MavenEventAware> handlers = asList(
+            new Handler("a", emptyList(), singletonList("a")),
+            new Handler("b", singletonList("a"), singletonList("b"))
+        );
+        new EventAwareScheduler(new LoggerSlf4jImpl(slf4jLogger), EventAwareProfiler.newProfiler(false), 2)
+            .run("afterInit", handlers, it -> threads.add(Thread.currentThread().getName()));
+        assertEquals(asList(Thread.currentThread().getName(), Thread.currentThread().getName()), threads);
+    }
+
+    @Test
+    public void testIndependentHandlersOverlap() throws InterruptedException {
+        // "a" and "b" have no data dependency, each waits for the other to start, would time out if run serially.
+        final CountDownLatch latch = new CountDownLatch(2);
+        final List<String> finished = new CopyOnWriteArrayList<>();
+        final List<MavenEventAware> handlers = asList(
+            new Handler("a", emptyList(), singletonList("a")),
+            new Handler("b", emptyList(), singletonList("b")),
+            new Handler("c", asList("a", "b"), singletonList("c"))
+        );
+
+        final EventAwareScheduler scheduler = new EventAwareScheduler(
+            new LoggerSlf4jImpl(slf4jLogger), EventAwareProfiler.newProfiler(false), 2);
+        scheduler.run("afterInit", handlers, it -> {
+            final String name = it.toString();
+            if (!"c".equals(name)) {
+                latch.countDown();
+                try {
+                    assertTrue(latch.await(10L, TimeUnit.SECONDS));
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            finished.add(name);
+        });
+
+        assertEquals(3, finished.size());
+        assertEquals("c", finished.get(2));
+    }
+
+    private static class Handler implements MavenEventAware {
+
+        private final String name;
+        private final Collection<String> consumes;
+        private final Collection<String> produces;
+
+        Handler(final String name, final Collection<String> consumes, final Collection<String> produces) {
+            this.name = name;
+            this.consumes = consumes;
+            this.produces = produces;
+        }
+
+        @Override
+        public Collection<String> consumes() {
+            return this.consumes;
+        }
+
+        @Override
+        public Collection<String> produces() {
+            return this.produces;
+        }
+
+        @Override
+        public String toString() {
+            return this.name;
+        }
+    }
+}
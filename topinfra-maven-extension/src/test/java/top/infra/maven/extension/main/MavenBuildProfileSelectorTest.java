@@ -0,0 +1,102 @@
+package top.infra.maven.extension.main;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.building.ModelProblemCollector;
+import org.apache.maven.model.profile.DefaultProfileActivationContext;
+import org.apache.maven.model.profile.ProfileActivationContext;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.junit.Test;
+
+import top.infra.maven.extension.activator.CustomActivator;
+
+public class MavenBuildProfileSelectorTest {
+
+    @Test
+    public void testIndexedCheapestFirst() {
+        final CountingActivator expensive = new CountingActivator("java", CustomActivator.COST_DEFAULT, true);
+        final CountingActivator cheap = new CountingActivator("infrastructure", CustomActivator.COST_DEFAULT / 10, false);
+        final CountingActivator other = new CountingActivator("multi_module_root_only", CustomActivator.COST_DEFAULT, true);
+
+        final MavenBuildProfileSelector selector = new MavenBuildProfileSelector();
+        selector.logger = new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "test");
+        // expensive first in declaration order
+        selector.customActivators = Arrays.asList(expensive, cheap, other);
+
+        final ModelProblemCollector problems = request -> {
+        };
+        final int modules = 100;
+        for (int idx = 0; idx < modules; idx++) {
+            final List<Profile> profiles = Arrays.asList(
+                profile("java8-infrastructure_ossrh"),
+                profile("multi_module_root_only"),
+                profile("site"));
+            final ProfileActivationContext context = new DefaultProfileActivationContext();
+
+            final List<String> active = selector.getActiveProfiles(profiles, context, problems)
+                .stream().map(Profile::getId).collect(toList());
+            assertEquals(Arrays.asList("multi_module_root_only"), active);
+        }
+
+        // supported evaluated once per profile id
+        assertEquals(3, expensive.supported.get());
+        assertEquals(3, cheap.supported.get());
+        assertEquals(3, other.supported.get());
+        // cheap rejects first, expensive never runs
+        assertEquals(modules, cheap.active.get());
+        assertEquals(0, expensive.active.get());
+        assertEquals(modules, other.active.get());
+    }
+
+    private static Profile profile(final String id) {
+        final Profile profile = new Profile();
+        profile.setId(id);
+        return profile;
+    }
+
+    private static class CountingActivator implements CustomActivator {
+
+        private final String idContains;
+        private final int cost;
+        private final boolean result;
+        private final AtomicInteger supported;
+        private final AtomicInteger active;
+
+        CountingActivator(final String idContains, final int cost, final boolean result) {
+            this.idContains = idContains;
+            this.cost = cost;
+            this.result = result;
+            this.supported = new AtomicInteger(0);
+            this.active = new AtomicInteger(0);
+        }
+
+        @Override
+        public boolean supported(final Profile profile) {
+            this.supported.incrementAndGet();
+            return profile.getId().contains(this.idContains);
+        }
+
+        @Override
+        public int getCost() {
+            return this.cost;
+        }
+
+        @Override
+        public boolean isActive(final Profile profile, final ProfileActivationContext context, final ModelProblemCollector problems) {
+            this.active.incrementAndGet();
+            return this.result;
+        }
+
+        @Override
+        public boolean presentInConfig(final Profile profile, final ProfileActivationContext context, final ModelProblemCollector problems) {
+            return this.supported(profile);
+        }
+    }
+}
@@ -0,0 +1,618 @@
+package top.infra.maven.shared;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import top.infra.maven.CiOption;
+import top.infra.maven.CiOptionContext;
+import top.infra.maven.shared.extension.GlobalOption;
+import top.infra.maven.shared.utils.PropertiesUtils;
+
+/**
+ * A {@link CiOptionContext} memoizes value of each option.
+ * <p/>
+ * While resolving an option, reads of system/user properties (through {@link #getSystemProperties()} and
+ * {@link #getUserProperties()}) and values of other options are recorded.
+ * A memoized value is invalidated (and resolved again) only if any property it read (directly or through other options)
+ * has been changed since, no matter the underlying {@link Properties} is mutated through this context or not.
+ * An option that reads properties as a whole (iterates, copies or counts them) depends on all of them,
+ * its value is never served from memo.
+ * <p/>
+ * Safe for concurrent use, an option being resolved by one thread is waited for (not resolved again) by others.
+ * {@link #setCiOptPropertiesInto(Collection, Properties...)} is done by {@link CiOptionEvaluator}.
+ */
+public class CachingCiOptionContext extends DefaultCiOptionContext {
+
+    private final Properties systemProperties;
+    private final Properties userProperties;
+    private final Properties systemPropertiesView;
+    private final Properties userPropertiesView;
+
+    private final Map<CiOption, Memo> memos;
+    private final ThreadLocal<Deque<Frame>> frames;
+    /**
+     * Options being resolved, guarded by itself.
+     */
+    private final Map<CiOption, InFlight> inFlight;
+    /**
+     * Thread to the option it is waiting for, guarded by {@link #inFlight}.
+     */
+    private final Map<Thread, CiOption> waiting;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong invalidations;
+
+    private String evaluationReport;
+
+    public CachingCiOptionContext(
+        final Properties systemProperties,
+        final Properties userProperties
+    ) {
+        super(systemProperties, userProperties);
+        this.systemProperties = systemProperties;
+        this.userProperties = userProperties;
+        this.systemPropertiesView = new ReadTrackingProperties(systemProperties, (key, value) -> this.currentFrame()
+            .ifPresent(frame -> frame.systemReads.put(key, value)), this::onReadAll);
+        this.userPropertiesView = new ReadTrackingProperties(userProperties, (key, value) -> this.currentFrame()
+            .ifPresent(frame -> frame.userReads.put(key, value)), this::onReadAll);
+
+        this.memos = new ConcurrentHashMap<>();
+        this.frames = ThreadLocal.withInitial(ArrayDeque::new);
+        this.inFlight = new HashMap<>();
+        this.waiting = new HashMap<>();
+
+        this.hits = new AtomicLong(0L);
+        this.misses = new AtomicLong(0L);
+        this.invalidations = new AtomicLong(0L);
+
+        this.evaluationReport = "";
+    }
+
+    @Override
+    public Properties getSystemProperties() {
+        return this.systemPropertiesView;
+    }
+
+    @Override
+    public Properties getUserProperties() {
+        return this.userPropertiesView;
+    }
+
+    @Override
+    public Optional<String> resolveValue(
+        final CiOption option,
+        final Function<CiOptionContext, Optional<String>> resolver
+    ) {
+        final Deque<Frame> stack = this.frames.get();
+        if (stack.stream().anyMatch(frame -> frame.option == option)) {
+            // recursion, do not memoize
+            return resolver.apply(this);
+        }
+
+        while (true) {
+            final Memo found;
+            final InFlight running;
+            final boolean owner;
+            synchronized (this.inFlight) {
+                found = this.validMemo(option);
+                if (found != null) {
+                    running = null;
+                    owner = false;
+                } else if (this.inFlight.containsKey(option)) {
+                    running = this.inFlight.get(option);
+                    owner = false;
+                    if (this.waitsFor(running.owner)) {
+                        // cyclic wait across threads, resolve without memoizing
+                        return resolver.apply(this);
+                    }
+                    this.waiting.put(Thread.currentThread(), option);
+                } else {
+                    running = new InFlight(Thread.currentThread());
+                    owner = true;
+                    this.inFlight.put(option, running);
+                }
+            }
+
+            if (found != null) {
+                this.hits.incrementAndGet();
+                this.currentFrame().ifPresent(parent -> parent.merge(found, 0L));
+                return found.value;
+            } else if (owner) {
+                try {
+                    return this.resolve(option, resolver, stack);
+                } finally {
+                    synchronized (this.inFlight) {
+                        this.inFlight.remove(option);
+                    }
+                    running.done.countDown();
+                }
+            } else {
+                try {
+                    running.done.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return resolver.apply(this);
+                } finally {
+                    synchronized (this.inFlight) {
+                        this.waiting.remove(Thread.currentThread());
+                    }
+                }
+            }
+        }
+    }
+
+    private Optional<String> resolve(
+        final CiOption option,
+        final Function<CiOptionContext, Optional<String>> resolver,
+        final Deque<Frame> stack
+    ) {
+        this.misses.incrementAndGet();
+
+        final long start = System.nanoTime();
+        final Frame frame = new Frame(option);
+        stack.push(frame);
+        final Optional<String> value;
+        try {
+            value = resolver.apply(this);
+        } finally {
+            stack.pop();
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        final Memo memo = new Memo(value, frame, elapsed - frame.childNanos);
+        this.memos.put(option, memo);
+        this.currentFrame().ifPresent(parent -> parent.merge(memo, elapsed));
+        return value;
+    }
+
+    /**
+     * Caller holds lock of {@link #inFlight}.
+     */
+    private Memo validMemo(final CiOption option) {
+        final Memo found = this.memos.get(option);
+        final Memo result;
+        if (found == null) {
+            result = null;
+        } else if (found.isValid(this.systemProperties, this.userProperties)) {
+            result = found;
+        } else {
+            this.memos.remove(option, found);
+            this.invalidations.incrementAndGet();
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Caller holds lock of {@link #inFlight}.
+     *
+     * @param owner thread resolving the option current thread is going to wait for
+     * @return whether owner is (directly or indirectly) waiting for current thread
+     */
+    private boolean waitsFor(final Thread owner) {
+        final Thread current = Thread.currentThread();
+        final Set<Thread> visited = new HashSet<>();
+        Thread thread = owner;
+        while (thread != null && visited.add(thread)) {
+            if (thread == current) {
+                return true;
+            }
+            final CiOption option = this.waiting.get(thread);
+            final InFlight running = option != null ? this.inFlight.get(option) : null;
+            thread = running != null ? running.owner : null;
+        }
+        return false;
+    }
+
+    @Override
+    public Properties setCiOptPropertiesInto(
+        final Collection<List<CiOption>> optionGroups,
+        final Properties... targetProperties
+    ) {
+        final int threads = GlobalOption.OPTION_EVALUATION_THREADS.getValue(this).map(Integer::parseInt).orElse(1);
+        final CiOptionEvaluator evaluator = new CiOptionEvaluator(this, threads);
+        final Properties properties = evaluator.evaluate(optionGroups);
+        this.evaluationReport = evaluator.report();
+
+        for (final Properties target : targetProperties) {
+            PropertiesUtils.merge(properties, target);
+        }
+
+        return properties;
+    }
+
+    /**
+     * Report of the last {@link #setCiOptPropertiesInto(Collection, Properties...)}.
+     *
+     * @return evaluation order, cost and dependencies of each option
+     */
+    public String evaluationReport() {
+        return this.evaluationReport;
+    }
+
+    /**
+     * Exclusive (not including options it depends on) time spent on resolving the memoized value of option.
+     *
+     * @param option option
+     * @return nanoseconds, 0 if option not memoized
+     */
+    public long cost(final CiOption option) {
+        return Optional.ofNullable(this.memos.get(option)).map(memo -> memo.nanos).orElse(0L);
+    }
+
+    /**
+     * Options the memoized value of option reads directly.
+     *
+     * @param option option
+     * @return options, empty if option not memoized
+     */
+    public Set<CiOption> directDependencies(final CiOption option) {
+        return Optional.ofNullable(this.memos.get(option))
+            .map(memo -> memo.direct)
+            .orElse(Collections.emptySet());
+    }
+
+    /**
+     * Options the memoized value of option depends on (directly or indirectly).
+     *
+     * @param option option
+     * @return options, empty if option not memoized
+     */
+    public Set<CiOption> dependencies(final CiOption option) {
+        return Optional.ofNullable(this.memos.get(option))
+            .map(memo -> memo.options)
+            .orElse(Collections.emptySet());
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getInvalidations() {
+        return this.invalidations.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    public String statistics() {
+        return String.format("memoized [%s], hits [%s], misses [%s], invalidations [%s]",
+            this.memos.size(), this.getHits(), this.getMisses(), this.getInvalidations());
+    }
+
+    private Optional<Frame> currentFrame() {
+        return Optional.ofNullable(this.frames.get().peek());
+    }
+
+    private void onReadAll() {
+        this.currentFrame().ifPresent(frame -> frame.readsAll = true);
+    }
+
+    private static class Frame {
+
+        private final CiOption option;
+        private final Set<CiOption> direct;
+        private final Set<CiOption> options;
+        private final Map<String, String> systemReads;
+        private final Map<String, String> userReads;
+        private boolean readsAll;
+        private long childNanos;
+
+        Frame(final CiOption option) {
+            this.option = option;
+            this.direct = new LinkedHashSet<>();
+            this.options = new LinkedHashSet<>();
+            this.systemReads = new HashMap<>();
+            this.userReads = new HashMap<>();
+            this.readsAll = false;
+            this.childNanos = 0L;
+        }
+
+        void merge(final Memo memo, final long nanos) {
+            this.childNanos += nanos;
+            this.direct.add(memo.option);
+            this.options.add(memo.option);
+            this.options.addAll(memo.options);
+            this.systemReads.putAll(memo.systemReads);
+            this.userReads.putAll(memo.userReads);
+            this.readsAll |= memo.readsAll;
+        }
+    }
+
+    private static class Memo {
+
+        private final CiOption option;
+        private final Optional<String> value;
+        private final long nanos;
+        private final Set<CiOption> direct;
+        private final Set<CiOption> options;
+        private final Map<String, String> systemReads;
+        private final Map<String, String> userReads;
+        /**
+         * Properties were read as a whole, any change may affect the value.
+         */
+        private final boolean readsAll;
+
+        Memo(final Optional<String> value, final Frame frame, final long nanos) {
+            this.option = frame.option;
+            this.value = value;
+            this.nanos = nanos;
+            this.direct = Collections.unmodifiableSet(frame.direct);
+            this.options = Collections.unmodifiableSet(frame.options);
+            this.systemReads = frame.systemReads;
+            this.userReads = frame.userReads;
+            this.readsAll = frame.readsAll;
+        }
+
+        boolean isValid(final Properties systemProperties, final Properties userProperties) {
+            return !this.readsAll && unchanged(this.systemReads, systemProperties) && unchanged(this.userReads, userProperties);
+        }
+
+        private static boolean unchanged(final Map<String, String> reads, final Properties properties) {
+            for (final Map.Entry<String, String> read : reads.entrySet()) {
+                if (!Objects.equals(read.getValue(), properties.getProperty(read.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class InFlight {
+
+        private final Thread owner;
+        private final CountDownLatch done;
+
+        InFlight(final Thread owner) {
+            this.owner = owner;
+            this.done = new CountDownLatch(1);
+        }
+    }
+
+    /**
+     * Delegates everything to the underlying properties, reports reads of single keys and reads as a whole
+     * (iteration, copy, size).
+     */
+    private static class ReadTrackingProperties extends Properties {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Properties delegate;
+        private final transient BiConsumer<String, String> onRead;
+        private final transient Runnable onReadAll;
+
+        ReadTrackingProperties(
+            final Properties delegate,
+            final BiConsumer<String, String> onRead,
+            final Runnable onReadAll
+        ) {
+            this.delegate = delegate;
+            this.onRead = onRead;
+            this.onReadAll = onReadAll;
+        }
+
+        @Override
+        public String getProperty(final String key) {
+            final String value = this.delegate.getProperty(key);
+            this.onRead.accept(key, value);
+            return value;
+        }
+
+        @Override
+        public String getProperty(final String key, final String defaultValue) {
+            final String value = this.getProperty(key);
+            return value != null ? value : defaultValue;
+        }
+
+        @Override
+        public synchronized Object get(final Object key) {
+            final Object value = this.delegate.get(key);
+            if (key instanceof String && (value == null || value instanceof String)) {
+                this.onRead.accept((String) key, (String) value);
+            }
+            return value;
+        }
+
+        @Override
+        public synchronized boolean containsKey(final Object key) {
+            return this.get(key) != null;
+        }
+
+        @Override
+        public synchronized Object setProperty(final String key, final String value) {
+            return this.delegate.setProperty(key, value);
+        }
+
+        @Override
+        public synchronized Object put(final Object key, final Object value) {
+            return this.delegate.put(key, value);
+        }
+
+        @Override
+        public synchronized void putAll(final Map<?, ?> map) {
+            this.delegate.putAll(map);
+        }
+
+        @Override
+        public synchronized Object remove(final Object key) {
+            return this.delegate.remove(key);
+        }
+
+        @Override
+        public synchronized void clear() {
+            this.delegate.clear();
+        }
+
+        @Override
+        public synchronized int size() {
+            this.onReadAll.run();
+            return this.delegate.size();
+        }
+
+        @Override
+        public synchronized boolean isEmpty() {
+            this.onReadAll.run();
+            return this.delegate.isEmpty();
+        }
+
+        @Override
+        public synchronized Enumeration<Object> keys() {
+            this.onReadAll.run();
+            return this.delegate.keys();
+        }
+
+        @Override
+        public synchronized Enumeration<Object> elements() {
+            this.onReadAll.run();
+            return this.delegate.elements();
+        }
+
+        @Override
+        public synchronized boolean contains(final Object value) {
+            this.onReadAll.run();
+            return this.delegate.contains(value);
+        }
+
+        @Override
+        public boolean containsValue(final Object value) {
+            this.onReadAll.run();
+            return this.delegate.containsValue(value);
+        }
+
+        @Override
+        public Set<Object> keySet() {
+            this.onReadAll.run();
+            return this.delegate.keySet();
+        }
+
+        @Override
+        public Set<Map.Entry<Object, Object>> entrySet() {
+            this.onReadAll.run();
+            return this.delegate.entrySet();
+        }
+
+        @Override
+        public Collection<Object> values() {
+            this.onReadAll.run();
+            return this.delegate.values();
+        }
+
+        @Override
+        public Enumeration<?> propertyNames() {
+            this.onReadAll.run();
+            return this.delegate.propertyNames();
+        }
+
+        @Override
+        public Set<String> stringPropertyNames() {
+            this.onReadAll.run();
+            return this.delegate.stringPropertyNames();
+        }
+
+        @Override
+        public synchronized void forEach(final BiConsumer<? super Object, ? super Object> action) {
+            this.onReadAll.run();
+            this.delegate.forEach(action);
+        }
+
+        @Override
+        public synchronized Object getOrDefault(final Object key, final Object defaultValue) {
+            final Object value = this.get(key);
+            return value != null ? value : defaultValue;
+        }
+
+        @Override
+        public synchronized Object putIfAbsent(final Object key, final Object value) {
+            return this.delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public synchronized boolean remove(final Object key, final Object value) {
+            return this.delegate.remove(key, value);
+        }
+
+        @Override
+        public synchronized Object computeIfAbsent(final Object key, final Function<? super Object, ?> mappingFunction) {
+            return this.delegate.computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public synchronized Object computeIfPresent(
+            final Object key,
+            final BiFunction<? super Object, ? super Object, ?> remappingFunction
+        ) {
+            return this.delegate.computeIfPresent(key, remappingFunction);
+        }
+
+        @Override
+        public synchronized Object compute(final Object key, final BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            return this.delegate.compute(key, remappingFunction);
+        }
+
+        @Override
+        public synchronized Object merge(
+            final Object key,
+            final Object value,
+            final BiFunction<? super Object, ? super Object, ?> remappingFunction
+        ) {
+            return this.delegate.merge(key, value, remappingFunction);
+        }
+
+        @Override
+        public synchronized Object replace(final Object key, final Object value) {
+            return this.delegate.replace(key, value);
+        }
+
+        @Override
+        public synchronized boolean replace(final Object key, final Object oldValue, final Object newValue) {
+            return this.delegate.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public synchronized void replaceAll(final BiFunction<? super Object, ? super Object, ?> function) {
+            this.delegate.replaceAll(function);
+        }
+
+        @Override
+        public synchronized Object clone() {
+            this.onReadAll.run();
+            return this.delegate.clone();
+        }
+
+        @Override
+        public synchronized String toString() {
+            this.onReadAll.run();
+            return this.delegate.toString();
+        }
+
+        @Override
+        public synchronized boolean equals(final Object obj) {
+            return this == obj || this.delegate.equals(obj);
+        }
+
+        @Override
+        public synchronized int hashCode() {
+            return this.delegate.hashCode();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package top.infra.maven.shared;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import top.infra.maven.CiOption;
+
+/**
+ * Evaluates option groups in a single pass.
+ * <p/>
+ * 1. Value of each option is resolved once by {@link CiOption#getValue(CiOptionContext)} on a {@link CachingCiOptionContext},
+ * which discovers dependencies between options. Groups are resolved concurrently (a group waits for options of other
+ * groups being resolved, so each option is still resolved once).
+ * <br/>
+ * 2. {@link CiOption#setProperties(top.infra.maven.CiOptionContext, Properties)} is called serially in dependency order
+ * (dependencies first, otherwise in group order), values are served from memo.
+ */
+public class CiOptionEvaluator {
+
+    private final CachingCiOptionContext context;
+    private final int threads;
+
+    private final List<CiOption> order;
+    private final Map<CiOption, String> groupNames;
+
+    public CiOptionEvaluator(
+        final CachingCiOptionContext context,
+        final int threads
+    ) {
+        this.context = context;
+        this.threads = threads;
+
+        this.order = new ArrayList<>();
+        this.groupNames = new LinkedHashMap<>();
+    }
+
+    /**
+     * Evaluate option groups.
+     *
+     * @param optionGroups option groups
+     * @return properties of option values
+     */
+    public Properties evaluate(final Collection<List<CiOption>> optionGroups) {
+        final List<List<CiOption>> groups = optionGroups
+            .stream()
+            .map(group -> group.stream().sorted().collect(toList()))
+            .collect(toList());
+        groups.forEach(group -> group.forEach(ciOption -> {
+            DefaultCiOptionContext.checkPropertyName(ciOption);
+            this.groupNames.putIfAbsent(ciOption, groupName(ciOption));
+        }));
+
+        this.resolve(groups);
+
+        final Set<CiOption> visited = new LinkedHashSet<>();
+        this.groupNames.keySet().forEach(ciOption -> this.visit(ciOption, visited));
+
+        final Properties properties = new Properties();
+        this.order.forEach(ciOption -> ciOption.setProperties(this.context, properties));
+        return properties;
+    }
+
+    /**
+     * Evaluation order, cost and dependencies (options out of groups omitted) of each option.
+     *
+     * @return report, one option per line
+     */
+    public String report() {
+        final StringBuilder sb = new StringBuilder(this.order.size() * 96);
+        for (int idx = 0; idx < this.order.size(); idx++) {
+            final CiOption ciOption = this.order.get(idx);
+            final List<String> dependencies = this.context.directDependencies(ciOption)
+                .stream()
+                .map(dependency -> this.groupNames.getOrDefault(dependency, groupName(dependency)) + "." + dependency.name())
+                .collect(toList());
+            sb.append(String.format("    %03d %s.%s cost [%.3f ms] depends on %s%n",
+                idx,
+                this.groupNames.get(ciOption),
+                ciOption.name(),
+                this.context.cost(ciOption) / 1000000d,
+                dependencies
+            ));
+        }
+        return sb.toString();
+    }
+
+    public List<CiOption> getOrder() {
+        return Collections.unmodifiableList(this.order);
+    }
+
+    private void resolve(final List<List<CiOption>> groups) {
+        if (this.threads <= 1 || groups.size() <= 1) {
+            groups.forEach(group -> group.forEach(ciOption -> ciOption.getValue(this.context)));
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.threads, groups.size()), threadFactory());
+        try {
+            CompletableFuture.allOf(groups
+                .stream()
+                .map(group -> CompletableFuture.runAsync(
+                    () -> group.forEach(ciOption -> ciOption.getValue(this.context)), executor))
+                .toArray(CompletableFuture[]::new)
+            ).join();
+        } catch (final CompletionException ex) {
+            final Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void visit(final CiOption ciOption, final Set<CiOption> visited) {
+        if (visited.add(ciOption)) {
+            this.context.directDependencies(ciOption)
+                .stream()
+                .filter(this.groupNames::containsKey)
+                .forEach(dependency -> this.visit(dependency, visited));
+            this.order.add(ciOption);
+        }
+    }
+
+    private static String groupName(final CiOption ciOption) {
+        return ciOption instanceof Enum
+            ? ((Enum<?>) ciOption).getDeclaringClass().getSimpleName()
+            : ciOption.getClass().getSimpleName();
+    }
+
+    private static ThreadFactory threadFactory() {
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        final AtomicInteger counter = new AtomicInteger(0);
+        return runnable -> {
+            final Thread thread = new Thread(runnable, String.format("ci-option-%s", counter.incrementAndGet()));
+            thread.setContextClassLoader(contextClassLoader);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
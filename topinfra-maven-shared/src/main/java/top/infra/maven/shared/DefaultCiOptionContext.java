@@ -43,11 +43,7 @@ public class DefaultCiOptionContext implements CiOptionContext {
             .stream()
             .flatMap(group -> group.stream().sorted())
             .forEach(ciOption -> {
-                if (!ciOption.name().equals(ciOption.name(ciOption.getPropertyName()))) {
-                    throw new IllegalArgumentException(String.format(
-                        "invalid property name [%s] for enum name [%s]", ciOption.name(), ciOption.getPropertyName()));
-                }
-
+                checkPropertyName(ciOption);
                 ciOption.setProperties(this, properties);
             });
 
@@ -57,4 +53,11 @@ public class DefaultCiOptionContext implements CiOptionContext {
 
         return properties;
     }
+
+    static void checkPropertyName(final CiOption ciOption) {
+        if (!ciOption.name().equals(ciOption.name(ciOption.getPropertyName()))) {
+            throw new IllegalArgumentException(String.format(
+                "invalid property name [%s] for enum name [%s]", ciOption.name(), ciOption.getPropertyName()));
+        }
+    }
 }
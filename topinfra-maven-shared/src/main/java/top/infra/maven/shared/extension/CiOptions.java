@@ -1,11 +1,13 @@
 package top.infra.maven.shared.extension;
 
+import top.infra.maven.CiOptionNames;
+
 public abstract class CiOptions {
 
     private CiOptions() {
     }
 
     public static String systemPropertyName(final String propertyName) {
-        return GlobalOption.FAST.systemPropertyName(propertyName);
+        return CiOptionNames.systemPropertyName(GlobalOption.FAST.getEnvVariablePrefix(), propertyName);
     }
 }
@@ -45,6 +45,17 @@ public final class Constants {
         PHASE_INSTALL
     ));
 
+    /**
+     * Names for {@link top.infra.maven.extension.MavenEventAware#consumes()} and
+     * {@link top.infra.maven.extension.MavenEventAware#produces()}.
+     */
+    public static final String RESOURCE_CACHE_SETTINGS_RESOURCES = "resource:cacheSettingsResources";
+    public static final String RESOURCE_CI_OPTIONS = "resource:ciOptions";
+    public static final String RESOURCE_CI_OPTS_PROPERTIES = "resource:ciOptsProperties";
+    public static final String RESOURCE_GIT_PROPERTIES = "resource:gitProperties";
+    public static final String RESOURCE_GIT_REPOSITORY = "resource:gitRepository";
+    public static final String RESOURCE_SETTINGS_SECURITY_XML = "resource:settingsSecurityXml";
+
     public static final String SRC_CI_OPTS_PROPERTIES = "ci_opts.properties";
     public static final String SETTINGS_SECURITY_XML = "settings-security.xml";
 
@@ -5,14 +5,12 @@ import static top.infra.maven.shared.utils.FileUtils.pathname;
 import static top.infra.maven.shared.utils.SupportFunction.stackTrace;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import org.apache.maven.model.Model;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuilder;
@@ -47,23 +45,26 @@ public class DefaultMavenProjectInfo implements MavenProjectInfo {
         this.javaVersion = javaVersion;
     }
 
+    /**
+     * Read project info from header of pomFile, without building the project.
+     *
+     * @param logger  logger
+     * @param pomFile pom.xml
+     * @return project info, empty if failed or coordinates need a project build to resolve
+     */
     public static Optional<MavenProjectInfo> newProjectInfoByReadPom(
         final Logger logger,
         final File pomFile
     ) {
-        final MavenXpp3Reader xpp3Reader = new MavenXpp3Reader();
         try {
-            final Model model = xpp3Reader.read(new FileReader(pomFile));
-            return Optional.of(new DefaultMavenProjectInfo(
-                model.getArtifactId(),
-                model.getGroupId(),
-                model.getPackaging(),
-                model.getVersion(),
-                model.getProperties().getProperty("java.version")
-            ));
+            final Optional<MavenProjectInfo> result = PomHeaderReader.readProjectInfo(pomFile);
+            if (!result.isPresent() && logger.isInfoEnabled()) {
+                logger.info(String.format("    Coordinates of pomFile [%s] not found in pom header", pathname(pomFile)));
+            }
+            return result;
         } catch (final IllegalArgumentException | IOException | XmlPullParserException ex) {
             if (logger.isWarnEnabled()) {
-                logger.warn(String.format("    Failed to read project info from pomFile [%s] (by MavenXpp3Reader)",
+                logger.warn(String.format("    Failed to read project info from pomFile [%s] (by PomHeaderReader)",
                     pathname(pomFile)),
                     ex);
             }
@@ -1,5 +1,8 @@
 package top.infra.maven.shared.extension;
 
+import static top.infra.maven.shared.extension.Constants.BOOL_STRING_FALSE;
+import static top.infra.maven.shared.extension.Constants.BOOL_STRING_TRUE;
+
 import java.util.Optional;
 import java.util.Properties;
 import java.util.function.BiFunction;
@@ -13,6 +16,35 @@ import top.infra.maven.CiOptionContext;
  */
 public enum GlobalOption implements CiOption {
 
+    /**
+     * Persist slim models custom activators need across builds, see ActivatorModelResolver.
+     * Off by default, poms having profiles supported by custom activators (directly or inherited) are not cached.
+     */
+    ACTIVATOR_MODEL_CACHE("activator.model.cache", BOOL_STRING_FALSE),
+    /**
+     * Max poms in the persistent activator model cache, least recently used are evicted.
+     */
+    ACTIVATOR_MODEL_CACHE_SIZE("activator.model.cache.size", "2048"),
+    /**
+     * Resolve models of all reactor modules in parallel at session start, before profiles of modules are selected.
+     */
+    ACTIVATOR_MODEL_PRERESOLVE("activator.model.preresolve", BOOL_STRING_FALSE),
+    /**
+     * Keep only slim projections (coordinates, packaging, properties) of models custom activators need.
+     */
+    ACTIVATOR_MODEL_SLIM("activator.model.slim", BOOL_STRING_TRUE),
+    /**
+     * Connect timeout (milliseconds) of downloads.
+     */
+    DOWNLOAD_CONNECT_TIMEOUT("download.connect.timeout", "10000"),
+    /**
+     * Max concurrent connections per host of downloads, idle connections are kept alive and reused.
+     */
+    DOWNLOAD_CONNECTIONS_PER_HOST("download.connections.per.host", "5"),
+    /**
+     * Read timeout (milliseconds) of downloads.
+     */
+    DOWNLOAD_READ_TIMEOUT("download.read.timeout", "20000"),
     FAST("fast"),
     /**
      * Auto detect infrastructure using for this build.<br/>
@@ -26,6 +58,15 @@ public enum GlobalOption implements CiOption {
      * see: 'https://maven.apache.org/guides/mini/guide-encryption.html'.
      */
     MASTER_PASSWORD("master.password"),
+    /**
+     * Max threads evaluating option groups concurrently, 1 (default) means serially.
+     */
+    OPTION_EVALUATION_THREADS("option.evaluation.threads", "1"),
+    /**
+     * Max (strongly referenced) entries in the in memory model cache of activator model resolver,
+     * least recently used are kept softly referenced.
+     */
+    REACTOR_MODEL_CACHE_SIZE("reactor.model.cache.size", "512"),
     ;
 
     private final String defaultValue;
@@ -16,11 +16,14 @@ public abstract class Orders {
     public static final int ORDER_CI_OPTION_CONTEXT_FACTORY = ORDER_GIT_PROPERTIES + 1;
     public static final int ORDER_INFRASTRUCTURE_ACTIVATOR = ORDER_CI_OPTION_CONTEXT_FACTORY + 1;
 
-    public static final int ORDER_GIT_REPO_FACTORY = ORDER_INFRASTRUCTURE_ACTIVATOR + 1;
-    public static final int ORDER_CACHE_SETTINGS_RESOURCES_FACTORY = ORDER_GIT_REPO_FACTORY + 1;
+    public static final int ORDER_RESOURCES_PREFETCHER = ORDER_INFRASTRUCTURE_ACTIVATOR + 1;
+
+    public static final int ORDER_GIT_REPO_FACTORY = ORDER_RESOURCES_PREFETCHER + 1;
 
     public static final int ORDER_CI_OPTION_CONFIG_LOADER = ORDER_GIT_REPO_FACTORY + 1; //
     public static final int ORDER_CI_OPTION_INIT = ORDER_CI_OPTION_CONFIG_LOADER + 1;
+    // cache.settings.path may be set in ci_opts.properties
+    public static final int ORDER_CACHE_SETTINGS_RESOURCES_FACTORY = ORDER_CI_OPTION_INIT + 1;
 
     public static final int ORDER_MAVEN_SETTINGS_LOCALREPOSITORY = ORDER_CACHE_SETTINGS_RESOURCES_FACTORY + 1;
     public static final int EVENT_AWARE_ORDER_MAVEN_SETTINGS_SECURITY_XML = ORDER_MAVEN_SETTINGS_LOCALREPOSITORY + 1;
@@ -0,0 +1,228 @@
+package top.infra.maven.shared.extension;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.codehaus.plexus.util.ReaderFactory;
+import org.codehaus.plexus.util.xml.pull.MXParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+import top.infra.maven.extension.MavenProjectInfo;
+
+/**
+ * Reads only the header of a pom.xml (coordinates, &lt;parent&gt; and the top level &lt;properties&gt; block)
+ * by a streaming pull parser, stops at the end of &lt;properties&gt; once coordinates are known, so elements after it
+ * (dependencies, build, profiles etc.) are not parsed. Coordinates are expected before &lt;properties&gt;
+ * as in the conventional pom element order.
+ * <p/>
+ * Inherited groupId and version are taken from &lt;parent&gt;, inherited java.version from local parent pom.xml
+ * (&lt;relativePath&gt;, default ../pom.xml) if its coordinates match.
+ * <p/>
+ * Headers are cached per file fingerprint (canonical path, last modified time and size).
+ */
+final class PomHeaderReader {
+
+    static final String PROP_JAVA_VERSION = "java.version";
+
+    private static final String DEFAULT_PACKAGING = "jar";
+    private static final String DEFAULT_RELATIVE_PATH = "../pom.xml";
+    private static final int MAX_PARENT_DEPTH = 16;
+
+    private static final Map<String, Header> CACHE = new ConcurrentHashMap<>();
+
+    private PomHeaderReader() {
+    }
+
+    /**
+     * Read project info of pom.xml, inherited values are resolved from parent.
+     *
+     * @param pomFile pom.xml
+     * @return project info, empty if artifactId or version can not be determined without building the project
+     * @throws IOException            on read error
+     * @throws XmlPullParserException on malformed pom.xml
+     */
+    static Optional<MavenProjectInfo> readProjectInfo(final File pomFile) throws IOException, XmlPullParserException {
+        final Header header = header(pomFile);
+
+        final String groupId = header.groupId != null ? header.groupId : header.parentGroupId;
+        final String version = header.version != null ? header.version : header.parentVersion;
+        final String javaVersion = header.javaVersion != null ? header.javaVersion : inheritedJavaVersion(pomFile, header);
+
+        return header.artifactId != null && version != null
+            ? Optional.of(new DefaultMavenProjectInfo(header.artifactId, groupId, header.packaging, version, javaVersion))
+            : Optional.empty();
+    }
+
+    static void clearCache() {
+        CACHE.clear();
+    }
+
+    static int cacheSize() {
+        return CACHE.size();
+    }
+
+    static Header header(final File pomFile) throws IOException, XmlPullParserException {
+        final String path = canonicalPath(pomFile);
+        final long lastModified = pomFile.lastModified();
+        final long length = pomFile.length();
+
+        final Header cached = CACHE.get(path);
+        if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+            return cached;
+        }
+
+        final Header header = read(pomFile, lastModified, length);
+        CACHE.put(path, header);
+        return header;
+    }
+
+    private static String inheritedJavaVersion(final File pomFile, final Header child) {
+        Header current = child;
+        File currentFile = pomFile;
+        for (int depth = 0; depth < MAX_PARENT_DEPTH && current.hasParent(); depth++) {
+            final File parentFile = parentPom(currentFile, current);
+            if (parentFile == null) {
+                return null;
+            }
+
+            final Header parent;
+            try {
+                parent = header(parentFile);
+            } catch (final IOException | XmlPullParserException ex) {
+                return null;
+            }
+            if (!parent.isParentOf(current)) {
+                return null;
+            }
+            if (parent.javaVersion != null) {
+                return parent.javaVersion;
+            }
+            current = parent;
+            currentFile = parentFile;
+        }
+        return null;
+    }
+
+    private static File parentPom(final File pomFile, final Header header) {
+        final String relativePath = header.parentRelativePath != null ? header.parentRelativePath : DEFAULT_RELATIVE_PATH;
+        if (relativePath.isEmpty()) {
+            return null;
+        }
+
+        final File file = new File(pomFile.getAbsoluteFile().getParentFile(), relativePath);
+        final File parentFile = file.isDirectory() ? new File(file, "pom.xml") : file;
+        return parentFile.isFile() ? parentFile : null;
+    }
+
+    private static Header read(final File pomFile, final long lastModified, final long length)
+        throws IOException, XmlPullParserException {
+        final Header header = new Header(lastModified, length);
+        try (final Reader reader = ReaderFactory.newXmlReader(pomFile)) {
+            final XmlPullParser parser = new MXParser();
+            parser.setInput(reader);
+
+            String section = null;
+            int eventType = parser.getEventType();
+            while (eventType != XmlPullParser.END_DOCUMENT) {
+                if (eventType == XmlPullParser.START_TAG) {
+                    final int depth = parser.getDepth();
+                    final String name = parser.getName();
+                    if (depth == 1) {
+                        if (!"project".equals(name)) {
+                            throw new XmlPullParserException("Expected root element 'project' but found '" + name + "'", parser, null);
+                        }
+                    } else if (depth == 2) {
+                        if ("parent".equals(name) || "properties".equals(name)) {
+                            section = name;
+                        } else if ("groupId".equals(name)) {
+                            header.groupId = text(parser);
+                        } else if ("artifactId".equals(name)) {
+                            header.artifactId = text(parser);
+                        } else if ("version".equals(name)) {
+                            header.version = text(parser);
+                        } else if ("packaging".equals(name)) {
+                            header.packaging = text(parser);
+                        }
+                    } else if (depth == 3 && "parent".equals(section)) {
+                        if ("groupId".equals(name)) {
+                            header.parentGroupId = text(parser);
+                        } else if ("artifactId".equals(name)) {
+                            header.parentArtifactId = text(parser);
+                        } else if ("version".equals(name)) {
+                            header.parentVersion = text(parser);
+                        } else if ("relativePath".equals(name)) {
+                            header.parentRelativePath = text(parser);
+                        }
+                    } else if (depth == 3 && "properties".equals(section) && PROP_JAVA_VERSION.equals(name)) {
+                        header.javaVersion = text(parser);
+                    }
+                } else if (eventType == XmlPullParser.END_TAG && parser.getDepth() == 2) {
+                    if ("properties".equals(section) && header.isComplete()) {
+                        break; // header read, skip the rest (dependencies, build, profiles etc.)
+                    }
+                    section = null;
+                }
+                eventType = parser.next();
+            }
+        }
+        return header;
+    }
+
+    private static String text(final XmlPullParser parser) throws IOException, XmlPullParserException {
+        return parser.nextText().trim();
+    }
+
+    private static String canonicalPath(final File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (final IOException ex) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    static final class Header {
+
+        private final long lastModified;
+        private final long length;
+
+        private String groupId;
+        private String artifactId;
+        private String version;
+        private String packaging = DEFAULT_PACKAGING;
+
+        private String parentGroupId;
+        private String parentArtifactId;
+        private String parentVersion;
+        private String parentRelativePath;
+
+        private String javaVersion;
+
+        private Header(final long lastModified, final long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        private boolean hasParent() {
+            return this.parentArtifactId != null;
+        }
+
+        private boolean isComplete() {
+            return this.artifactId != null
+                && (this.groupId != null || this.parentGroupId != null)
+                && (this.version != null || this.parentVersion != null);
+        }
+
+        private boolean isParentOf(final Header child) {
+            final String groupId = this.groupId != null ? this.groupId : this.parentGroupId;
+            final String version = this.version != null ? this.version : this.parentVersion;
+            return child.parentArtifactId.equals(this.artifactId)
+                && (child.parentGroupId == null || child.parentGroupId.equals(groupId))
+                && (child.parentVersion == null || child.parentVersion.equals(version));
+        }
+    }
+}
@@ -4,9 +4,9 @@ import static top.infra.maven.shared.utils.MavenUtils.profileId;
 import static top.infra.maven.shared.utils.MavenUtils.projectName;
 
 import java.io.File;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.maven.model.Model;
 import org.apache.maven.model.Profile;
@@ -14,6 +14,7 @@ import org.apache.maven.model.building.ModelProblemCollector;
 import org.apache.maven.model.profile.ProfileActivationContext;
 
 import top.infra.logging.Logger;
+import top.infra.maven.extension.activator.ActivationTrace;
 import top.infra.maven.extension.activator.CustomActivator;
 import top.infra.maven.extension.activator.model.ActivatorModelResolver;
 import top.infra.maven.shared.logging.LoggerPlexusImpl;
@@ -29,16 +30,33 @@ public abstract class AbstractCustomActivator implements CustomActivator {
 
     protected final ActivatorModelResolver resolver;
 
-    private final Map<String, Boolean> profileMemento;
+    /**
+     * Cached results (if {@link #cacheResult()}), results are deterministic, a result computed concurrently is kept once.
+     */
+    private final ConcurrentMap<String, Boolean> profileMemento;
+
+    /**
+     * Records results, nullable.
+     */
+    private final ActivationTrace activationTrace;
 
     protected AbstractCustomActivator(
         final org.codehaus.plexus.logging.Logger logger,
         final ActivatorModelResolver resolver
+    ) {
+        this(logger, resolver, null);
+    }
+
+    protected AbstractCustomActivator(
+        final org.codehaus.plexus.logging.Logger logger,
+        final ActivatorModelResolver resolver,
+        final ActivationTrace activationTrace
     ) {
         this.logger = new LoggerPlexusImpl(logger);
         this.resolver = resolver;
+        this.activationTrace = activationTrace;
 
-        this.profileMemento = new LinkedHashMap<>();
+        this.profileMemento = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -47,17 +65,17 @@ public abstract class AbstractCustomActivator implements CustomActivator {
         final ProfileActivationContext context,
         final ModelProblemCollector problems
     ) {
+        final long start = System.nanoTime();
+        boolean mementoHit = false;
         try {
             final Boolean result;
 
             if (!this.presentInConfig(profile, context, problems)) {
                 result = false;
 
-                if (logger.isDebugEnabled()) {
-                    logger.debug(String.format("    %s profile '%s' not presentInConfig", this.getName(), profileId(profile)));
-                    logger.debug(String.format("    %s project='%s' profile='%s' result='false'",
-                        this.getName(), projectName(context), profileId(profile)));
-                }
+                logger.debug(() -> String.format("    %s profile '%s' not presentInConfig", this.getName(), profileId(profile)));
+                logger.debug(() -> String.format("    %s project='%s' profile='%s' result='false'",
+                    this.getName(), projectName(context), profileId(profile)));
             } else {
                 // Required project.
                 final Optional<Model> project = this.resolver.resolveModel(profile, context);
@@ -69,18 +87,19 @@ public abstract class AbstractCustomActivator implements CustomActivator {
                         result = this.isActive(project.get(), profile, context, problems);
 
                         if (this.cacheResult()) {
-                            this.profileMemento.put(mementoKey, result);
+                            this.profileMemento.putIfAbsent(mementoKey, result);
                         }
 
                         if (result || this.cacheResult()) {
-                            logger.info(String.format("    %s project='%s' profile='%s' result='%s'",
+                            logger.info(() -> String.format("    %s project='%s' profile='%s' result='%s'",
                                 this.getName(), projectName(context), profileId(profile), result));
-                        } else if (logger.isDebugEnabled()) {
-                            logger.debug(String.format("    %s project='%s' profile='%s' result='false'",
+                        } else {
+                            logger.debug(() -> String.format("    %s project='%s' profile='%s' result='false'",
                                 this.getName(), projectName(context), profileId(profile)));
                         }
                     } else {
                         result = found;
+                        mementoHit = true;
                     }
                 } else {
                     // reportProblem("Failed to resolve model", new Exception("Invalid Project"), profile, context, problems);
@@ -88,6 +107,9 @@ public abstract class AbstractCustomActivator implements CustomActivator {
                 }
             }
 
+            if (this.activationTrace != null) {
+                this.activationTrace.onActivator(context, profile, this.getName(), result, mementoHit, System.nanoTime() - start);
+            }
             return result;
         } catch (final Exception ex) {
             logger.error(ex.getMessage(), ex);
@@ -100,6 +122,14 @@ public abstract class AbstractCustomActivator implements CustomActivator {
         return false;
     }
 
+    /**
+     * Cached results are cheap after first evaluation of each pom.xml.
+     */
+    @Override
+    public int getCost() {
+        return this.cacheResult() ? COST_DEFAULT / 10 : COST_DEFAULT;
+    }
+
     @Override
     public boolean presentInConfig(
         final Profile profile,
@@ -1,22 +1,32 @@
 package top.infra.maven.shared.extension.activator.model;
 
 import java.io.File;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.maven.model.Model;
 import org.apache.maven.model.Profile;
 import org.apache.maven.model.building.ModelBuilder;
 import org.apache.maven.model.building.ModelBuildingRequest;
 import org.apache.maven.model.building.ModelBuildingResult;
+import org.apache.maven.model.profile.DefaultProfileActivationContext;
 import org.apache.maven.model.profile.ProfileActivationContext;
 
+import top.infra.logging.Logger;
+import top.infra.maven.extension.activator.ActivationTrace;
+import top.infra.maven.extension.activator.ActivationTrace.ModelSource;
 import top.infra.maven.extension.activator.model.ActivatorModelResolver;
+import top.infra.maven.shared.logging.LoggerPlexusImpl;
 
 public abstract class AbstractActivatorModelResolver implements ActivatorModelResolver {
 
-    protected final org.codehaus.plexus.logging.Logger logger;
+    protected final Logger logger;
 
     /**
      * Builder provided by Maven runtime.
@@ -25,39 +35,69 @@ public abstract class AbstractActivatorModelResolver implements ActivatorModelRe
     private final ModelBuilder modelBuilder;
 
     /**
-     * Remember processed profile pom.xml file to control recursion.
+     * Effective model of each pom.xml file (see {@link #pomKey(File)}), completed with null if model building failed.
+     * Model of a pom.xml file is built once, other threads asking for it wait for the same build.
+     * Failed builds are removed (retried on next call), so are models of previous versions of a pom.xml file.
      */
-    private final Map<String, Model> profileMemento;
+    private final ConcurrentMap<String, CompletableFuture<Model>> pomModels;
 
-    private final boolean verbose;
+    /**
+     * Latest {@link #pomKey(File)} of each pom.xml file path.
+     */
+    private final ConcurrentMap<String, String> pomKeys;
+
+    /**
+     * pom.xml files being resolved by current thread, to control recursion.
+     */
+    private final ThreadLocal<Set<String>> resolving;
+
+    /**
+     * Remember which profiles consulted each pom.xml file.
+     */
+    private final ConcurrentMap<String, Set<String>> profileMemento;
+
+    /**
+     * Slim models persisted across builds, optional.
+     */
+    private volatile PersistentModelCache persistentModelCache;
+
+    /**
+     * Records model resolutions, optional.
+     */
+    private volatile ActivationTrace activationTrace;
+
+    /**
+     * Keep {@link ModelProjection} instead of full effective model.
+     */
+    private volatile boolean slimModel;
 
     protected AbstractActivatorModelResolver(
         final org.codehaus.plexus.logging.Logger logger,
         final ModelBuilder modelBuilder
     ) {
-        this.logger = logger;
+        this.logger = new LoggerPlexusImpl(logger);
         this.modelBuilder = modelBuilder;
-        this.profileMemento = new LinkedHashMap<>();
-
-        this.verbose = logger.isDebugEnabled();
+        this.pomModels = new ConcurrentHashMap<>();
+        this.pomKeys = new ConcurrentHashMap<>();
+        this.resolving = ThreadLocal.withInitial(HashSet::new);
+        this.profileMemento = new ConcurrentHashMap<>();
+        this.slimModel = true;
     }
 
     /**
      * <p>
      * Resolve project pom.xml model: interpolate properties and fields.
      * </p>
-     * Note: invokes recursive call back to this instance.
-     * Control recursion by processing projects only once via {@link #profileMemento}.
+     * Effective model is built once per pom.xml file and shared by all profiles of it.
+     * Note: invokes recursive call back to this instance (model building activates profiles of the same pom.xml).
+     * Control recursion by resolving empty model for pom.xml files being resolved (see {@link #resolving}).
      */
     @Override
     public Optional<Model> resolveModel(final Profile profile, final ProfileActivationContext context) {
         final File pomFile = this.projectPOM(context);
 
         if ("source".equals(profile.getSource())) {
-            this.registerMemento(profile, pomFile, null);
-            if (this.verbose) {
-                logger.debug(String.format("    profile [%s] source is 'source'.", profile));
-            }
+            logger.debug("    profile [%s] source is 'source'.", profile);
             return Optional.empty();
         }
 
@@ -70,53 +110,121 @@ public abstract class AbstractActivatorModelResolver implements ActivatorModelRe
         // }
 
         if (pomFile == null) {
-            this.registerMemento(profile, null, null);
-            if (this.verbose) {
-                logger.debug(String.format("    pomFile not found for profile [%s].", profile));
-            }
+            logger.debug("    pomFile not found for profile [%s].", profile);
             return Optional.empty();
         }
 
-        final Model modelFound;
-        final boolean doResolve;
-        if (this.hasMemento(profile, pomFile)) {
-            modelFound = this.getMemento(profile, pomFile);
-            doResolve = false;
-            if (this.verbose) {
-                logger.debug(String.format("    resolveModel [%s] for profile [%s]. false", pomFile.getPath(), profile));
-            }
-        } else {
-            modelFound = null;
-            doResolve = true;
-            if (this.verbose) {
-                logger.debug(String.format("    resolveModel [%s] for profile [%s]. true", pomFile.getPath(), profile));
-            }
+        final String pomKey = pomKey(pomFile);
+        this.registerMemento(profile, pomKey);
+        return this.resolveModel(pomFile, pomKey, context, profile);
+    }
+
+    /**
+     * Resolve (warm up) model of a pom.xml file ahead of profile activation, e.g. on a reactor pre-resolution.
+     *
+     * @param pomFile          pom.xml file
+     * @param systemProperties system properties
+     * @param userProperties   user properties
+     * @return model, empty if model building failed or pom.xml is being resolved by current thread
+     */
+    public Optional<Model> preResolveModel(
+        final File pomFile,
+        final Properties systemProperties,
+        final Properties userProperties
+    ) {
+        final File absolutePomFile = pomFile.getAbsoluteFile();
+        final ProfileActivationContext context = new DefaultProfileActivationContext()
+            .setProjectDirectory(absolutePomFile.getParentFile())
+            .setSystemProperties(systemProperties)
+            .setUserProperties(userProperties);
+        return this.resolveModel(absolutePomFile, pomKey(absolutePomFile), context, "pre-resolution");
+    }
+
+    private Optional<Model> resolveModel(
+        final File pomFile,
+        final String pomKey,
+        final ProfileActivationContext context,
+        final Object profile
+    ) {
+        final Set<String> resolvingByThread = this.resolving.get();
+        if (resolvingByThread.contains(pomKey)) {
+            logger.debug("    resolveModel [%s] for profile [%s]. false (recursive)", pomFile, profile);
+            return Optional.empty();
         }
 
-        if (!this.hasMemento(profile, pomFile)) {
-            this.registerMemento(profile, pomFile, null);
+        final long start = System.nanoTime();
+        final CompletableFuture<Model> created = new CompletableFuture<>();
+        final CompletableFuture<Model> found = this.pomModels.putIfAbsent(pomKey, created);
+        if (found != null) {
+            logger.debug("    resolveModel [%s] for profile [%s]. false (consulted by %s)",
+                pomFile, profile, this.profileMemento.get(pomKey));
+            final Model model = found.join();
+            this.trace(pomFile, model != null ? ModelSource.MEMORY : ModelSource.FAILED, start);
+            return Optional.ofNullable(model);
         }
+        this.evictPrevious(pomKey);
 
-        if (doResolve) {
-            // if (logger.isDebugEnabled()) {
-            //     context.getProjectProperties().forEach((k, v) -> logger.debug(String.format("    projectProperty %s => %s", k, v)));
-            //     context.getUserProperties().forEach((k, v) -> logger.debug(String.format("    %s => %s", k, v)));
-            //     context.getSystemProperties().forEach((k, v) -> logger.debug(String.format("    %s => %s", k, v)));
-            // }
+        logger.debug("    resolveModel [%s] for profile [%s]. true", pomFile, profile);
+        // if (logger.isDebugEnabled()) {
+        //     context.getProjectProperties().forEach((k, v) -> logger.debug(String.format("    projectProperty %s => %s", k, v)));
+        //     context.getUserProperties().forEach((k, v) -> logger.debug(String.format("    %s => %s", k, v)));
+        //     context.getSystemProperties().forEach((k, v) -> logger.debug(String.format("    %s => %s", k, v)));
+        // }
 
-            try {
+        resolvingByThread.add(pomKey);
+        final PersistentModelCache persistent = this.persistentModelCache;
+        Model model = null;
+        ModelSource source = ModelSource.FAILED;
+        try {
+            final Optional<Model> persisted = persistent != null
+                ? persistent.get(pomFile, context.getSystemProperties(), context.getUserProperties())
+                : Optional.empty();
+            if (persisted.isPresent()) {
+                logger.debug("    resolveModel [%s] for profile [%s]. found in persistent cache", pomFile, profile);
+                model = persisted.get();
+                source = ModelSource.PERSISTENT_CACHE;
+            } else {
                 final ModelBuildingRequest buildingRequest = this.modelBuildingRequest(context, pomFile);
                 final ModelBuildingResult buildingResult = this.modelBuilder.build(buildingRequest);
-                return Optional.of(this.registerMemento(profile, pomFile, buildingResult.getEffectiveModel()));
-            } catch (final Exception error) {
-                logger.error(
-                    String.format("    resolveModel [%s] model for profile [%s] error. %s", pomFile.getPath(), profile, error.getMessage()),
-                    error
-                );
-                return Optional.empty();
+                model = this.slimModel
+                    ? ModelProjection.project(buildingResult.getEffectiveModel())
+                    : buildingResult.getEffectiveModel();
+                source = ModelSource.MODEL_BUILDER;
+                if (persistent != null) {
+                    persistent.put(pomFile, buildingResult, context.getSystemProperties(), context.getUserProperties());
+                }
             }
-        } else {
-            return Optional.ofNullable(modelFound);
+        } catch (final Exception error) {
+            logger.error(
+                String.format("    resolveModel [%s] model for profile [%s] error. %s", pomFile.getPath(), profile, error.getMessage()),
+                error
+            );
+        } finally {
+            resolvingByThread.remove(pomKey);
+            if (model == null) {
+                this.pomModels.remove(pomKey, created);
+            }
+            created.complete(model);
+        }
+        this.trace(pomFile, model != null ? source : ModelSource.FAILED, start);
+        return Optional.ofNullable(model);
+    }
+
+    /**
+     * Remove model of the previous version (key) of the same pom.xml file.
+     */
+    private void evictPrevious(final String pomKey) {
+        final String previous = this.pomKeys.put(pomPath(pomKey), pomKey);
+        if (previous != null && !previous.equals(pomKey)) {
+            this.pomModels.remove(previous);
+            this.profileMemento.remove(previous);
+        }
+    }
+
+    private void trace(final File pomFile, final ModelSource source, final long start) {
+        final ActivationTrace trace = this.activationTrace;
+        if (trace != null) {
+            trace.onModelResolved(pomFile, source, System.nanoTime() - start);
         }
     }
 
@@ -136,42 +244,59 @@ public abstract class AbstractActivatorModelResolver implements ActivatorModelRe
         if (pomFile.exists()) {
             return pomFile.getAbsoluteFile();
         } else {
-            logger.warn(String.format("    pomFile not exists [%s]", pomFile.getPath()));
+            logger.warn("    pomFile not exists [%s]", pomFile);
             return null;
         }
     }
 
+    public Optional<PersistentModelCache> getPersistentModelCache() {
+        return Optional.ofNullable(this.persistentModelCache);
+    }
+
+    public void setPersistentModelCache(final PersistentModelCache persistentModelCache) {
+        this.persistentModelCache = persistentModelCache;
+    }
+
+    public void setActivationTrace(final ActivationTrace activationTrace) {
+        this.activationTrace = activationTrace;
+    }
+
+    public boolean isSlimModel() {
+        return this.slimModel;
+    }
+
     /**
-     * Check if project was already processed.
+     * Resolve slim projections (see {@link ModelProjection}) instead of full effective models, default true.
+     *
+     * @param slimModel slimModel
      */
-    private boolean hasMemento(final Profile profile, final File pomFile) {
-        final String key = mementoKey(profile, pomFile);
-        final boolean result = pomFile != null && this.profileMemento.containsKey(key);
-        // if (logger.isDebugEnabled()) {
-        //     logger.debug(String.format("    hasMemento(%s, %s) key %s, result %s", profile, pomFile, key, result));
-        // }
-        return result;
+    public void setSlimModel(final boolean slimModel) {
+        this.slimModel = slimModel;
     }
 
-    private Model getMemento(final Profile profile, final File pomFile) {
-        // logger.debug(String.format("    getMemento(%s, %s)", profile, pomFile));
-        final String key = mementoKey(profile, pomFile);
-        return hasMemento(profile, pomFile) ? this.profileMemento.get(key) : null;
+    private void registerMemento(final Profile profile, final String pomKey) {
+        this.profileMemento.computeIfAbsent(pomKey, key -> ConcurrentHashMap.newKeySet()).add(profile.getId());
     }
 
-    private Model registerMemento(final Profile profile, final File pomFile, final Model model) {
-        if (pomFile != null) {
-            // if (logger.isDebugEnabled()) {
-            //     logger.debug(String.format("    registerMemento(%s, %s)", profile, pomFile));
-            // }
-            final String key = mementoKey(profile, pomFile);
-            this.profileMemento.put(key, model);
+    /**
+     * Key of pom.xml file, canonical path plus last modified time and size, so an edited pom.xml is resolved again.
+     */
+    static String pomKey(final File pomFile) {
+        String path;
+        try {
+            path = pomFile.getCanonicalPath();
+        } catch (final IOException ex) {
+            path = pomFile.getAbsolutePath();
         }
-        return model;
+        return path + "@" + pomFile.lastModified() + "@" + pomFile.length();
     }
 
-    private static String mementoKey(final Profile profile, final File pomFile) {
-        final String pom = pomFile != null ? pomFile.getPath() : "";
-        return String.format("%s@%s", profile, pom);
+    /**
+     * Path part of {@link #pomKey(File)}.
+     */
+    static String pomPath(final String pomKey) {
+        final int size = pomKey.lastIndexOf('@');
+        final int lastModified = size > 0 ? pomKey.lastIndexOf('@', size - 1) : -1;
+        return lastModified > 0 ? pomKey.substring(0, lastModified) : pomKey;
     }
 }
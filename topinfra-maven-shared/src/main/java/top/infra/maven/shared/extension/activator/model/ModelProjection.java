@@ -0,0 +1,298 @@
+package top.infra.maven.shared.extension.activator.model;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+
+/**
+ * Slim projection of an effective model, holds only what custom activators read:
+ * coordinates (id), packaging, parent coordinates, pom file and properties (interned, read-only).
+ * <p/>
+ * Type is kept as {@link Model} so activators and {@link top.infra.maven.extension.MavenProjectInfo} work unchanged,
+ * dependencies, plugins, reporting and build config of the full model are not retained.
+ * <p/>
+ * A projection is shared by all activators of the pom, setters of what it holds throw {@link UnsupportedOperationException}.
+ * Parts not retained (e.g. dependency lists) are empty and not guarded, nothing reads them from a projection.
+ */
+public final class ModelProjection {
+
+    private ModelProjection() {
+    }
+
+    /**
+     * Project an effective model, the full model can be released after this.
+     *
+     * @param model effective model
+     * @return projection, read-only
+     */
+    public static Model project(final Model model) {
+        if (model == null) {
+            return null;
+        }
+        final Parent parent = model.getParent();
+        return of(
+            model.getPomFile(),
+            model.getGroupId(),
+            model.getArtifactId(),
+            model.getVersion(),
+            model.getPackaging(),
+            parent != null ? parent.getGroupId() : null,
+            parent != null ? parent.getArtifactId() : null,
+            parent != null ? parent.getVersion() : null,
+            model.getProperties()
+        );
+    }
+
+    static Model of(
+        final File pomFile,
+        final String groupId,
+        final String artifactId,
+        final String version,
+        final String packaging,
+        final String parentGroupId,
+        final String parentArtifactId,
+        final String parentVersion,
+        final Map<?, ?> properties
+    ) {
+        final Parent parent = parentArtifactId != null
+            ? new ReadOnlyParent(intern(parentGroupId), intern(parentArtifactId), intern(parentVersion))
+            : null;
+        return new ReadOnlyModel(pomFile, intern(groupId), intern(artifactId), intern(version), intern(packaging), parent,
+            new ReadOnlyProperties(properties));
+    }
+
+    private static String intern(final String str) {
+        return str != null ? str.intern() : null;
+    }
+
+    /**
+     * Model with fields of a projection, modification of them is not supported.
+     */
+    static final class ReadOnlyModel extends Model {
+
+        private static final long serialVersionUID = 1L;
+
+        private final boolean frozen;
+
+        private ReadOnlyModel(
+            final File pomFile,
+            final String groupId,
+            final String artifactId,
+            final String version,
+            final String packaging,
+            final Parent parent,
+            final Properties properties
+        ) {
+            super();
+            super.setPomFile(pomFile);
+            super.setGroupId(groupId);
+            super.setArtifactId(artifactId);
+            super.setVersion(version);
+            super.setPackaging(packaging);
+            super.setParent(parent);
+            super.setProperties(properties);
+            this.frozen = true;
+        }
+
+        @Override
+        public void setPomFile(final File pomFile) {
+            this.checkWritable();
+            super.setPomFile(pomFile);
+        }
+
+        @Override
+        public void setGroupId(final String groupId) {
+            this.checkWritable();
+            super.setGroupId(groupId);
+        }
+
+        @Override
+        public void setArtifactId(final String artifactId) {
+            this.checkWritable();
+            super.setArtifactId(artifactId);
+        }
+
+        @Override
+        public void setVersion(final String version) {
+            this.checkWritable();
+            super.setVersion(version);
+        }
+
+        @Override
+        public void setPackaging(final String packaging) {
+            this.checkWritable();
+            super.setPackaging(packaging);
+        }
+
+        @Override
+        public void setParent(final Parent parent) {
+            this.checkWritable();
+            super.setParent(parent);
+        }
+
+        @Override
+        public void setProperties(final Properties properties) {
+            this.checkWritable();
+            super.setProperties(properties);
+        }
+
+        private void checkWritable() {
+            if (this.frozen) {
+                throw new UnsupportedOperationException("read-only");
+            }
+        }
+    }
+
+    /**
+     * Parent coordinates, modification is not supported.
+     */
+    static final class ReadOnlyParent extends Parent {
+
+        private static final long serialVersionUID = 1L;
+
+        private final boolean frozen;
+
+        private ReadOnlyParent(final String groupId, final String artifactId, final String version) {
+            super();
+            super.setGroupId(groupId);
+            super.setArtifactId(artifactId);
+            super.setVersion(version);
+            this.frozen = true;
+        }
+
+        @Override
+        public void setGroupId(final String groupId) {
+            this.checkWritable();
+            super.setGroupId(groupId);
+        }
+
+        @Override
+        public void setArtifactId(final String artifactId) {
+            this.checkWritable();
+            super.setArtifactId(artifactId);
+        }
+
+        @Override
+        public void setVersion(final String version) {
+            this.checkWritable();
+            super.setVersion(version);
+        }
+
+        @Override
+        public void setRelativePath(final String relativePath) {
+            this.checkWritable();
+            super.setRelativePath(relativePath);
+        }
+
+        private void checkWritable() {
+            if (this.frozen) {
+                throw new UnsupportedOperationException("read-only");
+            }
+        }
+    }
+
+    /**
+     * Properties with interned keys and values, modification is not supported.
+     */
+    static final class ReadOnlyProperties extends Properties {
+
+        private static final long serialVersionUID = 1L;
+
+        private ReadOnlyProperties(final Map<?, ?> properties) {
+            super();
+            if (properties != null) {
+                properties.forEach((key, value) -> {
+                    if (key != null && value != null) {
+                        super.put(String.valueOf(key).intern(), String.valueOf(value).intern());
+                    }
+                });
+            }
+        }
+
+        @Override
+        public synchronized Object setProperty(final String key, final String value) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized Object put(final Object key, final Object value) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized void putAll(final Map<?, ?> map) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized Object remove(final Object key) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized void clear() {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized Object putIfAbsent(final Object key, final Object value) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized boolean remove(final Object key, final Object value) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized boolean replace(final Object key, final Object oldValue, final Object newValue) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized Object replace(final Object key, final Object value) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized void replaceAll(final BiFunction<? super Object, ? super Object, ?> function) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized Object computeIfAbsent(final Object key, final Function<? super Object, ?> mappingFunction) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized Object computeIfPresent(
+            final Object key,
+            final BiFunction<? super Object, ? super Object, ?> remappingFunction
+        ) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized Object compute(final Object key, final BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            throw new UnsupportedOperationException("read-only");
+        }
+
+        @Override
+        public synchronized Object merge(
+            final Object key,
+            final Object value,
+            final BiFunction<? super Object, ? super Object, ?> remappingFunction
+        ) {
+            throw new UnsupportedOperationException("read-only");
+        }
+    }
+
+    static boolean isProjection(final Model model) {
+        return model instanceof ReadOnlyModel;
+    }
+}
@@ -0,0 +1,605 @@
+package top.infra.maven.shared.extension.activator.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.model.Activation;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.building.ModelBuildingResult;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+
+import top.infra.logging.Logger;
+import top.infra.maven.shared.utils.FileUtils;
+
+/**
+ * Persistent (across builds) cache of the slim model data custom activators need
+ * (coordinates, packaging, parent, properties, see {@link ModelProjection}), so unchanged poms do not need model building.
+ * <p/>
+ * An entry is valid while its fingerprint matches: pom.xml file and local parent pom files (last modified time and size),
+ * remote parent coordinates (SNAPSHOT remote parents are not cached) and values of user/system properties referenced by
+ * the poms (expressions and profile activations). Poms with file based profile activation are not cached.
+ * <p/>
+ * Poms (or their parents) having profiles supported by custom activators are not cached either, decisions of custom
+ * activators depend on inputs not in the fingerprint (e.g. CI options, java version, position in reactor) and the
+ * profiles they activate may contribute properties.
+ * <p/>
+ * Entries are evicted least recently used first. Stored in a compact binary format (string table plus varints),
+ * written on {@link #save()} or on JVM shutdown if changed.
+ */
+public class PersistentModelCache {
+
+    private static final int MAGIC = 0x544d4331; // TMC1
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Pattern PATTERN_EXPRESSION = Pattern.compile("\\$\\{([^}]+)}");
+
+    private final Logger logger;
+
+    private final Path file;
+
+    private final int maxEntries;
+
+    /**
+     * Whether a profile is supported by custom activators.
+     */
+    private final Predicate<Profile> customActivated;
+
+    /**
+     * canonical path of pom.xml file to entry, access ordered.
+     */
+    private final LinkedHashMap<String, Entry> entries;
+
+    private boolean loaded;
+
+    private boolean dirty;
+
+    private boolean shutdownHookRegistered;
+
+    private long hits;
+
+    private long misses;
+
+    public PersistentModelCache(
+        final Logger logger,
+        final Path file,
+        final int maxEntries,
+        final Predicate<Profile> customActivated
+    ) {
+        this.logger = logger;
+        this.file = file;
+        this.maxEntries = maxEntries;
+        this.customActivated = customActivated;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true);
+        this.loaded = false;
+        this.dirty = false;
+        this.shutdownHookRegistered = false;
+    }
+
+    /**
+     * Find slim model of pomFile.
+     *
+     * @param pomFile          pom.xml file
+     * @param systemProperties system properties
+     * @param userProperties   user properties
+     * @return slim model, empty if not found or fingerprint changed
+     */
+    public synchronized Optional<Model> get(
+        final File pomFile,
+        final Map<String, String> systemProperties,
+        final Map<String, String> userProperties
+    ) {
+        this.load();
+
+        final String path = canonicalPath(pomFile);
+        final Entry entry = this.entries.get(path);
+        if (entry != null && entry.valid(pomFile, systemProperties, userProperties)) {
+            this.hits++;
+            // access order changed
+            this.changed();
+            return Optional.of(entry.toModel(pomFile));
+        } else {
+            this.misses++;
+            if (entry != null) {
+                this.entries.remove(path);
+                this.changed();
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store slim model of a model building result (if cacheable).
+     *
+     * @param pomFile          pom.xml file
+     * @param result           model building result
+     * @param systemProperties system properties used for model building
+     * @param userProperties   user properties used for model building
+     */
+    public synchronized void put(
+        final File pomFile,
+        final ModelBuildingResult result,
+        final Map<String, String> systemProperties,
+        final Map<String, String> userProperties
+    ) {
+        this.load();
+
+        final Optional<Entry> entry = Entry.of(pomFile, result, systemProperties, userProperties, this.customActivated);
+        if (entry.isPresent()) {
+            this.entries.put(entry.get().path, entry.get());
+            this.evict();
+            this.changed();
+        } else {
+            logger.debug("    model of [%s] is not cacheable.", pomFile);
+        }
+    }
+
+    public synchronized int size() {
+        this.load();
+        return this.entries.size();
+    }
+
+    public synchronized String statistics() {
+        return String.format("file [%s], entries [%s], hits [%s], misses [%s]", this.file, this.entries.size(), this.hits, this.misses);
+    }
+
+    /**
+     * Write entries into file if changed.
+     */
+    public synchronized void save() {
+        if (!this.dirty) {
+            return;
+        }
+
+        try {
+            final Path parent = this.file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            final Path temp = Files.createTempFile(parent, this.file.getFileName().toString(), ".tmp");
+            try {
+                try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    this.write(out);
+                }
+                FileUtils.moveAtomically(temp, this.file);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            this.dirty = false;
+            logger.debug("    model cache saved. %s", this.statistics());
+        } catch (final IOException | RuntimeException ex) {
+            logger.warn(String.format("    failed to save model cache [%s]. %s", this.file, ex.getMessage()));
+        }
+    }
+
+    private void changed() {
+        this.dirty = true;
+        if (!this.shutdownHookRegistered) {
+            this.shutdownHookRegistered = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(this::save, "topinfra-model-cache-save"));
+        }
+    }
+
+    private void evict() {
+        final Iterator<String> keys = this.entries.keySet().iterator();
+        while (this.entries.size() > this.maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private void load() {
+        if (this.loaded) {
+            return;
+        }
+        this.loaded = true;
+
+        if (!this.file.toFile().isFile()) {
+            return;
+        }
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.file)))) {
+            this.read(in);
+            this.evict();
+            logger.debug("    model cache loaded. %s", this.statistics());
+        } catch (final IOException | RuntimeException ex) {
+            this.entries.clear();
+            this.changed();
+            logger.warn(String.format("    failed to load model cache [%s], ignored. %s", this.file, ex.getMessage()));
+        }
+    }
+
+    private void write(final DataOutputStream out) throws IOException {
+        // least recently used first, so order is kept on read
+        final List<Entry> list = new ArrayList<>(this.entries.values());
+
+        final Map<String, Integer> table = new LinkedHashMap<>();
+        list.forEach(entry -> entry.strings().forEach(str -> table.putIfAbsent(str, table.size())));
+
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeVarInt(out, table.size());
+        for (final String str : table.keySet()) {
+            final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+        writeVarInt(out, list.size());
+        for (final Entry entry : list) {
+            entry.write(out, table);
+        }
+    }
+
+    private void read(final DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("unknown format");
+        }
+        final int tableSize = readVarInt(in);
+        final String[] table = new String[tableSize];
+        for (int idx = 0; idx < tableSize; idx++) {
+            final byte[] bytes = new byte[readVarInt(in)];
+            in.readFully(bytes);
+            table[idx] = new String(bytes, StandardCharsets.UTF_8).intern();
+        }
+        final int size = readVarInt(in);
+        for (int idx = 0; idx < size; idx++) {
+            final Entry entry = Entry.read(in, table);
+            this.entries.put(entry.path, entry);
+        }
+    }
+
+    static String canonicalPath(final File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (final IOException ex) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    private static void writeVarInt(final DataOutputStream out, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7f) != 0) {
+            out.writeByte((remaining & 0x7f) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    private static int readVarInt(final DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    /**
+     * Null is written as 0, others as index + 1.
+     */
+    private static void writeString(final DataOutputStream out, final Map<String, Integer> table, final String str) throws IOException {
+        writeVarInt(out, str != null ? table.get(str) + 1 : 0);
+    }
+
+    private static String readString(final DataInputStream in, final String[] table) throws IOException {
+        final int index = readVarInt(in);
+        return index != 0 ? table[index - 1] : null;
+    }
+
+    /**
+     * FNV-1a 64 of referenced property names and values.
+     */
+    private static long propertiesHash(
+        final List<String> names,
+        final Map<String, String> systemProperties,
+        final Map<String, String> userProperties
+    ) {
+        long hash = 0xcbf29ce484222325L;
+        for (final String name : names) {
+            final String userValue = userProperties.get(name);
+            final String value = userValue != null ? userValue : systemProperties.get(name);
+            final String pair = name + '=' + (value != null ? value : "\u0000");
+            for (int idx = 0; idx < pair.length(); idx++) {
+                hash ^= pair.charAt(idx);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= '\n';
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class Stamp {
+
+        /**
+         * Model id of remote parent, or canonical path of a local pom file.
+         */
+        private final String id;
+        private final boolean local;
+        private final long lastModified;
+        private final long size;
+
+        private Stamp(final String id, final boolean local, final long lastModified, final long size) {
+            this.id = id;
+            this.local = local;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        private static Stamp of(final File file) {
+            return new Stamp(canonicalPath(file), true, file.lastModified(), file.length());
+        }
+
+        private boolean valid() {
+            if (!this.local) {
+                return true;
+            }
+            final File file = new File(this.id);
+            return file.lastModified() == this.lastModified && file.length() == this.size;
+        }
+    }
+
+    private static final class Entry {
+
+        private final String path;
+        private final List<Stamp> stamps;
+        private final List<String> propertyNames;
+        private final long propertiesHash;
+
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+        private final String packaging;
+        private final String parentGroupId;
+        private final String parentArtifactId;
+        private final String parentVersion;
+        private final Map<String, String> properties;
+
+        private Entry(
+            final String path,
+            final List<Stamp> stamps,
+            final List<String> propertyNames,
+            final long propertiesHash,
+            final String groupId,
+            final String artifactId,
+            final String version,
+            final String packaging,
+            final String parentGroupId,
+            final String parentArtifactId,
+            final String parentVersion,
+            final Map<String, String> properties
+        ) {
+            this.path = path;
+            this.stamps = stamps;
+            this.propertyNames = propertyNames;
+            this.propertiesHash = propertiesHash;
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+            this.packaging = packaging;
+            this.parentGroupId = parentGroupId;
+            this.parentArtifactId = parentArtifactId;
+            this.parentVersion = parentVersion;
+            this.properties = properties;
+        }
+
+        private static Optional<Entry> of(
+            final File pomFile,
+            final ModelBuildingResult result,
+            final Map<String, String> systemProperties,
+            final Map<String, String> userProperties,
+            final Predicate<Profile> customActivated
+        ) {
+            final Model effective = result.getEffectiveModel();
+            if (effective == null) {
+                return Optional.empty();
+            }
+
+            final List<Stamp> stamps = new ArrayList<>();
+            stamps.add(Stamp.of(pomFile));
+            final Set<String> names = new TreeSet<>();
+            for (final String modelId : result.getModelIds()) {
+                final Model raw = modelId.isEmpty() ? null : result.getRawModel(modelId);
+                if (raw == null) {
+                    continue;
+                }
+                if (raw.getPomFile() != null) {
+                    if (!canonicalPath(raw.getPomFile()).equals(stamps.get(0).id)) {
+                        stamps.add(Stamp.of(raw.getPomFile()));
+                    }
+                } else if (modelId.endsWith("-SNAPSHOT")) {
+                    return Optional.empty();
+                } else {
+                    stamps.add(new Stamp(modelId, false, 0L, 0L));
+                }
+                if (!referencedProperties(raw, names, customActivated)) {
+                    return Optional.empty();
+                }
+            }
+
+            final List<String> propertyNames = new ArrayList<>(names);
+            final Parent parent = effective.getParent();
+            final Map<String, String> properties = new LinkedHashMap<>();
+            effective.getProperties().forEach((key, value) -> properties.put(String.valueOf(key), String.valueOf(value)));
+            return Optional.of(new Entry(
+                stamps.get(0).id,
+                stamps,
+                propertyNames,
+                propertiesHash(propertyNames, systemProperties, userProperties),
+                effective.getGroupId(),
+                effective.getArtifactId(),
+                effective.getVersion(),
+                effective.getPackaging(),
+                parent != null ? parent.getGroupId() : null,
+                parent != null ? parent.getArtifactId() : null,
+                parent != null ? parent.getVersion() : null,
+                properties
+            ));
+        }
+
+        /**
+         * Collect names of properties a raw model depends on.
+         *
+         * @return false if model is not cacheable
+         */
+        private static boolean referencedProperties(
+            final Model raw,
+            final Set<String> names,
+            final Predicate<Profile> customActivated
+        ) {
+            for (final Profile profile : raw.getProfiles()) {
+                if (customActivated.test(profile)) {
+                    return false;
+                }
+                final Activation activation = profile.getActivation();
+                if (activation != null) {
+                    if (activation.getFile() != null) {
+                        return false;
+                    }
+                    if (activation.getJdk() != null) {
+                        names.add("java.version");
+                    }
+                    if (activation.getOs() != null) {
+                        names.add("os.name");
+                        names.add("os.arch");
+                        names.add("os.version");
+                    }
+                    if (activation.getProperty() != null && activation.getProperty().getName() != null) {
+                        final String name = activation.getProperty().getName();
+                        names.add(name.startsWith("!") ? name.substring(1) : name);
+                    }
+                }
+            }
+
+            final StringWriter xml = new StringWriter();
+            try {
+                new MavenXpp3Writer().write(xml, raw);
+            } catch (final IOException ex) {
+                return false;
+            }
+            final Matcher matcher = PATTERN_EXPRESSION.matcher(xml.getBuffer());
+            while (matcher.find()) {
+                names.add(matcher.group(1));
+            }
+            return true;
+        }
+
+        private boolean valid(
+            final File pomFile,
+            final Map<String, String> systemProperties,
+            final Map<String, String> userProperties
+        ) {
+            return this.stamps.get(0).lastModified == pomFile.lastModified()
+                && this.stamps.get(0).size == pomFile.length()
+                && this.stamps.stream().skip(1).allMatch(Stamp::valid)
+                && this.propertiesHash == propertiesHash(this.propertyNames, systemProperties, userProperties);
+        }
+
+        private Model toModel(final File pomFile) {
+            return ModelProjection.of(pomFile, this.groupId, this.artifactId, this.version, this.packaging,
+                this.parentGroupId, this.parentArtifactId, this.parentVersion, this.properties);
+        }
+
+        private List<String> strings() {
+            final List<String> result = new ArrayList<>();
+            result.add(this.path);
+            this.stamps.forEach(stamp -> result.add(stamp.id));
+            result.addAll(this.propertyNames);
+            Collections.addAll(result, this.groupId, this.artifactId, this.version, this.packaging,
+                this.parentGroupId, this.parentArtifactId, this.parentVersion);
+            this.properties.forEach((key, value) -> {
+                result.add(key);
+                result.add(value);
+            });
+            result.removeIf(str -> str == null);
+            return result;
+        }
+
+        private void write(final DataOutputStream out, final Map<String, Integer> table) throws IOException {
+            writeString(out, table, this.path);
+            writeVarInt(out, this.stamps.size());
+            for (final Stamp stamp : this.stamps) {
+                writeString(out, table, stamp.id);
+                out.writeBoolean(stamp.local);
+                if (stamp.local) {
+                    out.writeLong(stamp.lastModified);
+                    out.writeLong(stamp.size);
+                }
+            }
+            writeVarInt(out, this.propertyNames.size());
+            for (final String name : this.propertyNames) {
+                writeString(out, table, name);
+            }
+            out.writeLong(this.propertiesHash);
+            writeString(out, table, this.groupId);
+            writeString(out, table, this.artifactId);
+            writeString(out, table, this.version);
+            writeString(out, table, this.packaging);
+            writeString(out, table, this.parentGroupId);
+            writeString(out, table, this.parentArtifactId);
+            writeString(out, table, this.parentVersion);
+            writeVarInt(out, this.properties.size());
+            for (final Map.Entry<String, String> property : this.properties.entrySet()) {
+                writeString(out, table, property.getKey());
+                writeString(out, table, property.getValue());
+            }
+        }
+
+        private static Entry read(final DataInputStream in, final String[] table) throws IOException {
+            final String path = readString(in, table);
+            final int stampCount = readVarInt(in);
+            final List<Stamp> stamps = new ArrayList<>(stampCount);
+            for (int idx = 0; idx < stampCount; idx++) {
+                final String id = readString(in, table);
+                final boolean local = in.readBoolean();
+                stamps.add(local ? new Stamp(id, true, in.readLong(), in.readLong()) : new Stamp(id, false, 0L, 0L));
+            }
+            final int nameCount = readVarInt(in);
+            final List<String> propertyNames = new ArrayList<>(nameCount);
+            for (int idx = 0; idx < nameCount; idx++) {
+                propertyNames.add(readString(in, table));
+            }
+            final long propertiesHash = in.readLong();
+            final String groupId = readString(in, table);
+            final String artifactId = readString(in, table);
+            final String version = readString(in, table);
+            final String packaging = readString(in, table);
+            final String parentGroupId = readString(in, table);
+            final String parentArtifactId = readString(in, table);
+            final String parentVersion = readString(in, table);
+            final int propertyCount = readVarInt(in);
+            final Map<String, String> properties = new LinkedHashMap<>();
+            for (int idx = 0; idx < propertyCount; idx++) {
+                properties.put(readString(in, table), readString(in, table));
+            }
+            if (stamps.isEmpty()) {
+                throw new IOException("malformed entry");
+            }
+            return new Entry(path, stamps, propertyNames, propertiesHash, groupId, artifactId, version, packaging,
+                parentGroupId, parentArtifactId, parentVersion, properties);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package top.infra.maven.shared.extension.activator.model;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+
+import top.infra.logging.Logger;
+
+/**
+ * Walks the module tree (&lt;modules&gt; of each pom.xml, recursively) from the root pom.xml and resolves model of
+ * each module in parallel on a fork-join pool, so models are already there when profiles of modules are selected.
+ * <p/>
+ * Only &lt;modules&gt; outside of profiles are walked, modules of profiles are resolved lazily as before.
+ */
+public class ReactorPreResolver {
+
+    private final Logger logger;
+
+    private final AbstractActivatorModelResolver resolver;
+
+    private final int parallelism;
+
+    public ReactorPreResolver(
+        final Logger logger,
+        final AbstractActivatorModelResolver resolver,
+        final int parallelism
+    ) {
+        this.logger = logger;
+        this.resolver = resolver;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Resolve models of root pom.xml and all its modules, returns when all resolved.
+     *
+     * @param rootPom          root pom.xml
+     * @param systemProperties system properties
+     * @param userProperties   user properties
+     * @return number of pom.xml files resolved (including failed ones)
+     */
+    public int preResolve(final File rootPom, final Properties systemProperties, final Properties userProperties) {
+        final Set<String> visited = ConcurrentHashMap.newKeySet();
+        final AtomicInteger resolved = new AtomicInteger(0);
+        final ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            pool.invoke(new ModuleTask(rootPom, systemProperties, userProperties, visited, resolved));
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(1L, TimeUnit.SECONDS);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return resolved.get();
+    }
+
+    /**
+     * Module pom.xml files declared by a pom.xml (raw model, not interpolated).
+     *
+     * @param pomFile pom.xml
+     * @return module pom.xml files that exist
+     */
+    static List<File> modules(final File pomFile) {
+        final Model raw;
+        try (final InputStream inputStream = Files.newInputStream(pomFile.toPath())) {
+            raw = new MavenXpp3Reader().read(inputStream, false);
+        } catch (final Exception ex) {
+            return Collections.emptyList();
+        }
+
+        final List<File> result = new ArrayList<>();
+        final File basedir = pomFile.getAbsoluteFile().getParentFile();
+        for (final String module : raw.getModules()) {
+            final File file = new File(basedir, module.trim());
+            final File modulePom = file.isDirectory() ? new File(file, "pom.xml") : file;
+            if (modulePom.isFile()) {
+                result.add(modulePom);
+            }
+        }
+        return result;
+    }
+
+    private final class ModuleTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final File pomFile;
+        private final Properties systemProperties;
+        private final Properties userProperties;
+        private final Set<String> visited;
+        private final AtomicInteger resolved;
+
+        ModuleTask(
+            final File pomFile,
+            final Properties systemProperties,
+            final Properties userProperties,
+            final Set<String> visited,
+            final AtomicInteger resolved
+        ) {
+            this.pomFile = pomFile;
+            this.systemProperties = systemProperties;
+            this.userProperties = userProperties;
+            this.visited = visited;
+            this.resolved = resolved;
+        }
+
+        @Override
+        protected void compute() {
+            if (!this.visited.add(AbstractActivatorModelResolver.pomKey(this.pomFile))) {
+                return;
+            }
+
+            // fork modules first, so they are resolved while this one is
+            final List<ModuleTask> subtasks = new ArrayList<>();
+            for (final File module : modules(this.pomFile)) {
+                final ModuleTask subtask = new ModuleTask(module, this.systemProperties, this.userProperties, this.visited, this.resolved);
+                subtask.fork();
+                subtasks.add(subtask);
+            }
+
+            try {
+                ReactorPreResolver.this.resolver.preResolveModel(this.pomFile, this.systemProperties, this.userProperties);
+            } catch (final RuntimeException ex) {
+                logger.warn(String.format("    pre-resolution of [%s] failed.", this.pomFile), ex);
+            }
+            this.resolved.incrementAndGet();
+
+            subtasks.forEach(RecursiveAction::join);
+        }
+    }
+}
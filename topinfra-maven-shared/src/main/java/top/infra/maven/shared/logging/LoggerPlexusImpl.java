@@ -1,23 +1,54 @@
 package top.infra.maven.shared.logging;
 
+import top.infra.logging.AsyncLogSink;
 import top.infra.logging.Logger;
 
+/**
+ * Writes to plexus logger, via {@link AsyncLogSink} if installed.
+ */
 public class LoggerPlexusImpl implements Logger {
 
     private final org.codehaus.plexus.logging.Logger delegate;
 
+    private final AsyncLogSink.Appender appender;
+
     public LoggerPlexusImpl(final org.codehaus.plexus.logging.Logger logger) {
         this.delegate = logger;
+        this.appender = this::append;
+    }
+
+    private void append(final Level level, final String message, final Throwable throwable) {
+        switch (level) {
+            case DEBUG:
+                this.delegate.debug(message, throwable);
+                break;
+            case INFO:
+                this.delegate.info(message, throwable);
+                break;
+            case WARN:
+                this.delegate.warn(message, throwable);
+                break;
+            default:
+                this.delegate.error(message, throwable);
+                break;
+        }
+    }
+
+    private void write(final Level level, final String message, final Throwable throwable) {
+        final AsyncLogSink sink = AsyncLogSink.current();
+        if (sink == null || !sink.submit(this.appender, level, message, throwable)) {
+            this.append(level, message, throwable);
+        }
     }
 
     @Override
     public void debug(final String message) {
-        this.delegate.debug(message);
+        this.write(Level.DEBUG, message, null);
     }
 
     @Override
     public void debug(final String message, final Throwable throwable) {
-        this.delegate.debug(message, throwable);
+        this.write(Level.DEBUG, message, throwable);
     }
 
     @Override
@@ -27,12 +58,12 @@ public class LoggerPlexusImpl implements Logger {
 
     @Override
     public void info(final String message) {
-        this.delegate.info(message);
+        this.write(Level.INFO, message, null);
     }
 
     @Override
     public void info(final String message, final Throwable throwable) {
-        this.delegate.info(message, throwable);
+        this.write(Level.INFO, message, throwable);
     }
 
     @Override
@@ -42,12 +73,12 @@ public class LoggerPlexusImpl implements Logger {
 
     @Override
     public void warn(final String message) {
-        this.delegate.warn(message);
+        this.write(Level.WARN, message, null);
     }
 
     @Override
     public void warn(final String message, final Throwable throwable) {
-        this.delegate.warn(message, throwable);
+        this.write(Level.WARN, message, throwable);
     }
 
     @Override
@@ -57,12 +88,12 @@ public class LoggerPlexusImpl implements Logger {
 
     @Override
     public void error(final String message) {
-        this.delegate.error(message);
+        this.write(Level.ERROR, message, null);
     }
 
     @Override
     public void error(final String message, final Throwable throwable) {
-        this.delegate.error(message, throwable);
+        this.write(Level.ERROR, message, throwable);
     }
 
     @Override
@@ -0,0 +1,111 @@
+package top.infra.maven.shared.utils;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-host circuit breaker of downloads.
+ * <p/>
+ * A host is considered down (OPEN) after failureThreshold consecutive failures (I/O errors or 5xx),
+ * requests to it fail immediately (callers use cached copies) until openMillis passed,
+ * then one probe request is let through (HALF_OPEN), its result closes or re-opens the circuit.
+ */
+public final class CircuitBreaker {
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    public static final long DEFAULT_OPEN_MILLIS = 30000L;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final ConcurrentMap<String, HostCircuit> circuits;
+
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS);
+    }
+
+    public CircuitBreaker(final int failureThreshold, final long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.circuits = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Whether a request to host is allowed.
+     *
+     * @param host host key
+     * @return allowed
+     */
+    public boolean allowRequest(final String host) {
+        final HostCircuit circuit = this.circuits.get(host);
+        return circuit == null || circuit.allowRequest(this.openMillis, System.currentTimeMillis());
+    }
+
+    public void onFailure(final String host) {
+        this.circuits.computeIfAbsent(host, key -> new HostCircuit()).onFailure(this.failureThreshold, System.currentTimeMillis());
+    }
+
+    public void onSuccess(final String host) {
+        final HostCircuit circuit = this.circuits.get(host);
+        if (circuit != null) {
+            circuit.onSuccess();
+        }
+    }
+
+    public State state(final String host) {
+        final HostCircuit circuit = this.circuits.get(host);
+        return circuit != null ? circuit.state : State.CLOSED;
+    }
+
+    private static final class HostCircuit {
+
+        private State state = State.CLOSED;
+        private int failures;
+        private long openedAt;
+
+        synchronized boolean allowRequest(final long openMillis, final long now) {
+            final boolean result;
+            if (this.state == State.CLOSED) {
+                result = true;
+            } else if (now - this.openedAt >= openMillis) {
+                // let one probe through (another one if the probe did not report within openMillis)
+                this.state = State.HALF_OPEN;
+                this.openedAt = now;
+                result = true;
+            } else {
+                result = false;
+            }
+            return result;
+        }
+
+        synchronized void onFailure(final int failureThreshold, final long now) {
+            this.failures++;
+            if (this.state == State.HALF_OPEN || this.failures >= failureThreshold) {
+                this.state = State.OPEN;
+                this.openedAt = now;
+            }
+        }
+
+        synchronized void onSuccess() {
+            this.state = State.CLOSED;
+            this.failures = 0;
+        }
+    }
+
+    /**
+     * Request not sent, host is considered down.
+     */
+    public static class OpenException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        public OpenException(final String host) {
+            super(String.format("Circuit of [%s] is open, host considered down.", host));
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package top.infra.maven.shared.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import top.infra.exception.RuntimeIOException;
+import top.infra.logging.Logger;
+
+/**
+ * Machine-wide content-addressable store of downloaded files, shared by all workspaces and builds (CI jobs) of a user.
+ * <p/>
+ * Layout under root:
+ * <pre>
+ * objects/&lt;sha256[0..2]&gt;/&lt;sha256[2..]&gt;  immutable (read-only) content
+ * index/&lt;sha256 of key&gt;.properties           key to content hash and {@link DownloadMetadata}
+ * lock                                     exclusive file lock of writers
+ * </pre>
+ * Readers do not lock, objects and index entries are written into temporary files and moved into place atomically.
+ * Objects are materialized into a workspace by hard link (copy if links are not supported or running as root,
+ * root can write read-only files), a materialized file shares its inode with the object, so it must only ever be
+ * replaced by an atomic move (as {@link DownloadEngine} and {@link FileUtils#writeFileAtomically(Path, byte[])} do),
+ * never written in place.
+ * Writers ({@link #put(String, Path)}, {@link #gc()}) hold the file lock, the least recently used objects
+ * (by modified time, touched on use) are removed while the store is larger than maxSize.
+ */
+public class ContentStore {
+
+    private static final String PROP_KEY = "key";
+    private static final String PROP_ETAG = "etag";
+    private static final String PROP_LAST_MODIFIED = "lastModified";
+    private static final String PROP_SHA256 = "sha256";
+    private static final String PROP_FETCHED_AT = "fetchedAt";
+
+    /**
+     * File locks are held by the jvm, writers of the same jvm are serialized by monitor.
+     */
+    private static final ConcurrentMap<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+    /**
+     * Read-only objects do not protect against root, copy instead of link.
+     */
+    private static final boolean LINK = !"root".equals(System.getProperty("user.name"));
+
+    private final Logger logger;
+    private final Path root;
+    private final long maxSize;
+
+    /**
+     * Constructor.
+     *
+     * @param logger  logger
+     * @param root    root directory, e.g. ~/.m2/topinfra-cache
+     * @param maxSize max size in bytes of all objects
+     */
+    public ContentStore(
+        final Logger logger,
+        final Path root,
+        final long maxSize
+    ) {
+        this.logger = logger;
+        this.root = root.toAbsolutePath().normalize();
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxSize() {
+        return this.maxSize;
+    }
+
+    public Path getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Find the content stored under key.
+     *
+     * @param key key, e.g. repository@ref/path
+     * @return metadata of the content (sha256 is the content hash), empty if absent or content removed
+     */
+    public Optional<DownloadMetadata> lookup(final String key) {
+        final Path entry = this.indexEntry(key);
+        if (!entry.toFile().isFile()) {
+            return Optional.empty();
+        }
+
+        final Properties properties = new Properties();
+        try (final InputStream inputStream = Files.newInputStream(entry)) {
+            properties.load(inputStream);
+        } catch (final IOException ex) {
+            return Optional.empty();
+        }
+        final String sha256 = properties.getProperty(PROP_SHA256);
+        if (!key.equals(properties.getProperty(PROP_KEY)) || sha256 == null || !this.object(sha256).toFile().isFile()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new DownloadMetadata(
+                properties.getProperty(PROP_ETAG),
+                properties.getProperty(PROP_LAST_MODIFIED),
+                sha256,
+                Long.parseLong(properties.getProperty(PROP_FETCHED_AT, "0"))
+            ));
+        } catch (final NumberFormatException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Link (or copy) content into target atomically, and write {@link DownloadMetadata} sidecar of target.
+     *
+     * @param metadata result of {@link #lookup(String)}
+     * @param target   target file
+     * @return false if content is no longer in store (removed by gc) or can not be materialized
+     */
+    public boolean materialize(final DownloadMetadata metadata, final Path target) {
+        final Path object = this.object(metadata.getSha256());
+        final Path absolute = target.toAbsolutePath();
+        try {
+            if (!absolute.toFile().isFile() || !DownloadMetadata.sha256(absolute).map(metadata.getSha256()::equals).orElse(false)) {
+                Files.createDirectories(absolute.getParent());
+                final Path temp = absolute.resolveSibling("." + absolute.getFileName() + "." + System.nanoTime() + ".link");
+                try {
+                    try {
+                        if (LINK) {
+                            Files.createLink(temp, object);
+                        } else {
+                            Files.copy(object, temp);
+                        }
+                    } catch (final NoSuchFileException ex) {
+                        return false; // removed by gc
+                    } catch (final IOException | UnsupportedOperationException ex) {
+                        // e.g. different file systems
+                        Files.copy(object, temp, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    FileUtils.moveAtomically(temp, absolute);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            touch(object);
+            metadata.write(absolute);
+            return true;
+        } catch (final IOException | UnsupportedOperationException ex) {
+            logger.warn(String.format("    Can not materialize [%s] from shared cache. %s", target, ex.getMessage()));
+            return false;
+        }
+    }
+
+    /**
+     * Store content of file under key, metadata is read from the {@link DownloadMetadata} sidecar of file if present.
+     * Removes least recently used objects if the store becomes larger than maxSize.
+     *
+     * @param key  key, e.g. repository@ref/path
+     * @param file downloaded file
+     * @return content hash, empty on error
+     */
+    public Optional<String> put(final String key, final Path file) {
+        return this.put(key, file, DownloadMetadata.read(file));
+    }
+
+    /**
+     * Store content of file under key, with validators and fetch time of the response file was downloaded from.
+     * Removes least recently used objects if the store becomes larger than maxSize.
+     *
+     * @param key      key, e.g. repository@ref/path
+     * @param file     downloaded file
+     * @param response metadata of the response, ignored if its sha256 does not match file, fetched now if empty
+     * @return content hash, empty on error
+     */
+    public Optional<String> put(final String key, final Path file, final Optional<DownloadMetadata> response) {
+        final Optional<String> sha256 = DownloadMetadata.sha256(file);
+        if (!sha256.isPresent()) {
+            return Optional.empty();
+        }
+        final Optional<DownloadMetadata> metadata = response
+            .filter(value -> sha256.get().equals(value.getSha256()));
+
+        try {
+            this.locked(() -> {
+                final Path object = this.object(sha256.get());
+                if (object.toFile().isFile()) {
+                    touch(object);
+                } else {
+                    Files.createDirectories(object.getParent());
+                    final Path temp = Files.createTempFile(object.getParent(), ".", ".tmp");
+                    try {
+                        Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+                        temp.toFile().setReadOnly();
+                        FileUtils.moveAtomically(temp, object);
+                    } finally {
+                        Files.deleteIfExists(temp);
+                    }
+                }
+
+                final Properties properties = new Properties();
+                properties.setProperty(PROP_KEY, key);
+                properties.setProperty(PROP_SHA256, sha256.get());
+                metadata.map(DownloadMetadata::getEtag).ifPresent(value -> properties.setProperty(PROP_ETAG, value));
+                metadata.map(DownloadMetadata::getLastModified).ifPresent(value -> properties.setProperty(PROP_LAST_MODIFIED, value));
+                properties.setProperty(PROP_FETCHED_AT, Long.toString(
+                    metadata.map(DownloadMetadata::getFetchedAt).orElseGet(System::currentTimeMillis)));
+                final Path entry = this.indexEntry(key);
+                Files.createDirectories(entry.getParent());
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                properties.store(bytes, null);
+                FileUtils.writeFileAtomically(entry, bytes.toByteArray());
+
+                this.collect();
+                return null;
+            });
+            return sha256;
+        } catch (final IOException | RuntimeIOException ex) {
+            logger.warn(String.format("    Can not store [%s] into shared cache. %s", file, ex.getMessage()));
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Remove least recently used objects while the store is larger than maxSize, and index entries of removed objects.
+     *
+     * @return bytes removed
+     */
+    public long gc() {
+        try {
+            return this.locked(this::collect);
+        } catch (final IOException ex) {
+            logger.warn(String.format("    Can not gc shared cache [%s]. %s", this.root, ex.getMessage()));
+            return 0L;
+        }
+    }
+
+    private long collect() throws IOException {
+        final Path objects = this.root.resolve("objects");
+        if (!objects.toFile().isDirectory()) {
+            return 0L;
+        }
+
+        final List<Path> files;
+        try (final Stream<Path> stream = Files.walk(objects)) {
+            files = stream.filter(Files::isRegularFile).filter(path -> !path.getFileName().toString().startsWith("."))
+                .collect(Collectors.toList());
+        }
+        long size = 0L;
+        for (final Path file : files) {
+            size += file.toFile().length();
+        }
+        if (size <= this.maxSize) {
+            return 0L;
+        }
+
+        final List<Path> lru = new ArrayList<>(files);
+        lru.sort(Comparator.comparingLong(path -> path.toFile().lastModified()));
+        long removed = 0L;
+        for (final Path file : lru) {
+            if (size - removed <= this.maxSize) {
+                break;
+            }
+            final long length = file.toFile().length();
+            file.toFile().setWritable(true);
+            if (Files.deleteIfExists(file)) {
+                removed += length;
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format("    Removed [%s] (%s bytes) from shared cache.", file, length));
+                }
+            }
+        }
+
+        final Path index = this.root.resolve("index");
+        if (index.toFile().isDirectory()) {
+            try (final Stream<Path> stream = Files.list(index)) {
+                for (final Path entry : stream.collect(Collectors.toList())) {
+                    if (entry.getFileName().toString().endsWith(".properties") && !this.hasObject(entry)) {
+                        Files.deleteIfExists(entry);
+                    }
+                }
+            }
+        }
+        logger.info(String.format("    Shared cache [%s] gc, removed [%s] of [%s] bytes.", this.root, removed, size));
+        return removed;
+    }
+
+    private boolean hasObject(final Path entry) {
+        final Properties properties = new Properties();
+        try (final InputStream inputStream = Files.newInputStream(entry)) {
+            properties.load(inputStream);
+        } catch (final IOException ex) {
+            return false;
+        }
+        final String sha256 = properties.getProperty(PROP_SHA256);
+        return sha256 != null && this.object(sha256).toFile().isFile();
+    }
+
+    private <T> T locked(final IOCallable<T> callable) throws IOException {
+        final Object monitor = MONITORS.computeIfAbsent(this.root, key -> new Object());
+        synchronized (monitor) {
+            Files.createDirectories(this.root);
+            try (final FileChannel channel = FileChannel.open(this.root.resolve("lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 final FileLock ignored = channel.lock()) {
+                return callable.call();
+            }
+        }
+    }
+
+    private Path indexEntry(final String key) {
+        final String hash = DownloadMetadata.hex(DownloadMetadata.newSha256().digest(key.getBytes(UTF_8)));
+        return this.root.resolve("index").resolve(hash + ".properties");
+    }
+
+    private Path object(final String sha256) {
+        return this.root.resolve("objects").resolve(sha256.substring(0, 2)).resolve(sha256.substring(2));
+    }
+
+    private static void touch(final Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    @FunctionalInterface
+    private interface IOCallable<T> {
+
+        T call() throws IOException;
+    }
+}
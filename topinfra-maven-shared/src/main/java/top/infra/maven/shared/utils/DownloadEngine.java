@@ -0,0 +1,629 @@
+package top.infra.maven.shared.utils;
+
+import static java.lang.Boolean.FALSE;
+import static top.infra.maven.shared.extension.GlobalOption.DOWNLOAD_CONNECTIONS_PER_HOST;
+import static top.infra.maven.shared.extension.GlobalOption.DOWNLOAD_CONNECT_TIMEOUT;
+import static top.infra.maven.shared.extension.GlobalOption.DOWNLOAD_READ_TIMEOUT;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import top.infra.logging.Logger;
+import top.infra.maven.CiOption;
+
+/**
+ * Download engine shared by all downloads of a build.
+ * <p/>
+ * Connections are kept alive and reused (JDK keep-alive cache, TLS sessions are resumed by the default SSLContext),
+ * so response bodies are always read to the end and closed, error bodies too.
+ * Concurrent connections per host are limited to {@link #getConnectionsPerHost()}, which should not be greater than
+ * the JDK keep-alive cache (system property http.maxConnections, default 5), so every connection returns to the cache.
+ * <p/>
+ * {@link #downloadAsync(Logger, String, Path, Map, int)} runs on a shared pool of daemon threads,
+ * callers can issue several downloads concurrently.
+ * <p/>
+ * Retries follow the {@link RetryPolicy} (backoff with jitter, Retry-After, retry budget), requests to a host considered
+ * down by the {@link CircuitBreaker} fail immediately with {@link CircuitBreaker.OpenException}.
+ * <p/>
+ * Bodies are written into a {@link PartFile} next to the target and moved into place atomically after the length
+ * (and SHA-256, if known) is verified, so a cache shared by concurrent builds never holds a partial file.
+ * Interrupted downloads are resumed by HTTP Range requests.
+ */
+public class DownloadEngine {
+
+    private static final int DRAIN_LIMIT = 64 * 1024;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private static volatile DownloadEngine defaultEngine;
+
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int connectionsPerHost;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+
+    private final ConcurrentMap<String, Semaphore> hostPermits;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor.
+     *
+     * @param connectTimeout     connect timeout in milliseconds
+     * @param readTimeout        read timeout in milliseconds
+     * @param connectionsPerHost max concurrent connections per host
+     */
+    public DownloadEngine(
+        final int connectTimeout,
+        final int readTimeout,
+        final int connectionsPerHost
+    ) {
+        this(connectTimeout, readTimeout, connectionsPerHost, new RetryPolicy(), new CircuitBreaker());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param connectTimeout     connect timeout in milliseconds
+     * @param readTimeout        read timeout in milliseconds
+     * @param connectionsPerHost max concurrent connections per host
+     * @param retryPolicy        retry policy (and its retry budget) of all downloads by this engine
+     * @param circuitBreaker     per-host circuit breaker of all downloads by this engine
+     */
+    public DownloadEngine(
+        final int connectTimeout,
+        final int readTimeout,
+        final int connectionsPerHost,
+        final RetryPolicy retryPolicy,
+        final CircuitBreaker circuitBreaker
+    ) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.connectionsPerHost = Math.max(1, connectionsPerHost);
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+
+        this.hostPermits = new ConcurrentHashMap<>();
+        this.executor = new ThreadPoolExecutor(
+            0, Integer.MAX_VALUE, 30L, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory());
+    }
+
+    /**
+     * Engine configured by system properties (see download.* of GlobalOption), created on first use.
+     *
+     * @return shared engine
+     */
+    public static DownloadEngine getDefault() {
+        if (defaultEngine == null) {
+            synchronized (DownloadEngine.class) {
+                if (defaultEngine == null) {
+                    final Properties properties = System.getProperties();
+                    defaultEngine = new DownloadEngine(
+                        intOption(DOWNLOAD_CONNECT_TIMEOUT, properties),
+                        intOption(DOWNLOAD_READ_TIMEOUT, properties),
+                        intOption(DOWNLOAD_CONNECTIONS_PER_HOST, properties)
+                    );
+                }
+            }
+        }
+        return defaultEngine;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return this.circuitBreaker;
+    }
+
+    public int getConnectTimeout() {
+        return this.connectTimeout;
+    }
+
+    public int getConnectionsPerHost() {
+        return this.connectionsPerHost;
+    }
+
+    public int getReadTimeout() {
+        return this.readTimeout;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return this.retryPolicy;
+    }
+
+    /**
+     * Download asynchronously, see {@link #download(Logger, String, Path, Map, int)}.
+     *
+     * @param logger     logger
+     * @param fromUrl    url
+     * @param saveToFile target file
+     * @param headers    request headers
+     * @param maxTry     max attempts
+     * @return future of tuple(status, exception), never completes exceptionally
+     */
+    public CompletableFuture<Entry<Optional<Integer>, Optional<Exception>>> downloadAsync(
+        final Logger logger,
+        final String fromUrl,
+        final Path saveToFile,
+        final Map<String, String> headers,
+        final int maxTry
+    ) {
+        return this.downloadAsync(logger, fromUrl, saveToFile, headers, maxTry, false);
+    }
+
+    /**
+     * Download asynchronously, see {@link #download(Logger, String, Path, Map, int, boolean)}.
+     *
+     * @param logger      logger
+     * @param fromUrl     url
+     * @param saveToFile  target file
+     * @param headers     request headers
+     * @param maxTry      max attempts
+     * @param conditional conditional GET by {@link DownloadMetadata} sidecar of saveToFile
+     * @return future of tuple(status, exception), never completes exceptionally
+     */
+    public CompletableFuture<Entry<Optional<Integer>, Optional<Exception>>> downloadAsync(
+        final Logger logger,
+        final String fromUrl,
+        final Path saveToFile,
+        final Map<String, String> headers,
+        final int maxTry,
+        final boolean conditional
+    ) {
+        return this.downloadAsync(logger, fromUrl, saveToFile, headers, maxTry, conditional, null);
+    }
+
+    /**
+     * Download asynchronously, see {@link #download(Logger, String, Path, Map, int, boolean, String)}.
+     *
+     * @param logger      logger
+     * @param fromUrl     url
+     * @param saveToFile  target file
+     * @param headers     request headers
+     * @param maxTry      max attempts
+     * @param conditional conditional GET by {@link DownloadMetadata} sidecar of saveToFile
+     * @param sha256      expected SHA-256 (hex) of the content, nullable
+     * @return future of tuple(status, exception), never completes exceptionally
+     */
+    public CompletableFuture<Entry<Optional<Integer>, Optional<Exception>>> downloadAsync(
+        final Logger logger,
+        final String fromUrl,
+        final Path saveToFile,
+        final Map<String, String> headers,
+        final int maxTry,
+        final boolean conditional,
+        final String sha256
+    ) {
+        return CompletableFuture.supplyAsync(
+            () -> this.download(logger, fromUrl, saveToFile, headers, maxTry, conditional, sha256), this.executor);
+    }
+
+    /**
+     * Download fromUrl into saveToFile (only when status is 2xx), on the calling thread.
+     * Retries on 5xx status and I/O errors, follows redirects (headers are not sent to another host).
+     *
+     * @param logger     logger
+     * @param fromUrl    url
+     * @param saveToFile target file
+     * @param headers    request headers
+     * @param maxTry     max attempts
+     * @return tuple(status, exception)
+     */
+    public Entry<Optional<Integer>, Optional<Exception>> download(
+        final Logger logger,
+        final String fromUrl,
+        final Path saveToFile,
+        final Map<String, String> headers,
+        final int maxTry
+    ) {
+        return this.download(logger, fromUrl, saveToFile, headers, maxTry, false);
+    }
+
+    /**
+     * Download fromUrl into saveToFile (only when status is 2xx), on the calling thread.
+     * Retries on 5xx, 408, 429 status and I/O errors (see {@link RetryPolicy}),
+     * follows redirects (headers are not sent to another host).
+     * <p/>
+     * If conditional, sends validators of the {@link DownloadMetadata} sidecar of saveToFile (if it matches saveToFile),
+     * status 304 leaves saveToFile untouched, the sidecar is updated on 2xx and 304.
+     *
+     * @param logger      logger
+     * @param fromUrl     url
+     * @param saveToFile  target file
+     * @param headers     request headers
+     * @param maxTry      max attempts
+     * @param conditional conditional GET by {@link DownloadMetadata} sidecar of saveToFile
+     * @return tuple(status, exception)
+     */
+    public Entry<Optional<Integer>, Optional<Exception>> download(
+        final Logger logger,
+        final String fromUrl,
+        final Path saveToFile,
+        final Map<String, String> headers,
+        final int maxTry,
+        final boolean conditional
+    ) {
+        return this.download(logger, fromUrl, saveToFile, headers, maxTry, conditional, null);
+    }
+
+    /**
+     * Download fromUrl into saveToFile (only when status is 2xx), on the calling thread, see
+     * {@link #download(Logger, String, Path, Map, int, boolean)}.
+     * <p/>
+     * The body is written into a {@link PartFile}, verified and then moved to saveToFile atomically.
+     * A body shorter than Content-Length is kept and resumed (Range) by the next attempt, a body not matching the
+     * SHA-256 (sha256 or the X-Checksum-Sha256 response header) is discarded.
+     *
+     * @param logger      logger
+     * @param fromUrl     url
+     * @param saveToFile  target file
+     * @param headers     request headers
+     * @param maxTry      max attempts
+     * @param conditional conditional GET by {@link DownloadMetadata} sidecar of saveToFile
+     * @param sha256      expected SHA-256 (hex) of the content, nullable
+     * @return tuple(status, exception)
+     */
+    public Entry<Optional<Integer>, Optional<Exception>> download(
+        final Logger logger,
+        final String fromUrl,
+        final Path saveToFile,
+        final Map<String, String> headers,
+        final int maxTry,
+        final boolean conditional,
+        final String sha256
+    ) {
+        final PartFile part;
+        try {
+            part = PartFile.open(saveToFile);
+        } catch (final IOException ex) {
+            logger.warn(String.format("    Download error ('%s' to '%s'). %s", fromUrl, saveToFile, ex.getMessage()), ex);
+            return SupportFunction.newTupleOptional(null, ex);
+        }
+        try (final PartFile partFile = part) {
+            return this.download(logger, fromUrl, saveToFile, headers, maxTry, conditional, sha256, partFile);
+        } catch (final IOException ex) {
+            logger.warn(String.format("    Can not release part file of [%s]. %s", saveToFile, ex.getMessage()));
+            return SupportFunction.newTupleOptional(null, ex);
+        }
+    }
+
+    private Entry<Optional<Integer>, Optional<Exception>> download(
+        final Logger logger,
+        final String fromUrl,
+        final Path saveToFile,
+        final Map<String, String> headers,
+        final int maxTry,
+        final boolean conditional,
+        final String sha256,
+        final PartFile part
+    ) {
+        Exception lastException = null;
+        Integer lastStatus = null;
+
+        final Optional<DownloadMetadata> metadata = conditional
+            ? DownloadMetadata.read(saveToFile).filter(value -> value.matches(saveToFile))
+            : Optional.empty();
+        final Map<String, String> conditionalHeaders = metadata.map(DownloadMetadata::conditionalHeaders).orElse(null);
+
+        String url = fromUrl;
+        Map<String, String> requestHeaders = headers;
+        int redirects = 0;
+        int count = 0;
+        while (count < maxTry) {
+            count++;
+
+            final URL source;
+            try {
+                source = new URL(url);
+            } catch (final IOException ex) {
+                logger.warn(String.format("    Download error ('%s' to '%s'). %s", url, saveToFile, ex.getMessage()), ex);
+                return SupportFunction.newTupleOptional(null, ex);
+            }
+
+            final String host = source.getProtocol() + "://" + source.getAuthority();
+            if (!this.circuitBreaker.allowRequest(host)) {
+                final Exception ex = new CircuitBreaker.OpenException(host);
+                logger.warn(String.format("    Download skipped ('%s' to '%s'). %s", url, saveToFile, ex.getMessage()));
+                return SupportFunction.newTupleOptional(null, ex);
+            }
+            if (count == 1) {
+                this.retryPolicy.onRequest();
+            }
+
+            final Semaphore permits = this.hostPermits.computeIfAbsent(host, key -> new Semaphore(this.connectionsPerHost));
+            String location = null;
+            String retryAfter = null;
+            try {
+                permits.acquire();
+                try {
+                    final long offset = part.resumeOffset();
+                    final HttpURLConnection connection = this.open(
+                        logger, source, requestHeaders, conditionalHeaders, part.rangeHeaders(offset));
+                    lastStatus = connection.getResponseCode();
+                    lastException = null;
+                    if (DownloadUtils.is5xxStatus(lastStatus)) {
+                        this.circuitBreaker.onFailure(host);
+                    } else {
+                        this.circuitBreaker.onSuccess(host);
+                    }
+
+                    if (isRedirect(lastStatus)) {
+                        location = connection.getHeaderField("Location");
+                        drain(connection.getErrorStream() != null ? connection.getErrorStream() : connection.getInputStream());
+                        logger.info(String.format("    Download redirect ('%s' to '%s'). %s", url, location, lastStatus));
+                    } else if (DownloadUtils.is2xxStatus(lastStatus)) {
+                        final String digest = this.receive(connection, part, offset, sha256);
+                        part.commit(saveToFile);
+                        logger.info(String.format("    Download result ('%s' to '%s'). %s", url, saveToFile, lastStatus));
+                        if (conditional) {
+                            writeMetadata(logger, saveToFile, new DownloadMetadata(
+                                connection.getHeaderField("ETag"),
+                                connection.getHeaderField("Last-Modified"),
+                                digest,
+                                System.currentTimeMillis()
+                            ));
+                        }
+                        return SupportFunction.newTupleOptional(lastStatus, null);
+                    } else if (lastStatus == HttpURLConnection.HTTP_NOT_MODIFIED && metadata.isPresent()) {
+                        drain(connection.getInputStream());
+                        logger.info(String.format("    Download not modified ('%s' to '%s'). %s", url, saveToFile, lastStatus));
+                        writeMetadata(logger, saveToFile, metadata.get().fetchedAt(System.currentTimeMillis()));
+                        return SupportFunction.newTupleOptional(lastStatus, null);
+                    } else if (lastStatus == HTTP_RANGE_NOT_SATISFIABLE && offset > 0L) {
+                        drain(connection.getErrorStream());
+                        logger.warn(String.format("    Download can not resume ('%s' to '%s'). %s", url, saveToFile, lastStatus));
+                        part.truncate();
+                        count--; // not a failed attempt
+                        continue;
+                    } else {
+                        retryAfter = connection.getHeaderField("Retry-After");
+                        drain(connection.getErrorStream());
+                        logger.warn(String.format("    Download error ('%s' to '%s'). %s", url, saveToFile, lastStatus));
+                        if (!RetryPolicy.isRetryable(lastStatus)) {
+                            return SupportFunction.newTupleOptional(lastStatus, null);
+                        }
+                    }
+                } finally {
+                    permits.release();
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return SupportFunction.newTupleOptional(lastStatus, ex);
+            } catch (final java.net.SocketTimeoutException ex) {
+                logger.warn(String.format("    Download timeout ('%s' to '%s'). %s", url, saveToFile, ex.getMessage()));
+                this.circuitBreaker.onFailure(host);
+
+                lastException = ex;
+                lastStatus = null;
+            } catch (final Exception ex) {
+                logger.warn(String.format("    Download error ('%s' to '%s'). %s", url, saveToFile, ex.getMessage()), ex);
+                this.circuitBreaker.onFailure(host);
+
+                lastException = ex;
+                lastStatus = null;
+            }
+
+            if (location == null) {
+                if (count >= maxTry || !this.awaitRetry(logger, url, count, retryAfter)) {
+                    break;
+                }
+            } else {
+                if (++redirects > this.retryPolicy.getMaxRedirects()) {
+                    return SupportFunction.newTupleOptional(lastStatus, new IOException("Too many redirects, last " + location));
+                }
+                try {
+                    final URL target = new URL(source, location);
+                    if (!target.getHost().equalsIgnoreCase(source.getHost())) {
+                        requestHeaders = null;
+                    }
+                    url = target.toString();
+                } catch (final IOException ex) {
+                    return SupportFunction.newTupleOptional(lastStatus, ex);
+                }
+                count = 0; // attempts are counted per url
+            }
+        }
+
+        return SupportFunction.newTupleOptional(lastStatus, lastException);
+    }
+
+    /**
+     * Write a 2xx body into part, verify length and SHA-256.
+     *
+     * @return SHA-256 (hex) of the content
+     * @throws IOException on read or write error, incomplete or corrupted content
+     */
+    private String receive(
+        final HttpURLConnection connection,
+        final PartFile part,
+        final long offset,
+        final String sha256
+    ) throws IOException {
+        final int status = connection.getResponseCode();
+        final long expectedLength;
+        final boolean append;
+        if (status == HttpURLConnection.HTTP_PARTIAL) {
+            final long[] range = parseContentRange(connection.getHeaderField("Content-Range"));
+            if (range == null || range[0] != offset) {
+                drain(connection.getInputStream());
+                part.truncate();
+                throw new IOException("Unexpected Content-Range " + connection.getHeaderField("Content-Range"));
+            }
+            expectedLength = range[1];
+            append = true;
+        } else {
+            expectedLength = connection.getContentLengthLong();
+            append = false;
+        }
+
+        final MessageDigest digest = part.begin(
+            append, connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
+        try (final InputStream inputStream = connection.getInputStream()) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                part.write(buffer, read);
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        final long length = part.size();
+        if (expectedLength >= 0L && length != expectedLength) {
+            // keep the part, next attempt resumes
+            throw new IOException(String.format("Incomplete content, [%s] of [%s] bytes", length, expectedLength));
+        }
+        final String actual = DownloadMetadata.hex(digest.digest());
+        final String expected = sha256 != null ? sha256 : connection.getHeaderField("X-Checksum-Sha256");
+        if (expected != null && !expected.trim().equalsIgnoreCase(actual)) {
+            part.truncate();
+            throw new IOException(String.format("Checksum mismatch, expected [%s], actual [%s]", expected.trim(), actual));
+        }
+        return actual;
+    }
+
+    /**
+     * Parse Content-Range.
+     *
+     * @param contentRange e.g. "bytes 100-199/200"
+     * @return [first byte, complete length (-1 if unknown)], null if malformed
+     */
+    static long[] parseContentRange(final String contentRange) {
+        if (contentRange == null || !contentRange.startsWith("bytes ")) {
+            return null;
+        }
+        final String value = contentRange.substring("bytes ".length()).trim();
+        final int dash = value.indexOf('-');
+        final int slash = value.indexOf('/');
+        if (dash < 1 || slash < dash) {
+            return null;
+        }
+        try {
+            final long first = Long.parseLong(value.substring(0, dash));
+            final String total = value.substring(slash + 1);
+            return new long[]{first, "*".equals(total) ? -1L : Long.parseLong(total)};
+        } catch (final NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Wait before retry.
+     *
+     * @return false if retry should not be made (budget exhausted, server asks to wait too long or interrupted)
+     */
+    private boolean awaitRetry(final Logger logger, final String url, final int attempt, final String retryAfter) {
+        final Optional<Long> retryAfterMillis = RetryPolicy.parseRetryAfter(retryAfter, System.currentTimeMillis());
+        if (retryAfterMillis.map(value -> value > this.retryPolicy.getMaxRetryAfter()).orElse(FALSE)) {
+            logger.warn(String.format("    Give up retrying ('%s'). Retry-After [%s] too long.", url, retryAfter));
+            return false;
+        }
+        if (!this.retryPolicy.tryRetry()) {
+            logger.warn(String.format("    Give up retrying ('%s'). Retry budget exhausted.", url));
+            return false;
+        }
+
+        final long delay = this.retryPolicy.delay(attempt, retryAfterMillis.orElse(null));
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("    Retry ('%s') in [%s] ms.", url, delay));
+        }
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private HttpURLConnection open(
+        final Logger logger,
+        final URL source,
+        final Map<String, String> headers,
+        final Map<String, String> conditionalHeaders,
+        final Map<String, String> rangeHeaders
+    ) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) source.openConnection();
+        connection.setConnectTimeout(this.connectTimeout);
+        connection.setReadTimeout(this.readTimeout);
+        connection.setInstanceFollowRedirects(false);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("    HttpURLConnection header names: %s", headers != null ? headers.keySet() : null));
+        }
+        if (headers != null && headers.size() > 0) {
+            headers.forEach(connection::setRequestProperty);
+        }
+        if (conditionalHeaders != null) {
+            conditionalHeaders.forEach(connection::setRequestProperty);
+        }
+        rangeHeaders.forEach(connection::setRequestProperty);
+        return connection;
+    }
+
+    private static void writeMetadata(final Logger logger, final Path saveToFile, final DownloadMetadata metadata) {
+        try {
+            metadata.write(saveToFile);
+        } catch (final IOException ex) {
+            logger.warn(String.format("    Can not write download metadata of [%s]. %s", saveToFile, ex.getMessage()));
+        }
+    }
+
+    /**
+     * Read (small) body to the end and close it, so the connection can be reused.
+     *
+     * @param inputStream body, nullable
+     */
+    private static void drain(final InputStream inputStream) {
+        if (inputStream == null) {
+            return;
+        }
+        try (final InputStream in = inputStream) {
+            final byte[] buffer = new byte[4096];
+            int total = 0;
+            int read;
+            while (total < DRAIN_LIMIT && (read = in.read(buffer)) != -1) {
+                total += read;
+            }
+        } catch (final IOException ignored) {
+            // connection is not reused
+        }
+    }
+
+    private static boolean isRedirect(final int status) {
+        return status == HttpURLConnection.HTTP_MOVED_PERM
+            || status == HttpURLConnection.HTTP_MOVED_TEMP
+            || status == HttpURLConnection.HTTP_SEE_OTHER
+            || status == 307
+            || status == 308;
+    }
+
+    private static int intOption(final CiOption option, final Properties properties) {
+        return option.findInProperties(option.getPropertyName(), properties, properties)
+            .map(Integer::parseInt)
+            .orElseGet(() -> option.getDefaultValue().map(Integer::parseInt).orElse(0));
+    }
+
+    private static ThreadFactory threadFactory() {
+        final AtomicInteger counter = new AtomicInteger(0);
+        return runnable -> {
+            final Thread thread = new Thread(runnable, "download-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
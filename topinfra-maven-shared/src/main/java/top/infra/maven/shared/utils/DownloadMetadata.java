@@ -0,0 +1,199 @@
+package top.infra.maven.shared.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+import top.infra.exception.RuntimeIOException;
+
+/**
+ * Metadata of a downloaded file (ETag, Last-Modified, content hash and fetch time), kept in a sidecar file
+ * ({@code <file>.download.properties}) next to it, so later downloads can be conditional (If-None-Match,
+ * If-Modified-Since) and a 304 costs only a round-trip.
+ * <p/>
+ * Validators are only sent while the content hash matches the file, a locally modified file is downloaded in full.
+ */
+public final class DownloadMetadata {
+
+    public static final String SIDECAR_SUFFIX = ".download.properties";
+
+    private static final String PROP_ETAG = "etag";
+    private static final String PROP_LAST_MODIFIED = "lastModified";
+    private static final String PROP_SHA256 = "sha256";
+    private static final String PROP_FETCHED_AT = "fetchedAt";
+
+    private final String etag;
+    private final String lastModified;
+    private final String sha256;
+    private final long fetchedAt;
+
+    public DownloadMetadata(
+        final String etag,
+        final String lastModified,
+        final String sha256,
+        final long fetchedAt
+    ) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.sha256 = sha256;
+        this.fetchedAt = fetchedAt;
+    }
+
+    public static Path sidecar(final Path file) {
+        return file.resolveSibling(file.getFileName() + SIDECAR_SUFFIX);
+    }
+
+    /**
+     * Read sidecar of file.
+     *
+     * @param file downloaded file
+     * @return metadata, empty if absent or unreadable
+     */
+    public static Optional<DownloadMetadata> read(final Path file) {
+        final Path sidecar = sidecar(file);
+        if (!sidecar.toFile().isFile()) {
+            return Optional.empty();
+        }
+
+        final Properties properties = new Properties();
+        try (final InputStream inputStream = Files.newInputStream(sidecar)) {
+            properties.load(inputStream);
+            return Optional.of(new DownloadMetadata(
+                properties.getProperty(PROP_ETAG),
+                properties.getProperty(PROP_LAST_MODIFIED),
+                properties.getProperty(PROP_SHA256),
+                Long.parseLong(properties.getProperty(PROP_FETCHED_AT, "0"))
+            ));
+        } catch (final IOException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Write sidecar of file atomically, readers never see a truncated sidecar.
+     *
+     * @param file downloaded file
+     * @throws IOException on write error
+     */
+    public void write(final Path file) throws IOException {
+        final Properties properties = new Properties();
+        if (this.etag != null) {
+            properties.setProperty(PROP_ETAG, this.etag);
+        }
+        if (this.lastModified != null) {
+            properties.setProperty(PROP_LAST_MODIFIED, this.lastModified);
+        }
+        if (this.sha256 != null) {
+            properties.setProperty(PROP_SHA256, this.sha256);
+        }
+        properties.setProperty(PROP_FETCHED_AT, Long.toString(this.fetchedAt));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        properties.store(bytes, null);
+        try {
+            FileUtils.writeFileAtomically(sidecar(file), bytes.toByteArray());
+        } catch (final RuntimeIOException ex) {
+            throw (IOException) ex.getCause();
+        }
+    }
+
+    /**
+     * Request headers of a conditional GET.
+     *
+     * @return If-None-Match and/or If-Modified-Since
+     */
+    public Map<String, String> conditionalHeaders() {
+        final Map<String, String> headers = new LinkedHashMap<>();
+        if (this.etag != null) {
+            headers.put("If-None-Match", this.etag);
+        }
+        if (this.lastModified != null) {
+            headers.put("If-Modified-Since", this.lastModified);
+        }
+        return headers;
+    }
+
+    /**
+     * Whether file is the one described by this metadata (content hash matches).
+     *
+     * @param file downloaded file
+     * @return matches
+     */
+    public boolean matches(final Path file) {
+        return this.sha256 != null && file.toFile().isFile() && sha256(file).map(this.sha256::equals).orElse(false);
+    }
+
+    /**
+     * Whether fetched (or revalidated) within ttl.
+     *
+     * @param ttlMillis time to live in milliseconds
+     * @param now       current time in milliseconds
+     * @return fresh
+     */
+    public boolean isFresh(final long ttlMillis, final long now) {
+        return now - this.fetchedAt < ttlMillis;
+    }
+
+    /**
+     * Same validators and hash, fetched at another time.
+     *
+     * @param time fetch time in milliseconds
+     * @return new metadata
+     */
+    public DownloadMetadata fetchedAt(final long time) {
+        return new DownloadMetadata(this.etag, this.lastModified, this.sha256, time);
+    }
+
+    public String getEtag() {
+        return this.etag;
+    }
+
+    public long getFetchedAt() {
+        return this.fetchedAt;
+    }
+
+    public String getLastModified() {
+        return this.lastModified;
+    }
+
+    public String getSha256() {
+        return this.sha256;
+    }
+
+    public static Optional<String> sha256(final Path file) {
+        try (final InputStream inputStream = Files.newInputStream(file)) {
+            final MessageDigest digest = newSha256();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return Optional.of(hex(digest.digest()));
+        } catch (final IOException ex) {
+            return Optional.empty();
+        }
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    static String hex(final byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
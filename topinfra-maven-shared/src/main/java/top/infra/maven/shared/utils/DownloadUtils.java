@@ -1,20 +1,13 @@
 package top.infra.maven.shared.utils;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 
 import top.infra.logging.Logger;
 
@@ -23,6 +16,16 @@ public abstract class DownloadUtils {
     private DownloadUtils() {
     }
 
+    /**
+     * Download by the default (pooled) {@link DownloadEngine}.
+     *
+     * @param logger     logger
+     * @param fromUrl    url
+     * @param saveToFile target file
+     * @param headers    request headers
+     * @param maxTry     max attempts
+     * @return tuple(status, exception)
+     */
     public static Entry<Optional<Integer>, Optional<Exception>> download(
         final Logger logger,
         final String fromUrl,
@@ -30,101 +33,103 @@ public abstract class DownloadUtils {
         final Map<String, String> headers,
         final int maxTry
     ) {
-        // download a file only when it exists
-        // see: https://stackoverflow.com/questions/921262/how-to-download-and-save-a-file-from-internet-using-java
+        return DownloadEngine.getDefault().download(logger, fromUrl, saveToFile, headers, maxTry);
+    }
 
-        Exception lastException = null;
-        Integer lastStatus = null;
+    /**
+     * Download asynchronously by the default (pooled) {@link DownloadEngine}.
+     *
+     * @param logger     logger
+     * @param fromUrl    url
+     * @param saveToFile target file
+     * @param headers    request headers
+     * @param maxTry     max attempts
+     * @return future of tuple(status, exception)
+     */
+    public static CompletableFuture<Entry<Optional<Integer>, Optional<Exception>>> downloadAsync(
+        final Logger logger,
+        final String fromUrl,
+        final Path saveToFile,
+        final Map<String, String> headers,
+        final int maxTry
+    ) {
+        return DownloadEngine.getDefault().downloadAsync(logger, fromUrl, saveToFile, headers, maxTry);
+    }
 
-        int count = 0;
-        while (count < maxTry) {
-            count++;
+    /**
+     * Download asynchronously by the default (pooled) {@link DownloadEngine}, conditional by {@link DownloadMetadata}.
+     *
+     * @param logger      logger
+     * @param fromUrl     url
+     * @param saveToFile  target file
+     * @param headers     request headers
+     * @param maxTry      max attempts
+     * @param conditional conditional GET by sidecar metadata of saveToFile (status 304 if not modified)
+     * @return future of tuple(status, exception)
+     */
+    public static CompletableFuture<Entry<Optional<Integer>, Optional<Exception>>> downloadAsync(
+        final Logger logger,
+        final String fromUrl,
+        final Path saveToFile,
+        final Map<String, String> headers,
+        final int maxTry,
+        final boolean conditional
+    ) {
+        return DownloadEngine.getDefault().downloadAsync(logger, fromUrl, saveToFile, headers, maxTry, conditional);
+    }
 
-            String newUrl = null;
-            InputStream inputStream = null;
-            try {
-                final URL source = new URL(fromUrl);
-                final HttpURLConnection urlConnection = (HttpURLConnection) source.openConnection();
-                urlConnection.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(10L));
-                urlConnection.setReadTimeout((int) TimeUnit.SECONDS.toMillis(20L));
-
-                if (logger.isDebugEnabled()) {
-                    logger.debug(String.format("    HttpURLConnection header names: %s", headers != null ? headers.keySet() : null));
-                }
-                if (headers != null && headers.size() > 0) {
-                    headers.forEach(urlConnection::setRequestProperty);
-                }
-
-                inputStream = urlConnection.getInputStream();
-                final int status = urlConnection.getResponseCode();
-
-                lastException = null;
-                lastStatus = status;
-
-                final boolean redirect = lastStatus == HttpURLConnection.HTTP_MOVED_TEMP
-                    || lastStatus == HttpURLConnection.HTTP_MOVED_PERM
-                    || lastStatus == HttpURLConnection.HTTP_SEE_OTHER;
-
-                if (redirect) {
-                    newUrl = urlConnection.getHeaderField("Location");
-                    logger.info(String.format("    Download redirect ('%s' to '%s'). %s", fromUrl, newUrl, status));
-                } else {
-                    newUrl = null;
-                    logger.info(String.format("    Download result ('%s' to '%s'). %s", fromUrl, saveToFile, status));
-                }
-            } catch (final java.io.FileNotFoundException ex) {
-                logger.warn(String.format("    Download error ('%s' to '%s'). %s", fromUrl, saveToFile, "Not found"));
-
-                lastException = null;
-                lastStatus = 404;
-            } catch (final java.net.SocketTimeoutException ex) {
-                logger.warn(String.format("    Download timeout ('%s' to '%s'). %s", fromUrl, saveToFile, ex.getMessage()));
-
-                lastException = ex;
-                lastStatus = null;
-            } catch (final Exception ex) {
-                logger.warn(String.format("    Download error ('%s' to '%s'). %s", fromUrl, saveToFile, ex.getMessage()), ex);
-
-                lastException = ex;
-                lastStatus = null;
+    /**
+     * Download by the default (pooled) {@link DownloadEngine}, verified by the SHA-256 published next to the file
+     * ({@code <fromUrl>.sha256}, no verification if it can not be downloaded).
+     *
+     * @param logger     logger
+     * @param fromUrl    url
+     * @param saveToFile target file
+     * @param headers    request headers
+     * @param maxTry     max attempts
+     * @return tuple(status, exception)
+     */
+    public static Entry<Optional<Integer>, Optional<Exception>> downloadVerified(
+        final Logger logger,
+        final String fromUrl,
+        final Path saveToFile,
+        final Map<String, String> headers,
+        final int maxTry
+    ) {
+        final DownloadEngine engine = DownloadEngine.getDefault();
+        final Path checksumFile = saveToFile.resolveSibling(saveToFile.getFileName() + ".sha256");
+        try {
+            final Entry<Optional<Integer>, Optional<Exception>> checksum = engine.download(
+                logger, fromUrl + ".sha256", checksumFile, headers, maxTry);
+            final String sha256;
+            if (checksum.getKey().map(DownloadUtils::is2xxStatus).orElse(false)) {
+                // "<hash>" or "<hash>  <file name>"
+                final String content = new String(Files.readAllBytes(checksumFile), StandardCharsets.US_ASCII).trim();
+                sha256 = content.isEmpty() ? null : content.split("\\s+")[0];
+            } else {
+                // not published (e.g. 403, 404, 410) or not available, errors of the file itself are reported below
+                sha256 = null;
             }
-
-            if (inputStream != null) {
-                if (newUrl != null) {
-                    return download(logger, newUrl, saveToFile, headers, maxTry);
-                } else if (is2xxStatus(lastStatus)) {
-                    final File saveToDir = saveToFile.toFile().getParentFile();
-                    try {
-                        if (!saveToDir.exists()) {
-                            Files.createDirectories(Paths.get(saveToDir.toString()));
-                        }
-                    } catch (final IOException ex) {
-                        return SupportFunction.newTupleOptional(lastStatus, ex);
-                    }
-
-                    try (final ReadableByteChannel rbc = Channels.newChannel(inputStream)) {
-                        try (final FileOutputStream fos = new FileOutputStream(saveToFile.toFile())) {
-                            fos.getChannel().transferFrom(rbc, 0, Long.MAX_VALUE);
-                        }
-                        return SupportFunction.newTupleOptional(lastStatus, null);
-                    } catch (final IOException ex) {
-                        return SupportFunction.newTupleOptional(lastStatus, ex);
-                    }
-                } else if (lastStatus != null && !is5xxStatus(lastStatus)) {
-                    return SupportFunction.newTupleOptional(lastStatus, null);
-                }
-            } else if (lastStatus != null && lastStatus == 404) {
-                return SupportFunction.newTupleOptional(lastStatus, null);
+            return engine.download(logger, fromUrl, saveToFile, headers, maxTry, false, sha256);
+        } catch (final IOException ex) {
+            return SupportFunction.newTupleOptional(null, ex);
+        } finally {
+            try {
+                Files.deleteIfExists(checksumFile);
+            } catch (final IOException ignored) {
+                // ignored
             }
         }
-
-        return SupportFunction.newTupleOptional(lastStatus, lastException);
     }
 
     public static boolean is2xxStatus(final Integer status) {
         return status != null && status >= 200 && status < 300;
     }
 
+    public static boolean is304Status(final Integer status) {
+        return status != null && status == 304;
+    }
+
     public static boolean is404Status(final Integer status) {
         return status != null && status == 404;
     }
@@ -3,6 +3,7 @@ package top.infra.maven.shared.utils;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -69,4 +70,49 @@ public class FileUtils {
             throw new RuntimeIOException(ex);
         }
     }
+
+    /**
+     * Move source to target atomically (replace existing), readers see either the old or the new target.
+     * Falls back to a non-atomic replace if the file system does not support atomic moves.
+     *
+     * @param source source, in the same directory (file system) as target
+     * @param target target
+     * @throws IOException on move error
+     */
+    public static void moveAtomically(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Write bytes into a temporary file in the same directory, then move it to path atomically,
+     * so path is never seen truncated.
+     *
+     * @param path  target
+     * @param bytes content
+     * @return true
+     */
+    public static boolean writeFileAtomically(final Path path, final byte[] bytes) {
+        final Path absolute = path.toAbsolutePath();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(absolute.getParent(), "." + absolute.getFileName(), ".tmp");
+            Files.write(temp, bytes, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.SYNC);
+            moveAtomically(temp, absolute);
+            return true;
+        } catch (final IOException ex) {
+            throw new RuntimeIOException(ex);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (final IOException ignored) {
+                    // ignored
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package top.infra.maven.shared.utils;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only view of layered properties (e.g. user &gt; model &gt; project &gt; system), nothing is copied,
+ * a key is looked up layer by layer (highest precedence first) on demand.
+ * <p/>
+ * Iterating (entrySet, size) merges layers, intended for lookup by key.
+ */
+public final class LayeredProperties extends AbstractMap<String, Object> {
+
+    private final List<Map<?, ?>> layers;
+
+    private LayeredProperties(final List<Map<?, ?>> layers) {
+        this.layers = layers;
+    }
+
+    /**
+     * Layered view.
+     *
+     * @param layers highest precedence first, null layers are ignored
+     * @return view
+     */
+    public static LayeredProperties of(final Map<?, ?>... layers) {
+        final List<Map<?, ?>> list = new ArrayList<>(layers.length);
+        for (final Map<?, ?> layer : layers) {
+            if (layer != null) {
+                list.add(layer);
+            }
+        }
+        return new LayeredProperties(list);
+    }
+
+    @Override
+    public Object get(final Object key) {
+        for (int idx = 0; idx < this.layers.size(); idx++) {
+            final Object value = this.layers.get(idx).get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        final Map<String, Object> merged = new LinkedHashMap<>();
+        for (int idx = this.layers.size() - 1; idx >= 0; idx--) {
+            this.layers.get(idx).forEach((key, value) -> {
+                if (key != null && value != null) {
+                    merged.put(key.toString(), value);
+                }
+            });
+        }
+        return Collections.unmodifiableMap(merged).entrySet();
+    }
+}
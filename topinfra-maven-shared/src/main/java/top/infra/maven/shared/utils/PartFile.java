@@ -0,0 +1,216 @@
+package top.infra.maven.shared.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Partial download of a target file, in the same directory as the target ({@code <target>.part}),
+ * moved into place atomically once complete, so the target is never seen partially written.
+ * <p/>
+ * The part file is locked while in use. If another process (e.g. a concurrent CI job sharing the cache) holds the lock,
+ * a unique temporary file is used instead (not resumable).
+ * An unlocked part file left by an interrupted download is resumed (HTTP Range) if its validators (ETag or
+ * Last-Modified, kept in the {@link DownloadMetadata} sidecar of the part file) still match.
+ */
+final class PartFile implements Closeable {
+
+    static final String SUFFIX = ".part";
+
+    private final Path path;
+    private final boolean shared;
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private boolean committed;
+
+    private PartFile(final Path path, final boolean shared, final FileChannel channel, final FileLock lock) {
+        this.path = path;
+        this.shared = shared;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Open (and lock) the part file of target.
+     *
+     * @param target target file
+     * @return part file
+     * @throws IOException on create or lock error
+     */
+    static PartFile open(final Path target) throws IOException {
+        final Path absolute = target.toAbsolutePath();
+        final Path dir = absolute.getParent();
+        if (dir != null && !dir.toFile().exists()) {
+            Files.createDirectories(dir);
+        }
+
+        final Path part = absolute.resolveSibling(absolute.getFileName() + SUFFIX);
+        final FileChannel channel = FileChannel.open(part,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (final OverlappingFileLockException ex) {
+            lock = null; // held by another download in this jvm
+        }
+        if (lock != null) {
+            return new PartFile(part, true, channel, lock);
+        }
+
+        channel.close();
+        final Path temp = Files.createTempFile(dir, "." + absolute.getFileName(), SUFFIX);
+        return new PartFile(temp, false,
+            FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE), null);
+    }
+
+    Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Offset to resume from.
+     *
+     * @return size of the part file if it can be resumed, else 0
+     * @throws IOException on read error
+     */
+    long resumeOffset() throws IOException {
+        if (!this.shared || this.channel.size() == 0L) {
+            return 0L;
+        }
+        final Optional<DownloadMetadata> metadata = DownloadMetadata.read(this.path);
+        return metadata.map(value -> value.getEtag() != null || value.getLastModified() != null).orElse(false)
+            ? this.channel.size()
+            : 0L;
+    }
+
+    /**
+     * Request headers to resume from offset (Range and If-Range, a changed remote file is sent in full).
+     *
+     * @param offset offset, see {@link #resumeOffset()}
+     * @return headers, empty if not resumable
+     */
+    Map<String, String> rangeHeaders(final long offset) {
+        final Map<String, String> headers = new LinkedHashMap<>();
+        if (offset > 0L) {
+            DownloadMetadata.read(this.path).ifPresent(metadata -> {
+                headers.put("Range", "bytes=" + offset + "-");
+                headers.put("If-Range", metadata.getEtag() != null ? metadata.getEtag() : metadata.getLastModified());
+            });
+        }
+        return headers;
+    }
+
+    /**
+     * Start writing a response body.
+     *
+     * @param append       append to the existing content (206), else the part file is truncated
+     * @param etag         ETag of the response
+     * @param lastModified Last-Modified of the response
+     * @return digest of the existing content (if append)
+     * @throws IOException on read or write error
+     */
+    MessageDigest begin(final boolean append, final String etag, final String lastModified) throws IOException {
+        final MessageDigest digest = DownloadMetadata.newSha256();
+        if (append) {
+            final ByteBuffer buffer = ByteBuffer.allocate(8192);
+            long position = 0L;
+            int read;
+            while ((read = this.channel.read(buffer, position)) != -1) {
+                digest.update(buffer.array(), 0, read);
+                position += read;
+                buffer.clear();
+            }
+            this.channel.position(position);
+        } else {
+            this.truncate();
+            if (this.shared) {
+                new DownloadMetadata(etag, lastModified, null, System.currentTimeMillis()).write(this.path);
+            }
+        }
+        return digest;
+    }
+
+    void write(final byte[] bytes, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+    }
+
+    long size() throws IOException {
+        return this.channel.size();
+    }
+
+    /**
+     * Discard content (e.g. corrupted), next download starts from the beginning.
+     *
+     * @throws IOException on write error
+     */
+    void truncate() throws IOException {
+        this.channel.truncate(0L);
+        this.channel.position(0L);
+        Files.deleteIfExists(DownloadMetadata.sidecar(this.path));
+    }
+
+    /**
+     * Move the complete part file to target atomically.
+     *
+     * @param target target file
+     * @throws IOException on write or move error
+     */
+    void commit(final Path target) throws IOException {
+        this.channel.force(true);
+        Files.deleteIfExists(DownloadMetadata.sidecar(this.path));
+        try {
+            FileUtils.moveAtomically(this.path, target);
+        } catch (final IOException ex) {
+            // some platforms can not move an open file
+            this.release();
+            FileUtils.moveAtomically(this.path, target);
+        }
+        this.committed = true;
+    }
+
+    /**
+     * Release the lock, remove the part file if empty or not resumable.
+     *
+     * @throws IOException on close error
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.committed || !this.channel.isOpen()) {
+            this.release();
+            return;
+        }
+        final boolean keep = this.shared && this.channel.size() > 0L
+            && DownloadMetadata.sidecar(this.path).toFile().isFile();
+        try {
+            if (!keep) {
+                Files.deleteIfExists(this.path);
+                Files.deleteIfExists(DownloadMetadata.sidecar(this.path));
+            }
+        } finally {
+            this.release();
+        }
+    }
+
+    private void release() throws IOException {
+        if (this.channel.isOpen()) {
+            if (this.lock != null) {
+                this.lock.release();
+            }
+            this.channel.close();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package top.infra.maven.shared.utils;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
@@ -38,54 +39,76 @@ public class PropertiesUtils {
 
     public static final Pattern PATTERN_VARS_ENV_DOT_CI = Pattern.compile("^env\\.CI_.+");
 
-    public static String logProperties(final Logger logger, final String title, final Properties properties, final Pattern pattern) {
-        final StringBuilder sb = new StringBuilder(pattern != null ? pattern.pattern() : "");
+    private static volatile SecretMasker secretMasker = SecretMasker.of(SecretMasker.DEFAULT_KEYWORDS);
 
+    public static SecretMasker getSecretMasker() {
+        return secretMasker;
+    }
+
+    public static void setSecretMasker(final SecretMasker masker) {
+        secretMasker = masker;
+    }
+
+    /**
+     * Log (masked) properties line by line, lines are not concatenated.
+     *
+     * @param logger     logger
+     * @param title      title (prefix) of each line
+     * @param properties properties
+     * @param pattern    filter of property names, nullable
+     */
+    public static void logProperties(final Logger logger, final String title, final Properties properties, final Pattern pattern) {
+        if (logger != null) {
+            forEachMaskedLine(title, properties, pattern, line -> logger.info(line.toString()));
+        }
+    }
+
+    /**
+     * Mask each line (formatted as '{title}[{index}] {name}={value}') while writing to consumer,
+     * all lines are not concatenated.
+     *
+     * @param title      title (prefix) of each line
+     * @param properties properties
+     * @param pattern    filter of property names, nullable
+     * @param consumer   consumer of masked line, the line is reused after consumer returns
+     */
+    public static void forEachMaskedLine(
+        final String title,
+        final Properties properties,
+        final Pattern pattern,
+        final Consumer<CharSequence> consumer
+    ) {
+        final SecretMasker masker = secretMasker;
         final String[] propNames = properties.stringPropertyNames()
             .stream()
             .filter(propName -> pattern == null || pattern.matcher(propName).matches())
             .sorted()
             .toArray(String[]::new);
 
-        IntStream
-            .range(0, propNames.length)
-            .forEach(idx -> {
-                final String name = propNames[idx];
-                final String value = properties.getProperty(name);
-                final String line = PropertiesUtils.maskSecrets(String.format("%s[%03d] %s=%s", title, idx, name, value));
-                sb.append(System.lineSeparator());
-                sb.append(line);
-                if (logger != null) {
-                    logger.info(line);
-                }
-            });
-
-        return maskSecrets(sb.toString());
+        final StringBuilder line = new StringBuilder(128);
+        final StringBuilder masked = new StringBuilder(128);
+        for (int idx = 0; idx < propNames.length; idx++) {
+            final String name = propNames[idx];
+            line.setLength(0);
+            line.append(title).append('[');
+            if (idx < 100) {
+                line.append(idx < 10 ? "00" : "0");
+            }
+            line.append(idx).append("] ").append(name).append('=').append(properties.getProperty(name));
+            masked.setLength(0);
+            masker.mask(line, masked);
+            consumer.accept(masked);
+        }
     }
 
+    /**
+     * Mask values of secrets, see {@link SecretMasker}.
+     *
+     * @param text text
+     * @return masked text
+     */
     public static String maskSecrets(final String text) {
-        // see: https://stackoverflow.com/questions/406230/regular-expression-to-match-a-line-that-doesnt-contain-a-word
-        return "" + text
-            .replaceAll("KEY=(?!null).*", "KEY=[secure]")
-            .replaceAll("key=(?!null).*", "key=[secure]")
-            .replaceAll("KEYNAME=(?!null).*", "KEYNAME=[secure]")
-            .replaceAll("keyname=(?!null).*", "keyname=[secure]")
-            .replaceAll("LOGIN=(?!null).*", "LOGIN=[secure]")
-            .replaceAll("login=(?!null).*", "login=[secure]")
-            .replaceAll("ORGANIZATION=(?!null).*", "ORGANIZATION=[secure]")
-            .replaceAll("organization=(?!null).*", "organization=[secure]")
-            .replaceAll("PASS=(?!null).*", "PASS=[secure]")
-            .replaceAll("pass=(?!null).*", "pass=[secure]")
-            .replaceAll("PASSWORD=(?!null).*", "PASSWORD=[secure]")
-            .replaceAll("password=(?!null).*", "password=[secure]")
-            .replaceAll("PASSPHRASE=(?!null).*", "PASSPHRASE=[secure]")
-            .replaceAll("passphrase=(?!null).*", "passphrase=[secure]")
-            .replaceAll("TOKEN=(?!null).*", "TOKEN=[secure]")
-            .replaceAll("token=(?!null).*", "token=[secure]")
-            .replaceAll("USER=(?!null).*", "USER=[secure]")
-            .replaceAll("user=(?!null).*", "user=[secure]")
-            .replaceAll("USERNAME=(?!null).*", "USERNAME=[secure]")
-            .replaceAll("username=(?!null).*", "username=[secure]");
+        return "" + secretMasker.mask(text);
     }
 
     public static void setSystemPropertiesIfAbsent(
@@ -0,0 +1,151 @@
+package top.infra.maven.shared.utils;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retry policy of downloads: exponential backoff with jitter, Retry-After support, a redirect limit,
+ * and a retry budget (retries are limited to a ratio of requests), so a failing host is not hammered
+ * by back-to-back retries of many downloads.
+ */
+public final class RetryPolicy {
+
+    public static final long DEFAULT_BASE_DELAY = 500L;
+    public static final long DEFAULT_MAX_DELAY = 10000L;
+    public static final long DEFAULT_MAX_RETRY_AFTER = 30000L;
+    public static final int DEFAULT_MAX_REDIRECTS = 5;
+    public static final double DEFAULT_BUDGET_RATIO = 0.2d;
+    public static final int DEFAULT_BUDGET_MIN_RETRIES = 10;
+
+    private final long baseDelay;
+    private final long maxDelay;
+    private final long maxRetryAfter;
+    private final int maxRedirects;
+    private final double budgetRatio;
+    private final int budgetMinRetries;
+
+    private final AtomicLong requests;
+    private final AtomicLong retries;
+
+    public RetryPolicy() {
+        this(DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, DEFAULT_MAX_RETRY_AFTER, DEFAULT_MAX_REDIRECTS,
+            DEFAULT_BUDGET_RATIO, DEFAULT_BUDGET_MIN_RETRIES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param baseDelay        delay (milliseconds) before first retry, doubled on each retry
+     * @param maxDelay         max delay (milliseconds) of backoff
+     * @param maxRetryAfter    give up if server asks (Retry-After) to wait longer than this (milliseconds)
+     * @param maxRedirects     max redirects followed
+     * @param budgetRatio      retries allowed per request
+     * @param budgetMinRetries retries always allowed (before ratio applies)
+     */
+    public RetryPolicy(
+        final long baseDelay,
+        final long maxDelay,
+        final long maxRetryAfter,
+        final int maxRedirects,
+        final double budgetRatio,
+        final int budgetMinRetries
+    ) {
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.maxRetryAfter = maxRetryAfter;
+        this.maxRedirects = maxRedirects;
+        this.budgetRatio = budgetRatio;
+        this.budgetMinRetries = budgetMinRetries;
+
+        this.requests = new AtomicLong(0L);
+        this.retries = new AtomicLong(0L);
+    }
+
+    public static boolean isRetryable(final Integer status) {
+        return status == null || DownloadUtils.is5xxStatus(status) || status == 408 || status == 429;
+    }
+
+    /**
+     * Parse Retry-After header, delay-seconds or HTTP-date.
+     *
+     * @param value Retry-After header
+     * @param now   current time in milliseconds
+     * @return delay in milliseconds
+     */
+    public static Optional<Long> parseRetryAfter(final String value, final long now) {
+        if (value == null || value.trim().isEmpty()) {
+            return Optional.empty();
+        }
+
+        final String trimmed = value.trim();
+        try {
+            return Optional.of(Math.max(0L, Long.parseLong(trimmed) * 1000L));
+        } catch (final NumberFormatException ignored) {
+            final SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            try {
+                return Optional.of(Math.max(0L, format.parse(trimmed).getTime() - now));
+            } catch (final ParseException ex) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Delay before a retry.
+     *
+     * @param attempt    attempts made (1 after first failure)
+     * @param retryAfter delay asked by server (milliseconds), nullable
+     * @return delay in milliseconds
+     */
+    public long delay(final int attempt, final Long retryAfter) {
+        if (retryAfter != null) {
+            return Math.min(retryAfter, this.maxRetryAfter);
+        }
+        // equal jitter: half of the exponential backoff fixed, half random
+        final long exponential = Math.min(this.maxDelay, this.baseDelay << Math.min(Math.max(attempt - 1, 0), 20));
+        final long half = exponential / 2L;
+        return half + (half > 0L ? ThreadLocalRandom.current().nextLong(half + 1L) : 0L);
+    }
+
+    /**
+     * Record a request (first attempt of a download), deposits into retry budget.
+     */
+    public void onRequest() {
+        this.requests.incrementAndGet();
+    }
+
+    /**
+     * Withdraw a retry from retry budget.
+     *
+     * @return retry allowed
+     */
+    public boolean tryRetry() {
+        while (true) {
+            final long current = this.retries.get();
+            if (current >= this.budgetMinRetries + (long) (this.budgetRatio * this.requests.get())) {
+                return false;
+            }
+            if (this.retries.compareAndSet(current, current + 1L)) {
+                return true;
+            }
+        }
+    }
+
+    public int getMaxRedirects() {
+        return this.maxRedirects;
+    }
+
+    public long getMaxRetryAfter() {
+        return this.maxRetryAfter;
+    }
+
+    public long getRetries() {
+        return this.retries.get();
+    }
+}
@@ -0,0 +1,226 @@
+package top.infra.maven.shared.utils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import top.infra.exception.RuntimeIOException;
+
+/**
+ * Masks values of secrets (e.g. 'password=secret' to 'password=[secure]') in text.
+ * <p/>
+ * Keywords (ASCII, case-insensitive) are compiled into a single automaton, text is scanned once.
+ * Once '{keyword}=' (not followed by 'null') is found, the rest of the line is replaced by '[secure]'.
+ */
+public final class SecretMasker {
+
+    public static final List<String> DEFAULT_KEYWORDS = Collections.unmodifiableList(Arrays.asList(
+        "key", "keyname", "login", "organization", "pass", "password", "passphrase", "token", "user", "username"
+    ));
+
+    private static final String MASK = "[secure]";
+    private static final char[] NULL = "null".toCharArray();
+    private static final int ALPHABET = 128;
+
+    private final Set<String> keywords;
+    /**
+     * state x char to next state.
+     */
+    private final int[][] transitions;
+    /**
+     * whether state is the end of a '{keyword}='.
+     */
+    private final boolean[] accepts;
+
+    private SecretMasker(final Set<String> keywords) {
+        this.keywords = Collections.unmodifiableSet(keywords);
+
+        // trie
+        final List<int[]> trie = new ArrayList<>();
+        final List<Boolean> accept = new ArrayList<>();
+        trie.add(newState());
+        accept.add(Boolean.FALSE);
+        for (final String keyword : keywords) {
+            int state = 0;
+            final String word = keyword + "=";
+            for (int idx = 0; idx < word.length(); idx++) {
+                final int c = word.charAt(idx);
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newState());
+                    accept.add(Boolean.FALSE);
+                }
+                state = trie.get(state)[c];
+            }
+            accept.set(state, Boolean.TRUE);
+        }
+
+        // Aho-Corasick failure links, folded into a full DFA
+        this.transitions = trie.toArray(new int[0][]);
+        this.accepts = new boolean[this.transitions.length];
+        final int[] fail = new int[this.transitions.length];
+        final Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            if (this.transitions[0][c] < 0) {
+                this.transitions[0][c] = 0;
+            } else {
+                fail[this.transitions[0][c]] = 0;
+                queue.add(this.transitions[0][c]);
+            }
+        }
+        this.accepts[0] = accept.get(0);
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            this.accepts[state] = accept.get(state) || this.accepts[fail[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                final int next = this.transitions[state][c];
+                if (next < 0) {
+                    this.transitions[state][c] = this.transitions[fail[state]][c];
+                } else {
+                    fail[next] = this.transitions[fail[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    private static int[] newState() {
+        final int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    /**
+     * Compile keywords.
+     *
+     * @param keywords keywords, ASCII letters, digits, '.', '-' or '_'
+     * @return masker
+     * @throws IllegalArgumentException on empty or invalid keyword
+     */
+    public static SecretMasker of(final Collection<String> keywords) {
+        final Set<String> words = new LinkedHashSet<>();
+        for (final String keyword : keywords) {
+            final String word = keyword != null ? keyword.trim().toLowerCase() : "";
+            if (word.isEmpty() || !word.chars().allMatch(c -> c < ALPHABET && (Character.isLetterOrDigit(c) || c == '.' || c == '-' || c == '_'))) {
+                throw new IllegalArgumentException(String.format("invalid keyword [%s]", keyword));
+            }
+            words.add(word);
+        }
+        return new SecretMasker(words);
+    }
+
+    public Set<String> getKeywords() {
+        return this.keywords;
+    }
+
+    /**
+     * Mask text.
+     *
+     * @param text text
+     * @return text itself if nothing to mask
+     */
+    public String mask(final String text) {
+        if (text == null) {
+            return null;
+        }
+        final int found = this.find(text, 0);
+        if (found < 0) {
+            return text;
+        }
+        final StringBuilder sb = new StringBuilder(text.length() + MASK.length());
+        try {
+            this.mask(text, found, sb);
+        } catch (final IOException ex) {
+            throw new RuntimeIOException(ex);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Mask text and append the result to out, without building the masked text as a whole.
+     *
+     * @param text text
+     * @param out  out
+     */
+    public void mask(final CharSequence text, final Appendable out) {
+        if (text == null) {
+            return;
+        }
+        try {
+            this.mask(text, this.find(text, 0), out);
+        } catch (final IOException ex) {
+            throw new RuntimeIOException(ex);
+        }
+    }
+
+    private void mask(final CharSequence text, final int firstFound, final Appendable out) throws IOException {
+        final int length = text.length();
+        int from = 0;
+        int found = firstFound;
+        while (found >= 0) {
+            // keep text until (including) '='
+            out.append(text, from, found + 1);
+            out.append(MASK);
+            from = endOfLine(text, found + 1);
+            found = this.find(text, from);
+        }
+        out.append(text, from, length);
+    }
+
+    /**
+     * Find '{keyword}=' not followed by 'null', in the same line.
+     *
+     * @param text  text
+     * @param start start index
+     * @return index of '=', or -1 if not found
+     */
+    private int find(final CharSequence text, final int start) {
+        final int length = text.length();
+        int state = 0;
+        for (int idx = start; idx < length; idx++) {
+            final char c = text.charAt(idx);
+            if (c >= ALPHABET) {
+                state = 0;
+                continue;
+            }
+            state = this.transitions[state][c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c];
+            if (this.accepts[state] && !startsWith(text, idx + 1, NULL)) {
+                return idx;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(final CharSequence text, final int offset, final char[] prefix) {
+        if (text.length() - offset < prefix.length) {
+            return false;
+        }
+        for (int idx = 0; idx < prefix.length; idx++) {
+            if (text.charAt(offset + idx) != prefix[idx]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same line terminators as '.' of {@link java.util.regex.Pattern}.
+     */
+    private static int endOfLine(final CharSequence text, final int start) {
+        final int length = text.length();
+        for (int idx = start; idx < length; idx++) {
+            final char c = text.charAt(idx);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return idx;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,103 @@
+package top.infra.maven.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+import java.util.Properties;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import top.infra.maven.CiOption;
+import top.infra.maven.CiOptionContext;
+
+public class CachingCiOptionContextTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingCiOptionContextTest.class);
+
+    @Test
+    public void testMemoizeAndInvalidate() {
+        final Properties systemProperties = new Properties();
+        final Properties userProperties = new Properties();
+        userProperties.setProperty("owner", "ci-and-cd");
+        final CachingCiOptionContext ciOptContext = new CachingCiOptionContext(systemProperties, userProperties);
+
+        assertEquals("ci-and-cd/maven-build", TestOption.SLUG.getValue(ciOptContext).orElse(null));
+        assertEquals(0L, ciOptContext.getHits());
+        assertEquals(3L, ciOptContext.getMisses());
+        assertTrue(ciOptContext.dependencies(TestOption.SLUG).contains(TestOption.OWNER));
+        assertTrue(ciOptContext.dependencies(TestOption.SLUG).contains(TestOption.NAME));
+
+        assertEquals("ci-and-cd/maven-build", TestOption.SLUG.getValue(ciOptContext).orElse(null));
+        assertEquals("ci-and-cd", TestOption.OWNER.getValue(ciOptContext).orElse(null));
+        assertEquals(2L, ciOptContext.getHits());
+        assertEquals(0L, ciOptContext.getInvalidations());
+
+        // mutate underlying properties directly, not through the context
+        userProperties.setProperty("owner", "infra");
+        assertEquals("infra", TestOption.OWNER.getValue(ciOptContext).orElse(null));
+        assertEquals("infra/maven-build", TestOption.SLUG.getValue(ciOptContext).orElse(null));
+        assertEquals(2L, ciOptContext.getInvalidations());
+        // slug reused memoized owner and name, name does not read owner
+        assertEquals("maven-build", TestOption.NAME.getValue(ciOptContext).orElse(null));
+        assertEquals(5L, ciOptContext.getHits());
+
+        logger.info("statistics: {}", ciOptContext.statistics());
+    }
+
+    @Test
+    public void testIterationNotMemoized() {
+        final Properties systemProperties = new Properties();
+        final Properties userProperties = new Properties();
+        userProperties.setProperty("owner", "ci-and-cd");
+        final CachingCiOptionContext ciOptContext = new CachingCiOptionContext(systemProperties, userProperties);
+
+        assertEquals("1", TestOption.COUNT.getValue(ciOptContext).orElse(null));
+        // a property nobody read by key, seen only through iteration
+        userProperties.setProperty("name", "maven-build");
+        assertEquals("2", TestOption.COUNT.getValue(ciOptContext).orElse(null));
+        assertEquals(0L, ciOptContext.getHits());
+        assertEquals(1L, ciOptContext.getInvalidations());
+    }
+
+    enum TestOption implements CiOption {
+        COUNT("count") {
+            @Override
+            public Optional<String> calculateValue(final CiOptionContext context) {
+                return Optional.of(String.valueOf(context.getUserProperties().stringPropertyNames().size()));
+            }
+        },
+        NAME("name", "maven-build"),
+        OWNER("owner"),
+        SLUG("slug") {
+            @Override
+            public Optional<String> calculateValue(final CiOptionContext context) {
+                return OWNER.getValue(context).flatMap(owner -> NAME.getValue(context).map(name -> owner + "/" + name));
+            }
+        };
+
+        private final String defaultValue;
+        private final String propertyName;
+
+        TestOption(final String propertyName) {
+            this(propertyName, null);
+        }
+
+        TestOption(final String propertyName, final String defaultValue) {
+            this.defaultValue = defaultValue;
+            this.propertyName = propertyName;
+        }
+
+        @Override
+        public Optional<String> getDefaultValue() {
+            return Optional.ofNullable(this.defaultValue);
+        }
+
+        @Override
+        public String getPropertyName() {
+            return this.propertyName;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package top.infra.maven.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import top.infra.maven.CiOption;
+import top.infra.maven.CiOptionContext;
+import top.infra.maven.shared.extension.MavenOption;
+
+public class CiOptionEvaluatorTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CiOptionEvaluatorTest.class);
+
+    private static final AtomicInteger ownerCalculated = new AtomicInteger(0);
+    private static final AtomicInteger slugCalculated = new AtomicInteger(0);
+
+    @Test
+    public void testEvaluate() {
+        ownerCalculated.set(0);
+        slugCalculated.set(0);
+
+        final Properties userProperties = new Properties();
+        userProperties.setProperty("repo.name", "maven-build");
+        final CachingCiOptionContext ciOptContext = new CachingCiOptionContext(new Properties(), userProperties);
+
+        final List<List<CiOption>> groups = Arrays.asList(
+            Arrays.asList(RepoOption.values()),
+            Arrays.asList(SlugOption.values())
+        );
+        final CiOptionEvaluator evaluator = new CiOptionEvaluator(ciOptContext, 2);
+        final Properties properties = evaluator.evaluate(groups);
+        logger.info("report:\n{}", evaluator.report());
+        logger.info("statistics: {}", ciOptContext.statistics());
+
+        assertEquals("ci-and-cd/maven-build", properties.getProperty("slug"));
+        assertEquals("ci-and-cd", properties.getProperty("repo.owner"));
+        assertEquals("maven-build", properties.getProperty("repo.name"));
+        assertEquals(1, ownerCalculated.get());
+        assertEquals(1, slugCalculated.get());
+
+        final List<CiOption> order = evaluator.getOrder();
+        assertEquals(3, order.size());
+        assertTrue(order.indexOf(RepoOption.REPO_OWNER) < order.indexOf(SlugOption.SLUG));
+        assertTrue(order.indexOf(RepoOption.REPO_NAME) < order.indexOf(SlugOption.SLUG));
+    }
+
+    @Test
+    public void testSetPropertiesOfOverriddenGetValue() {
+        final Properties userProperties = new Properties();
+        userProperties.setProperty("jira.user", "user");
+        final CachingCiOptionContext ciOptContext = new CachingCiOptionContext(new Properties(), userProperties);
+
+        // jira.user is only effective with jira.projectKey
+        final Properties properties = new Properties();
+        assertEquals(Optional.of("user"), MavenOption.JIRA_USER.setProperties(ciOptContext, properties));
+        assertFalse(properties.containsKey("jira.user"));
+        assertFalse(MavenOption.JIRA_PASSWORD.setProperties(ciOptContext, properties).isPresent());
+        assertFalse(properties.containsKey("jira.password"));
+
+        userProperties.setProperty("jira.projectKey", "INFRA");
+        final CachingCiOptionContext withProjectKey = new CachingCiOptionContext(new Properties(), userProperties);
+        assertEquals(Optional.of("user"), MavenOption.JIRA_USER.setProperties(withProjectKey, properties));
+        assertEquals("user", properties.getProperty("jira.user"));
+    }
+
+    enum RepoOption implements CiOption {
+        REPO_NAME("repo.name"),
+        REPO_OWNER("repo.owner") {
+            @Override
+            public Optional<String> calculateValue(final CiOptionContext context) {
+                ownerCalculated.incrementAndGet();
+                return Optional.of("ci-and-cd");
+            }
+        };
+
+        private final String propertyName;
+
+        RepoOption(final String propertyName) {
+            this.propertyName = propertyName;
+        }
+
+        @Override
+        public Optional<String> getDefaultValue() {
+            return Optional.empty();
+        }
+
+        @Override
+        public String getPropertyName() {
+            return this.propertyName;
+        }
+    }
+
+    enum SlugOption implements CiOption {
+        SLUG("slug") {
+            @Override
+            public Optional<String> calculateValue(final CiOptionContext context) {
+                slugCalculated.incrementAndGet();
+                return RepoOption.REPO_OWNER.getValue(context)
+                    .flatMap(owner -> RepoOption.REPO_NAME.getValue(context).map(name -> owner + "/" + name));
+            }
+        };
+
+        private final String propertyName;
+
+        SlugOption(final String propertyName) {
+            this.propertyName = propertyName;
+        }
+
+        @Override
+        public Optional<String> getDefaultValue() {
+            return Optional.empty();
+        }
+
+        @Override
+        public String getPropertyName() {
+            return this.propertyName;
+        }
+    }
+}
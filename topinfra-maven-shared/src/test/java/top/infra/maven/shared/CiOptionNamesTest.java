@@ -0,0 +1,97 @@
+package top.infra.maven.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import top.infra.maven.CiOption;
+import top.infra.maven.CiOptionNames;
+import top.infra.maven.shared.extension.CiOptions;
+import top.infra.maven.shared.extension.MavenOption;
+
+public class CiOptionNamesTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CiOptionNamesTest.class);
+
+    @Test
+    public void testNames() {
+        for (final String propertyName : Arrays.asList("maven.user.home", "github.global.repositoryName", "docker-registry.url")) {
+            final String expected = propertyName.replaceAll("-", "").replaceAll("\\.", "_").toUpperCase();
+            assertEquals(expected, MavenOption.MAVEN_USER_HOME.name(propertyName));
+            assertEquals("CI_OPT_" + expected, MavenOption.MAVEN_CLEAN_SKIP.envVariableName(propertyName));
+            assertEquals("env.CI_OPT_" + expected, CiOptions.systemPropertyName(propertyName));
+        }
+        assertEquals("MAVEN_USER_HOME", MavenOption.MAVEN_USER_HOME.getEnvVariableName());
+        assertEquals("env.MAVEN_USER_HOME", MavenOption.MAVEN_USER_HOME.getSystemPropertyName());
+    }
+
+    @Test
+    public void testRegister() {
+        CiOptionNames.register(Arrays.asList(NamesOption.values()));
+        CiOptionNames.register(Arrays.asList(NamesOption.values()));
+
+        assertSame(NamesOption.NAMES_TESTPROPERTY, CiOptionNames.findByPropertyName("names.test-property").orElse(null));
+        assertSame(NamesOption.NAMES_TESTPROPERTY, CiOptionNames.findByEnvVariableName("CI_OPT_NAMES_TESTPROPERTY").orElse(null));
+        assertSame(NamesOption.NAMES_TESTPROPERTY, CiOptionNames.findBySystemPropertyName("env.CI_OPT_NAMES_TESTPROPERTY").orElse(null));
+        assertEquals("env.CI_OPT_NAMES_TESTPROPERTY", NamesOption.NAMES_TESTPROPERTY.getSystemPropertyName());
+
+        try {
+            CiOptionNames.register(Arrays.asList(CollidingOption.values()));
+            fail("collision not detected");
+        } catch (final IllegalArgumentException ex) {
+            logger.info("collision: {}", ex.getMessage());
+            assertTrue(ex.getMessage().contains("env variable name [CI_OPT_NAMES_TESTPROPERTY]"));
+        }
+        assertFalse(CiOptionNames.findByPropertyName("names.other").isPresent());
+    }
+
+    enum NamesOption implements CiOption {
+        NAMES_TESTPROPERTY("names.test-property");
+
+        private final String propertyName;
+
+        NamesOption(final String propertyName) {
+            this.propertyName = propertyName;
+        }
+
+        @Override
+        public Optional<String> getDefaultValue() {
+            return Optional.empty();
+        }
+
+        @Override
+        public String getPropertyName() {
+            return this.propertyName;
+        }
+    }
+
+    enum CollidingOption implements CiOption {
+        NAMES_OTHER("names.other"),
+        NAMES_TESTPROPERTY("names.testProperty");
+
+        private final String propertyName;
+
+        CollidingOption(final String propertyName) {
+            this.propertyName = propertyName;
+        }
+
+        @Override
+        public Optional<String> getDefaultValue() {
+            return Optional.empty();
+        }
+
+        @Override
+        public String getPropertyName() {
+            return this.propertyName;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package top.infra.maven.shared.extension;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.building.DefaultModelBuilderFactory;
+import org.apache.maven.model.building.DefaultModelBuildingRequest;
+import org.apache.maven.model.building.ModelBuilder;
+import org.apache.maven.model.building.ModelBuildingRequest;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.logging.AbstractLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import top.infra.maven.extension.MavenProjectInfo;
+import top.infra.maven.shared.extension.activator.model.ModelProjection;
+import top.infra.maven.shared.logging.LoggerPlexusImpl;
+import top.infra.maven.shared.utils.LayeredProperties;
+import top.infra.maven.shared.utils.PropertiesUtils;
+import top.infra.maven.shared.utils.SecretMasker;
+import top.infra.maven.shared.utils.SecretMaskerTest;
+
+/**
+ * Rough measurements (no JMH here) of the hot paths of profile activation, numbers are logged, nothing is asserted.
+ * <p/>
+ * Not run by default (surefire includes *Test.java), run by: mvn test -pl topinfra-maven-shared -Dtest=PerformanceBenchmark
+ */
+public class PerformanceBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceBenchmark.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * CPU time of PomHeaderReader vs MavenXpp3Reader (full model) on a large pom.xml.
+     */
+    @Test
+    public void benchmarkPomHeaderReader() throws Exception {
+        final File pomFile = this.temporaryFolder.newFile("pom.xml");
+        Files.write(pomFile.toPath(), PomHeaderReaderTest.pom(
+            "<groupId>top.infra</groupId><artifactId>large</artifactId><version>1.0.0</version>",
+            "<java.version>8</java.version>",
+            3000).getBytes(StandardCharsets.UTF_8));
+        final int iterations = 200;
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        for (int idx = 0; idx < 20; idx++) { // warm up
+            readFull(pomFile);
+            PomHeaderReader.clearCache();
+            PomHeaderReader.readProjectInfo(pomFile);
+        }
+
+        long start = threadMXBean.getCurrentThreadCpuTime();
+        for (int idx = 0; idx < iterations; idx++) {
+            readFull(pomFile);
+        }
+        final long full = (threadMXBean.getCurrentThreadCpuTime() - start) / iterations;
+
+        start = threadMXBean.getCurrentThreadCpuTime();
+        for (int idx = 0; idx < iterations; idx++) {
+            PomHeaderReader.clearCache();
+            PomHeaderReader.readProjectInfo(pomFile).map(MavenProjectInfo::getJavaVersion);
+        }
+        final long header = (threadMXBean.getCurrentThreadCpuTime() - start) / iterations;
+
+        start = threadMXBean.getCurrentThreadCpuTime();
+        for (int idx = 0; idx < iterations; idx++) {
+            PomHeaderReader.readProjectInfo(pomFile).map(MavenProjectInfo::getJavaVersion);
+        }
+        final long cached = (threadMXBean.getCurrentThreadCpuTime() - start) / iterations;
+
+        logger.info("pom.xml of [{}] bytes, MavenXpp3Reader [{}] us/op, header [{}] us/op, cached [{}] us/op",
+            pomFile.length(), full / 1000L, header / 1000L, cached / 1000L);
+    }
+
+    /**
+     * Bytes allocated to read "java.version" by copying all layers into a map
+     * (what JavaVersionActivator did per profile evaluation) and by a {@link LayeredProperties} view.
+     */
+    @Test
+    public void benchmarkLayeredProperties() {
+        final Map<String, String> system = new HashMap<>();
+        System.getProperties().forEach((key, value) -> system.put(key.toString(), value.toString()));
+        final Map<String, String> user = new HashMap<>();
+        user.put("infrastructure", "ossrh");
+        final Map<String, String> project = new HashMap<>();
+        final Properties model = new Properties();
+        for (int idx = 0; idx < 30; idx++) {
+            model.setProperty("property." + idx, "value." + idx);
+        }
+        model.setProperty("java.version", "8");
+
+        final int modules = 500;
+        final int profiles = 8;
+        final int rounds = modules * profiles;
+        final Runnable copy = () -> {
+            for (int idx = 0; idx < rounds; idx++) {
+                final Map<String, Object> bindings = new LinkedHashMap<>();
+                bindings.putAll(system);
+                bindings.putAll(project);
+                bindings.putAll(PropertiesUtils.mapFromProperties(model));
+                bindings.putAll(user);
+                bindings.get("java.version");
+            }
+        };
+        final Runnable view = () -> {
+            for (int idx = 0; idx < rounds; idx++) {
+                LayeredProperties.of(user, model, project, system).get("java.version");
+            }
+        };
+        // warm up
+        copy.run();
+        view.run();
+
+        logger.info("{} modules x {} profiles, copy: {} bytes/op, layered view: {} bytes/op",
+            modules, profiles, allocatedBytes(copy) / rounds, allocatedBytes(view) / rounds);
+    }
+
+    /**
+     * Retained heap of full effective models and their {@link ModelProjection}s, on a generated reactor.
+     */
+    @Test
+    public void benchmarkModelProjectionHeap() throws Exception {
+        final int modules = 300;
+        final List<File> poms = new ArrayList<>();
+        for (int idx = 0; idx < modules; idx++) {
+            final File pomFile = new File(this.temporaryFolder.newFolder(), "pom.xml");
+            Files.write(pomFile.toPath(), modulePom(idx).getBytes(StandardCharsets.UTF_8));
+            poms.add(pomFile);
+        }
+
+        final ModelBuilder modelBuilder = new DefaultModelBuilderFactory().newInstance();
+        final long base = usedHeap();
+        List<Model> full = new ArrayList<>();
+        for (final File pomFile : poms) {
+            final ModelBuildingRequest request = new DefaultModelBuildingRequest();
+            request.setLocationTracking(false);
+            request.setPomFile(pomFile);
+            request.setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL);
+            full.add(modelBuilder.build(request).getEffectiveModel());
+        }
+        final long fullBytes = usedHeap() - base;
+
+        final List<Model> slim = full.stream().map(ModelProjection::project).collect(Collectors.toList());
+        full = null;
+        final long slimBytes = usedHeap() - base;
+
+        logger.info("{} modules, retained heap of full models: {} KB, slim projections: {} KB ({} projections)",
+            modules, fullBytes / 1024, slimBytes / 1024, slim.size());
+    }
+
+    /**
+     * Bytes allocated by debug logging with eager String.format and with lazy formatting, at INFO and DEBUG level.
+     */
+    @Test
+    public void benchmarkLazyLogging() {
+        final int rounds = 20000;
+        for (final boolean debugEnabled : new boolean[]{false, true}) {
+            final top.infra.logging.Logger discarding = new LoggerPlexusImpl(new DiscardingPlexusLogger(debugEnabled));
+            final Runnable eager = () -> {
+                for (int idx = 0; idx < rounds; idx++) {
+                    discarding.debug(String.format("    %s project='%s' profile='%s' result='%s'",
+                        "JavaVersionActivator", "top.infra:project", "java8", Boolean.FALSE));
+                }
+            };
+            final Runnable lazy = () -> {
+                for (int idx = 0; idx < rounds; idx++) {
+                    discarding.debug("    %s project='%s' profile='%s' result='%s'",
+                        "JavaVersionActivator", "top.infra:project", "java8", Boolean.FALSE);
+                }
+            };
+            // warm up
+            eager.run();
+            lazy.run();
+
+            logger.info("level {}, {} debug messages, eager String.format: {} bytes/op, lazy: {} bytes/op",
+                debugEnabled ? "DEBUG" : "INFO", rounds, allocatedBytes(eager) / rounds, allocatedBytes(lazy) / rounds);
+        }
+    }
+
+    /**
+     * Time of SecretMasker vs the regex implementation it replaced.
+     */
+    @Test
+    public void benchmarkSecretMasker() {
+        final List<String> lines = SecretMaskerTest.LINES;
+        final SecretMasker masker = SecretMasker.of(SecretMasker.DEFAULT_KEYWORDS);
+        final int rounds = 2000;
+
+        long blackhole = 0L;
+        for (int warmUp = 0; warmUp < 2; warmUp++) {
+            for (int round = 0; round < rounds; round++) {
+                for (final String line : lines) {
+                    blackhole += SecretMaskerTest.legacyMaskSecrets(line).length() + masker.mask(line).length();
+                }
+            }
+        }
+
+        final long legacyStart = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (final String line : lines) {
+                blackhole += SecretMaskerTest.legacyMaskSecrets(line).length();
+            }
+        }
+        final long legacyNanos = System.nanoTime() - legacyStart;
+
+        final long maskerStart = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (final String line : lines) {
+                blackhole += masker.mask(line).length();
+            }
+        }
+        final long maskerNanos = System.nanoTime() - maskerStart;
+
+        logger.info("{} lines, legacy regex: {} ms, masker: {} ms, ({})",
+            rounds * lines.size(), legacyNanos / 1000000d, maskerNanos / 1000000d, blackhole);
+    }
+
+    /**
+     * Bytes allocated by current thread while running.
+     *
+     * @param runnable code to measure
+     * @return bytes, negative if not supported by the jvm
+     */
+    static long allocatedBytes(final Runnable runnable) {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)
+            || !((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()) {
+            runnable.run();
+            return -1L;
+        }
+        final com.sun.management.ThreadMXBean mxBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        final long threadId = Thread.currentThread().getId();
+        final long start = mxBean.getThreadAllocatedBytes(threadId);
+        runnable.run();
+        return mxBean.getThreadAllocatedBytes(threadId) - start;
+    }
+
+    private static Model readFull(final File pomFile) throws Exception {
+        try (final InputStream inputStream = Files.newInputStream(pomFile.toPath())) {
+            return new MavenXpp3Reader().read(inputStream);
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int idx = 0; idx < 3; idx++) {
+            System.gc();
+            Thread.sleep(50L);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static String modulePom(final int idx) {
+        final StringBuilder sb = new StringBuilder()
+            .append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n")
+            .append("    <modelVersion>4.0.0</modelVersion>\n")
+            .append("    <groupId>top.infra.test</groupId>\n")
+            .append("    <artifactId>module-").append(idx).append("</artifactId>\n")
+            .append("    <version>1.0.0</version>\n")
+            .append("    <properties>\n")
+            .append("        <java.version>8</java.version>\n")
+            .append("        <project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>\n")
+            .append("    </properties>\n")
+            .append("    <dependencies>\n");
+        for (int dep = 0; dep < 60; dep++) {
+            sb.append("        <dependency><groupId>top.infra.dependency</groupId><artifactId>dependency-").append(dep)
+                .append("</artifactId><version>1.0.").append(dep).append("</version>")
+                .append("<exclusions><exclusion><groupId>commons-logging</groupId><artifactId>commons-logging</artifactId>")
+                .append("</exclusion></exclusions></dependency>\n");
+        }
+        sb.append("    </dependencies>\n")
+            .append("    <build>\n")
+            .append("        <plugins>\n");
+        for (int plugin = 0; plugin < 15; plugin++) {
+            sb.append("            <plugin><groupId>top.infra.plugin</groupId><artifactId>plugin-").append(plugin)
+                .append("</artifactId><version>1.0.0</version><configuration><skip>false</skip><encoding>UTF-8</encoding>")
+                .append("</configuration></plugin>\n");
+        }
+        return sb.append("        </plugins>\n")
+            .append("    </build>\n")
+            .append("</project>\n")
+            .toString();
+    }
+
+    private static final class DiscardingPlexusLogger extends AbstractLogger {
+
+        DiscardingPlexusLogger(final boolean debugEnabled) {
+            super(debugEnabled ? LEVEL_DEBUG : LEVEL_INFO, "benchmark");
+        }
+
+        @Override
+        public void debug(final String message, final Throwable throwable) {
+        }
+
+        @Override
+        public void info(final String message, final Throwable throwable) {
+        }
+
+        @Override
+        public void warn(final String message, final Throwable throwable) {
+        }
+
+        @Override
+        public void error(final String message, final Throwable throwable) {
+        }
+
+        @Override
+        public void fatalError(final String message, final Throwable throwable) {
+        }
+
+        @Override
+        public org.codehaus.plexus.logging.Logger getChildLogger(final String name) {
+            return this;
+        }
+    }
+}
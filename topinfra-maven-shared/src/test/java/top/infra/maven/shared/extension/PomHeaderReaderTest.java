@@ -0,0 +1,138 @@
+package top.infra.maven.shared.extension;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Optional;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import top.infra.maven.extension.MavenProjectInfo;
+import top.infra.maven.shared.logging.LoggerPlexusImpl;
+
+public class PomHeaderReaderTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PomHeaderReaderTest.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        PomHeaderReader.clearCache();
+    }
+
+    @Test
+    public void testInheritFromParent() throws Exception {
+        final File root = this.temporaryFolder.getRoot();
+        write(new File(root, "pom.xml"), pom(
+            "<groupId>top.infra</groupId><artifactId>parent</artifactId><version>1.0.0-SNAPSHOT</version>"
+                + "<packaging>pom</packaging>",
+            "<java.version>11</java.version>",
+            0));
+        final File module = new File(root, "module");
+        final File modulePom = new File(module, "pom.xml");
+        write(modulePom, pom(
+            "<parent><groupId>top.infra</groupId><artifactId>parent</artifactId><version>1.0.0-SNAPSHOT</version></parent>"
+                + "<artifactId>module</artifactId>",
+            "<encoding>UTF-8</encoding>",
+            0));
+
+        final MavenProjectInfo info = DefaultMavenProjectInfo.newProjectInfoByReadPom(logger(), modulePom).orElse(null);
+        assertTrue(info != null);
+        assertEquals("top.infra:module:jar:1.0.0-SNAPSHOT", info.getId());
+        assertEquals("11", info.getJavaVersion());
+
+        // parent coordinates mismatch, java.version not inherited
+        write(new File(root, "pom.xml"), pom(
+            "<groupId>top.infra</groupId><artifactId>other</artifactId><version>1.0.0-SNAPSHOT</version>",
+            "<java.version>11</java.version>",
+            0));
+        new File(root, "pom.xml").setLastModified(System.currentTimeMillis() + 2000L);
+        final MavenProjectInfo notInherited = DefaultMavenProjectInfo.newProjectInfoByReadPom(logger(), modulePom).orElse(null);
+        assertTrue(notInherited != null);
+        assertNull(notInherited.getJavaVersion());
+    }
+
+    @Test
+    public void testCacheAndFallback() throws Exception {
+        final File pomFile = this.temporaryFolder.newFile("pom.xml");
+        write(pomFile, pom("<groupId>top.infra</groupId><artifactId>cached</artifactId><version>1</version>", "", 0));
+
+        final PomHeaderReader.Header header = PomHeaderReader.header(pomFile);
+        assertSame(header, PomHeaderReader.header(pomFile));
+        assertEquals(1, PomHeaderReader.cacheSize());
+
+        // changed file is read again
+        write(pomFile, pom("<groupId>top.infra</groupId><artifactId>cached</artifactId><version>22</version>", "", 0));
+        assertFalse(header == PomHeaderReader.header(pomFile));
+        assertEquals("22", PomHeaderReader.readProjectInfo(pomFile).map(MavenProjectInfo::getVersion).orElse(null));
+
+        // no version and no parent, needs a project build
+        write(pomFile, pom("<groupId>top.infra</groupId><artifactId>no-version</artifactId>", "", 0));
+        assertFalse(DefaultMavenProjectInfo.newProjectInfoByReadPom(logger(), pomFile).isPresent());
+
+        write(pomFile, "<project><artifactId>malformed</artifactId>");
+        assertFalse(DefaultMavenProjectInfo.newProjectInfoByReadPom(logger(), pomFile).isPresent());
+    }
+
+    @Test
+    public void testLargePom() throws Exception {
+        final File pomFile = this.temporaryFolder.newFile("pom.xml");
+        write(pomFile, pom(
+            "<groupId>top.infra</groupId><artifactId>large</artifactId><version>1.0.0</version>",
+            "<java.version>8</java.version>",
+            3000));
+
+        assertEquals("8", readFull(pomFile).getProperties().getProperty("java.version"));
+        assertEquals("8", PomHeaderReader.readProjectInfo(pomFile).map(MavenProjectInfo::getJavaVersion).orElse(null));
+        assertEquals(Optional.of("8"), PomHeaderReader.readProjectInfo(pomFile).map(MavenProjectInfo::getJavaVersion));
+    }
+
+    private static Model readFull(final File pomFile) throws Exception {
+        try (final InputStream inputStream = Files.newInputStream(pomFile.toPath())) {
+            return new MavenXpp3Reader().read(inputStream);
+        }
+    }
+
+    static String pom(final String coordinates, final String properties, final int dependencies) {
+        final StringBuilder sb = new StringBuilder()
+            .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+            .append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n")
+            .append("<modelVersion>4.0.0</modelVersion>\n")
+            .append(coordinates).append('\n')
+            .append("<properties>").append(properties).append("</properties>\n")
+            .append("<dependencies>\n");
+        for (int idx = 0; idx < dependencies; idx++) {
+            sb.append("<dependency><groupId>group.").append(idx).append("</groupId><artifactId>artifact-").append(idx)
+                .append("</artifactId><version>1.0.").append(idx).append("</version><scope>test</scope>")
+                .append("<exclusions><exclusion><groupId>*</groupId><artifactId>*</artifactId></exclusion></exclusions>")
+                .append("</dependency>\n");
+        }
+        return sb.append("</dependencies>\n</project>\n").toString();
+    }
+
+    private static void write(final File file, final String content) throws Exception {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(UTF_8));
+    }
+
+    private static top.infra.logging.Logger logger() {
+        return new LoggerPlexusImpl(new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "test"));
+    }
+}
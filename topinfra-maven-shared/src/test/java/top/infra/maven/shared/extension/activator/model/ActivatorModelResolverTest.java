@@ -0,0 +1,291 @@
+package top.infra.maven.shared.extension.activator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.building.DefaultModelBuilderFactory;
+import org.apache.maven.model.building.DefaultModelBuildingRequest;
+import org.apache.maven.model.building.ModelBuilder;
+import org.apache.maven.model.building.ModelBuildingException;
+import org.apache.maven.model.building.ModelBuildingRequest;
+import org.apache.maven.model.building.ModelBuildingResult;
+import org.apache.maven.model.building.Result;
+import org.apache.maven.model.profile.DefaultProfileActivationContext;
+import org.apache.maven.model.profile.ProfileActivationContext;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ActivatorModelResolverTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testOneBuildPerPom() throws IOException {
+        final File basedir = this.project("1.0.0");
+        final CountingModelBuilder modelBuilder = new CountingModelBuilder();
+        final TestResolver resolver = new TestResolver(modelBuilder);
+        final ProfileActivationContext context = new DefaultProfileActivationContext().setProjectDirectory(basedir);
+
+        final Optional<Model> java8 = resolver.resolveModel(profile("java8"), context);
+        final Optional<Model> java11 = resolver.resolveModel(profile("java11"), context);
+        final Optional<Model> infrastructure = resolver.resolveModel(profile("infrastructure_ossrh"), context);
+
+        assertEquals(1, modelBuilder.builds.get());
+        assertTrue(java8.isPresent());
+        assertEquals("1.0.0", java8.get().getVersion());
+        assertSame(java8.get(), java11.orElse(null));
+        assertSame(java8.get(), infrastructure.orElse(null));
+
+        assertFalse(resolver.resolveModel(sourceProfile("source"), context).isPresent());
+        assertEquals(1, modelBuilder.builds.get());
+    }
+
+    @Test
+    public void testRecursion() throws IOException {
+        final File basedir = this.project("1.0.0");
+        final ProfileActivationContext context = new DefaultProfileActivationContext().setProjectDirectory(basedir);
+        final AtomicReference<TestResolver> resolverRef = new AtomicReference<>();
+        final AtomicReference<Optional<Model>> nested = new AtomicReference<>();
+        final CountingModelBuilder modelBuilder = new CountingModelBuilder() {
+            @Override
+            public ModelBuildingResult build(final ModelBuildingRequest request) throws ModelBuildingException {
+                // model building activates profiles of the same pom
+                nested.set(resolverRef.get().resolveModel(profile("java11"), context));
+                return super.build(request);
+            }
+        };
+        resolverRef.set(new TestResolver(modelBuilder));
+
+        assertTrue(resolverRef.get().resolveModel(profile("java8"), context).isPresent());
+        assertFalse(nested.get().isPresent());
+        assertEquals(1, modelBuilder.builds.get());
+        assertTrue(resolverRef.get().resolveModel(profile("java11"), context).isPresent());
+        assertEquals(1, modelBuilder.builds.get());
+    }
+
+    @Test
+    public void testConcurrentResolution() throws Exception {
+        final int modules = 50;
+        final List<File> reactor = new ArrayList<>();
+        for (int idx = 0; idx < modules; idx++) {
+            reactor.add(this.project("1.0." + idx));
+        }
+        final List<String> profileIds = Arrays.asList("java8", "java11", "infrastructure_ossrh", "multi_module_root_only");
+
+        final CountingModelBuilder modelBuilder = new CountingModelBuilder() {
+            @Override
+            public ModelBuildingResult build(final ModelBuildingRequest request) throws ModelBuildingException {
+                Thread.yield();
+                return super.build(request);
+            }
+        };
+        final TestResolver resolver = new TestResolver(modelBuilder);
+
+        final int threads = 16;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                final long seed = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    final List<File> shuffled = new ArrayList<>(reactor);
+                    Collections.shuffle(shuffled, new Random(seed));
+                    int resolved = 0;
+                    for (final File basedir : shuffled) {
+                        final ProfileActivationContext context = new DefaultProfileActivationContext().setProjectDirectory(basedir);
+                        for (final String profileId : profileIds) {
+                            final Optional<Model> model = resolver.resolveModel(profile(profileId), context);
+                            if (model.isPresent() && basedir.equals(model.get().getProjectDirectory())) {
+                                resolved++;
+                            }
+                        }
+                    }
+                    return resolved;
+                }));
+            }
+            start.countDown();
+            for (final Future<Integer> future : futures) {
+                assertEquals(modules * profileIds.size(), future.get(1L, TimeUnit.MINUTES).intValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(modules, modelBuilder.builds.get());
+        assertEquals(modules, modelBuilder.buildsByPom.size());
+        modelBuilder.buildsByPom.values().forEach(count -> assertEquals(1, count.get()));
+    }
+
+    @Test
+    public void testPersistentModelCache() throws IOException {
+        final File basedir = this.project("1.0.0");
+        final ProfileActivationContext context = new DefaultProfileActivationContext().setProjectDirectory(basedir);
+        final Path file = this.temporaryFolder.getRoot().toPath().resolve("models.bin");
+
+        final CountingModelBuilder modelBuilder = new CountingModelBuilder();
+        final TestResolver resolver = new TestResolver(modelBuilder);
+        final PersistentModelCache cache = new PersistentModelCache(resolver.logger, file, 16, profile -> false);
+        resolver.setPersistentModelCache(cache);
+        assertTrue(resolver.resolveModel(profile("java8"), context).isPresent());
+        cache.save();
+        assertEquals(1, modelBuilder.builds.get());
+
+        // next build
+        final CountingModelBuilder nextModelBuilder = new CountingModelBuilder();
+        final TestResolver nextResolver = new TestResolver(nextModelBuilder);
+        nextResolver.setPersistentModelCache(new PersistentModelCache(nextResolver.logger, file, 16, profile -> false));
+        final Optional<Model> model = nextResolver.resolveModel(profile("java8"), context);
+        assertTrue(model.isPresent());
+        assertEquals("top.infra.test:test:pom:1.0.0", model.get().getId());
+        assertEquals(0, nextModelBuilder.builds.get());
+    }
+
+    @Test
+    public void testPomChanged() throws IOException {
+        final File basedir = this.project("1.0.0");
+        final File pomFile = new File(basedir, "pom.xml");
+        final String keyBefore = AbstractActivatorModelResolver.pomKey(pomFile);
+        Files.write(pomFile.toPath(), pom("1.0.0-SNAPSHOT").getBytes(StandardCharsets.UTF_8));
+        assertNotEquals(keyBefore, AbstractActivatorModelResolver.pomKey(pomFile));
+        assertEquals(
+            AbstractActivatorModelResolver.pomKey(pomFile),
+            AbstractActivatorModelResolver.pomKey(new File(new File(basedir, "."), "pom.xml")));
+        assertEquals(pomFile.getCanonicalPath(), AbstractActivatorModelResolver.pomPath(keyBefore));
+
+        final CountingModelBuilder modelBuilder = new CountingModelBuilder();
+        final TestResolver resolver = new TestResolver(modelBuilder);
+        final ProfileActivationContext context = new DefaultProfileActivationContext().setProjectDirectory(basedir);
+        assertEquals("1.0.0-SNAPSHOT", resolver.resolveModel(profile("java8"), context).map(Model::getVersion).orElse(null));
+        Files.write(pomFile.toPath(), pom("1.0.1").getBytes(StandardCharsets.UTF_8));
+        assertEquals("1.0.1", resolver.resolveModel(profile("java8"), context).map(Model::getVersion).orElse(null));
+        assertEquals(2, modelBuilder.builds.get());
+    }
+
+    @Test
+    public void testFailedBuildRetried() throws IOException {
+        final File basedir = this.project("1.0.0");
+        final AtomicInteger failures = new AtomicInteger(1);
+        final CountingModelBuilder modelBuilder = new CountingModelBuilder() {
+            @Override
+            public ModelBuildingResult build(final ModelBuildingRequest request) throws ModelBuildingException {
+                if (failures.getAndDecrement() > 0) {
+                    this.builds.incrementAndGet();
+                    throw new IllegalStateException("transient");
+                }
+                return super.build(request);
+            }
+        };
+        final TestResolver resolver = new TestResolver(modelBuilder);
+        final ProfileActivationContext context = new DefaultProfileActivationContext().setProjectDirectory(basedir);
+
+        assertFalse(resolver.resolveModel(profile("java8"), context).isPresent());
+        assertTrue(resolver.resolveModel(profile("java8"), context).isPresent());
+        assertTrue(resolver.resolveModel(profile("java11"), context).isPresent());
+        assertEquals(2, modelBuilder.builds.get());
+    }
+
+    private File project(final String version) throws IOException {
+        final File basedir = this.temporaryFolder.newFolder();
+        Files.write(new File(basedir, "pom.xml").toPath(), pom(version).getBytes(StandardCharsets.UTF_8));
+        return basedir;
+    }
+
+    private static String pom(final String version) {
+        return "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+            + "    <modelVersion>4.0.0</modelVersion>\n"
+            + "    <groupId>top.infra.test</groupId>\n"
+            + "    <artifactId>test</artifactId>\n"
+            + "    <version>" + version + "</version>\n"
+            + "    <packaging>pom</packaging>\n"
+            + "</project>\n";
+    }
+
+    private static Profile profile(final String id) {
+        final Profile profile = new Profile();
+        profile.setId(id);
+        profile.setSource("pom");
+        return profile;
+    }
+
+    private static Profile sourceProfile(final String id) {
+        final Profile profile = profile(id);
+        profile.setSource("source");
+        return profile;
+    }
+
+    static class CountingModelBuilder implements ModelBuilder {
+
+        private final ModelBuilder delegate = new DefaultModelBuilderFactory().newInstance();
+
+        final AtomicInteger builds = new AtomicInteger();
+
+        final ConcurrentMap<File, AtomicInteger> buildsByPom = new ConcurrentHashMap<>();
+
+        @Override
+        public ModelBuildingResult build(final ModelBuildingRequest request) throws ModelBuildingException {
+            this.builds.incrementAndGet();
+            this.buildsByPom.computeIfAbsent(request.getPomFile(), key -> new AtomicInteger()).incrementAndGet();
+            return this.delegate.build(request);
+        }
+
+        @Override
+        public ModelBuildingResult build(
+            final ModelBuildingRequest request,
+            final ModelBuildingResult result
+        ) throws ModelBuildingException {
+            return this.delegate.build(request, result);
+        }
+
+        @Override
+        public Result<? extends Model> buildRawModel(final File pomFile, final int validationLevel, final boolean locationTracking) {
+            return this.delegate.buildRawModel(pomFile, validationLevel, locationTracking);
+        }
+    }
+
+    static class TestResolver extends AbstractActivatorModelResolver {
+
+        TestResolver(final ModelBuilder modelBuilder) {
+            super(new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "test"), modelBuilder);
+        }
+
+        @Override
+        protected ModelBuildingRequest modelBuildingRequest(final ProfileActivationContext context, final File pomFile) {
+            final ModelBuildingRequest request = new DefaultModelBuildingRequest();
+            request.setLocationTracking(false);
+            request.setPomFile(pomFile);
+            request.setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL);
+            return request;
+        }
+    }
+}
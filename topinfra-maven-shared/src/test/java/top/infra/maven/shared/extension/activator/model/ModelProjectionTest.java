@@ -0,0 +1,65 @@
+package top.infra.maven.shared.extension.activator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.junit.Test;
+
+public class ModelProjectionTest {
+
+    @Test
+    public void testProjection() {
+        final Model model = new Model();
+        model.setPomFile(new File("pom.xml"));
+        model.setGroupId("top.infra.test");
+        model.setArtifactId("test");
+        model.setVersion(new String("1.0.0".toCharArray()));
+        model.setPackaging("jar");
+        final Parent parent = new Parent();
+        parent.setGroupId("top.infra.test");
+        parent.setArtifactId("parent");
+        parent.setVersion("1.0.0");
+        model.setParent(parent);
+        model.addProperty("java.version", "8");
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId("junit");
+        dependency.setArtifactId("junit");
+        model.addDependency(dependency);
+
+        final Model projection = ModelProjection.project(model);
+        assertTrue(ModelProjection.isProjection(projection));
+        assertEquals(model.getId(), projection.getId());
+        assertEquals(model.getPomFile(), projection.getPomFile());
+        assertEquals("parent", projection.getParent().getArtifactId());
+        assertEquals("8", projection.getProperties().getProperty("java.version"));
+        assertSame("1.0.0", projection.getVersion());
+        assertTrue(projection.getDependencies().isEmpty());
+        assertNull(ModelProjection.project(null));
+
+        try {
+            projection.getProperties().setProperty("java.version", "11");
+            throw new AssertionError("properties should be read-only");
+        } catch (final UnsupportedOperationException expected) {
+            assertEquals("8", projection.getProperties().getProperty("java.version"));
+        }
+        try {
+            projection.setVersion("2.0.0");
+            throw new AssertionError("model should be read-only");
+        } catch (final UnsupportedOperationException expected) {
+            assertEquals("1.0.0", projection.getVersion());
+        }
+        try {
+            projection.getParent().setVersion("2.0.0");
+            throw new AssertionError("parent should be read-only");
+        } catch (final UnsupportedOperationException expected) {
+            assertEquals("1.0.0", projection.getParent().getVersion());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package top.infra.maven.shared.extension.activator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.building.DefaultModelBuilderFactory;
+import org.apache.maven.model.building.DefaultModelBuildingRequest;
+import org.apache.maven.model.building.ModelBuildingException;
+import org.apache.maven.model.building.ModelBuildingRequest;
+import org.apache.maven.model.building.ModelBuildingResult;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import top.infra.maven.shared.logging.LoggerPlexusImpl;
+
+public class PersistentModelCacheTest {
+
+    private static final Map<String, String> SYSTEM = Collections.singletonMap("java.version", "1.8.0_201");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testFingerprint() throws Exception {
+        final File root = this.temporaryFolder.newFolder();
+        final File parentPom = write(new File(root, "pom.xml"), parentPom("8"));
+        final File childPom = write(new File(new File(root, "child"), "pom.xml"), childPom());
+        final Path file = root.toPath().resolve("cache").resolve("models.bin");
+        final Map<String, String> user = Collections.singletonMap("site.host", "example.com");
+
+        final PersistentModelCache cache = newCache(file, 16);
+        cache.put(childPom, build(childPom, user), SYSTEM, user);
+        cache.put(parentPom, build(parentPom, user), SYSTEM, user);
+        cache.save();
+        assertTrue(file.toFile().isFile());
+
+        final PersistentModelCache loaded = newCache(file, 16);
+        assertEquals(2, loaded.size());
+        final Optional<Model> model = loaded.get(childPom, SYSTEM, user);
+        assertTrue(model.isPresent());
+        assertEquals("top.infra.test:child:jar:1.0.0", model.get().getId());
+        assertEquals("parent", model.get().getParent().getArtifactId());
+        assertEquals("8", model.get().getProperties().getProperty("java.version"));
+        assertEquals("https://example.com/child", model.get().getProperties().getProperty("site.url"));
+        assertEquals(childPom, model.get().getPomFile());
+
+        // referenced property changed
+        assertFalse(loaded.get(childPom, SYSTEM, Collections.singletonMap("site.host", "example.org")).isPresent());
+        // not referenced property changed
+        final Map<String, String> otherUser = new LinkedHashMap<>(user);
+        otherUser.put("other", "value");
+        assertTrue(loaded.get(parentPom, SYSTEM, otherUser).isPresent());
+
+        // parent pom changed
+        final PersistentModelCache reloaded = newCache(file, 16);
+        write(parentPom, parentPom("11"));
+        assertFalse(reloaded.get(childPom, SYSTEM, user).isPresent());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        final File root = this.temporaryFolder.newFolder();
+        final File parentPom = write(new File(root, "pom.xml"), parentPom("8"));
+        final File childPom = write(new File(new File(root, "child"), "pom.xml"), childPom());
+        final Map<String, String> user = Collections.emptyMap();
+        final Path file = root.toPath().resolve("models.bin");
+
+        final PersistentModelCache cache = newCache(file, 1);
+        cache.put(parentPom, build(parentPom, user), SYSTEM, user);
+        cache.put(childPom, build(childPom, user), SYSTEM, user);
+        assertEquals(1, cache.size());
+        assertFalse(cache.get(parentPom, SYSTEM, user).isPresent());
+        assertTrue(cache.get(childPom, SYSTEM, user).isPresent());
+    }
+
+    @Test
+    public void testCustomActivatedNotCached() throws Exception {
+        final File root = this.temporaryFolder.newFolder();
+        final String profiles = "    <profiles><profile><id>infrastructure_ossrh</id></profile></profiles>\n</project>\n";
+        final File parentPom = write(new File(root, "pom.xml"), parentPom("8").replace("</project>\n", profiles));
+        final File childPom = write(new File(new File(root, "child"), "pom.xml"), childPom());
+        final Map<String, String> user = Collections.emptyMap();
+
+        final PersistentModelCache cache = newCache(root.toPath().resolve("models.bin"), 16);
+        cache.put(parentPom, build(parentPom, user), SYSTEM, user);
+        // inherits the profile
+        cache.put(childPom, build(childPom, user), SYSTEM, user);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testCorruptedFileIgnored() throws Exception {
+        final Path file = this.temporaryFolder.newFile().toPath();
+        Files.write(file, "not a cache".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, newCache(file, 16).size());
+    }
+
+    private static PersistentModelCache newCache(final Path file, final int maxEntries) {
+        return new PersistentModelCache(
+            new LoggerPlexusImpl(new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "test")),
+            file,
+            maxEntries,
+            profile -> profile.getId().startsWith("infrastructure_"));
+    }
+
+    private static ModelBuildingResult build(final File pomFile, final Map<String, String> user) throws ModelBuildingException {
+        final Properties systemProperties = new Properties();
+        systemProperties.putAll(SYSTEM);
+        final Properties userProperties = new Properties();
+        userProperties.putAll(user);
+
+        final ModelBuildingRequest request = new DefaultModelBuildingRequest();
+        request.setLocationTracking(false);
+        request.setPomFile(pomFile);
+        request.setSystemProperties(systemProperties);
+        request.setUserProperties(userProperties);
+        request.setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL);
+        return new DefaultModelBuilderFactory().newInstance().build(request);
+    }
+
+    private static File write(final File file, final String content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String parentPom(final String javaVersion) {
+        return "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+            + "    <modelVersion>4.0.0</modelVersion>\n"
+            + "    <groupId>top.infra.test</groupId>\n"
+            + "    <artifactId>parent</artifactId>\n"
+            + "    <version>1.0.0</version>\n"
+            + "    <packaging>pom</packaging>\n"
+            + "    <properties>\n"
+            + "        <java.version>" + javaVersion + "</java.version>\n"
+            + "        <site.url>https://${site.host}/${project.artifactId}</site.url>\n"
+            + "    </properties>\n"
+            + "</project>\n";
+    }
+
+    private static String childPom() {
+        return "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+            + "    <modelVersion>4.0.0</modelVersion>\n"
+            + "    <parent>\n"
+            + "        <groupId>top.infra.test</groupId>\n"
+            + "        <artifactId>parent</artifactId>\n"
+            + "        <version>1.0.0</version>\n"
+            + "    </parent>\n"
+            + "    <artifactId>child</artifactId>\n"
+            + "</project>\n";
+    }
+}
@@ -0,0 +1,64 @@
+package top.infra.maven.shared.extension.activator.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import top.infra.maven.shared.extension.activator.model.ActivatorModelResolverTest.CountingModelBuilder;
+import top.infra.maven.shared.extension.activator.model.ActivatorModelResolverTest.TestResolver;
+import top.infra.maven.shared.logging.LoggerPlexusImpl;
+
+/**
+ * Rough measurement (no JMH here) of resolving models of a 500 module reactor lazily one by one
+ * (as profile selection does) against pre-resolution in parallel, numbers are logged.
+ * <p/>
+ * Not run by default (surefire includes *Test.java), run by:
+ * mvn test -pl topinfra-maven-shared -am -Dtest=ReactorPreResolverBenchmark -DfailIfNoTests=false
+ */
+public class ReactorPreResolverBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactorPreResolverBenchmark.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void benchmarkPreResolution() throws IOException {
+        final List<File> poms = ReactorPreResolverTest.reactor(this.temporaryFolder.getRoot(), 20, 25);
+
+        // warm up
+        ReactorPreResolverTest.selectProfiles(new TestResolver(new CountingModelBuilder()), poms);
+
+        final CountingModelBuilder lazyBuilder = new CountingModelBuilder();
+        final TestResolver lazyResolver = new TestResolver(lazyBuilder);
+        final long lazyStart = System.nanoTime();
+        ReactorPreResolverTest.selectProfiles(lazyResolver, poms);
+        final long lazyMillis = (System.nanoTime() - lazyStart) / 1000000L;
+        assertEquals(poms.size(), lazyBuilder.builds.get());
+
+        final CountingModelBuilder preBuilder = new CountingModelBuilder();
+        final TestResolver preResolver = new TestResolver(preBuilder);
+        final int parallelism = Math.max(4, Runtime.getRuntime().availableProcessors());
+        final long preStart = System.nanoTime();
+        new ReactorPreResolver(
+            new LoggerPlexusImpl(new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "test")), preResolver, parallelism)
+            .preResolve(poms.get(0), new Properties(), new Properties());
+        final long preResolvedMillis = (System.nanoTime() - preStart) / 1000000L;
+        ReactorPreResolverTest.selectProfiles(preResolver, poms);
+        final long preMillis = (System.nanoTime() - preStart) / 1000000L;
+        assertEquals(poms.size(), preBuilder.builds.get());
+
+        logger.info("{} poms, lazy resolution: {} ms, pre-resolution (parallelism {}): {} ms ({} ms pre-resolving)",
+            poms.size(), lazyMillis, parallelism, preMillis, preResolvedMillis);
+    }
+}
@@ -0,0 +1,117 @@
+package top.infra.maven.shared.extension.activator.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.profile.DefaultProfileActivationContext;
+import org.apache.maven.model.profile.ProfileActivationContext;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import top.infra.maven.shared.extension.activator.model.ActivatorModelResolverTest.CountingModelBuilder;
+import top.infra.maven.shared.extension.activator.model.ActivatorModelResolverTest.TestResolver;
+import top.infra.maven.shared.logging.LoggerPlexusImpl;
+
+public class ReactorPreResolverTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testModules() throws IOException {
+        final File root = this.temporaryFolder.getRoot();
+        final List<File> poms = reactor(root, 2, 3);
+        assertEquals(1 + 2 + 6, poms.size());
+        assertEquals(2, ReactorPreResolver.modules(poms.get(0)).size());
+        assertEquals(3, ReactorPreResolver.modules(new File(root, "group-1/pom.xml")).size());
+        assertTrue(ReactorPreResolver.modules(new File(root, "group-1/module-1/pom.xml")).isEmpty());
+    }
+
+    @Test
+    public void testPreResolution() throws IOException {
+        final List<File> poms = reactor(this.temporaryFolder.getRoot(), 2, 3);
+
+        final CountingModelBuilder modelBuilder = new CountingModelBuilder();
+        final TestResolver resolver = new TestResolver(modelBuilder);
+        final int resolved = new ReactorPreResolver(
+            new LoggerPlexusImpl(new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "test")), resolver, 4)
+            .preResolve(poms.get(0), new Properties(), new Properties());
+        assertEquals(poms.size(), resolved);
+        assertEquals(poms.size(), modelBuilder.builds.get());
+
+        selectProfiles(resolver, poms);
+        // all models were there
+        assertEquals(poms.size(), modelBuilder.builds.get());
+    }
+
+    static void selectProfiles(final TestResolver resolver, final List<File> poms) {
+        final Profile profile = new Profile();
+        profile.setId("java8");
+        for (final File pomFile : poms) {
+            final ProfileActivationContext context = new DefaultProfileActivationContext()
+                .setProjectDirectory(pomFile.getParentFile());
+            assertTrue(resolver.resolveModel(profile, context).isPresent());
+        }
+    }
+
+    static List<File> reactor(final File root, final int groups, final int modulesPerGroup) throws IOException {
+        final List<File> poms = new ArrayList<>();
+        final List<String> groupNames = new ArrayList<>();
+        for (int group = 1; group <= groups; group++) {
+            groupNames.add("group-" + group);
+        }
+        poms.add(write(new File(root, "pom.xml"), pom("root", null, groupNames)));
+
+        for (final String groupName : groupNames) {
+            final File groupDir = new File(root, groupName);
+            final List<String> moduleNames = new ArrayList<>();
+            for (int module = 1; module <= modulesPerGroup; module++) {
+                moduleNames.add("module-" + module);
+            }
+            poms.add(write(new File(groupDir, "pom.xml"), pom(groupName, "root", moduleNames)));
+            for (final String moduleName : moduleNames) {
+                poms.add(write(new File(new File(groupDir, moduleName), "pom.xml"),
+                    pom(groupName + "-" + moduleName, groupName, new ArrayList<>())));
+            }
+        }
+        return poms;
+    }
+
+    private static File write(final File pomFile, final String content) throws IOException {
+        Files.createDirectories(pomFile.getParentFile().toPath());
+        Files.write(pomFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return pomFile;
+    }
+
+    private static String pom(final String artifactId, final String parent, final List<String> modules) {
+        final StringBuilder sb = new StringBuilder()
+            .append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n")
+            .append("    <modelVersion>4.0.0</modelVersion>\n");
+        if (parent != null) {
+            sb.append("    <parent><groupId>top.infra.test</groupId><artifactId>").append(parent)
+                .append("</artifactId><version>1.0.0</version></parent>\n");
+        }
+        sb.append("    <groupId>top.infra.test</groupId>\n")
+            .append("    <artifactId>").append(artifactId).append("</artifactId>\n")
+            .append("    <version>1.0.0</version>\n")
+            .append("    <packaging>").append(modules.isEmpty() ? "jar" : "pom").append("</packaging>\n")
+            .append("    <properties><java.version>8</java.version></properties>\n");
+        if (!modules.isEmpty()) {
+            sb.append("    <modules>\n");
+            modules.forEach(module -> sb.append("        <module>").append(module).append("</module>\n"));
+            sb.append("    </modules>\n");
+        }
+        return sb.append("</project>\n").toString();
+    }
+}
@@ -0,0 +1,116 @@
+package top.infra.maven.shared.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LazyLoggingTest {
+
+    @Test
+    public void testNothingFormattedIfDisabled() {
+        final RecordingLogger infoLogger = new RecordingLogger(false);
+
+        infoLogger.debug(() -> {
+            throw new AssertionError("supplier should not be called");
+        });
+        infoLogger.debug("    %s profile '%s'", "JavaVersionActivator", new Unformattable());
+        infoLogger.event(top.infra.logging.Logger.Level.DEBUG, "    resolveModel", "pom", new Unformattable());
+        assertTrue(infoLogger.messages.isEmpty());
+
+        infoLogger.info("    %s profile '%s'", "JavaVersionActivator", "java8");
+        infoLogger.event(top.infra.logging.Logger.Level.INFO, "    resolveModel", "pom", "pom.xml", "result", true);
+        infoLogger.warn(() -> "    warn");
+        assertEquals("    JavaVersionActivator profile 'java8'", infoLogger.messages.get(0));
+        assertEquals("    resolveModel pom: [pom.xml], result: [true]", infoLogger.messages.get(1));
+        assertEquals("    warn", infoLogger.messages.get(2));
+    }
+
+    private static final class Unformattable {
+
+        @Override
+        public String toString() {
+            throw new AssertionError("toString should not be called");
+        }
+    }
+
+    private static final class RecordingLogger implements top.infra.logging.Logger {
+
+        private final boolean debugEnabled;
+        private final List<String> messages;
+
+        RecordingLogger(final boolean debugEnabled) {
+            this.debugEnabled = debugEnabled;
+            this.messages = new ArrayList<>();
+        }
+
+        private void add(final String message) {
+            this.messages.add(message);
+        }
+
+        @Override
+        public void debug(final String message) {
+            if (this.debugEnabled) {
+                this.add(message);
+            }
+        }
+
+        @Override
+        public void debug(final String message, final Throwable throwable) {
+            this.debug(message);
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return this.debugEnabled;
+        }
+
+        @Override
+        public void info(final String message) {
+            this.add(message);
+        }
+
+        @Override
+        public void info(final String message, final Throwable throwable) {
+            this.info(message);
+        }
+
+        @Override
+        public boolean isInfoEnabled() {
+            return true;
+        }
+
+        @Override
+        public void warn(final String message) {
+            this.add(message);
+        }
+
+        @Override
+        public void warn(final String message, final Throwable throwable) {
+            this.warn(message);
+        }
+
+        @Override
+        public boolean isWarnEnabled() {
+            return true;
+        }
+
+        @Override
+        public void error(final String message) {
+            this.add(message);
+        }
+
+        @Override
+        public void error(final String message, final Throwable throwable) {
+            this.error(message);
+        }
+
+        @Override
+        public boolean isErrorEnabled() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package top.infra.maven.shared.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.codehaus.plexus.logging.AbstractLogger;
+import org.junit.After;
+import org.junit.Test;
+
+import top.infra.logging.AsyncLogSink;
+
+public class LoggerPlexusImplTest {
+
+    @After
+    public void tearDown() {
+        AsyncLogSink.uninstall();
+    }
+
+    @Test
+    public void testAsyncKeepsOrderAndFlushesOnUninstall() {
+        final RecordingPlexusLogger plexusLogger = new RecordingPlexusLogger(null);
+        final LoggerPlexusImpl logger = new LoggerPlexusImpl(plexusLogger);
+
+        AsyncLogSink.install(16, AsyncLogSink.OverflowPolicy.BLOCK);
+        IntStream.range(0, 1000).forEach(idx -> logger.info("message %s", idx));
+        final AsyncLogSink sink = AsyncLogSink.uninstall();
+
+        assertEquals(
+            IntStream.range(0, 1000).mapToObj(idx -> "message " + idx).collect(Collectors.toList()),
+            plexusLogger.messages);
+        assertEquals(0L, sink.getDropped());
+        assertNotEquals(Thread.currentThread().getName(), plexusLogger.threads.get(0));
+
+        logger.info("sync");
+        assertEquals(Thread.currentThread().getName(), plexusLogger.threads.get(plexusLogger.threads.size() - 1));
+    }
+
+    @Test
+    public void testOverflowPolicies() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final RecordingPlexusLogger plexusLogger = new RecordingPlexusLogger(latch);
+        final LoggerPlexusImpl logger = new LoggerPlexusImpl(plexusLogger);
+
+        // worker blocked by the first record, buffer (4) filled by the next 4
+        AsyncLogSink sink = AsyncLogSink.install(4, AsyncLogSink.OverflowPolicy.DROP_DEBUG);
+        logger.info("first");
+        waitUntilTaken(plexusLogger);
+        IntStream.range(0, 4).forEach(idx -> logger.info("info " + idx));
+        logger.debug("debug");
+        assertEquals(1L, sink.getDropped());
+        latch.countDown();
+        AsyncLogSink.uninstall();
+        assertEquals(5, plexusLogger.messages.size());
+
+        final CountDownLatch latch2 = new CountDownLatch(1);
+        final RecordingPlexusLogger plexusLogger2 = new RecordingPlexusLogger(latch2);
+        final LoggerPlexusImpl logger2 = new LoggerPlexusImpl(plexusLogger2);
+        sink = AsyncLogSink.install(4, AsyncLogSink.OverflowPolicy.DROP_OLDEST);
+        logger2.info("first");
+        waitUntilTaken(plexusLogger2);
+        IntStream.range(0, 6).forEach(idx -> logger2.info("info " + idx));
+        assertEquals(2L, sink.getDropped());
+        latch2.countDown();
+        AsyncLogSink.uninstall();
+        assertEquals(5, plexusLogger2.messages.size());
+        assertEquals("info 5", plexusLogger2.messages.get(4));
+    }
+
+    @Test
+    public void testDropOldestKeepsWarnings() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final RecordingPlexusLogger plexusLogger = new RecordingPlexusLogger(latch);
+        final LoggerPlexusImpl logger = new LoggerPlexusImpl(plexusLogger);
+
+        // worker blocked by the first record, buffer (4) filled by a warning and 3 infos
+        final AsyncLogSink sink = AsyncLogSink.install(4, AsyncLogSink.OverflowPolicy.DROP_OLDEST);
+        logger.info("first");
+        waitUntilTaken(plexusLogger);
+        logger.warn("warn");
+        IntStream.range(0, 3).forEach(idx -> logger.info("info " + idx));
+
+        final Thread producer = new Thread(() -> logger.info("info 3"));
+        producer.start();
+        producer.join(200L);
+        assertTrue(producer.isAlive()); // waits for free space instead of dropping the warning
+        latch.countDown();
+        producer.join(5000L);
+        AsyncLogSink.uninstall();
+
+        assertEquals(0L, sink.getDropped());
+        assertEquals(6, plexusLogger.messages.size());
+        assertEquals("warn", plexusLogger.messages.get(1));
+    }
+
+    private static void waitUntilTaken(final RecordingPlexusLogger plexusLogger) throws InterruptedException {
+        assertTrue(plexusLogger.taken.await(5L, TimeUnit.SECONDS));
+    }
+
+    private static final class RecordingPlexusLogger extends AbstractLogger {
+
+        private final CountDownLatch blocker;
+        private final CountDownLatch taken;
+        private final List<String> messages;
+        private final List<String> threads;
+
+        RecordingPlexusLogger(final CountDownLatch blocker) {
+            super(LEVEL_DEBUG, "test");
+            this.blocker = blocker;
+            this.taken = new CountDownLatch(1);
+            this.messages = new CopyOnWriteArrayList<>();
+            this.threads = Collections.synchronizedList(new CopyOnWriteArrayList<>());
+        }
+
+        private void record(final String message) {
+            this.taken.countDown();
+            if (this.blocker != null) {
+                try {
+                    this.blocker.await(5L, TimeUnit.SECONDS);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            this.messages.add(message);
+            this.threads.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public void debug(final String message, final Throwable throwable) {
+            this.record(message);
+        }
+
+        @Override
+        public void info(final String message, final Throwable throwable) {
+            this.record(message);
+        }
+
+        @Override
+        public void warn(final String message, final Throwable throwable) {
+            this.record(message);
+        }
+
+        @Override
+        public void error(final String message, final Throwable throwable) {
+            this.record(message);
+        }
+
+        @Override
+        public void fatalError(final String message, final Throwable throwable) {
+            this.record(message);
+        }
+
+        @Override
+        public org.codehaus.plexus.logging.Logger getChildLogger(final String name) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package top.infra.maven.shared.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import top.infra.logging.Logger;
+import top.infra.maven.shared.logging.LoggerPlexusImpl;
+
+public class ContentStoreTest {
+
+    private static final Logger logger = new LoggerPlexusImpl(
+        new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "test"));
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testPutAndMaterialize() throws IOException {
+        final ContentStore store = new ContentStore(logger, this.temporaryFolder.newFolder("store").toPath(), 1024L);
+        final Path downloaded = this.temporaryFolder.newFolder("project1").toPath().resolve("settings.xml");
+        Files.write(downloaded, "<settings/>".getBytes(UTF_8));
+        new DownloadMetadata("\"v1\"", null, DownloadMetadata.sha256(downloaded).orElse(null), 1000L).write(downloaded);
+
+        final String key = "https://github.com/ci-and-cd/maven-build-opts-github@master/src/main/maven/settings.xml";
+        assertFalse(store.lookup(key).isPresent());
+        final Optional<String> sha256 = store.put(key, downloaded);
+        assertEquals(DownloadMetadata.sha256(downloaded), sha256);
+
+        final DownloadMetadata entry = store.lookup(key).orElse(null);
+        assertTrue(entry != null);
+        assertEquals("\"v1\"", entry.getEtag());
+        assertEquals(1000L, entry.getFetchedAt());
+
+        // another workspace
+        final Path target = this.temporaryFolder.getRoot().toPath().resolve("project2/.ci-and-cd/settings.xml");
+        assertTrue(store.materialize(entry, target));
+        assertEquals("<settings/>", new String(Files.readAllBytes(target), UTF_8));
+        assertTrue(DownloadMetadata.read(target).map(value -> value.matches(target)).orElse(false));
+
+        // same content under another key is stored once
+        store.put(key + ".copy", downloaded);
+        assertEquals(1L, countObjects(store));
+    }
+
+    @Test
+    public void testGc() throws Exception {
+        final ContentStore store = new ContentStore(logger, this.temporaryFolder.newFolder("store").toPath(), 250L);
+        final Path dir = this.temporaryFolder.newFolder("files").toPath();
+
+        final List<CompletableFuture<Optional<String>>> futures = new ArrayList<>();
+        for (int idx = 0; idx < 2; idx++) {
+            final Path file = dir.resolve("file-" + idx);
+            Files.write(file, content(idx));
+            futures.add(CompletableFuture.supplyAsync(() -> store.put("key-" + file.getFileName(), file)));
+        }
+        futures.forEach(future -> assertTrue(future.join().isPresent()));
+        assertEquals(2L, countObjects(store));
+
+        // key-file-1 least recently used
+        final DownloadMetadata file1 = store.lookup("key-file-1").orElse(null);
+        assertTrue(file1 != null);
+        setLastModified(store, "key-file-1", System.currentTimeMillis() - 60000L);
+        assertTrue(store.materialize(store.lookup("key-file-0").orElse(null), dir.resolve("materialized")));
+
+        final Path file2 = dir.resolve("file-2");
+        Files.write(file2, content(2));
+        store.put("key-file-2", file2);
+        assertFalse(store.lookup("key-file-1").isPresent());
+        assertTrue(store.lookup("key-file-0").isPresent());
+        assertTrue(store.lookup("key-file-2").isPresent());
+        assertFalse(store.materialize(file1, dir.resolve("gone")));
+        assertEquals(0L, store.gc());
+    }
+
+    private static byte[] content(final int idx) {
+        final byte[] bytes = new byte[100];
+        Arrays.fill(bytes, (byte) ('a' + idx));
+        return bytes;
+    }
+
+    private static void setLastModified(final ContentStore store, final String key, final long time) throws IOException {
+        final String sha256 = store.lookup(key).map(DownloadMetadata::getSha256).orElse("");
+        final Path object = store.getRoot().resolve("objects").resolve(sha256.substring(0, 2)).resolve(sha256.substring(2));
+        Files.setLastModifiedTime(object, FileTime.fromMillis(time));
+    }
+
+    private static long countObjects(final ContentStore store) throws IOException {
+        try (final Stream<Path> files = Files.walk(store.getRoot().resolve("objects"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
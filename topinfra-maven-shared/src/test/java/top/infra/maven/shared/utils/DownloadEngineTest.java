@@ -0,0 +1,336 @@
+package top.infra.maven.shared.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import top.infra.logging.Logger;
+import top.infra.maven.shared.logging.LoggerPlexusImpl;
+
+public class DownloadEngineTest {
+
+    private static final String LARGE = String.join("", Collections.nCopies(20000, "0123456789"));
+
+    private static final Logger logger = new LoggerPlexusImpl(
+        new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_INFO, "test"));
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private String baseUrl;
+
+    private final Set<String> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger concurrent = new AtomicInteger(0);
+    private final AtomicInteger maxConcurrent = new AtomicInteger(0);
+    private final AtomicInteger failures = new AtomicInteger(0);
+    private final AtomicInteger requests = new AtomicInteger(0);
+    private final List<String> ranges = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.serverExecutor = Executors.newCachedThreadPool();
+        this.server.setExecutor(this.serverExecutor);
+        this.server.createContext("/file", exchange -> this.respond(exchange, 200, "content of " + exchange.getRequestURI()));
+        this.server.createContext("/missing", exchange -> this.respond(exchange, 404, "not found"));
+        this.server.createContext("/flaky", exchange -> this.respond(exchange,
+            this.failures.getAndIncrement() < 2 ? 503 : 200, "flaky"));
+        this.server.createContext("/redirect", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/file/redirected");
+            this.respond(exchange, 302, "");
+        });
+        this.server.createContext("/loop", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/loop");
+            this.respond(exchange, 302, "");
+        });
+        this.server.createContext("/etag", exchange -> {
+            this.requests.incrementAndGet();
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.getResponseHeaders().add("Last-Modified", "Mon, 01 Jun 2020 00:00:00 GMT");
+            final boolean notModified = "\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"));
+            this.respond(exchange, notModified ? 304 : 200, notModified ? "" : "versioned");
+        });
+        this.server.createContext("/down", exchange -> {
+            this.requests.incrementAndGet();
+            this.respond(exchange, 503, "down");
+        });
+        this.server.createContext("/busy", exchange -> {
+            this.requests.incrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", exchange.getRequestURI().getQuery());
+            this.respond(exchange, 429, "busy");
+        });
+        this.server.createContext("/large", exchange -> {
+            this.requests.incrementAndGet();
+            final byte[] bytes = LARGE.getBytes(UTF_8);
+            final String range = exchange.getRequestHeaders().getFirst("Range");
+            this.ranges.add(String.valueOf(range));
+            exchange.getResponseHeaders().add("ETag", "\"large\"");
+            try (final OutputStream out = exchange.getResponseBody()) {
+                if (range == null) { // connection lost after half of the body
+                    exchange.sendResponseHeaders(200, bytes.length);
+                    out.write(bytes, 0, bytes.length / 2);
+                    out.flush();
+                } else {
+                    final int first = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+                    exchange.getResponseHeaders().add("Content-Range",
+                        String.format("bytes %s-%s/%s", first, bytes.length - 1, bytes.length));
+                    exchange.sendResponseHeaders(206, bytes.length - first);
+                    out.write(bytes, first, bytes.length - first);
+                }
+            } catch (final IOException ignored) {
+                // insufficient bytes written
+            } finally {
+                exchange.close();
+            }
+        });
+        this.server.createContext("/corrupted", exchange -> {
+            exchange.getResponseHeaders().add("X-Checksum-Sha256", sha256("original"));
+            this.respond(exchange, 200, "corrupted");
+        });
+        this.server.createContext("/verified", exchange -> this.respond(exchange, 200, "verified"));
+        this.server.createContext("/verified.sha256", exchange -> this.respond(exchange, 200, sha256("verified") + "  verified"));
+        this.server.createContext("/unsigned", exchange -> this.respond(exchange, 200, "unsigned"));
+        this.server.createContext("/unsigned.sha256", exchange -> this.respond(exchange, 403, "forbidden"));
+        this.server.start();
+        this.baseUrl = "http://127.0.0.1:" + this.server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop(0);
+        this.serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testStatus() throws IOException {
+        final DownloadEngine engine = engine(new CircuitBreaker());
+        final Path target = this.temporaryFolder.getRoot().toPath().resolve("dir/target.txt");
+
+        final Entry<Optional<Integer>, Optional<Exception>> ok = engine.download(logger, this.baseUrl + "/file/a", target, null, 3);
+        assertEquals(Optional.of(200), ok.getKey());
+        assertFalse(ok.getValue().isPresent());
+        assertEquals("content of /file/a", new String(Files.readAllBytes(target), UTF_8));
+
+        final Path missing = target.resolveSibling("missing.txt");
+        assertEquals(Optional.of(404), engine.download(logger, this.baseUrl + "/missing", missing, null, 3).getKey());
+        assertFalse(missing.toFile().exists());
+
+        assertEquals(Optional.of(200), engine.download(logger, this.baseUrl + "/flaky", target, null, 3).getKey());
+        assertEquals(3, this.failures.get());
+
+        assertEquals(Optional.of(200), engine.download(logger, this.baseUrl + "/redirect", target, null, 3).getKey());
+        assertEquals("content of /file/redirected", new String(Files.readAllBytes(target), UTF_8));
+
+        final Entry<Optional<Integer>, Optional<Exception>> loop = engine.download(logger, this.baseUrl + "/loop", target, null, 3);
+        assertTrue(loop.getValue().isPresent());
+    }
+
+    @Test
+    public void testKeepAliveAndConcurrency() throws IOException {
+        final DownloadEngine engine = engine(new CircuitBreaker());
+        final Path dir = this.temporaryFolder.newFolder("concurrent").toPath();
+
+        for (int idx = 0; idx < 10; idx++) {
+            engine.download(logger, this.baseUrl + "/file/" + idx, dir.resolve("sequential-" + idx), null, 1);
+        }
+        assertEquals("sequential downloads reuse one connection", 1, this.connections.size());
+
+        final List<CompletableFuture<Entry<Optional<Integer>, Optional<Exception>>>> futures = new ArrayList<>();
+        for (int idx = 0; idx < 20; idx++) {
+            futures.add(engine.downloadAsync(logger, this.baseUrl + "/file/" + idx, dir.resolve("async-" + idx),
+                Collections.singletonMap("X-Test", "async"), 1));
+        }
+        futures.forEach(future -> assertEquals(Optional.of(200), future.join().getKey()));
+        for (int idx = 0; idx < 20; idx++) {
+            assertEquals("content of /file/" + idx, new String(Files.readAllBytes(dir.resolve("async-" + idx)), UTF_8));
+        }
+
+        logger.info(String.format("    connections [%s], max concurrent requests [%s]", this.connections.size(), this.maxConcurrent.get()));
+        assertTrue(this.maxConcurrent.get() <= engine.getConnectionsPerHost());
+        assertTrue(this.connections.size() <= engine.getConnectionsPerHost());
+    }
+
+    @Test
+    public void testConditional() throws IOException {
+        final DownloadEngine engine = engine(new CircuitBreaker());
+        final Path target = this.temporaryFolder.getRoot().toPath().resolve("versioned.txt");
+
+        assertEquals(Optional.of(200), engine.download(logger, this.baseUrl + "/etag", target, null, 1, true).getKey());
+        final DownloadMetadata metadata = DownloadMetadata.read(target).orElse(null);
+        assertTrue(metadata != null);
+        assertEquals("\"v1\"", metadata.getEtag());
+        assertEquals("Mon, 01 Jun 2020 00:00:00 GMT", metadata.getLastModified());
+        assertTrue(metadata.matches(target));
+
+        assertEquals(Optional.of(304), engine.download(logger, this.baseUrl + "/etag", target, null, 1, true).getKey());
+        assertEquals("versioned", new String(Files.readAllBytes(target), UTF_8));
+        assertTrue(DownloadMetadata.read(target).map(DownloadMetadata::getFetchedAt).orElse(0L) >= metadata.getFetchedAt());
+
+        // locally modified, validators not sent
+        Files.write(target, "modified".getBytes(UTF_8));
+        assertEquals(Optional.of(200), engine.download(logger, this.baseUrl + "/etag", target, null, 1, true).getKey());
+        assertEquals("versioned", new String(Files.readAllBytes(target), UTF_8));
+        assertEquals(3, this.requests.get());
+    }
+
+    @Test
+    public void testRetryAfterAndBudget() throws IOException {
+        final Path target = this.temporaryFolder.getRoot().toPath().resolve("busy.txt");
+
+        // server asks to wait longer than max retry-after, give up
+        final DownloadEngine engine = engine(new CircuitBreaker());
+        assertEquals(Optional.of(429), engine.download(logger, this.baseUrl + "/busy?60", target, null, 3).getKey());
+        assertEquals(1, this.requests.get());
+
+        // wait as asked
+        final long start = System.currentTimeMillis();
+        assertEquals(Optional.of(429), engine.download(logger, this.baseUrl + "/busy?1", target, null, 2).getKey());
+        assertTrue(System.currentTimeMillis() - start >= 900L);
+        assertEquals(3, this.requests.get());
+
+        // only 1 retry in budget
+        final DownloadEngine budget = new DownloadEngine(2000, 2000, 2,
+            new RetryPolicy(1L, 10L, 5000L, RetryPolicy.DEFAULT_MAX_REDIRECTS, 0d, 1), new CircuitBreaker(100, 1000L));
+        this.requests.set(0);
+        budget.download(logger, this.baseUrl + "/down", target, null, 3);
+        budget.download(logger, this.baseUrl + "/down", target, null, 3);
+        assertEquals(3, this.requests.get());
+        assertEquals(1L, budget.getRetryPolicy().getRetries());
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        final Path target = this.temporaryFolder.getRoot().toPath().resolve("down.txt");
+        final DownloadEngine engine = engine(new CircuitBreaker(2, 200L));
+        final String host = "http://127.0.0.1:" + this.server.getAddress().getPort();
+
+        final Entry<Optional<Integer>, Optional<Exception>> first = engine.download(logger, this.baseUrl + "/down", target, null, 5);
+        assertEquals(2, this.requests.get());
+        assertTrue(first.getValue().map(ex -> ex instanceof CircuitBreaker.OpenException).orElse(false));
+        assertEquals(CircuitBreaker.State.OPEN, engine.getCircuitBreaker().state(host));
+
+        // host considered down, fail immediately without request
+        final Entry<Optional<Integer>, Optional<Exception>> second = engine.download(logger, this.baseUrl + "/file/a", target, null, 3);
+        assertTrue(second.getValue().map(ex -> ex instanceof CircuitBreaker.OpenException).orElse(false));
+        assertFalse(target.toFile().exists());
+
+        // probe after open period closes the circuit
+        Thread.sleep(250L);
+        assertEquals(Optional.of(200), engine.download(logger, this.baseUrl + "/file/a", target, null, 3).getKey());
+        assertEquals(CircuitBreaker.State.CLOSED, engine.getCircuitBreaker().state(host));
+    }
+
+    @Test
+    public void testResumeAndVerify() throws IOException {
+        final DownloadEngine engine = engine(new CircuitBreaker());
+        final Path dir = this.temporaryFolder.getRoot().toPath();
+        final Path target = dir.resolve("large.txt");
+
+        // interrupted download resumed by Range
+        assertEquals(Optional.of(206), engine.download(logger, this.baseUrl + "/large", target, null, 3).getKey());
+        assertEquals(LARGE, new String(Files.readAllBytes(target), UTF_8));
+        assertEquals(2, this.requests.get());
+        assertEquals(Arrays.asList("null", "bytes=" + LARGE.length() / 2 + "-"), this.ranges);
+
+        // corrupted content discarded, existing target untouched
+        final Entry<Optional<Integer>, Optional<Exception>> corrupted = engine.download(
+            logger, this.baseUrl + "/corrupted", target, null, 1);
+        assertTrue(corrupted.getValue().map(ex -> ex.getMessage().startsWith("Checksum mismatch")).orElse(false));
+        assertEquals(LARGE, new String(Files.readAllBytes(target), UTF_8));
+
+        // part file locked by another download, a temporary file is used
+        try (final PartFile locked = PartFile.open(dir.resolve("verified.txt"))) {
+            final Path verified = dir.resolve("verified.txt");
+            assertEquals(Optional.of(200), engine.download(
+                logger, this.baseUrl + "/verified", verified, null, 1, false, sha256("verified")).getKey());
+            assertEquals("verified", new String(Files.readAllBytes(verified), UTF_8));
+            assertTrue(locked.getPath().toFile().exists());
+        }
+        assertEquals(Optional.of(200), DownloadUtils.downloadVerified(
+            logger, this.baseUrl + "/verified", dir.resolve("sibling.txt"), null, 1).getKey());
+        // checksum not published (any non-2xx), not verified
+        assertEquals(Optional.of(200), DownloadUtils.downloadVerified(
+            logger, this.baseUrl + "/unsigned", dir.resolve("unsigned.txt"), null, 1).getKey());
+
+        try (final Stream<Path> files = Files.list(dir)) {
+            assertEquals(Arrays.asList("large.txt", "sibling.txt", "unsigned.txt", "verified.txt"),
+                files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testRetryPolicy() {
+        final RetryPolicy policy = new RetryPolicy();
+        for (int attempt = 1; attempt < 10; attempt++) {
+            final long delay = policy.delay(attempt, null);
+            final long exponential = Math.min(RetryPolicy.DEFAULT_MAX_DELAY, RetryPolicy.DEFAULT_BASE_DELAY << (attempt - 1));
+            assertTrue(delay >= exponential / 2L && delay <= exponential);
+        }
+        assertEquals(2000L, policy.delay(1, 2000L));
+        assertEquals(Optional.of(120000L), RetryPolicy.parseRetryAfter("120", 0L));
+        assertEquals(Optional.of(1000L), RetryPolicy.parseRetryAfter("Thu, 01 Jan 1970 00:00:01 GMT", 0L));
+        assertFalse(RetryPolicy.parseRetryAfter("soon", 0L).isPresent());
+    }
+
+    private static DownloadEngine engine(final CircuitBreaker circuitBreaker) {
+        return new DownloadEngine(2000, 2000, 2,
+            new RetryPolicy(1L, 10L, 5000L, RetryPolicy.DEFAULT_MAX_REDIRECTS, 1d, 100), circuitBreaker);
+    }
+
+    private static String sha256(final String content) {
+        return DownloadMetadata.hex(DownloadMetadata.newSha256().digest(content.getBytes(UTF_8)));
+    }
+
+    private void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        final int current = this.concurrent.incrementAndGet();
+        this.maxConcurrent.accumulateAndGet(current, Math::max);
+        this.connections.add(exchange.getRemoteAddress().toString());
+        try {
+            Thread.sleep(5L);
+            this.concurrent.decrementAndGet();
+            final byte[] bytes = body.getBytes(UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            if (bytes.length > 0) {
+                try (final OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+}
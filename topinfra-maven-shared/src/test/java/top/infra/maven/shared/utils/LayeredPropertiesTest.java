@@ -0,0 +1,51 @@
+package top.infra.maven.shared.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class LayeredPropertiesTest {
+
+    @Test
+    public void testLookupOrder() {
+        final Map<String, String> user = new HashMap<>();
+        user.put("java.version", "11");
+        final Properties model = new Properties();
+        model.setProperty("java.version", "8");
+        model.setProperty("project.build.sourceEncoding", "UTF-8");
+        final Map<String, String> project = new HashMap<>();
+        project.put("site.host", "example.com");
+        project.put("project.build.sourceEncoding", "ISO-8859-1");
+        final Map<String, String> system = new HashMap<>();
+        system.put("java.version", "1.8.0_201");
+        system.put("os.name", "Linux");
+
+        final Map<String, Object> view = LayeredProperties.of(user, model, project, null, system);
+        assertEquals("11", view.get("java.version"));
+        assertEquals("UTF-8", view.get("project.build.sourceEncoding"));
+        assertEquals("example.com", view.get("site.host"));
+        assertEquals("Linux", view.get("os.name"));
+        assertNull(view.get("absent"));
+        assertTrue(view.containsKey("os.name"));
+        assertFalse(view.containsKey("absent"));
+        assertEquals(4, view.size());
+
+        // a view, not a copy
+        user.remove("java.version");
+        assertEquals("8", view.get("java.version"));
+
+        try {
+            view.put("java.version", "17");
+            throw new AssertionError("view should be read-only");
+        } catch (final UnsupportedOperationException expected) {
+            assertEquals("8", view.get("java.version"));
+        }
+    }
+}
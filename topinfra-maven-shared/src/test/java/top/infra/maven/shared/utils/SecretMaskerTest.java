@@ -0,0 +1,90 @@
+package top.infra.maven.shared.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class SecretMaskerTest {
+
+    public static final List<String> LINES = Arrays.asList(
+        "    ciOptionContext.userProperties[001] github.global.oauth2.token=secret",
+        "    ciOptionContext.userProperties[002] gpg.passphrase=null",
+        "    ciOptionContext.userProperties[003] maven.compiler.encoding=UTF-8",
+        "    ciOptionContext.systemProperties[004] env.CI_OPT_GITHUB_GLOBAL_OAUTH2TOKEN=secret",
+        "    ciOptionContext.systemProperties[005] env.CI_OPT_SONAR_LOGIN=null",
+        "    ciOptionContext.systemProperties[006] env.CI_OPT_SONAR_ORGANIZATION=home1-oss",
+        "    ciOptionContext.systemProperties[007] env.CI_OPT_DOCKER_REGISTRY_USER=deployer",
+        "    ciOptionContext.systemProperties[008] env.CI_OPT_INFRASTRUCTURE=ossrh",
+        "    a line without anything to mask, but fairly long as most log lines are",
+        "multi line: token=null\nkey=value\r\nkeyname=null user=u1\nPASSWORD=p1 TOKEN=t1"
+    );
+
+    @Test
+    public void testSameAsLegacy() {
+        final SecretMasker masker = SecretMasker.of(SecretMasker.DEFAULT_KEYWORDS);
+        LINES.forEach(line -> {
+            final String expected = legacyMaskSecrets(line);
+            assertEquals(expected, masker.mask(line));
+
+            final StringBuilder sb = new StringBuilder();
+            masker.mask(line, sb);
+            assertEquals(expected, sb.toString());
+        });
+
+        final String unmasked = LINES.get(2);
+        assertSame(unmasked, masker.mask(unmasked));
+    }
+
+    @Test
+    public void testCaseInsensitiveAndConfigurable() {
+        // legacy implementation only matched upper or lower case keywords
+        assertEquals("Password=[secure]", SecretMasker.of(SecretMasker.DEFAULT_KEYWORDS).mask("Password=p1"));
+        assertEquals("oauth2Token=[secure]", SecretMasker.of(SecretMasker.DEFAULT_KEYWORDS).mask("oauth2Token=t1"));
+
+        final SecretMasker masker = SecretMasker.of(Arrays.asList("secret", "apiKey"));
+        assertEquals("my.SECRET=[secure]", masker.mask("my.SECRET=s1"));
+        assertEquals("x.apikey=[secure]", masker.mask("x.apikey=k1"));
+        assertEquals("password=p1", masker.mask("password=p1"));
+    }
+
+    @Test
+    public void testLogProperties() {
+        final Properties properties = new Properties();
+        properties.setProperty("a.token", "t1");
+        properties.setProperty("b", "v1");
+
+        final List<String> lines = new ArrayList<>();
+        PropertiesUtils.forEachMaskedLine("    title", properties, null, line -> lines.add(line.toString()));
+        assertEquals(Arrays.asList("    title[000] a.token=[secure]", "    title[001] b=v1"), lines);
+    }
+
+    public static String legacyMaskSecrets(final String text) {
+        return "" + text
+            .replaceAll("KEY=(?!null).*", "KEY=[secure]")
+            .replaceAll("key=(?!null).*", "key=[secure]")
+            .replaceAll("KEYNAME=(?!null).*", "KEYNAME=[secure]")
+            .replaceAll("keyname=(?!null).*", "keyname=[secure]")
+            .replaceAll("LOGIN=(?!null).*", "LOGIN=[secure]")
+            .replaceAll("login=(?!null).*", "login=[secure]")
+            .replaceAll("ORGANIZATION=(?!null).*", "ORGANIZATION=[secure]")
+            .replaceAll("organization=(?!null).*", "organization=[secure]")
+            .replaceAll("PASS=(?!null).*", "PASS=[secure]")
+            .replaceAll("pass=(?!null).*", "pass=[secure]")
+            .replaceAll("PASSWORD=(?!null).*", "PASSWORD=[secure]")
+            .replaceAll("password=(?!null).*", "password=[secure]")
+            .replaceAll("PASSPHRASE=(?!null).*", "PASSPHRASE=[secure]")
+            .replaceAll("passphrase=(?!null).*", "passphrase=[secure]")
+            .replaceAll("TOKEN=(?!null).*", "TOKEN=[secure]")
+            .replaceAll("token=(?!null).*", "token=[secure]")
+            .replaceAll("USER=(?!null).*", "USER=[secure]")
+            .replaceAll("user=(?!null).*", "user=[secure]")
+            .replaceAll("USERNAME=(?!null).*", "USERNAME=[secure]")
+            .replaceAll("username=(?!null).*", "username=[secure]");
+    }
+}
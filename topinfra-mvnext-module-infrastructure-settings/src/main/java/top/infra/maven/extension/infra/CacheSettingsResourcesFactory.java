@@ -1,6 +1,17 @@
 package top.infra.maven.extension.infra;
 
 import static top.infra.maven.extension.infra.InfraOption.CACHE_SETTINGS_PATH;
+import static top.infra.maven.extension.infra.InfraOption.CACHE_SHARED_PATH;
+import static top.infra.maven.extension.infra.InfraOption.CACHE_SHARED_SIZE;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_CACHE_SETTINGS_RESOURCES;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_CI_OPTIONS;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_GIT_REPOSITORY;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -13,6 +24,7 @@ import top.infra.maven.CiOptionContext;
 import top.infra.maven.extension.MavenEventAware;
 import top.infra.maven.shared.extension.Orders;
 import top.infra.maven.shared.logging.LoggerPlexusImpl;
+import top.infra.maven.shared.utils.ContentStore;
 import top.infra.maven.shared.utils.MavenUtils;
 
 @Named
@@ -21,15 +33,18 @@ public class CacheSettingsResourcesFactory implements MavenEventAware {
 
     private final Logger logger;
     private final GitRepositoryFactory gitRepositoryFactory;
+    private final ResourcesPrefetcher prefetcher;
     private Resources object;
 
     @Inject
     public CacheSettingsResourcesFactory(
         final org.codehaus.plexus.logging.Logger logger,
-        final GitRepositoryFactory gitRepositoryFactory
+        final GitRepositoryFactory gitRepositoryFactory,
+        final ResourcesPrefetcher prefetcher
     ) {
         this.logger = new LoggerPlexusImpl(logger);
         this.gitRepositoryFactory = gitRepositoryFactory;
+        this.prefetcher = prefetcher;
     }
 
     @Override
@@ -45,14 +60,43 @@ public class CacheSettingsResourcesFactory implements MavenEventAware {
             CACHE_SETTINGS_PATH.getValue(ciOptContext).orElse(null),
             this.gitRepositoryFactory.getObject().orElse(null),
             ciOptContext.getSystemProperties(),
-            ciOptContext.getUserProperties()
+            ciOptContext.getUserProperties(),
+            this.prefetcher,
+            newContentStore(ciOptContext, logger).orElse(null)
         );
     }
 
+    /**
+     * Shared store of downloaded resources (see {@link InfraOption#CACHE_SHARED_PATH}).
+     *
+     * @param ciOptContext ciOptContext
+     * @param logger       logger
+     * @return store, empty if disabled
+     */
+    public static Optional<ContentStore> newContentStore(
+        final CiOptionContext ciOptContext,
+        final Logger logger
+    ) {
+        final long maxSize = CACHE_SHARED_SIZE.getValue(ciOptContext).map(Long::parseLong).orElse(0L);
+        return maxSize > 0L
+            ? CACHE_SHARED_PATH.getValue(ciOptContext).map(path -> new ContentStore(logger, Paths.get(path), maxSize))
+            : Optional.empty();
+    }
+
     public Resources getObject() {
         return this.object;
     }
 
+    @Override
+    public Collection<String> consumes() {
+        return Arrays.asList(RESOURCE_GIT_REPOSITORY, RESOURCE_CI_OPTIONS);
+    }
+
+    @Override
+    public Collection<String> produces() {
+        return Collections.singletonList(RESOURCE_CACHE_SETTINGS_RESOURCES);
+    }
+
     @Override
     public int getOrder() {
         return Orders.ORDER_CACHE_SETTINGS_RESOURCES_FACTORY;
@@ -19,11 +19,15 @@ import javax.inject.Singleton;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.Properties;
 
 import static top.infra.maven.extension.infra.InfraOption.CACHE_SETTINGS_PATH;
 import static top.infra.maven.extension.infra.InfraOption.GIT_AUTH_TOKEN;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_CI_OPTS_PROPERTIES;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_GIT_REPOSITORY;
 import static top.infra.maven.shared.extension.Constants.SRC_CI_OPTS_PROPERTIES;
 import static top.infra.maven.shared.extension.GlobalOption.MASTER_PASSWORD;
 import static top.infra.maven.shared.utils.PropertiesUtils.logProperties;
@@ -35,14 +39,17 @@ public class CiOptionConfigLoader implements MavenEventAware {
 
     private final Logger logger;
     private final GitRepositoryFactory gitRepositoryFactory;
+    private final ResourcesPrefetcher prefetcher;
 
     @Inject
     public CiOptionConfigLoader(
         final org.codehaus.plexus.logging.Logger logger,
-        final GitRepositoryFactory gitRepositoryFactory
+        final GitRepositoryFactory gitRepositoryFactory,
+        final ResourcesPrefetcher prefetcher
     ) {
         this.logger = new LoggerPlexusImpl(logger);
         this.gitRepositoryFactory = gitRepositoryFactory;
+        this.prefetcher = prefetcher;
     }
 
     @Override
@@ -58,6 +65,16 @@ public class CiOptionConfigLoader implements MavenEventAware {
         this.load(cliRequest, ciOptionContext);
     }
 
+    @Override
+    public Collection<String> consumes() {
+        return Collections.singletonList(RESOURCE_GIT_REPOSITORY);
+    }
+
+    @Override
+    public Collection<String> produces() {
+        return Collections.singletonList(RESOURCE_CI_OPTS_PROPERTIES);
+    }
+
     @Override
     public int getOrder() {
         return Orders.ORDER_CI_OPTION_CONFIG_LOADER;
@@ -76,7 +93,11 @@ public class CiOptionConfigLoader implements MavenEventAware {
             logger.info("gitRepository not found");
         }
         final boolean offline = MavenUtils.cmdArgOffline(cliRequest.getCommandLine());
-        final boolean update = MavenUtils.cmdArgUpdateSnapshots(cliRequest.getCommandLine());
+        final boolean prefetched = gitRepository != null && InfraOption.CI_OPTS_FILE.getValue(ciOptionContext)
+            .map(optsFile -> this.prefetcher.await(gitRepository, SRC_CI_OPTS_PROPERTIES, Paths.get(optsFile)))
+            .orElse(Boolean.FALSE);
+        // Prefetched file is fresh, do not download it again on '-U'.
+        final boolean update = !prefetched && MavenUtils.cmdArgUpdateSnapshots(cliRequest.getCommandLine());
         final Optional<Properties> loadedProperties = ciOptContextFromFile(gitRepository, ciOptionContext, offline, update);
 
         loadedProperties.ifPresent(props -> {
@@ -25,8 +25,8 @@ import top.infra.util.StringUtils;
 @Singleton
 public class ExtraFilesEventAware implements MavenEventAware {
 
-    private static final String DEPLOY_KEY_ENC = "deploy_key.enc";
-    private static final String DEPLOY_KEY_GPG = "deploy_key.gpg";
+    static final String DEPLOY_KEY_ENC = "deploy_key.enc";
+    static final String DEPLOY_KEY_GPG = "deploy_key.gpg";
 
     private final Logger logger;
     private final CacheSettingsResourcesFactory resourcesFactory;
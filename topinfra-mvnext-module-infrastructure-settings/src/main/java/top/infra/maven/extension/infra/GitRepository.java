@@ -1,17 +1,16 @@
 package top.infra.maven.extension.infra;
 
 import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.nio.file.StandardOpenOption.CREATE;
-import static java.nio.file.StandardOpenOption.SYNC;
-import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static top.infra.maven.shared.extension.Constants.GIT_REF_NAME_MASTER;
 import static top.infra.maven.shared.utils.FileUtils.readFile;
-import static top.infra.maven.shared.utils.FileUtils.writeFile;
+import static top.infra.maven.shared.utils.FileUtils.writeFileAtomically;
 import static top.infra.maven.shared.utils.SupportFunction.newTuple;
 import static top.infra.maven.shared.utils.SupportFunction.newTupleOptional;
 import static top.infra.util.StringUtils.isEmpty;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Base64;
@@ -20,12 +19,16 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import org.jetbrains.annotations.Nullable;
 import org.json.JSONObject;
 
 import top.infra.logging.Logger;
+import top.infra.maven.shared.utils.DownloadMetadata;
 import top.infra.maven.shared.utils.DownloadUtils;
 import top.infra.maven.shared.utils.DownloadUtils.DownloadException;
 import top.infra.maven.shared.utils.Optionals;
@@ -40,18 +43,33 @@ public class GitRepository {
     private final String repo;
     private final String repoRef;
     private final String token;
+    /**
+     * Revalidate cached files older than this (seconds), negative to disable.
+     */
+    private final long revalidateTtl;
 
     public GitRepository(
         final Logger logger,
         final String repo,
         final String repoRef,
         final String token
+    ) {
+        this(logger, repo, repoRef, token, -1L);
+    }
+
+    public GitRepository(
+        final Logger logger,
+        final String repo,
+        final String repoRef,
+        final String token,
+        final long revalidateTtl
     ) {
         this.logger = logger;
 
         this.repo = repo;
         this.repoRef = repoRef != null ? repoRef : GIT_REF_NAME_MASTER;
         this.token = token;
+        this.revalidateTtl = revalidateTtl;
     }
 
     private static Optional<String> gitRepo(
@@ -85,7 +103,8 @@ public class GitRepository {
         @Nullable final String repo,
         @Nullable final String repoRef,
         @Nullable final String remoteOriginUrl,
-        @Nullable final String token
+        @Nullable final String token,
+        final long revalidateTtl
     ) {
         // prefix of git service url (infrastructure specific), i.e. https://github.com
         return Optionals.or(Arrays.asList(
@@ -96,10 +115,20 @@ public class GitRepository {
                 logger,
                 value,
                 repoRef,
-                token
+                token,
+                revalidateTtl
             ));
     }
 
+    /**
+     * Identity of repository and ref.
+     *
+     * @return repo@ref
+     */
+    String key() {
+        return this.repo + "@" + this.repoRef;
+    }
+
     public boolean download(
         final String sourceFile,
         final Path targetFile,
@@ -107,22 +136,41 @@ public class GitRepository {
         final boolean offline,
         final boolean update
     ) {
-        final boolean doDownload;
+        return this.fetch(sourceFile, targetFile, exceptionOnError, offline, update) != Fetch.FAILED;
+    }
 
+    /**
+     * Download sourceFile if needed (see {@link #shouldDownload(Path, boolean, boolean)}), as
+     * {@link #download(String, Path, boolean, boolean, boolean)} does.
+     *
+     * @param sourceFile       relative path in git repository
+     * @param targetFile       target local file
+     * @param exceptionOnError throw exception on download error (other than unavailable) or not found
+     * @param offline          offline (-o)
+     * @param update           update (-U)
+     * @return whether a response was received or the existing targetFile is used
+     */
+    public Fetch fetch(
+        final String sourceFile,
+        final Path targetFile,
+        final boolean exceptionOnError,
+        final boolean offline,
+        final boolean update
+    ) {
         final boolean targetFileExists = targetFile.toFile().exists();
-        if (update) {
-            doDownload = true;
-        } else {
-            if (!targetFileExists) {
-                doDownload = !offline;
-            } else {
-                doDownload = false;
-            }
-        }
+        final boolean doDownload = this.shouldDownload(targetFile, offline, update);
 
-        final boolean ok;
+        final Fetch result;
         if (doDownload) {
-            ok = this.download(sourceFile, targetFile, exceptionOnError);
+            if (targetFileExists) {
+                if (!update) {
+                    logger.info(String.format(
+                        "    Revalidate local target file [%s] (older than %s seconds).", targetFile, this.revalidateTtl));
+                }
+                result = this.revalidate(sourceFile, targetFile, exceptionOnError);
+            } else {
+                result = this.download(sourceFile, targetFile, exceptionOnError) ? Fetch.DOWNLOADED : Fetch.FAILED;
+            }
         } else {
             if (targetFileExists) {
                 logger.info(String.format(
@@ -133,9 +181,77 @@ public class GitRepository {
                 logger.error(errorMsg);
                 throw new IllegalStateException(errorMsg);
             }
-            ok = true;
+            result = Fetch.LOCAL;
         }
-        return ok;
+        return result;
+    }
+
+    /**
+     * Whether targetFile needs to be downloaded: on update (-U), absent (and not offline) or stale (revalidation enabled,
+     * fetched longer ago than revalidateTtl, and not offline).
+     * Downloads are conditional, an unchanged file costs only a round-trip.
+     *
+     * @param targetFile target local file
+     * @param offline    offline (-o)
+     * @param update     update (-U)
+     * @return download or not
+     */
+    public boolean shouldDownload(
+        final Path targetFile,
+        final boolean offline,
+        final boolean update
+    ) {
+        final boolean result;
+        if (update) {
+            result = true;
+        } else if (!targetFile.toFile().exists()) {
+            result = !offline;
+        } else {
+            result = !offline && this.isStale(targetFile);
+        }
+        return result;
+    }
+
+    private boolean isStale(final Path targetFile) {
+        return this.revalidateTtl >= 0L && DownloadMetadata.read(this.downloadedFile(targetFile))
+            .map(metadata -> !this.isFresh(metadata))
+            .orElse(TRUE);
+    }
+
+    /**
+     * Whether a file fetched as described by metadata can be used without revalidation.
+     *
+     * @param metadata metadata of a downloaded file
+     * @return revalidation disabled or fetched within revalidateTtl
+     */
+    public boolean isFresh(final DownloadMetadata metadata) {
+        return this.revalidateTtl < 0L
+            || metadata.isFresh(TimeUnit.SECONDS.toMillis(this.revalidateTtl), System.currentTimeMillis());
+    }
+
+    /**
+     * Metadata of the response targetFile was last downloaded (or revalidated) from, with content hash of targetFile
+     * (the response of gitlab api is json, see {@link #downloadedFile(Path)}).
+     *
+     * @param targetFile target local file
+     * @return validators and fetch time, empty if unknown
+     */
+    public Optional<DownloadMetadata> downloadMetadata(final Path targetFile) {
+        return DownloadMetadata.read(this.downloadedFile(targetFile))
+            .flatMap(metadata -> DownloadMetadata.sha256(targetFile).map(sha256 -> new DownloadMetadata(
+                metadata.getEtag(), metadata.getLastModified(), sha256, metadata.getFetchedAt())));
+    }
+
+    /**
+     * File the response is saved into (gitlab api returns json, decoded into targetFile).
+     *
+     * @param targetFile target local file
+     * @return file downloaded
+     */
+    private Path downloadedFile(final Path targetFile) {
+        return PATTERN_GITLAB_URL.matcher(this.repo).matches()
+            ? targetFile.resolveSibling(targetFile.getFileName() + ".json")
+            : targetFile;
     }
 
     /**
@@ -151,17 +267,80 @@ public class GitRepository {
         final String sourceFile,
         final Path targetFile,
         final boolean exceptionOnError
+    ) {
+        return join(this.downloadAsync(sourceFile, targetFile, exceptionOnError));
+    }
+
+    /**
+     * Download sourceFile over an existing targetFile.
+     * Fail over to the existing targetFile if git service is unavailable (I/O error, 5xx or circuit open, see CircuitBreaker),
+     * other errors (e.g. 401, 404) are handled as {@link #download(String, Path, boolean)} does.
+     *
+     * @param sourceFile       relative path in git repository
+     * @param targetFile       existing target local file
+     * @param exceptionOnError throw exception on download error (other than unavailable) or not found
+     * @return result
+     */
+    private Fetch revalidate(
+        final String sourceFile,
+        final Path targetFile,
+        final boolean exceptionOnError
+    ) {
+        if (logger.isInfoEnabled()) {
+            logger.info(String.format("    Download from [%s] to [%s]", sourceFile, targetFile));
+        }
+
+        final Entry<Optional<String>, Entry<Optional<Integer>, Optional<Exception>>> result =
+            join(this.downloadAndDecode(sourceFile, targetFile));
+        final boolean unavailable = result.getValue().getValue().map(IOException.class::isInstance).orElse(FALSE)
+            || result.getValue().getKey().map(DownloadUtils::is5xxStatus).orElse(FALSE);
+        if (unavailable) {
+            logger.warn(String.format("    Download of [%s] failed, use local target file.", targetFile));
+            return Fetch.LOCAL;
+        }
+        return this.checkResult(result, targetFile, exceptionOnError) ? Fetch.DOWNLOADED : Fetch.FAILED;
+    }
+
+    /**
+     * Download sourceFile from git repository asynchronously (by the pooled download engine),
+     * several files can be downloaded concurrently.
+     *
+     * @param sourceFile       relative path in git repository
+     * @param targetFile       target local file
+     * @param exceptionOnError complete exceptionally on download error or not found
+     * @return future of ok
+     */
+    public CompletableFuture<Boolean> downloadAsync(
+        final String sourceFile,
+        final Path targetFile,
+        final boolean exceptionOnError
     ) {
         if (logger.isInfoEnabled()) {
             logger.info(String.format("    Download from [%s] to [%s]", sourceFile, targetFile));
         }
 
-        final Entry<Optional<String>, Entry<Optional<Integer>, Optional<Exception>>> result = this.downloadAndDecode(
-            sourceFile, targetFile);
+        return this.downloadAndDecode(sourceFile, targetFile)
+            .thenApply(result -> this.checkResult(result, targetFile, exceptionOnError));
+    }
 
+    /**
+     * Check result of {@link #downloadAndDecode(String, Path)}.
+     *
+     * @param result           tuple(url, tuple ( status, exception))
+     * @param targetFile       target local file
+     * @param exceptionOnError throw exception on download error or not found
+     * @return ok
+     */
+    private boolean checkResult(
+        final Entry<Optional<String>, Entry<Optional<Integer>, Optional<Exception>>> result,
+        final Path targetFile,
+        final boolean exceptionOnError
+    ) {
         final Optional<Integer> status = result.getValue().getKey();
         final Optional<Exception> error = result.getValue().getValue();
-        final boolean is2xxStatus = status.map(DownloadUtils::is2xxStatus).orElse(FALSE);
+        // 304: not modified since last download (conditional GET)
+        final boolean is2xxStatus = status.map(code -> DownloadUtils.is2xxStatus(code) || DownloadUtils.is304Status(code))
+            .orElse(FALSE);
         final boolean is404Status = status.map(DownloadUtils::is404Status).orElse(FALSE);
 
         final boolean ok;
@@ -194,74 +373,71 @@ public class GitRepository {
         return ok;
     }
 
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
     /**
      * Download sourceFile from git repository.
      *
      * @param sourceFile relative path in git repository
      * @param targetFile target local file
-     * @return tuple(url, tuple ( status, exception))
+     * @return future of tuple(url, tuple ( status, exception))
      */
-    private Entry<Optional<String>, Entry<Optional<Integer>, Optional<Exception>>> downloadAndDecode(
+    private CompletableFuture<Entry<Optional<String>, Entry<Optional<Integer>, Optional<Exception>>>> downloadAndDecode(
         final String sourceFile,
         final Path targetFile
     ) {
-        final Entry<Optional<Integer>, Optional<Exception>> statusOrException;
-
-        final String fromUrl;
+        if (isEmpty(this.repo)) {
+            return CompletableFuture.completedFuture(newTuple(Optional.empty(), newTupleOptional(null, null)));
+        }
 
-        if (!isEmpty(this.repo)) {
-            final Map<String, String> headers = new LinkedHashMap<>();
-            if (!isEmpty(this.token)) {
-                if (this.repo.contains("raw.githubusercontent.com") || this.repo.contains("github.com")) {
-                    headers.put("Authorization", "token " + this.token); // github
-                    logger.info("    token send in header 'Authorization'.");
-                } else {
-                    headers.put("PRIVATE-TOKEN", this.token); // gitlab
-                    logger.info("    token send in header 'PRIVATE-TOKEN'.");
-                }
+        final Map<String, String> headers = new LinkedHashMap<>();
+        if (!isEmpty(this.token)) {
+            if (this.repo.contains("raw.githubusercontent.com") || this.repo.contains("github.com")) {
+                headers.put("Authorization", "token " + this.token); // github
+                logger.info("    token send in header 'Authorization'.");
             } else {
-                logger.info("    token absent.");
+                headers.put("PRIVATE-TOKEN", this.token); // gitlab
+                logger.info("    token send in header 'PRIVATE-TOKEN'.");
             }
+        } else {
+            logger.info("    token absent.");
+        }
 
-            final String sourceFilePath = sourceFile.startsWith("/") ? sourceFile.substring(1) : sourceFile;
-
-            final String urlPrefix = this.repo.endsWith("/") ? this.repo : this.repo + "/";
-            final Optional<Integer> status;
-            if (PATTERN_GITLAB_URL.matcher(this.repo).matches()) {
-                fromUrl = urlPrefix + sourceFilePath.replaceAll("/", "%2F") + "?ref=" + this.repoRef;
-                final Path saveToFile = targetFile.resolveSibling(targetFile.getFileName() + ".json");
-                statusOrException = DownloadUtils.download(logger, fromUrl, saveToFile, headers, 3);
-                status = statusOrException.getKey();
+        final String sourceFilePath = sourceFile.startsWith("/") ? sourceFile.substring(1) : sourceFile;
 
-                final boolean is2xxStatus = status.map(DownloadUtils::is2xxStatus).orElse(FALSE);
+        final String urlPrefix = this.repo.endsWith("/") ? this.repo : this.repo + "/";
+        final String fromUrl;
+        final CompletableFuture<Entry<Optional<Integer>, Optional<Exception>>> future;
+        if (PATTERN_GITLAB_URL.matcher(this.repo).matches()) {
+            fromUrl = urlPrefix + sourceFilePath.replaceAll("/", "%2F") + "?ref=" + this.repoRef;
+            final Path saveToFile = this.downloadedFile(targetFile);
+            future = DownloadUtils.downloadAsync(logger, fromUrl, saveToFile, headers, 3, true).thenApply(statusOrException -> {
+                final boolean is2xxStatus = statusOrException.getKey()
+                    .map(code -> DownloadUtils.is2xxStatus(code) || DownloadUtils.is304Status(code)).orElse(FALSE);
                 if (is2xxStatus) {
-                    if (logger.isDebugEnabled()) {
-                        logger.debug(String.format("    decode [%s]", saveToFile));
-                    }
-                    // cat "${target_file}.json" | jq -r ".content" | base64 --decode | tee "${target_file}"
-                    final JSONObject jsonFile = new JSONObject(readFile(saveToFile, UTF_8).orElse("{\"content\": \"\"}"));
-                    final String content = jsonFile.getString("content");
-                    if (!isEmpty(content)) {
-                        final byte[] bytes = Base64.getDecoder().decode(content);
-                        if (logger.isDebugEnabled()) {
-                            logger.debug(String.format("    Write content into targetFile [%s] (%s bytes)", targetFile, bytes.length));
-                        }
-                        writeFile(targetFile, bytes, CREATE, SYNC, TRUNCATE_EXISTING);
-                    } else {
-                        if (logger.isDebugEnabled()) {
-                            logger.debug(String.format("    Content is empty. Skip write content into targetFile [%s]", targetFile));
-                        }
-                    }
+                    this.decode(saveToFile, targetFile);
                 }
-            } else {
-                final String path = this.repo.contains("raw.githubusercontent.com")
-                    ? this.repoRef + "/" + sourceFilePath
-                    : "raw/" + this.repoRef + "/" + sourceFilePath;
-                fromUrl = urlPrefix + path;
-                statusOrException = DownloadUtils.download(logger, fromUrl, targetFile, headers, 3);
-                status = statusOrException.getKey();
-            }
+                return statusOrException;
+            });
+        } else {
+            final String path = this.repo.contains("raw.githubusercontent.com")
+                ? this.repoRef + "/" + sourceFilePath
+                : "raw/" + this.repoRef + "/" + sourceFilePath;
+            fromUrl = urlPrefix + path;
+            future = DownloadUtils.downloadAsync(logger, fromUrl, targetFile, headers, 3, true);
+        }
 
+        return future.thenApply(statusOrException -> {
+            final Optional<Integer> status = statusOrException.getKey();
             final boolean hasError = statusOrException.getValue().isPresent();
             if (hasError) {
                 if (status.isPresent()) {
@@ -276,11 +452,45 @@ public class GitRepository {
                     }
                 }
             }
+            return newTuple(Optional.of(fromUrl), statusOrException);
+        });
+    }
+
+    private void decode(final Path saveToFile, final Path targetFile) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("    decode [%s]", saveToFile));
+        }
+        // cat "${target_file}.json" | jq -r ".content" | base64 --decode | tee "${target_file}"
+        final JSONObject jsonFile = new JSONObject(readFile(saveToFile, UTF_8).orElse("{\"content\": \"\"}"));
+        final String content = jsonFile.getString("content");
+        if (!isEmpty(content)) {
+            final byte[] bytes = Base64.getDecoder().decode(content);
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("    Write content into targetFile [%s] (%s bytes)", targetFile, bytes.length));
+            }
+            writeFileAtomically(targetFile, bytes);
         } else {
-            fromUrl = null;
-            statusOrException = newTupleOptional(null, null);
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("    Content is empty. Skip write content into targetFile [%s]", targetFile));
+            }
         }
+    }
 
-        return newTuple(Optional.ofNullable(fromUrl), statusOrException);
+    /**
+     * Result of {@link #fetch(String, Path, boolean, boolean, boolean)}.
+     */
+    public enum Fetch {
+        /**
+         * A response (2xx or 304) was received, targetFile is up to date.
+         */
+        DOWNLOADED,
+        /**
+         * Existing targetFile is used as is (not stale, offline or git service unavailable).
+         */
+        LOCAL,
+        /**
+         * Download error or not found.
+         */
+        FAILED
     }
 }
@@ -1,11 +1,16 @@
 package top.infra.maven.extension.infra;
 
+import static top.infra.maven.extension.infra.InfraOption.CACHE_SETTINGS_TTL;
 import static top.infra.maven.extension.infra.InfraOption.GIT_AUTH_TOKEN;
 import static top.infra.maven.extension.infra.InfraOption.MAVEN_BUILD_OPTS_REPO;
 import static top.infra.maven.extension.infra.InfraOption.MAVEN_BUILD_OPTS_REPO_REF;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_GIT_PROPERTIES;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_GIT_REPOSITORY;
 import static top.infra.maven.shared.extension.GlobalOption.INFRASTRUCTURE;
 import static top.infra.maven.shared.extension.VcsProperties.GIT_REMOTE_ORIGIN_URL;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
 
 import javax.inject.Inject;
@@ -19,20 +24,24 @@ import top.infra.maven.CiOptionContext;
 import top.infra.maven.extension.MavenEventAware;
 import top.infra.maven.shared.extension.Orders;
 import top.infra.maven.shared.logging.LoggerPlexusImpl;
+import top.infra.maven.shared.utils.MavenUtils;
 
 @Named
 @Singleton
 public class GitRepositoryFactory implements MavenEventAware {
 
     private final Logger logger;
+    private final ResourcesPrefetcher prefetcher;
 
     private GitRepository object;
 
     @Inject
     public GitRepositoryFactory(
-        final org.codehaus.plexus.logging.Logger logger
+        final org.codehaus.plexus.logging.Logger logger,
+        final ResourcesPrefetcher prefetcher
     ) {
         this.logger = new LoggerPlexusImpl(logger);
+        this.prefetcher = prefetcher;
     }
 
     @Override
@@ -43,12 +52,30 @@ public class GitRepositoryFactory implements MavenEventAware {
     @Override
     public void afterInit(final CliRequest cliRequest, final CiOptionContext ciOptContext) {
         this.object = newGitRepository(ciOptContext, logger).orElse(null);
+
+        // No-op if already started on init.
+        this.getObject().ifPresent(repo -> this.prefetcher.prefetch(
+            repo,
+            ciOptContext,
+            MavenUtils.cmdArgOffline(cliRequest.getCommandLine()),
+            MavenUtils.cmdArgUpdateSnapshots(cliRequest.getCommandLine())
+        ));
     }
 
     public Optional<GitRepository> getObject() {
         return Optional.ofNullable(this.object);
     }
 
+    @Override
+    public Collection<String> consumes() {
+        return Collections.singletonList(RESOURCE_GIT_PROPERTIES);
+    }
+
+    @Override
+    public Collection<String> produces() {
+        return Collections.singletonList(RESOURCE_GIT_REPOSITORY);
+    }
+
     @Override
     public int getOrder() {
         return Orders.ORDER_GIT_REPO_FACTORY;
@@ -65,7 +92,8 @@ public class GitRepositoryFactory implements MavenEventAware {
             MAVEN_BUILD_OPTS_REPO.getValue(ciOptContext).orElse(null),
             MAVEN_BUILD_OPTS_REPO_REF.getValue(ciOptContext).orElse(null),
             GIT_REMOTE_ORIGIN_URL.getValue(ciOptContext).orElse(null),
-            GIT_AUTH_TOKEN.getValue(ciOptContext).orElse(null)
+            GIT_AUTH_TOKEN.getValue(ciOptContext).orElse(null),
+            CACHE_SETTINGS_TTL.getValue(ciOptContext).map(Long::parseLong).orElse(-1L)
         );
     }
 }
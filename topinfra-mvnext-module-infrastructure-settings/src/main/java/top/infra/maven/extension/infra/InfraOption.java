@@ -30,6 +30,29 @@ public enum InfraOption implements CiOption {
                 .orElseGet(() -> MavenUtils.userHomeDotM2().toString()));
         }
     },
+    /**
+     * Revalidate cached files in {@link #CACHE_SETTINGS_PATH} fetched longer ago than this (seconds) by conditional GET
+     * on every build, without '-U'. Unset to disable (cached files are used until '-U'), 0 to revalidate on every build.
+     */
+    CACHE_SETTINGS_TTL("cache.settings.ttl"),
+    /**
+     * Machine-wide content-addressable store of downloaded resources, shared by all workspaces and CI jobs of the user,
+     * consulted before any download into {@link #CACHE_SETTINGS_PATH}.
+     */
+    CACHE_SHARED_PATH("cache.shared.path") {
+        @Override
+        public Optional<String> calculateValue(final CiOptionContext context) {
+            final Optional<String> mavenUserHome = MavenOption.MAVEN_USER_HOME.getValue(context);
+            final String home = mavenUserHome.orElseGet(() -> MavenUtils.userHomeDotM2().toString());
+            return Optional.of(Paths.get(home, "topinfra-cache").toString());
+        }
+    },
+    /**
+     * Max size (bytes) of {@link #CACHE_SHARED_PATH}, least recently used files are removed.
+     * 0 (default) disables the store, {@link #CACHE_SETTINGS_PATH} is already shared by the builds of a user.
+     * Set e.g. 67108864 (64 MiB) to share downloads across maven user homes or cache settings paths.
+     */
+    CACHE_SHARED_SIZE("cache.shared.size", "0"),
     CI_OPTS_FILE("ci.opts.file") {
         @Override
         public Optional<String> calculateValue(final CiOptionContext context) {
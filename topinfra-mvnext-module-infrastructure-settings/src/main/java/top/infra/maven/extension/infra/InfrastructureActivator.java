@@ -23,6 +23,7 @@ import top.infra.maven.CiOptionContext;
 import top.infra.maven.extension.CiOptionContextFactory;
 import top.infra.maven.extension.MavenEventAware;
 import top.infra.maven.shared.extension.activator.AbstractCustomActivator;
+import top.infra.maven.extension.activator.ActivationTrace;
 import top.infra.maven.extension.activator.CustomActivator;
 import top.infra.maven.extension.activator.model.ActivatorModelResolver;
 import top.infra.maven.shared.extension.GlobalOption;
@@ -43,9 +44,10 @@ public class InfrastructureActivator extends AbstractCustomActivator implements
     public InfrastructureActivator(
         final org.codehaus.plexus.logging.Logger logger,
         final ActivatorModelResolver resolver,
+        final ActivationTrace activationTrace,
         final CiOptionContextFactory ciOptContextFactory
     ) {
-        super(logger, resolver);
+        super(logger, resolver, activationTrace);
 
         this.ciOptContextFactory = ciOptContextFactory;
     }
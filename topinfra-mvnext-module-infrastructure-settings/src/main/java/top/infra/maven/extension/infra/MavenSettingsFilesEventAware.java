@@ -27,8 +27,8 @@ import top.infra.maven.shared.logging.LoggerPlexusImpl;
 @Singleton
 public class MavenSettingsFilesEventAware implements MavenEventAware {
 
-    private static final String SETTINGS_XML = "settings.xml";
-    private static final String TOOLCHAINS_XML = toolchainsXml();
+    static final String SETTINGS_XML = "settings.xml";
+    static final String TOOLCHAINS_XML = toolchainsXml();
 
     private final Logger logger;
     private final CacheSettingsResourcesFactory resourcesFactory;
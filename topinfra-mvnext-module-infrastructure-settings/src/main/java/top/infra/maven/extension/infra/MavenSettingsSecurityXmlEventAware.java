@@ -1,6 +1,9 @@
 package top.infra.maven.extension.infra;
 
 import static top.infra.maven.shared.extension.Constants.PROP_SETTINGS_SECURITY;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_CACHE_SETTINGS_RESOURCES;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_CI_OPTIONS;
+import static top.infra.maven.shared.extension.Constants.RESOURCE_SETTINGS_SECURITY_XML;
 import static top.infra.maven.shared.extension.Constants.SETTINGS_SECURITY_XML;
 import static top.infra.maven.shared.extension.GlobalOption.MASTER_PASSWORD;
 
@@ -11,6 +14,9 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
 
 import javax.inject.Inject;
@@ -52,6 +58,17 @@ public class MavenSettingsSecurityXmlEventAware implements MavenEventAware {
         this.settingsSecurityXml = null;
     }
 
+    @Override
+    public Collection<String> consumes() {
+        // master password may be set in ci_opts.properties, system properties are iterated by CiOptionInitEventAware
+        return Arrays.asList(RESOURCE_CACHE_SETTINGS_RESOURCES, RESOURCE_CI_OPTIONS);
+    }
+
+    @Override
+    public Collection<String> produces() {
+        return Collections.singletonList(RESOURCE_SETTINGS_SECURITY_XML);
+    }
+
     @Override
     public int getOrder() {
         return Orders.EVENT_AWARE_ORDER_MAVEN_SETTINGS_SECURITY_XML;
@@ -18,6 +18,8 @@ import org.apache.maven.cli.CLIManager;
 import org.jetbrains.annotations.Nullable;
 
 import top.infra.logging.Logger;
+import top.infra.maven.extension.infra.GitRepository.Fetch;
+import top.infra.maven.shared.utils.ContentStore;
 import top.infra.maven.shared.utils.FileUtils;
 import top.infra.maven.shared.utils.MavenUtils;
 
@@ -29,6 +31,8 @@ public class Resources {
     private final GitRepository gitRepository;
     private final Properties systemProperties;
     private final Properties userProperties;
+    private final ResourcesPrefetcher prefetcher;
+    private final ContentStore store;
 
     public Resources(
         final Logger logger,
@@ -37,6 +41,31 @@ public class Resources {
         @Nullable final GitRepository gitRepository,
         final Properties systemProperties,
         final Properties userProperties
+    ) {
+        this(logger, executionRootPath, cacheDir, gitRepository, systemProperties, userProperties, null);
+    }
+
+    public Resources(
+        final Logger logger,
+        final Path executionRootPath,
+        @Nullable final String cacheDir,
+        @Nullable final GitRepository gitRepository,
+        final Properties systemProperties,
+        final Properties userProperties,
+        @Nullable final ResourcesPrefetcher prefetcher
+    ) {
+        this(logger, executionRootPath, cacheDir, gitRepository, systemProperties, userProperties, prefetcher, null);
+    }
+
+    public Resources(
+        final Logger logger,
+        final Path executionRootPath,
+        @Nullable final String cacheDir,
+        @Nullable final GitRepository gitRepository,
+        final Properties systemProperties,
+        final Properties userProperties,
+        @Nullable final ResourcesPrefetcher prefetcher,
+        @Nullable final ContentStore store
     ) {
         this.logger = logger;
         this.executionRootPath = executionRootPath;
@@ -44,6 +73,8 @@ public class Resources {
         this.gitRepository = gitRepository;
         this.systemProperties = systemProperties;
         this.userProperties = userProperties;
+        this.prefetcher = prefetcher;
+        this.store = store;
     }
 
     public Optional<Path> findOrDownload(
@@ -88,7 +119,16 @@ public class Resources {
                 result = foundAtLocal;
             } else if (this.gitRepository != null) {
                 FileUtils.createDirectories(cacheDirOptional.get());
-                this.gitRepository.download(sourceFile, targetFile, !optional, offline, update);
+                final boolean prefetched = this.prefetcher != null
+                    && this.prefetcher.await(this.gitRepository, sourceFile, targetFile);
+                if (!prefetched && !materialize(this.store, this.gitRepository, sourceFile, targetFile, offline, update)) {
+                    final Fetch fetch = this.gitRepository.fetch(sourceFile, targetFile, !optional, offline, update);
+                    // not a local file failed over to, it may be stale
+                    if (fetch == Fetch.DOWNLOADED && this.store != null && targetFile.toFile().exists()) {
+                        this.store.put(
+                            storeKey(this.gitRepository, sourceFile), targetFile, this.gitRepository.downloadMetadata(targetFile));
+                    }
+                }
                 if (targetFile.toFile().exists()) {
                     result = Optional.of(targetFile);
                 } else {
@@ -117,6 +157,40 @@ public class Resources {
         return result;
     }
 
+    /**
+     * Materialize targetFile from the shared store, instead of download (targetFile absent or stale).
+     * Entries of the store are subject to revalidation like downloaded files (used regardless in offline mode).
+     *
+     * @param store         shared store, nullable
+     * @param gitRepository gitRepository
+     * @param sourceFile    source file in gitRepository
+     * @param targetFile    target file
+     * @param offline       offline (-o)
+     * @param update        update (-U), store not used
+     * @return true if materialized
+     */
+    static boolean materialize(
+        @Nullable final ContentStore store,
+        final GitRepository gitRepository,
+        final String sourceFile,
+        final Path targetFile,
+        final boolean offline,
+        final boolean update
+    ) {
+        if (store == null || update
+            || (targetFile.toFile().exists() && !gitRepository.shouldDownload(targetFile, offline, false))) {
+            return false;
+        }
+        return store.lookup(storeKey(gitRepository, sourceFile))
+            .filter(metadata -> offline || gitRepository.isFresh(metadata))
+            .map(metadata -> store.materialize(metadata, targetFile))
+            .orElse(FALSE);
+    }
+
+    static String storeKey(final GitRepository gitRepository, final String sourceFile) {
+        return gitRepository.key() + "/" + sourceFile;
+    }
+
     public static Optional<Path> findFile(
         final Path executionRootPath,
         final CommandLine commandLine,
@@ -0,0 +1,247 @@
+package top.infra.maven.extension.infra;
+
+import static java.lang.Boolean.FALSE;
+import static top.infra.maven.extension.infra.InfraOption.CACHE_SETTINGS_PATH;
+import static top.infra.maven.extension.infra.InfraOption.CI_OPTS_FILE;
+import static top.infra.maven.extension.infra.InfraOption.DEPLOYKEY;
+import static top.infra.maven.extension.infra.InfraOption.DEPLOYKEY_PASSPHRASE;
+import static top.infra.maven.extension.infra.MavenSettingsSecurityXmlEventAware.SRC_MAIN_MAVEN;
+import static top.infra.maven.shared.extension.Constants.SETTINGS_SECURITY_XML;
+import static top.infra.maven.shared.extension.Constants.SRC_CI_OPTS_PROPERTIES;
+import static top.infra.maven.shared.extension.GlobalOption.MASTER_PASSWORD;
+import static top.infra.maven.shared.utils.SupportFunction.newTuple;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.ParseException;
+import org.apache.maven.cli.CLIManager;
+import org.apache.maven.eventspy.EventSpy.Context;
+import org.jetbrains.annotations.Nullable;
+
+import top.infra.logging.Logger;
+import top.infra.maven.CiOptionContext;
+import top.infra.maven.extension.CiOptionContextFactory;
+import top.infra.maven.extension.MavenEventAware;
+import top.infra.maven.shared.extension.Orders;
+import top.infra.maven.shared.logging.LoggerPlexusImpl;
+import top.infra.maven.shared.utils.ContentStore;
+import top.infra.maven.shared.utils.FileUtils;
+import top.infra.maven.shared.utils.MavenUtils;
+
+/**
+ * Start downloads of remote infrastructure resources (ci_opts.properties, settings.xml, toolchains-*.xml,
+ * settings-security.xml and deploy_key.* if a deploy key passphrase is set) into {@link InfraOption#CACHE_SETTINGS_PATH}
+ * asynchronously, as soon as the git repository is known.
+ * <p/>
+ * Tries on {@link MavenEventAware#onInit(Context)} (if command line can be read from env.MAVEN_CMD_LINE_ARGS),
+ * otherwise started by {@link GitRepositoryFactory} on afterInit.
+ * Consumers call {@link #await(GitRepository, String, Path)} before download.
+ */
+@Named
+@Singleton
+public class ResourcesPrefetcher implements MavenEventAware {
+
+    private static final String ENV_MAVEN_CMD_LINE_ARGS = "env.MAVEN_CMD_LINE_ARGS";
+
+    private final Logger logger;
+    private final CiOptionContextFactory ciOptContextFactory;
+
+    private final AtomicBoolean started;
+    /**
+     * target file to tuple(repository and source file, in-flight download).
+     */
+    private final Map<Path, Entry<String, CompletableFuture<Boolean>>> inFlight;
+
+    @Inject
+    public ResourcesPrefetcher(
+        final org.codehaus.plexus.logging.Logger logger,
+        final CiOptionContextFactory ciOptContextFactory
+    ) {
+        this(new LoggerPlexusImpl(logger), ciOptContextFactory);
+    }
+
+    public ResourcesPrefetcher(
+        final Logger logger,
+        final CiOptionContextFactory ciOptContextFactory
+    ) {
+        this.logger = logger;
+        this.ciOptContextFactory = ciOptContextFactory;
+
+        this.started = new AtomicBoolean(false);
+        this.inFlight = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public int getOrder() {
+        return Orders.ORDER_RESOURCES_PREFETCHER;
+    }
+
+    @Override
+    public boolean onInit() {
+        return true;
+    }
+
+    @Override
+    public void onInit(final Context context) {
+        final Optional<CommandLine> commandLine = commandLineFromEnv(MavenUtils.systemProperties(context));
+        final CiOptionContext ciOptContext = this.ciOptContextFactory.getObject();
+        if (commandLine.isPresent() && ciOptContext != null) {
+            GitRepositoryFactory.newGitRepository(ciOptContext, logger).ifPresent(repo -> this.prefetch(
+                repo,
+                ciOptContext,
+                MavenUtils.cmdArgOffline(commandLine.get()),
+                MavenUtils.cmdArgUpdateSnapshots(commandLine.get())
+            ));
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("    Command line or gitRepository unknown on init, prefetch deferred.");
+        }
+    }
+
+    /**
+     * Start downloads (only once per session).
+     * Existing files are not downloaded unless update or stale, see {@link GitRepository#shouldDownload(Path, boolean, boolean)}.
+     *
+     * @param gitRepository gitRepository
+     * @param ciOptContext  ciOptContext
+     * @param offline       offline (-o)
+     * @param update        update (-U)
+     */
+    public void prefetch(
+        final GitRepository gitRepository,
+        final CiOptionContext ciOptContext,
+        final boolean offline,
+        final boolean update
+    ) {
+        if (offline || !this.started.compareAndSet(false, true)) {
+            return;
+        }
+
+        final List<Entry<String, Path>> resources = this.resources(ciOptContext);
+        if (resources.isEmpty()) {
+            return;
+        }
+
+        final ContentStore store = CacheSettingsResourcesFactory.newContentStore(ciOptContext, logger).orElse(null);
+        // concurrent downloads share pooled connections of the download engine
+        resources.forEach(resource -> {
+            final String sourceFile = resource.getKey();
+            final Path targetFile = resource.getValue();
+            if (!gitRepository.shouldDownload(targetFile, false, update)
+                || Resources.materialize(store, gitRepository, sourceFile, targetFile, false, update)) {
+                return;
+            }
+
+            logger.info(String.format("    Prefetch [%s] into [%s]", sourceFile, targetFile));
+            final CompletableFuture<Boolean> future = download(gitRepository, sourceFile, targetFile, store);
+            this.inFlight.put(targetFile, newTuple(Resources.storeKey(gitRepository, sourceFile), future));
+        });
+    }
+
+    /**
+     * Wait for the in-flight download of targetFile (if any).
+     *
+     * @param gitRepository gitRepository the caller is going to download from
+     * @param sourceFile    source file in gitRepository
+     * @param targetFile    target file
+     * @return true if targetFile prefetched successfully
+     */
+    public boolean await(
+        final GitRepository gitRepository,
+        final String sourceFile,
+        final Path targetFile
+    ) {
+        final Entry<String, CompletableFuture<Boolean>> entry = this.inFlight.remove(targetFile);
+        final boolean result;
+        if (entry != null && entry.getKey().equals(Resources.storeKey(gitRepository, sourceFile))) {
+            result = entry.getValue().exceptionally(ex -> FALSE).join() && targetFile.toFile().exists();
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("    Prefetched [%s] into [%s], ok [%s]", sourceFile, targetFile, result));
+            }
+        } else if (entry != null) {
+            // gitRepository changed, do not use prefetched file
+            entry.getValue().exceptionally(ex -> FALSE).join();
+            result = false;
+        } else {
+            result = false;
+        }
+        return result;
+    }
+
+    private List<Entry<String, Path>> resources(final CiOptionContext ciOptContext) {
+        final List<Entry<String, Path>> result = new ArrayList<>();
+        CI_OPTS_FILE.getValue(ciOptContext)
+            .ifPresent(optsFile -> result.add(newTuple(SRC_CI_OPTS_PROPERTIES, Paths.get(optsFile))));
+        CACHE_SETTINGS_PATH.getValue(ciOptContext).ifPresent(cacheDir -> {
+            FileUtils.createDirectories(cacheDir);
+            final String settingsXml = MavenSettingsFilesEventAware.SETTINGS_XML;
+            final String toolchainsXml = MavenSettingsFilesEventAware.TOOLCHAINS_XML;
+            result.add(newTuple(SRC_MAIN_MAVEN + "/" + settingsXml, Paths.get(cacheDir, settingsXml)));
+            result.add(newTuple(SRC_MAIN_MAVEN + "/" + toolchainsXml, Paths.get(cacheDir, toolchainsXml)));
+            if (!MASTER_PASSWORD.findInProperties(MASTER_PASSWORD.getPropertyName(), ciOptContext).isPresent()) {
+                result.add(newTuple(SRC_MAIN_MAVEN + "/" + SETTINGS_SECURITY_XML, Paths.get(cacheDir, SETTINGS_SECURITY_XML)));
+            }
+            // deploy keys are encrypted, useless without passphrase, and not downloaded if configured as a local file
+            final boolean deployKeyLocal = DEPLOYKEY.getValue(ciOptContext)
+                .map(path -> Paths.get(path).toFile().exists())
+                .orElse(false);
+            if (DEPLOYKEY_PASSPHRASE.getValue(ciOptContext).isPresent() && !deployKeyLocal) {
+                result.add(newTuple(ExtraFilesEventAware.DEPLOY_KEY_GPG, Paths.get(cacheDir, ExtraFilesEventAware.DEPLOY_KEY_GPG)));
+                result.add(newTuple(ExtraFilesEventAware.DEPLOY_KEY_ENC, Paths.get(cacheDir, ExtraFilesEventAware.DEPLOY_KEY_ENC)));
+            }
+        });
+        return result;
+    }
+
+    private static CompletableFuture<Boolean> download(
+        final GitRepository gitRepository,
+        final String sourceFile,
+        final Path targetFile,
+        @Nullable final ContentStore store
+    ) {
+        final boolean existsBefore = targetFile.toFile().exists();
+        return gitRepository.downloadAsync(sourceFile, targetFile, false)
+            .exceptionally(ex -> FALSE)
+            .thenApply(ok -> {
+                if (!ok && !existsBefore) {
+                    // Do not leave a partial file, the consumer will download it again.
+                    try {
+                        Files.deleteIfExists(targetFile);
+                    } catch (final Exception ignored) {
+                        // ignored
+                    }
+                } else if (ok && store != null && targetFile.toFile().exists()) {
+                    store.put(
+                        Resources.storeKey(gitRepository, sourceFile), targetFile, gitRepository.downloadMetadata(targetFile));
+                }
+                return ok;
+            });
+    }
+
+    private static Optional<CommandLine> commandLineFromEnv(final Properties systemProperties) {
+        return Optional.ofNullable(systemProperties.getProperty(ENV_MAVEN_CMD_LINE_ARGS))
+            .map(String::trim)
+            .map(args -> {
+                try {
+                    return new CLIManager().parse(args.isEmpty() ? new String[0] : args.split("\\s+"));
+                } catch (final ParseException ex) {
+                    return null;
+                }
+            });
+    }
+}
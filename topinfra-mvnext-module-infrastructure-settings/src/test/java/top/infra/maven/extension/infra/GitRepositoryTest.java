@@ -0,0 +1,168 @@
+package top.infra.maven.extension.infra;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.LoggerFactory;
+
+import top.infra.logging.Logger;
+import top.infra.maven.shared.utils.ContentStore;
+import top.infra.maven.shared.utils.DownloadMetadata;
+import top.infra.maven.shared.utils.DownloadUtils;
+import top.infra.test.logging.LoggerSlf4jImpl;
+
+public class GitRepositoryTest {
+
+    private static final org.slf4j.Logger slf4jLogger = LoggerFactory.getLogger(GitRepositoryTest.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private HttpServer server;
+    private String repo;
+
+    private final AtomicInteger fullResponses = new AtomicInteger(0);
+    private final AtomicInteger notModifiedResponses = new AtomicInteger(0);
+
+    @Before
+    public void setUp() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/ci-and-cd/maven-build-opts-test/raw/master/src/main/maven/settings.xml", exchange -> {
+            exchange.getResponseHeaders().add("ETag", "\"settings-1\"");
+            if ("\"settings-1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                this.notModifiedResponses.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                this.fullResponses.incrementAndGet();
+                final byte[] bytes = "<settings/>".getBytes(UTF_8);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (final OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+            exchange.close();
+        });
+        this.server.createContext("/ci-and-cd/maven-build-opts-test/raw/master/src/main/maven/missing.xml", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        this.server.createContext("/ci-and-cd/maven-build-opts-test/raw/master/src/main/maven/unavailable.xml", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        this.server.start();
+        this.repo = "http://127.0.0.1:" + this.server.getAddress().getPort() + "/ci-and-cd/maven-build-opts-test";
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop(0);
+    }
+
+    @Test
+    public void testRevalidate() throws IOException {
+        final Path targetFile = this.temporaryFolder.getRoot().toPath().resolve("settings.xml");
+        final String sourceFile = "src/main/maven/settings.xml";
+
+        // revalidation disabled, existing file used until -U
+        final GitRepository noTtl = new GitRepository(logger(), this.repo, null, null);
+        assertTrue(noTtl.download(sourceFile, targetFile, true, false, false));
+        assertEquals("<settings/>", new String(Files.readAllBytes(targetFile), UTF_8));
+        assertFalse(noTtl.shouldDownload(targetFile, false, false));
+        assertTrue(noTtl.download(sourceFile, targetFile, true, false, true));
+        assertEquals(1, this.fullResponses.get());
+        assertEquals(1, this.notModifiedResponses.get());
+
+        // revalidate on every build
+        final GitRepository ttl0 = new GitRepository(logger(), this.repo, null, null, 0L);
+        assertTrue(ttl0.shouldDownload(targetFile, false, false));
+        assertFalse(ttl0.shouldDownload(targetFile, true, false));
+        assertTrue(ttl0.download(sourceFile, targetFile, true, false, false));
+        assertEquals(2, this.notModifiedResponses.get());
+
+        // fresh within ttl
+        final GitRepository ttl1h = new GitRepository(logger(), this.repo, null, null, 3600L);
+        assertFalse(ttl1h.shouldDownload(targetFile, false, false));
+
+        // stale sidecar
+        final DownloadMetadata metadata = DownloadMetadata.read(targetFile).orElse(null);
+        assertTrue(metadata != null);
+        metadata.fetchedAt(System.currentTimeMillis() - 7200000L).write(targetFile);
+        assertTrue(ttl1h.shouldDownload(targetFile, false, false));
+
+        // revalidation or update failure keeps the local file
+        final GitRepository unreachable = new GitRepository(logger(), "http://127.0.0.1:1/none", null, null, 0L);
+        assertTrue(unreachable.download(sourceFile, targetFile, true, false, false));
+        assertTrue(unreachable.download(sourceFile, targetFile, true, false, true));
+        assertEquals("<settings/>", new String(Files.readAllBytes(targetFile), UTF_8));
+        assertEquals(1, this.fullResponses.get());
+    }
+
+    @Test
+    public void testFailOverOnlyIfUnavailable() throws IOException {
+        final GitRepository repository = new GitRepository(logger(), this.repo, null, null, 0L);
+
+        final Path missing = this.temporaryFolder.getRoot().toPath().resolve("missing.xml");
+        Files.write(missing, "<local/>".getBytes(UTF_8));
+        assertFalse(repository.download("src/main/maven/missing.xml", missing, false, false, true));
+        try {
+            repository.download("src/main/maven/missing.xml", missing, true, false, true);
+            throw new AssertionError("404 should not fail over to local file");
+        } catch (final DownloadUtils.DownloadException expected) {
+            assertEquals("<local/>", new String(Files.readAllBytes(missing), UTF_8));
+        }
+
+        // 5xx (may open the circuit of the host)
+        final Path unavailable = this.temporaryFolder.getRoot().toPath().resolve("unavailable.xml");
+        Files.write(unavailable, "<local/>".getBytes(UTF_8));
+        // failed over, not a response to be shared (see Resources)
+        assertEquals(GitRepository.Fetch.LOCAL, repository.fetch("src/main/maven/unavailable.xml", unavailable, true, false, true));
+        assertEquals("<local/>", new String(Files.readAllBytes(unavailable), UTF_8));
+    }
+
+    @Test
+    public void testSharedStore() throws IOException {
+        final ContentStore store = new ContentStore(logger(), this.temporaryFolder.newFolder("store").toPath(), 1024L);
+        final GitRepository repository = new GitRepository(logger(), this.repo, null, null, 3600L);
+        final String sourceFile = "src/main/maven/settings.xml";
+
+        final Path project1 = this.temporaryFolder.getRoot().toPath().resolve("project1/settings.xml");
+        assertFalse(Resources.materialize(store, repository, sourceFile, project1, false, false));
+        assertEquals(GitRepository.Fetch.DOWNLOADED, repository.fetch(sourceFile, project1, true, false, false));
+        store.put(Resources.storeKey(repository, sourceFile), project1, repository.downloadMetadata(project1));
+        assertEquals("\"settings-1\"", store.lookup(Resources.storeKey(repository, sourceFile))
+            .map(DownloadMetadata::getEtag).orElse(null));
+        assertEquals(GitRepository.Fetch.LOCAL, repository.fetch(sourceFile, project1, true, false, false));
+
+        // another workspace, no network access
+        final Path project2 = this.temporaryFolder.getRoot().toPath().resolve("project2/settings.xml");
+        assertTrue(Resources.materialize(store, repository, sourceFile, project2, false, false));
+        assertEquals("<settings/>", new String(Files.readAllBytes(project2), UTF_8));
+        assertFalse(repository.shouldDownload(project2, false, false));
+        assertEquals(1, this.fullResponses.get());
+
+        // -U bypasses the store, another ref is another entry
+        assertFalse(Resources.materialize(store, repository, sourceFile, project2.resolveSibling("other.xml"), false, true));
+        final GitRepository develop = new GitRepository(logger(), this.repo, "develop", null, 3600L);
+        assertFalse(Resources.materialize(store, develop, sourceFile, project2.resolveSibling("develop.xml"), false, false));
+    }
+
+    private static Logger logger() {
+        return new LoggerSlf4jImpl(slf4jLogger);
+    }
+}